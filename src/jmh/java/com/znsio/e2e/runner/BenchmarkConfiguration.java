@@ -0,0 +1,25 @@
+package com.znsio.e2e.runner;
+
+import com.znsio.e2e.entities.APPLITOOLS;
+import com.znsio.e2e.entities.Platform;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public final class BenchmarkConfiguration {
+    private BenchmarkConfiguration () {
+    }
+
+    public static void publish (String logDirectory) {
+        Map<String, Object> applitoolsConfiguration = new HashMap<>();
+        applitoolsConfiguration.put(APPLITOOLS.APP_NAME, "benchmark");
+        applitoolsConfiguration.put(APPLITOOLS.API_KEY, "benchmark");
+        applitoolsConfiguration.put(APPLITOOLS.ENABLE_BENCHMARK_PER_VALIDATION, false);
+        Runner.publish(Configuration.builder()
+                .platform(Platform.web)
+                .logDirectory(logDirectory)
+                .targetEnvironment("benchmark")
+                .applitoolsConfiguration(applitoolsConfiguration)
+                .build());
+    }
+}
@@ -0,0 +1,43 @@
+package com.znsio.e2e.runner;
+
+import com.context.TestExecutionContext;
+import com.znsio.e2e.entities.Platform;
+import com.znsio.e2e.tools.BenchmarkScenario;
+import com.znsio.e2e.tools.Driver;
+import com.znsio.e2e.tools.Visual;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of looking up the current user persona's driver / eyes from the scenario context, done by every step.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class RunnerContextBenchmark {
+    @Setup(Level.Trial)
+    public void startScenario () {
+        TestExecutionContext context = BenchmarkScenario.start("Runner context benchmark");
+        BenchmarkScenario.addDriverFor(context, "guest");
+        BenchmarkScenario.addDriverFor(context, "host");
+    }
+
+    @Benchmark
+    public Driver fetchDriver () {
+        return Runner.fetchDriver(Thread.currentThread().getId());
+    }
+
+    @Benchmark
+    public Visual fetchEyes () {
+        return Runner.fetchEyes(Thread.currentThread().getId());
+    }
+
+    @Benchmark
+    public Platform fetchPlatform () {
+        return Runner.fetchPlatform(Thread.currentThread().getId());
+    }
+}
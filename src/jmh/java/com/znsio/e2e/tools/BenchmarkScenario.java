@@ -0,0 +1,60 @@
+package com.znsio.e2e.tools;
+
+import com.context.TestExecutionContext;
+import com.znsio.e2e.entities.Platform;
+import com.znsio.e2e.entities.TEST_CONTEXT;
+import com.znsio.e2e.runner.BenchmarkConfiguration;
+import com.znsio.e2e.tools.wait.WaitStatistics;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.TakesScreenshot;
+import org.openqa.selenium.WebDriver;
+
+import java.io.File;
+import java.lang.reflect.Proxy;
+
+/**
+ * Sets up the scenario context of the current (benchmark) thread the way the hooks do, with stand-in drivers in place of
+ * real browsers / devices, so the framework code can be measured without a grid or device farm.
+ */
+public final class BenchmarkScenario {
+    private static final String LOG_DIRECTORY = "build" + File.separator + "jmh";
+
+    private BenchmarkScenario () {
+    }
+
+    public static TestExecutionContext start (String scenarioName) {
+        BenchmarkConfiguration.publish(LOG_DIRECTORY);
+        String scenarioDirectory = File.separator + LOG_DIRECTORY + File.separator + ScreenShotManager.normaliseScenarioName(scenarioName);
+        TestExecutionContext context = new TestExecutionContext(scenarioName);
+        context.addTestState(TEST_CONTEXT.SCENARIO_LOG_DIRECTORY, scenarioDirectory);
+        context.addTestState(TEST_CONTEXT.SCREENSHOT_DIRECTORY, scenarioDirectory + File.separator + "screenshot" + File.separator);
+        context.addTestState(TEST_CONTEXT.WAIT_STATISTICS, new WaitStatistics(scenarioName));
+        context.addTestState(TEST_CONTEXT.SCREENSHOT_MANAGER, new ScreenShotManager());
+        context.addTestState(TEST_CONTEXT.ALL_DRIVERS, new Drivers());
+        return context;
+    }
+
+    public static Driver addDriverFor (TestExecutionContext context, String userPersona) {
+        Driver driver = new Driver(context.getTestName() + "-" + userPersona, getStandInWebDriver());
+        Drivers allDrivers = (Drivers) context.getTestState(TEST_CONTEXT.ALL_DRIVERS);
+        allDrivers.assignDriverFor(userPersona, Platform.web, driver, context);
+        return driver;
+    }
+
+    public static WebDriver getStandInWebDriver () {
+        return (WebDriver) Proxy.newProxyInstance(BenchmarkScenario.class.getClassLoader(),
+                new Class<?>[]{WebDriver.class, TakesScreenshot.class, JavascriptExecutor.class},
+                (proxy, method, args) -> {
+                    if ("toString".equals(method.getName())) {
+                        return "StandInWebDriver";
+                    }
+                    if ("hashCode".equals(method.getName())) {
+                        return System.identityHashCode(proxy);
+                    }
+                    if ("equals".equals(method.getName())) {
+                        return proxy == args[0];
+                    }
+                    return null;
+                });
+    }
+}
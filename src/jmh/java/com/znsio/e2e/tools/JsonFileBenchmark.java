@@ -0,0 +1,70 @@
+package com.znsio.e2e.tools;
+
+import com.google.gson.Gson;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class JsonFileBenchmark {
+    private static final String[] NODE_TREE = {"prod", "users", "admin", "username"};
+    private File testDataFile;
+
+    @Setup(Level.Trial)
+    public void createTestDataFile () throws IOException {
+        Map<String, Object> environments = new HashMap<>();
+        for (String environment : new String[]{"dev", "qa", "staging", "prod"}) {
+            Map<String, Object> users = new HashMap<>();
+            for (int userNumber = 0; userNumber < 50; userNumber++) {
+                Map<String, Object> user = new HashMap<>();
+                user.put("username", environment + "-user-" + userNumber + "@example.com");
+                user.put("password", "password-" + userNumber);
+                users.put("user" + userNumber, user);
+            }
+            users.put("admin", users.get("user0"));
+            Map<String, Object> environmentData = new HashMap<>();
+            environmentData.put("users", users);
+            environments.put(environment, environmentData);
+        }
+        List<Object> pool = new ArrayList<>(((Map<String, Map>) environments.get("prod")).get("users").values());
+        environments.put("pool", pool);
+        testDataFile = File.createTempFile("testData", ".json");
+        testDataFile.deleteOnExit();
+        try (Writer writer = Files.newBufferedWriter(testDataFile.toPath())) {
+            new Gson().toJson(environments, writer);
+        }
+    }
+
+    @Benchmark
+    public Map<String, Map> loadJsonFile () {
+        return JsonFile.loadJsonFile(testDataFile.getAbsolutePath());
+    }
+
+    @Benchmark
+    public String getNodeValueAsString () {
+        return JsonFile.getNodeValueAsStringFromJsonFile(testDataFile.getAbsolutePath(), NODE_TREE);
+    }
+
+    @Benchmark
+    public Map<String, Map> getNodeValueAsMap () {
+        return JsonFile.getNodeValueAsMapFromJsonFile("prod", testDataFile.getAbsolutePath());
+    }
+
+    @Benchmark
+    public List<Map> getNodeValueAsArrayList () {
+        return JsonFile.getNodeValueAsArrayListFromJsonFile("pool", testDataFile.getAbsolutePath());
+    }
+}
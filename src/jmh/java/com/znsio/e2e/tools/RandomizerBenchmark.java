@@ -0,0 +1,35 @@
+package com.znsio.e2e.tools;
+
+import com.znsio.e2e.runner.BenchmarkConfiguration;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class RandomizerBenchmark {
+    @Setup(Level.Trial)
+    public void publishConfiguration () {
+        BenchmarkConfiguration.publish("build/jmh");
+    }
+
+    @Benchmark
+    public String randomizeNumeric () {
+        return Randomizer.randomize("9876543210");
+    }
+
+    @Benchmark
+    public String randomizeAlphanumeric () {
+        return Randomizer.randomize("user@example.com");
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String randomizeAlphanumericContended () {
+        return Randomizer.randomize("user@example.com");
+    }
+}
@@ -0,0 +1,22 @@
+package com.znsio.e2e.tools;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class ScenarioNameBenchmark {
+    @Param({"Login with valid credentials",
+            "Host (web) invites 2 guests [android, web] & starts the meeting: \"daily stand-up\" / 10:30 AM"})
+    private String scenarioName;
+
+    @Benchmark
+    public String normaliseScenarioName () {
+        return ScreenShotManager.normaliseScenarioName(scenarioName);
+    }
+}
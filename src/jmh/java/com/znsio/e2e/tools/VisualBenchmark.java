@@ -0,0 +1,36 @@
+package com.znsio.e2e.tools;
+
+import com.applitools.eyes.MatchLevel;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Overhead of the Visual calls made from the step definitions when visual testing is disabled.
+ * No driver is registered for the scenario, so the screenshot taken after every check is skipped.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class VisualBenchmark {
+    private Visual visual;
+
+    @Setup(Level.Trial)
+    public void createVisual () {
+        BenchmarkScenario.start("Visual benchmark");
+        visual = new Visual(Driver.WEB_DRIVER, BenchmarkScenario.getStandInWebDriver(), "Visual benchmark", false);
+    }
+
+    @Benchmark
+    public Visual checkWindow () {
+        return visual.checkWindow("Home screen", "loaded");
+    }
+
+    @Benchmark
+    public Visual checkWindowWithMatchLevel () {
+        return visual.checkWindow("Home screen", "loaded", MatchLevel.LAYOUT);
+    }
+}
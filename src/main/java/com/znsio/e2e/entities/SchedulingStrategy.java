@@ -0,0 +1,5 @@
+package com.znsio.e2e.entities;
+
+public enum SchedulingStrategy {
+    FEATURE_FILE_ORDER, LONGEST_FIRST
+}
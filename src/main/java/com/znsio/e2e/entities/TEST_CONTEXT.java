@@ -11,4 +11,7 @@ public class TEST_CONTEXT {
     public static final String CURRENT_DRIVER = "currentDriver";
     public static final String ALL_DRIVERS = "allDrivers";
     public static final String CURRENT_USER_PERSONA = "currentUserPersona";
+    public static final String WAIT_STATISTICS = "waitStatistics";
+    public static final String SCENARIO_TEST_DATA = "scenarioTestData";
+    public static final String DRIVER_COMMAND_METRICS = "driverCommandMetrics";
 }
@@ -4,6 +4,7 @@ import com.appium.filelocations.FileLocations;
 import com.context.TestExecutionContext;
 import com.znsio.e2e.entities.TEST_CONTEXT;
 import com.znsio.e2e.runner.Runner;
+import com.znsio.e2e.tools.ScreenShotManager;
 import io.cucumber.plugin.ConcurrentEventListener;
 import io.cucumber.plugin.event.*;
 import io.github.bonigarcia.wdm.WebDriverManager;
@@ -43,7 +44,7 @@ public class CucumberWebScenarioListener implements ConcurrentEventListener {
         LOGGER.info("$$$$$$$$$$$$$$$$$$$$$$$$$$$$$$$$$$$$$$$$$$$$$$$$$$$$$$$   TEST-CASE  -- "+ scenarioName +"  STARTED   $$$$$$$$$$$$$$$$$$$$$$$$$$$$$$$$$$$$$$$$$$$$$$$$$$$$$$$");
         LOGGER.info("webCaseStartedHandler: " + scenarioName);
         Integer scenarioRunCount = getScenarioRunCount(scenarioName);
-        String normalisedScenarioName = normaliseScenarioName(scenarioName);
+        String normalisedScenarioName = ScreenShotManager.normaliseScenarioName(scenarioName);
 
         LOGGER.info(
                 String.format("ThreadID: %d: beforeScenario: for scenario: %s\n",
@@ -85,8 +86,4 @@ public class CucumberWebScenarioListener implements ConcurrentEventListener {
         }
         return scenarioRunCounts.get(scenarioName);
     }
-
-    private String normaliseScenarioName (String scenarioName) {
-        return scenarioName.replaceAll("[`~ !@#$%^&*()\\-=+\\[\\]{}\\\\|;:'\",<.>/?]", "_");
-    }
 }
@@ -0,0 +1,191 @@
+package com.znsio.e2e.listener;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.context.TestExecutionContext;
+import com.znsio.e2e.entities.TEST_CONTEXT;
+import com.znsio.e2e.runner.Runner;
+import com.znsio.e2e.tools.Drivers;
+import com.znsio.e2e.tools.metrics.LatencyHistogram;
+import com.znsio.e2e.tools.reports.ScenarioLocation;
+import io.cucumber.plugin.ConcurrentEventListener;
+import io.cucumber.plugin.event.*;
+import org.apache.log4j.Logger;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class StepTimingListener implements ConcurrentEventListener {
+    private static final int NUMBER_OF_SLOWEST_STEPS = 25;
+    private static final double NANOS_IN_MILLI = 1_000_000.0;
+    private static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
+    private static final Logger LOGGER = Logger.getLogger(StepTimingListener.class.getName());
+    private final File timingsFile;
+    private final Map<String, TimedStep> stepTimings = new ConcurrentHashMap<>();
+    private final Map<String, LatencyHistogram> testCaseTimings = new ConcurrentHashMap<>();
+    private final PriorityQueue<SlowStep> slowestSteps = new PriorityQueue<>(Comparator.comparingLong(slowStep -> slowStep.durationInNanos));
+    private volatile long slowestStepsThresholdInNanos = 0;
+
+    public StepTimingListener () {
+        this(Paths.get(Runner.getConfiguration().getLogDirectory(), "reports", "step-timings.json").toFile());
+    }
+
+    public StepTimingListener (File timingsFile) {
+        this.timingsFile = timingsFile;
+        LOGGER.info(String.format("ThreadID: %d: StepTimingListener: Step timings will be saved to: %s",
+                Thread.currentThread().getId(), timingsFile));
+    }
+
+    @Override
+    public void setEventPublisher (EventPublisher eventPublisher) {
+        eventPublisher.registerHandlerFor(TestStepFinished.class, this::stepFinishedHandler);
+        eventPublisher.registerHandlerFor(TestCaseFinished.class, this::caseFinishedHandler);
+        eventPublisher.registerHandlerFor(TestRunFinished.class, this::runFinishedHandler);
+    }
+
+    private void stepFinishedHandler (TestStepFinished event) {
+        long durationInNanos = event.getResult().getDuration().toNanos();
+        String platform = getCurrentPlatform();
+        TestStep testStep = event.getTestStep();
+        String pattern = getPattern(testStep);
+        stepTimings.computeIfAbsent(platform + " | " + pattern, key -> new TimedStep(platform, pattern))
+                .histogram.record(durationInNanos);
+        if (testStep instanceof PickleStepTestStep && durationInNanos > slowestStepsThresholdInNanos) {
+            PickleStepTestStep pickleStep = (PickleStepTestStep) testStep;
+            addSlowStep(new SlowStep(durationInNanos,
+                    platform,
+                    pickleStep.getStep().getText(),
+                    event.getTestCase().getName(),
+                    ScenarioLocation.of(pickleStep.getUri(), pickleStep.getStep().getLine())));
+        }
+    }
+
+    private void caseFinishedHandler (TestCaseFinished event) {
+        testCaseTimings.computeIfAbsent(getCurrentPlatform(), platform -> new LatencyHistogram())
+                .record(event.getResult().getDuration().toNanos());
+    }
+
+    private void runFinishedHandler (TestRunFinished event) {
+        List<Map<String, Object>> steps = new ArrayList<>();
+        stepTimings.values().stream()
+                .sorted(Comparator.comparingLong((TimedStep timedStep) -> timedStep.histogram.getTotal()).reversed())
+                .forEach(timedStep -> {
+                    Map<String, Object> step = new LinkedHashMap<>();
+                    step.put("platform", timedStep.platform);
+                    step.put("pattern", timedStep.pattern);
+                    step.putAll(summarise(timedStep.histogram));
+                    steps.add(step);
+                });
+        Map<String, Object> testCases = new LinkedHashMap<>();
+        testCaseTimings.forEach((platform, histogram) -> testCases.put(platform, summarise(histogram)));
+        List<SlowStep> slowest;
+        synchronized (slowestSteps) {
+            slowest = new ArrayList<>(slowestSteps);
+        }
+        slowest.sort(Comparator.comparingLong((SlowStep slowStep) -> slowStep.durationInNanos).reversed());
+
+        Map<String, Object> timings = new LinkedHashMap<>();
+        timings.put("steps", steps);
+        timings.put("testCases", testCases);
+        timings.put("slowestSteps", slowest);
+        try {
+            Files.createDirectories(timingsFile.getAbsoluteFile().getParentFile().toPath());
+            try (Writer writer = Files.newBufferedWriter(timingsFile.toPath())) {
+                GSON.toJson(timings, writer);
+            }
+            LOGGER.info(String.format("Saved timings of '%d' step definitions to: %s", steps.size(), timingsFile));
+        } catch (IOException e) {
+            LOGGER.info(String.format("Unable to save step timings to: '%s': %s", timingsFile, e.getMessage()));
+        }
+    }
+
+    private void addSlowStep (SlowStep slowStep) {
+        synchronized (slowestSteps) {
+            slowestSteps.add(slowStep);
+            if (slowestSteps.size() > NUMBER_OF_SLOWEST_STEPS) {
+                slowestSteps.poll();
+            }
+            if (slowestSteps.size() == NUMBER_OF_SLOWEST_STEPS) {
+                slowestStepsThresholdInNanos = slowestSteps.peek().durationInNanos;
+            }
+        }
+    }
+
+    private static Map<String, Object> summarise (LatencyHistogram histogram) {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("count", histogram.getCount());
+        summary.put("totalMillis", toMillis(histogram.getTotal()));
+        summary.put("meanMillis", toMillis(histogram.getMean()));
+        summary.put("p50Millis", toMillis(histogram.getValueAtPercentile(50)));
+        summary.put("p95Millis", toMillis(histogram.getValueAtPercentile(95)));
+        summary.put("p99Millis", toMillis(histogram.getValueAtPercentile(99)));
+        summary.put("maxMillis", toMillis(histogram.getMax()));
+        return summary;
+    }
+
+    private static double toMillis (long nanos) {
+        return Math.round(nanos / NANOS_IN_MILLI * 1000) / 1000.0;
+    }
+
+    private static String getPattern (TestStep testStep) {
+        if (testStep instanceof PickleStepTestStep) {
+            return ((PickleStepTestStep) testStep).getPattern();
+        }
+        if (testStep instanceof HookTestStep) {
+            return "@" + ((HookTestStep) testStep).getHookType() + " " + testStep.getCodeLocation();
+        }
+        return testStep.getCodeLocation();
+    }
+
+    // hooks and steps run before a driver is created for the current user persona are timed on the default platform
+    private static String getCurrentPlatform () {
+        TestExecutionContext context = Runner.getTestExecutionContext(Thread.currentThread().getId());
+        if (null != context) {
+            String userPersona = context.getTestStateAsString(TEST_CONTEXT.CURRENT_USER_PERSONA);
+            Object allDrivers = context.getTestState(TEST_CONTEXT.ALL_DRIVERS);
+            if (allDrivers instanceof Drivers && ((Drivers) allDrivers).hasDriverFor(userPersona)) {
+                return ((Drivers) allDrivers).getPlatformForUser(userPersona).name();
+            }
+        }
+        return Runner.getPlatform().name();
+    }
+
+    private static class TimedStep {
+        private final String platform;
+        private final String pattern;
+        private final LatencyHistogram histogram = new LatencyHistogram();
+
+        private TimedStep (String platform, String pattern) {
+            this.platform = platform;
+            this.pattern = pattern;
+        }
+    }
+
+    private static class SlowStep {
+        private final transient long durationInNanos;
+        private final double durationMillis;
+        private final String platform;
+        private final String step;
+        private final String scenario;
+        private final String location;
+
+        private SlowStep (long durationInNanos, String platform, String step, String scenario, String location) {
+            this.durationInNanos = durationInNanos;
+            this.durationMillis = toMillis(durationInNanos);
+            this.platform = platform;
+            this.step = step;
+            this.scenario = scenario;
+            this.location = location;
+        }
+    }
+}
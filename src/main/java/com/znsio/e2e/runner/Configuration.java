@@ -0,0 +1,785 @@
+package com.znsio.e2e.runner;
+
+import com.znsio.e2e.entities.Platform;
+import com.znsio.e2e.entities.SchedulingStrategy;
+import com.znsio.e2e.exceptions.InvalidTestDataException;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+public final class Configuration {
+    private final String appName;
+    private final String appPackageName;
+    private final String appPath;
+    private final String applitoolsConfigurationFile;
+    private final String baseUrlForWeb;
+    private final String branchName;
+    private final String browser;
+    private final String caps;
+    private final String configFile;
+    private final boolean deviceLabInsecure;
+    private final String deviceLabUploadCacheFile;
+    private final String deviceLabURL;
+    private final boolean driverCommandMetrics;
+    private final String environmentConfigFile;
+    private final String executedOn;
+    private final boolean visual;
+    private final String launchName;
+    private final String logDirectory;
+    private final String logPropertiesFile;
+    private final int parallel;
+    private final Platform platform;
+    private final SchedulingStrategy schedulingStrategy;
+    private final String scenarioDurationsFile;
+    private final String shardDurationsFile;
+    private final int shardIndex;
+    private final int shardTotal;
+    private final boolean rerunFailed;
+    private final String remoteWebDriverGridUrls;
+    private final int remoteWebDriverQuarantineAfterFailures;
+    private final int remoteWebDriverQuarantineInSeconds;
+    private final boolean runInCI;
+    private final int screenShotByteBudgetInMB;
+    private final String screenShotFormat;
+    private final int screenShotQuality;
+    private final int screenShotScalePercent;
+    private final String tag;
+    private final String targetEnvironment;
+    private final String testDataFile;
+    private final boolean virtualThreads;
+    private final int testDataLeaseTimeoutInSeconds;
+    private final int teardownTimeoutInSeconds;
+    private final double waitBackoffMultiplier;
+    private final int waitMaxPollingIntervalInMillis;
+    private final int waitPollingIntervalInMillis;
+    private final int waitTimeoutInSeconds;
+    private final int webDriverPoolLeaseTimeoutInSeconds;
+    private final int webDriverPoolMaxUsesPerBrowser;
+    private final int webDriverPoolSize;
+    private final Map<String, Object> environmentConfiguration;
+    private final Map<String, Object> testData;
+    private final Map<String, Object> applitoolsConfiguration;
+
+    private Configuration (Builder builder) {
+        this.appName = builder.appName;
+        this.appPackageName = builder.appPackageName;
+        this.appPath = builder.appPath;
+        this.applitoolsConfigurationFile = builder.applitoolsConfigurationFile;
+        this.baseUrlForWeb = builder.baseUrlForWeb;
+        this.branchName = builder.branchName;
+        this.browser = builder.browser;
+        this.caps = builder.caps;
+        this.configFile = builder.configFile;
+        this.deviceLabInsecure = builder.deviceLabInsecure;
+        this.deviceLabUploadCacheFile = builder.deviceLabUploadCacheFile;
+        this.deviceLabURL = builder.deviceLabURL;
+        this.driverCommandMetrics = builder.driverCommandMetrics;
+        this.environmentConfigFile = builder.environmentConfigFile;
+        this.executedOn = builder.executedOn;
+        this.visual = builder.visual;
+        this.launchName = builder.launchName;
+        this.logDirectory = builder.logDirectory;
+        this.logPropertiesFile = builder.logPropertiesFile;
+        this.parallel = builder.parallel;
+        this.platform = builder.platform;
+        this.schedulingStrategy = builder.schedulingStrategy;
+        this.scenarioDurationsFile = builder.scenarioDurationsFile;
+        this.shardDurationsFile = builder.shardDurationsFile;
+        this.shardIndex = builder.shardIndex;
+        this.shardTotal = builder.shardTotal;
+        this.rerunFailed = builder.rerunFailed;
+        this.remoteWebDriverGridUrls = builder.remoteWebDriverGridUrls;
+        this.remoteWebDriverQuarantineAfterFailures = builder.remoteWebDriverQuarantineAfterFailures;
+        this.remoteWebDriverQuarantineInSeconds = builder.remoteWebDriverQuarantineInSeconds;
+        this.runInCI = builder.runInCI;
+        this.screenShotByteBudgetInMB = builder.screenShotByteBudgetInMB;
+        this.screenShotFormat = builder.screenShotFormat;
+        this.screenShotQuality = builder.screenShotQuality;
+        this.screenShotScalePercent = builder.screenShotScalePercent;
+        this.tag = builder.tag;
+        this.targetEnvironment = builder.targetEnvironment;
+        this.testDataFile = builder.testDataFile;
+        this.virtualThreads = builder.virtualThreads;
+        this.testDataLeaseTimeoutInSeconds = builder.testDataLeaseTimeoutInSeconds;
+        this.teardownTimeoutInSeconds = builder.teardownTimeoutInSeconds;
+        this.waitBackoffMultiplier = builder.waitBackoffMultiplier;
+        this.waitMaxPollingIntervalInMillis = builder.waitMaxPollingIntervalInMillis;
+        this.waitPollingIntervalInMillis = builder.waitPollingIntervalInMillis;
+        this.waitTimeoutInSeconds = builder.waitTimeoutInSeconds;
+        this.webDriverPoolLeaseTimeoutInSeconds = builder.webDriverPoolLeaseTimeoutInSeconds;
+        this.webDriverPoolMaxUsesPerBrowser = builder.webDriverPoolMaxUsesPerBrowser;
+        this.webDriverPoolSize = builder.webDriverPoolSize;
+        this.environmentConfiguration = Collections.unmodifiableMap(new HashMap<>(builder.environmentConfiguration));
+        this.testData = Collections.unmodifiableMap(new HashMap<>(builder.testData));
+        this.applitoolsConfiguration = Collections.unmodifiableMap(new HashMap<>(builder.applitoolsConfiguration));
+    }
+
+    public static Builder builder () {
+        return new Builder();
+    }
+
+    public Builder toBuilder () {
+        Builder builder = new Builder();
+        builder.appName = appName;
+        builder.appPackageName = appPackageName;
+        builder.appPath = appPath;
+        builder.applitoolsConfigurationFile = applitoolsConfigurationFile;
+        builder.baseUrlForWeb = baseUrlForWeb;
+        builder.branchName = branchName;
+        builder.browser = browser;
+        builder.caps = caps;
+        builder.configFile = configFile;
+        builder.deviceLabInsecure = deviceLabInsecure;
+        builder.deviceLabUploadCacheFile = deviceLabUploadCacheFile;
+        builder.deviceLabURL = deviceLabURL;
+        builder.driverCommandMetrics = driverCommandMetrics;
+        builder.environmentConfigFile = environmentConfigFile;
+        builder.executedOn = executedOn;
+        builder.visual = visual;
+        builder.launchName = launchName;
+        builder.logDirectory = logDirectory;
+        builder.logPropertiesFile = logPropertiesFile;
+        builder.parallel = parallel;
+        builder.platform = platform;
+        builder.schedulingStrategy = schedulingStrategy;
+        builder.scenarioDurationsFile = scenarioDurationsFile;
+        builder.shardDurationsFile = shardDurationsFile;
+        builder.shardIndex = shardIndex;
+        builder.shardTotal = shardTotal;
+        builder.rerunFailed = rerunFailed;
+        builder.remoteWebDriverGridUrls = remoteWebDriverGridUrls;
+        builder.remoteWebDriverQuarantineAfterFailures = remoteWebDriverQuarantineAfterFailures;
+        builder.remoteWebDriverQuarantineInSeconds = remoteWebDriverQuarantineInSeconds;
+        builder.runInCI = runInCI;
+        builder.screenShotByteBudgetInMB = screenShotByteBudgetInMB;
+        builder.screenShotFormat = screenShotFormat;
+        builder.screenShotQuality = screenShotQuality;
+        builder.screenShotScalePercent = screenShotScalePercent;
+        builder.tag = tag;
+        builder.targetEnvironment = targetEnvironment;
+        builder.testDataFile = testDataFile;
+        builder.virtualThreads = virtualThreads;
+        builder.testDataLeaseTimeoutInSeconds = testDataLeaseTimeoutInSeconds;
+        builder.teardownTimeoutInSeconds = teardownTimeoutInSeconds;
+        builder.waitBackoffMultiplier = waitBackoffMultiplier;
+        builder.waitMaxPollingIntervalInMillis = waitMaxPollingIntervalInMillis;
+        builder.waitPollingIntervalInMillis = waitPollingIntervalInMillis;
+        builder.waitTimeoutInSeconds = waitTimeoutInSeconds;
+        builder.webDriverPoolLeaseTimeoutInSeconds = webDriverPoolLeaseTimeoutInSeconds;
+        builder.webDriverPoolMaxUsesPerBrowser = webDriverPoolMaxUsesPerBrowser;
+        builder.webDriverPoolSize = webDriverPoolSize;
+        builder.environmentConfiguration = environmentConfiguration;
+        builder.testData = testData;
+        builder.applitoolsConfiguration = applitoolsConfiguration;
+        return builder;
+    }
+
+    public String getAppName () {
+        return appName;
+    }
+
+    public String getAppPackageName () {
+        return appPackageName;
+    }
+
+    public String getAppPath () {
+        return appPath;
+    }
+
+    public String getApplitoolsConfigurationFile () {
+        return applitoolsConfigurationFile;
+    }
+
+    public String getBaseUrlForWeb () {
+        return baseUrlForWeb;
+    }
+
+    public String getBranchName () {
+        return branchName;
+    }
+
+    public String getBrowser () {
+        return browser;
+    }
+
+    public String getCaps () {
+        return caps;
+    }
+
+    public String getConfigFile () {
+        return configFile;
+    }
+
+    public boolean isDeviceLabInsecure () {
+        return deviceLabInsecure;
+    }
+
+    public String getDeviceLabUploadCacheFile () {
+        return deviceLabUploadCacheFile;
+    }
+
+    public String getDeviceLabURL () {
+        return deviceLabURL;
+    }
+
+    public boolean isDriverCommandMetrics () {
+        return driverCommandMetrics;
+    }
+
+    public String getEnvironmentConfigFile () {
+        return environmentConfigFile;
+    }
+
+    public String getExecutedOn () {
+        return executedOn;
+    }
+
+    public boolean isVisual () {
+        return visual;
+    }
+
+    public String getLaunchName () {
+        return launchName;
+    }
+
+    public String getLogDirectory () {
+        return logDirectory;
+    }
+
+    public String getLogPropertiesFile () {
+        return logPropertiesFile;
+    }
+
+    public int getParallel () {
+        return parallel;
+    }
+
+    public Platform getPlatform () {
+        return platform;
+    }
+
+    public SchedulingStrategy getSchedulingStrategy () {
+        return schedulingStrategy;
+    }
+
+    public String getScenarioDurationsFile () {
+        return scenarioDurationsFile;
+    }
+
+    public String getShardDurationsFile () {
+        return shardDurationsFile;
+    }
+
+    public int getShardIndex () {
+        return shardIndex;
+    }
+
+    public int getShardTotal () {
+        return shardTotal;
+    }
+
+    public boolean isRerunFailed () {
+        return rerunFailed;
+    }
+
+    public String getRemoteWebDriverGridUrls () {
+        return remoteWebDriverGridUrls;
+    }
+
+    public int getRemoteWebDriverQuarantineAfterFailures () {
+        return remoteWebDriverQuarantineAfterFailures;
+    }
+
+    public int getRemoteWebDriverQuarantineInSeconds () {
+        return remoteWebDriverQuarantineInSeconds;
+    }
+
+    public boolean isRunInCI () {
+        return runInCI;
+    }
+
+    public int getScreenShotByteBudgetInMB () {
+        return screenShotByteBudgetInMB;
+    }
+
+    public String getScreenShotFormat () {
+        return screenShotFormat;
+    }
+
+    public int getScreenShotQuality () {
+        return screenShotQuality;
+    }
+
+    public int getScreenShotScalePercent () {
+        return screenShotScalePercent;
+    }
+
+    public String getTag () {
+        return tag;
+    }
+
+    public String getTargetEnvironment () {
+        return targetEnvironment;
+    }
+
+    public String getTestDataFile () {
+        return testDataFile;
+    }
+
+    public boolean isVirtualThreads () {
+        return virtualThreads;
+    }
+
+    public int getTestDataLeaseTimeoutInSeconds () {
+        return testDataLeaseTimeoutInSeconds;
+    }
+
+    public int getTeardownTimeoutInSeconds () {
+        return teardownTimeoutInSeconds;
+    }
+
+    public double getWaitBackoffMultiplier () {
+        return waitBackoffMultiplier;
+    }
+
+    public int getWaitMaxPollingIntervalInMillis () {
+        return waitMaxPollingIntervalInMillis;
+    }
+
+    public int getWaitPollingIntervalInMillis () {
+        return waitPollingIntervalInMillis;
+    }
+
+    public int getWaitTimeoutInSeconds () {
+        return waitTimeoutInSeconds;
+    }
+
+    public int getWebDriverPoolLeaseTimeoutInSeconds () {
+        return webDriverPoolLeaseTimeoutInSeconds;
+    }
+
+    public int getWebDriverPoolMaxUsesPerBrowser () {
+        return webDriverPoolMaxUsesPerBrowser;
+    }
+
+    public int getWebDriverPoolSize () {
+        return webDriverPoolSize;
+    }
+
+    public Map<String, Object> getEnvironmentConfiguration () {
+        return environmentConfiguration;
+    }
+
+    public Map<String, Object> getTestData () {
+        return testData;
+    }
+
+    public Map<String, Object> getApplitoolsConfiguration () {
+        return applitoolsConfiguration;
+    }
+
+    @Override
+    public String toString () {
+        return "Configuration [" +
+                "appName=" + appName +
+                ", appPackageName=" + appPackageName +
+                ", appPath=" + appPath +
+                ", applitoolsConfigurationFile=" + applitoolsConfigurationFile +
+                ", baseUrlForWeb=" + baseUrlForWeb +
+                ", branchName=" + branchName +
+                ", browser=" + browser +
+                ", caps=" + caps +
+                ", configFile=" + configFile +
+                ", deviceLabInsecure=" + deviceLabInsecure +
+                ", deviceLabUploadCacheFile=" + deviceLabUploadCacheFile +
+                ", deviceLabURL=" + deviceLabURL +
+                ", driverCommandMetrics=" + driverCommandMetrics +
+                ", environmentConfigFile=" + environmentConfigFile +
+                ", executedOn=" + executedOn +
+                ", visual=" + visual +
+                ", launchName=" + launchName +
+                ", logDirectory=" + logDirectory +
+                ", logPropertiesFile=" + logPropertiesFile +
+                ", parallel=" + parallel +
+                ", platform=" + platform +
+                ", schedulingStrategy=" + schedulingStrategy +
+                ", scenarioDurationsFile=" + scenarioDurationsFile +
+                ", shardDurationsFile=" + shardDurationsFile +
+                ", shardIndex=" + shardIndex +
+                ", shardTotal=" + shardTotal +
+                ", rerunFailed=" + rerunFailed +
+                ", remoteWebDriverGridUrls=" + remoteWebDriverGridUrls +
+                ", remoteWebDriverQuarantineAfterFailures=" + remoteWebDriverQuarantineAfterFailures +
+                ", remoteWebDriverQuarantineInSeconds=" + remoteWebDriverQuarantineInSeconds +
+                ", runInCI=" + runInCI +
+                ", screenShotByteBudgetInMB=" + screenShotByteBudgetInMB +
+                ", screenShotFormat=" + screenShotFormat +
+                ", screenShotQuality=" + screenShotQuality +
+                ", screenShotScalePercent=" + screenShotScalePercent +
+                ", tag=" + tag +
+                ", targetEnvironment=" + targetEnvironment +
+                ", testDataFile=" + testDataFile +
+                ", virtualThreads=" + virtualThreads +
+                ", testDataLeaseTimeoutInSeconds=" + testDataLeaseTimeoutInSeconds +
+                ", teardownTimeoutInSeconds=" + teardownTimeoutInSeconds +
+                ", waitBackoffMultiplier=" + waitBackoffMultiplier +
+                ", waitMaxPollingIntervalInMillis=" + waitMaxPollingIntervalInMillis +
+                ", waitPollingIntervalInMillis=" + waitPollingIntervalInMillis +
+                ", waitTimeoutInSeconds=" + waitTimeoutInSeconds +
+                ", webDriverPoolLeaseTimeoutInSeconds=" + webDriverPoolLeaseTimeoutInSeconds +
+                ", webDriverPoolMaxUsesPerBrowser=" + webDriverPoolMaxUsesPerBrowser +
+                ", webDriverPoolSize=" + webDriverPoolSize +
+                "]";
+    }
+
+    public static final class Builder {
+        private String appName = Runner.NOT_SET;
+        private String appPackageName = Runner.NOT_SET;
+        private String appPath = Runner.NOT_SET;
+        private String applitoolsConfigurationFile = Runner.NOT_SET;
+        private String baseUrlForWeb = Runner.NOT_SET;
+        private String branchName = Runner.NOT_SET;
+        private String browser = "chrome";
+        private String caps = Runner.NOT_SET;
+        private String configFile = Runner.NOT_SET;
+        private boolean deviceLabInsecure;
+        private String deviceLabUploadCacheFile = "temp/deviceLabUploadCache.json";
+        private String deviceLabURL = Runner.NOT_SET;
+        private boolean driverCommandMetrics;
+        private String environmentConfigFile = Runner.NOT_SET;
+        private String executedOn = Runner.NOT_SET;
+        private boolean visual;
+        private String launchName = Runner.NOT_SET;
+        private String logDirectory = "target";
+        private String logPropertiesFile = "./src/main/resources/log4j.properties";
+        private int parallel = 1;
+        private Platform platform = Platform.android;
+        private SchedulingStrategy schedulingStrategy = SchedulingStrategy.FEATURE_FILE_ORDER;
+        private String scenarioDurationsFile = "temp/scenarioDurations.json";
+        private String shardDurationsFile = Runner.NOT_SET;
+        private int shardIndex = 0;
+        private int shardTotal = 1;
+        private boolean rerunFailed;
+        private String remoteWebDriverGridUrls = "http://localhost:4444/wd/hub";
+        private int remoteWebDriverQuarantineAfterFailures = 3;
+        private int remoteWebDriverQuarantineInSeconds = 60;
+        private boolean runInCI;
+        private int screenShotByteBudgetInMB = 0;
+        private String screenShotFormat = "png";
+        private int screenShotQuality = 80;
+        private int screenShotScalePercent = 100;
+        private String tag = Runner.NOT_SET;
+        private String targetEnvironment = Runner.NOT_SET;
+        private String testDataFile = Runner.NOT_SET;
+        private boolean virtualThreads;
+        private int testDataLeaseTimeoutInSeconds = 60;
+        private int teardownTimeoutInSeconds = 120;
+        private double waitBackoffMultiplier = 1.5;
+        private int waitMaxPollingIntervalInMillis = 2000;
+        private int waitPollingIntervalInMillis = 100;
+        private int waitTimeoutInSeconds = 10;
+        private int webDriverPoolLeaseTimeoutInSeconds = 120;
+        private int webDriverPoolMaxUsesPerBrowser = 10;
+        private int webDriverPoolSize = 0;
+        private Map<String, Object> environmentConfiguration = new HashMap<>();
+        private Map<String, Object> testData = new HashMap<>();
+        private Map<String, Object> applitoolsConfiguration = new HashMap<>();
+
+        private Builder () {
+        }
+
+        public Builder appName (String appName) {
+            this.appName = appName;
+            return this;
+        }
+
+        public Builder appPackageName (String appPackageName) {
+            this.appPackageName = appPackageName;
+            return this;
+        }
+
+        public Builder appPath (String appPath) {
+            this.appPath = appPath;
+            return this;
+        }
+
+        public Builder applitoolsConfigurationFile (String applitoolsConfigurationFile) {
+            this.applitoolsConfigurationFile = applitoolsConfigurationFile;
+            return this;
+        }
+
+        public Builder baseUrlForWeb (String baseUrlForWeb) {
+            this.baseUrlForWeb = baseUrlForWeb;
+            return this;
+        }
+
+        public Builder branchName (String branchName) {
+            this.branchName = branchName;
+            return this;
+        }
+
+        public Builder browser (String browser) {
+            this.browser = browser;
+            return this;
+        }
+
+        public Builder caps (String caps) {
+            this.caps = caps;
+            return this;
+        }
+
+        public Builder configFile (String configFile) {
+            this.configFile = configFile;
+            return this;
+        }
+
+        public Builder deviceLabInsecure (boolean deviceLabInsecure) {
+            this.deviceLabInsecure = deviceLabInsecure;
+            return this;
+        }
+
+        public Builder deviceLabUploadCacheFile (String deviceLabUploadCacheFile) {
+            this.deviceLabUploadCacheFile = deviceLabUploadCacheFile;
+            return this;
+        }
+
+        public Builder deviceLabURL (String deviceLabURL) {
+            this.deviceLabURL = deviceLabURL;
+            return this;
+        }
+
+        public Builder driverCommandMetrics (boolean driverCommandMetrics) {
+            this.driverCommandMetrics = driverCommandMetrics;
+            return this;
+        }
+
+        public Builder environmentConfigFile (String environmentConfigFile) {
+            this.environmentConfigFile = environmentConfigFile;
+            return this;
+        }
+
+        public Builder executedOn (String executedOn) {
+            this.executedOn = executedOn;
+            return this;
+        }
+
+        public Builder visual (boolean visual) {
+            this.visual = visual;
+            return this;
+        }
+
+        public Builder launchName (String launchName) {
+            this.launchName = launchName;
+            return this;
+        }
+
+        public Builder logDirectory (String logDirectory) {
+            this.logDirectory = logDirectory;
+            return this;
+        }
+
+        public Builder logPropertiesFile (String logPropertiesFile) {
+            this.logPropertiesFile = logPropertiesFile;
+            return this;
+        }
+
+        public Builder parallel (int parallel) {
+            this.parallel = parallel;
+            return this;
+        }
+
+        public Builder platform (Platform platform) {
+            this.platform = platform;
+            return this;
+        }
+
+        public Builder schedulingStrategy (SchedulingStrategy schedulingStrategy) {
+            this.schedulingStrategy = schedulingStrategy;
+            return this;
+        }
+
+        public Builder scenarioDurationsFile (String scenarioDurationsFile) {
+            this.scenarioDurationsFile = scenarioDurationsFile;
+            return this;
+        }
+
+        public Builder shardDurationsFile (String shardDurationsFile) {
+            this.shardDurationsFile = shardDurationsFile;
+            return this;
+        }
+
+        public Builder shardIndex (int shardIndex) {
+            this.shardIndex = shardIndex;
+            return this;
+        }
+
+        public Builder shardTotal (int shardTotal) {
+            this.shardTotal = shardTotal;
+            return this;
+        }
+
+        public Builder rerunFailed (boolean rerunFailed) {
+            this.rerunFailed = rerunFailed;
+            return this;
+        }
+
+        public Builder remoteWebDriverGridUrls (String remoteWebDriverGridUrls) {
+            this.remoteWebDriverGridUrls = remoteWebDriverGridUrls;
+            return this;
+        }
+
+        public Builder remoteWebDriverQuarantineAfterFailures (int remoteWebDriverQuarantineAfterFailures) {
+            this.remoteWebDriverQuarantineAfterFailures = remoteWebDriverQuarantineAfterFailures;
+            return this;
+        }
+
+        public Builder remoteWebDriverQuarantineInSeconds (int remoteWebDriverQuarantineInSeconds) {
+            this.remoteWebDriverQuarantineInSeconds = remoteWebDriverQuarantineInSeconds;
+            return this;
+        }
+
+        public Builder runInCI (boolean runInCI) {
+            this.runInCI = runInCI;
+            return this;
+        }
+
+        public Builder screenShotByteBudgetInMB (int screenShotByteBudgetInMB) {
+            this.screenShotByteBudgetInMB = screenShotByteBudgetInMB;
+            return this;
+        }
+
+        public Builder screenShotFormat (String screenShotFormat) {
+            this.screenShotFormat = screenShotFormat;
+            return this;
+        }
+
+        public Builder screenShotQuality (int screenShotQuality) {
+            this.screenShotQuality = screenShotQuality;
+            return this;
+        }
+
+        public Builder screenShotScalePercent (int screenShotScalePercent) {
+            this.screenShotScalePercent = screenShotScalePercent;
+            return this;
+        }
+
+        public Builder tag (String tag) {
+            this.tag = tag;
+            return this;
+        }
+
+        public Builder targetEnvironment (String targetEnvironment) {
+            this.targetEnvironment = targetEnvironment;
+            return this;
+        }
+
+        public Builder testDataFile (String testDataFile) {
+            this.testDataFile = testDataFile;
+            return this;
+        }
+
+        public Builder virtualThreads (boolean virtualThreads) {
+            this.virtualThreads = virtualThreads;
+            return this;
+        }
+
+        public Builder testDataLeaseTimeoutInSeconds (int testDataLeaseTimeoutInSeconds) {
+            this.testDataLeaseTimeoutInSeconds = testDataLeaseTimeoutInSeconds;
+            return this;
+        }
+
+        public Builder teardownTimeoutInSeconds (int teardownTimeoutInSeconds) {
+            this.teardownTimeoutInSeconds = teardownTimeoutInSeconds;
+            return this;
+        }
+
+        public Builder waitBackoffMultiplier (double waitBackoffMultiplier) {
+            this.waitBackoffMultiplier = waitBackoffMultiplier;
+            return this;
+        }
+
+        public Builder waitMaxPollingIntervalInMillis (int waitMaxPollingIntervalInMillis) {
+            this.waitMaxPollingIntervalInMillis = waitMaxPollingIntervalInMillis;
+            return this;
+        }
+
+        public Builder waitPollingIntervalInMillis (int waitPollingIntervalInMillis) {
+            this.waitPollingIntervalInMillis = waitPollingIntervalInMillis;
+            return this;
+        }
+
+        public Builder waitTimeoutInSeconds (int waitTimeoutInSeconds) {
+            this.waitTimeoutInSeconds = waitTimeoutInSeconds;
+            return this;
+        }
+
+        public Builder webDriverPoolLeaseTimeoutInSeconds (int webDriverPoolLeaseTimeoutInSeconds) {
+            this.webDriverPoolLeaseTimeoutInSeconds = webDriverPoolLeaseTimeoutInSeconds;
+            return this;
+        }
+
+        public Builder webDriverPoolMaxUsesPerBrowser (int webDriverPoolMaxUsesPerBrowser) {
+            this.webDriverPoolMaxUsesPerBrowser = webDriverPoolMaxUsesPerBrowser;
+            return this;
+        }
+
+        public Builder webDriverPoolSize (int webDriverPoolSize) {
+            this.webDriverPoolSize = webDriverPoolSize;
+            return this;
+        }
+
+        public Builder environmentConfiguration (Map<String, Object> environmentConfiguration) {
+            this.environmentConfiguration = environmentConfiguration;
+            return this;
+        }
+
+        public Builder testData (Map<String, Object> testData) {
+            this.testData = testData;
+            return this;
+        }
+
+        public Builder applitoolsConfiguration (Map<String, Object> applitoolsConfiguration) {
+            this.applitoolsConfiguration = applitoolsConfiguration;
+            return this;
+        }
+
+        public Configuration build () {
+            validateAtLeast("PARALLEL", parallel, 1);
+            validateInRange("SCREENSHOT_QUALITY", screenShotQuality, 0, 100);
+            validateInRange("SCREENSHOT_SCALE_PERCENT", screenShotScalePercent, 1, 100);
+            validateAtLeast("SCREENSHOT_BYTE_BUDGET_IN_MB", screenShotByteBudgetInMB, 0);
+            validateAtLeast("SHARD_TOTAL", shardTotal, 1);
+            validateInRange("SHARD_INDEX", shardIndex, 0, shardTotal - 1);
+            validateAtLeast("REMOTE_WEBDRIVER_QUARANTINE_AFTER_FAILURES", remoteWebDriverQuarantineAfterFailures, 1);
+            validateAtLeast("REMOTE_WEBDRIVER_QUARANTINE_IN_SECONDS", remoteWebDriverQuarantineInSeconds, 0);
+            validateAtLeast("TEST_DATA_LEASE_TIMEOUT_IN_SECONDS", testDataLeaseTimeoutInSeconds, 1);
+            validateAtLeast("TEARDOWN_TIMEOUT_IN_SECONDS", teardownTimeoutInSeconds, 1);
+            validateAtLeast("WAIT_TIMEOUT_IN_SECONDS", waitTimeoutInSeconds, 1);
+            validateAtLeast("WAIT_POLLING_INTERVAL_IN_MILLIS", waitPollingIntervalInMillis, 1);
+            validateAtLeast("WAIT_MAX_POLLING_INTERVAL_IN_MILLIS", waitMaxPollingIntervalInMillis, waitPollingIntervalInMillis);
+            if (waitBackoffMultiplier < 1) {
+                throw new InvalidTestDataException(String.format("Invalid value: '%s' for: 'WAIT_BACKOFF_MULTIPLIER'. Should be >= 1", waitBackoffMultiplier));
+            }
+            validateAtLeast("WEB_DRIVER_POOL_SIZE", webDriverPoolSize, 0);
+            validateAtLeast("WEB_DRIVER_POOL_MAX_USES_PER_BROWSER", webDriverPoolMaxUsesPerBrowser, 1);
+            validateAtLeast("WEB_DRIVER_POOL_LEASE_TIMEOUT_IN_SECONDS", webDriverPoolLeaseTimeoutInSeconds, 1);
+            if (null == platform) {
+                throw new InvalidTestDataException("Platform is not provided");
+            }
+            return new Configuration(this);
+        }
+
+        private static void validateAtLeast (String key, int value, int minimum) {
+            if (value < minimum) {
+                throw new InvalidTestDataException(String.format("Invalid value: '%d' for: '%s'. Should be >= %d", value, key, minimum));
+            }
+        }
+
+        private static void validateInRange (String key, int value, int minimum, int maximum) {
+            if (value < minimum || value > maximum) {
+                throw new InvalidTestDataException(String.format("Invalid value: '%d' for: '%s'. Should be between %d and %d", value, key, minimum, maximum));
+            }
+        }
+    }
+}
@@ -7,43 +7,64 @@ import com.applitools.eyes.RectangleSize;
 import com.context.SessionContext;
 import com.context.TestExecutionContext;
 import com.github.device.Device;
-import com.google.gson.JsonArray;
-import com.google.gson.JsonElement;
-import com.google.gson.JsonObject;
-import com.google.gson.JsonParser;
 import com.znsio.e2e.entities.APPLITOOLS;
 import com.znsio.e2e.entities.Platform;
+import com.znsio.e2e.entities.SchedulingStrategy;
 import com.znsio.e2e.entities.TEST_CONTEXT;
 import com.znsio.e2e.exceptions.EnvironmentSetupException;
 import com.znsio.e2e.exceptions.InvalidTestDataException;
 import com.znsio.e2e.exceptions.TestExecutionFailedException;
+import com.znsio.e2e.tools.AdbService;
 import com.znsio.e2e.tools.Driver;
 import com.znsio.e2e.tools.Drivers;
 import com.znsio.e2e.tools.JsonFile;
+import com.znsio.e2e.tools.Randomizer;
 import com.znsio.e2e.tools.Visual;
+import com.znsio.e2e.tools.cmd.CommandLine;
 import com.znsio.e2e.tools.cmd.CommandLineExecutor;
 import com.znsio.e2e.tools.cmd.CommandLineResponse;
+import com.znsio.e2e.tools.devicelab.AppUploadCache;
+import com.znsio.e2e.tools.devicelab.DeviceLabClient;
+import com.znsio.e2e.tools.metrics.CommandMetrics;
+import com.znsio.e2e.tools.reports.FailedScenarios;
+import com.znsio.e2e.tools.scheduling.LongestFirstPickleOrder;
+import com.znsio.e2e.tools.scheduling.ScenarioDurations;
+import com.znsio.e2e.tools.scheduling.ScenarioShards;
+import com.znsio.e2e.tools.scheduling.ShardPickleOrder;
+import com.znsio.e2e.tools.testdata.ScenarioTestData;
+import com.znsio.e2e.tools.testdata.TestDataLease;
+import com.znsio.e2e.tools.testdata.TestDataPools;
 import io.cucumber.core.cli.Main;
+import io.cucumber.core.options.CommandlineOptionsParser;
+import io.cucumber.core.options.CucumberProperties;
+import io.cucumber.core.options.CucumberPropertiesParser;
+import io.cucumber.core.options.RuntimeOptions;
+import io.cucumber.core.options.RuntimeOptionsBuilder;
+import io.cucumber.core.order.PickleOrder;
+import io.cucumber.core.order.StandardPickleOrders;
 import org.apache.commons.io.FileUtils;
 import org.apache.log4j.Logger;
 import org.apache.log4j.PropertyConfigurator;
 import org.assertj.core.api.SoftAssertions;
 import org.jetbrains.annotations.NotNull;
-import se.vidstige.jadb.JadbConnection;
 import se.vidstige.jadb.JadbDevice;
-import se.vidstige.jadb.JadbException;
-import se.vidstige.jadb.Stream;
 
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
-import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.Duration;
 import java.util.*;
-import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import static com.appium.utils.Variable.*;
 
@@ -56,42 +77,59 @@ public class Runner {
     private static final String BASE_URL_FOR_WEB = "BASE_URL_FOR_WEB";
     private static final String APP_NAME = "APP_NAME";
     private static final String IS_VISUAL = "IS_VISUAL";
-    private static final String CHROME = "chrome";
     private static final String PLUGIN = "--plugin";
     private static final String tempDirectory = "temp";
+    private static final Duration DEVICE_PREPARATION_TIMEOUT = Duration.ofMinutes(2);
     public static final String NOT_SET = "not-set";
-    private static final Platform DEFAULT_PLATFORM = Platform.android;
-    private static final int DEFAULT_PARALLEL = 1;
-    private static final ArrayList<String> cukeArgs = new ArrayList<>();
-    private static final String BRANCH_NAME = "BRANCH_NAME";
     private static final String LOG_PROPERTIES_FILE = "LOG_PROPERTIES_FILE";
-    private static final String DEFAULT_LOG_DIR = "target";
     private static final String APP_PATH = "APP_PATH";
     private static final String BROWSER = "BROWSER";
     private static final String CAPS = "CAPS";
     private static final String CONFIG_FILE = "CONFIG_FILE";
+    private static final String DEVICE_LAB_INSECURE = "DEVICE_LAB_INSECURE";
+    private static final String DEVICE_LAB_UPLOAD_CACHE_FILE = "DEVICE_LAB_UPLOAD_CACHE_FILE";
     private static final String DEVICE_LAB_URL = "DEVICE_LAB_URL";
+    private static final String DRIVER_COMMAND_METRICS = "DRIVER_COMMAND_METRICS";
     private static final String ENVIRONMENT_CONFIG_FILE = "ENVIRONMENT_CONFIG_FILE";
-    private static final String EXECUTED_ON = "EXECUTED_ON";
-    private static final String LAUNCH_NAME = "LAUNCH_NAME";
     private static final String LOG_DIR = "LOG_DIR";
     private static final String PARALLEL = "PARALLEL";
+    private static final String SCHEDULING_STRATEGY = "SCHEDULING_STRATEGY";
+    private static final String SHARD_DURATIONS_FILE = "SHARD_DURATIONS_FILE";
+    private static final String SHARD_INDEX = "SHARD_INDEX";
+    private static final String SHARD_TOTAL = "SHARD_TOTAL";
+    private static final String SCENARIO_DURATIONS_FILE = "SCENARIO_DURATIONS_FILE";
     private static final String PLATFORM = "PLATFORM";
+    private static final String RERUN_FAILED = "RERUN_FAILED";
+    private static final String REMOTE_WEBDRIVER_GRID_URLS = "REMOTE_WEBDRIVER_GRID_URLS";
+    private static final String REMOTE_WEBDRIVER_QUARANTINE_AFTER_FAILURES = "REMOTE_WEBDRIVER_QUARANTINE_AFTER_FAILURES";
+    private static final String REMOTE_WEBDRIVER_QUARANTINE_IN_SECONDS = "REMOTE_WEBDRIVER_QUARANTINE_IN_SECONDS";
     private static final String RUN_IN_CI = "RUN_IN_CI";
+    private static final String SCREENSHOT_BYTE_BUDGET_IN_MB = "SCREENSHOT_BYTE_BUDGET_IN_MB";
+    private static final String SCREENSHOT_FORMAT = "SCREENSHOT_FORMAT";
+    private static final String SCREENSHOT_QUALITY = "SCREENSHOT_QUALITY";
+    private static final String SCREENSHOT_SCALE_PERCENT = "SCREENSHOT_SCALE_PERCENT";
     private static final String TAG = "TAG";
     private static final String TARGET_ENVIRONMENT = "TARGET_ENVIRONMENT";
     private static final String TEST_DATA_FILE = "TEST_DATA_FILE";
-    private static final Map<String, String> configs = new HashMap();
-    private static final Map<String, Boolean> configsBoolean = new HashMap();
-    private static final Map<String, Integer> configsInteger = new HashMap();
+    private static final String VIRTUAL_THREADS = "VIRTUAL_THREADS";
+    private static final String TEST_DATA_LEASE_TIMEOUT_IN_SECONDS = "TEST_DATA_LEASE_TIMEOUT_IN_SECONDS";
+    private static final String TEARDOWN_TIMEOUT_IN_SECONDS = "TEARDOWN_TIMEOUT_IN_SECONDS";
+    private static final String WAIT_BACKOFF_MULTIPLIER = "WAIT_BACKOFF_MULTIPLIER";
+    private static final String WAIT_MAX_POLLING_INTERVAL_IN_MILLIS = "WAIT_MAX_POLLING_INTERVAL_IN_MILLIS";
+    private static final String WAIT_POLLING_INTERVAL_IN_MILLIS = "WAIT_POLLING_INTERVAL_IN_MILLIS";
+    private static final String WAIT_TIMEOUT_IN_SECONDS = "WAIT_TIMEOUT_IN_SECONDS";
+    private static final String WEB_DRIVER_POOL_LEASE_TIMEOUT_IN_SECONDS = "WEB_DRIVER_POOL_LEASE_TIMEOUT_IN_SECONDS";
+    private static final String WEB_DRIVER_POOL_MAX_USES_PER_BROWSER = "WEB_DRIVER_POOL_MAX_USES_PER_BROWSER";
+    private static final String WEB_DRIVER_POOL_SIZE = "WEB_DRIVER_POOL_SIZE";
     private static final String APP_PACKAGE_NAME = "APP_PACKAGE_NAME";
     private static final String APPLITOOLS_CONFIGURATION = "APPLITOOLS_CONFIGURATION";
-    public static Platform platform = Platform.android;
-    private static Map<String, Map> environmentConfiguration;
-    private static Map<String, Map> testDataForEnvironment;
-    private static Map applitoolsConfiguration = new HashMap();
+    public static volatile Platform platform = Platform.android;
+    // Cucumber creates the hooks and step definitions, so they cannot be handed this Runner - they read the configuration
+    // through the static getters. One configuration per JVM: each published snapshot is immutable and replaces the last.
+    private static volatile Configuration configuration = Configuration.builder().build();
+    private final ArrayList<String> cukeArgs = new ArrayList<>();
+    private FailedScenarios previouslyFailedScenarios;
     private final Properties properties;
-    private final String DEFAULT_LOG_PROPERTIES_FILE = "./src/main/resources/log4j.properties";
     private List<Device> devices;
     private static final Logger LOGGER = Logger.getLogger(Runner.class.getName());
 
@@ -107,16 +145,28 @@ public class Runner {
         properties = loadProperties(configFilePath);
         loadAndUpdateConfigParameters(configFilePath);
 
-        PropertyConfigurator.configure(configs.get(LOG_PROPERTIES_FILE));
-        System.setProperty(LOG_DIR, configs.get(LOG_DIR));
+        PropertyConfigurator.configure(configuration.getLogPropertiesFile());
+        System.setProperty(LOG_DIR, configuration.getLogDirectory());
         LOGGER.info("Runner called from user directory: " + Runner.USER_DIRECTORY);
         printLoadedConfigProperties(configFilePath);
 
+        seedScenarioDurationsFromPreviousRun();
+        loadPreviouslyFailedScenarios();
+        if (null != previouslyFailedScenarios && previouslyFailedScenarios.isEmpty()) {
+            LOGGER.info("No failed scenarios in the previous run. Nothing to rerun");
+            return;
+        }
         cleanupDirectories();
         setupDirectories();
 
-        environmentConfiguration = loadEnvironmentConfiguration(configs.get(TARGET_ENVIRONMENT));
-        testDataForEnvironment = loadTestDataForEnvironment(configs.get(TARGET_ENVIRONMENT));
+        publish(configuration.toBuilder()
+                .environmentConfiguration(loadEnvironmentConfiguration(configuration.getTargetEnvironment()))
+                .testData(loadTestDataForEnvironment(configuration.getTargetEnvironment()))
+                .build());
+        TestDataPools.load(configuration.getTestData(), configuration.getTestDataFile());
+        if (configuration.getShardTotal() > 1) {
+            Randomizer.setWorkerId(configuration.getShardIndex());
+        }
         setupExecutionEnvironment();
 
         run(cukeArgs, stepDefDirName, featuresDirName);
@@ -130,32 +180,50 @@ public class Runner {
         getBranchName();
         initialiseApplitoolsConfiguration();
 
+        Configuration executionConfiguration = configuration;
         String rpAttributes =
-                "AutomationBranch:" + configs.get(BRANCH_NAME) + "; " +
-                        "ExecutedOn:" + configs.get(EXECUTED_ON) + "; " +
-                        "Installer:" + configs.get(APP_PATH) + "; " +
+                "AutomationBranch:" + executionConfiguration.getBranchName() + "; " +
+                        "ExecutedOn:" + executionConfiguration.getExecutedOn() + "; " +
+                        "Installer:" + executionConfiguration.getAppPath() + "; " +
                         "OS:" + OS_NAME + "; " +
-                        "ParallelCount:" + configsInteger.get(PARALLEL) + "; " +
-                        "Platform:" + platform.name() + "; " +
-                        "RunOnCloud:" + configsBoolean.get(RUN_IN_CI) + "; " +
-                        "Tags:" + configs.get(TAG) + "; " +
-                        "TargetEnvironment:" + configs.get(TARGET_ENVIRONMENT) + "; " +
+                        "ParallelCount:" + executionConfiguration.getParallel() + "; " +
+                        "ShardIndex:" + executionConfiguration.getShardIndex() + "; " +
+                        "ShardTotal:" + executionConfiguration.getShardTotal() + "; " +
+                        "Platform:" + executionConfiguration.getPlatform().name() + "; " +
+                        "RunOnCloud:" + executionConfiguration.isRunInCI() + "; " +
+                        "Tags:" + executionConfiguration.getTag() + "; " +
+                        "TargetEnvironment:" + executionConfiguration.getTargetEnvironment() + "; " +
                         "Username:" + USER_NAME + "; " +
-                        "VisualEnabled:" + configsBoolean.get(IS_VISUAL) + "; ";
+                        "VisualEnabled:" + executionConfiguration.isVisual() + "; ";
 
         LOGGER.info("ReportPortal Test Execution Attributes: " + rpAttributes);
-
-        System.setProperty("CONFIG_FILE", configs.get(CONFIG_FILE));
-        System.setProperty("CAPS", configs.get(CAPS));
-        System.setProperty("Platform", platform.name());
-        System.setProperty("atd_" + platform.name() + "_app_local", configs.get(APP_PATH));
-        System.setProperty("rp.description", configs.get(APP_NAME) + " End-2-End scenarios on " + platform.name());
-        System.setProperty("rp.launch", configs.get(LAUNCH_NAME));
+        LOGGER.info("Execution configuration: " + executionConfiguration);
+
+        String platformName = executionConfiguration.getPlatform().name();
+        System.setProperty(CONFIG_FILE, executionConfiguration.getConfigFile());
+        System.setProperty("CAPS", executionConfiguration.getCaps());
+        System.setProperty("Platform", platformName);
+        System.setProperty("atd_" + platformName + "_app_local", executionConfiguration.getAppPath());
+        System.setProperty("rp.description", executionConfiguration.getAppName() + " End-2-End scenarios on " + platformName);
+        System.setProperty("rp.launch", executionConfiguration.getLaunchName());
         System.setProperty("rp.attributes", rpAttributes);
     }
 
+    static void publish (Configuration updatedConfiguration) {
+        configuration = updatedConfiguration;
+        platform = updatedConfiguration.getPlatform();
+    }
+
+    public static Configuration getConfiguration () {
+        return configuration;
+    }
+
+    public static Platform getPlatform () {
+        return configuration.getPlatform();
+    }
+
     public static boolean isVisualTestingEnabled () {
-        return configsBoolean.get(IS_VISUAL);
+        return configuration.isVisual();
     }
 
     public static void remove (long threadId) {
@@ -163,18 +231,28 @@ public class Runner {
     }
 
     public static String getFromEnvironmentConfiguration (String key) {
-        try {
-            return String.valueOf(environmentConfiguration.get(key));
-        } catch (NullPointerException npe) {
-            throw new InvalidTestDataException(String.format("Invalid key name ('%s') provided", key), npe);
+        if (null == key) {
+            throw new InvalidTestDataException("Invalid key name ('null') provided");
         }
+        return String.valueOf(configuration.getEnvironmentConfiguration().get(key));
     }
 
     public static String getTestData (String key) {
-        try {
-            return String.valueOf(testDataForEnvironment.get(key));
-        } catch (NullPointerException npe) {
-            throw new InvalidTestDataException(String.format("Invalid key name ('%s') provided", key), npe);
+        if (null == key) {
+            throw new InvalidTestDataException("Invalid key name ('null') provided");
+        }
+        return String.valueOf(configuration.getTestData().get(key));
+    }
+
+    public static TestDataLease leaseTestData (long threadId, String poolName) {
+        ScenarioTestData scenarioTestData = (ScenarioTestData) getTestExecutionContext(threadId).getTestState(TEST_CONTEXT.SCENARIO_TEST_DATA);
+        return scenarioTestData.lease(poolName, Duration.ofSeconds(configuration.getTestDataLeaseTimeoutInSeconds()));
+    }
+
+    public static void releaseTestData (long threadId) {
+        ScenarioTestData scenarioTestData = (ScenarioTestData) getTestExecutionContext(threadId).getTestState(TEST_CONTEXT.SCENARIO_TEST_DATA);
+        if (null != scenarioTestData) {
+            scenarioTestData.releaseAll();
         }
     }
 
@@ -191,30 +269,38 @@ public class Runner {
     }
 
     public static Driver fetchDriver (long threadId) {
-        String userPersona = getTestExecutionContext(threadId).getTestStateAsString(TEST_CONTEXT.CURRENT_USER_PERSONA);
-        Drivers allDrivers = (Drivers) getTestExecutionContext(threadId).getTestState(TEST_CONTEXT.ALL_DRIVERS);
+        return fetchDriver(getTestExecutionContext(threadId));
+    }
+
+    public static Driver fetchDriver (TestExecutionContext context) {
+        String userPersona = context.getTestStateAsString(TEST_CONTEXT.CURRENT_USER_PERSONA);
+        Drivers allDrivers = (Drivers) context.getTestState(TEST_CONTEXT.ALL_DRIVERS);
         return allDrivers.getDriverForUser(userPersona);
     }
 
     public static TestExecutionContext getTestExecutionContext (long threadId) {
-        return SessionContext.getTestExecutionContext(threadId);
+        return (Thread.currentThread().getId() == threadId)
+                ? ScenarioContext.current()
+                : SessionContext.getTestExecutionContext(threadId);
     }
 
     public static Visual fetchEyes (long threadId) {
-        String userPersona = getTestExecutionContext(threadId).getTestStateAsString(TEST_CONTEXT.CURRENT_USER_PERSONA);
-        Drivers allDrivers = (Drivers) getTestExecutionContext(threadId).getTestState(TEST_CONTEXT.ALL_DRIVERS);
-        return allDrivers.getDriverForUser(userPersona).getVisual();
+        return fetchEyes(getTestExecutionContext(threadId));
+    }
+
+    public static Visual fetchEyes (TestExecutionContext context) {
+        return fetchDriver(context).getVisual();
     }
 
-    private static Map<String, Map> loadEnvironmentConfiguration (String environment) {
-        String envConfigFile = configs.get(ENVIRONMENT_CONFIG_FILE);
+    private static Map<String, Object> loadEnvironmentConfiguration (String environment) {
+        String envConfigFile = configuration.getEnvironmentConfigFile();
         LOGGER.info("Loading environment configuration from ENVIRONMENT_CONFIG_FILE: "
                 + envConfigFile
                 +" for environment: "
                 + environment);
         return (NOT_SET.equalsIgnoreCase(envConfigFile))
                 ? new HashMap<>()
-                : JsonFile.getNodeValueAsMapFromJsonFile(environment, envConfigFile);
+                : new HashMap<>(JsonFile.getNodeValueAsMapFromJsonFile(environment, envConfigFile));
     }
 
     public static SoftAssertions getSoftAssertion (long threadId) {
@@ -227,8 +313,12 @@ public class Runner {
     }
 
     public static Platform fetchPlatform (long threadId) {
-        String userPersona = getTestExecutionContext(threadId).getTestStateAsString(TEST_CONTEXT.CURRENT_USER_PERSONA);
-        Drivers allDrivers = (Drivers) getTestExecutionContext(threadId).getTestState(TEST_CONTEXT.ALL_DRIVERS);
+        return fetchPlatform(getTestExecutionContext(threadId));
+    }
+
+    public static Platform fetchPlatform (TestExecutionContext context) {
+        String userPersona = context.getTestStateAsString(TEST_CONTEXT.CURRENT_USER_PERSONA);
+        Drivers allDrivers = (Drivers) context.getTestState(TEST_CONTEXT.ALL_DRIVERS);
         return allDrivers.getPlatformForUser(userPersona);
     }
 
@@ -238,60 +328,165 @@ public class Runner {
         allDrivers.attachLogsAndCloseAllWebDrivers(context);
     }
 
-    private static Map<String, Map> loadTestDataForEnvironment (String environment) {
-        String testDataFile = configs.get(TEST_DATA_FILE);
+    private static Map<String, Object> loadTestDataForEnvironment (String environment) {
+        String testDataFile = configuration.getTestDataFile();
         LOGGER.info("Loading test data from TEST_DATA_FILE: "
                 + testDataFile
                 +" for environment: "
                 + environment);
-        return (NOT_SET.equalsIgnoreCase(testDataFile)) ? new HashMap<>() : JsonFile.getNodeValueAsMapFromJsonFile(environment, testDataFile);
+        return (NOT_SET.equalsIgnoreCase(testDataFile)) ? new HashMap<>() : new HashMap<>(JsonFile.getNodeValueAsMapFromJsonFile(environment, testDataFile));
     }
 
     public static String getTargetEnvironment () {
-        return configs.get(TARGET_ENVIRONMENT);
+        return configuration.getTargetEnvironment();
     }
 
     public static String getBaseURLForWeb () {
-        return configs.get(BASE_URL_FOR_WEB);
+        return configuration.getBaseUrlForWeb();
     }
 
     public static String getAppPackageName () {
-        return configs.get(APP_PACKAGE_NAME);
+        return configuration.getAppPackageName();
     }
 
     public static boolean isRunningInCI () {
-        return configsBoolean.get(RUN_IN_CI);
+        return configuration.isRunInCI();
+    }
+
+    public static int getWaitTimeoutInSeconds () {
+        return configuration.getWaitTimeoutInSeconds();
+    }
+
+    public static int getTeardownTimeoutInSeconds () {
+        return configuration.getTeardownTimeoutInSeconds();
+    }
+
+    public static int getWaitPollingIntervalInMillis () {
+        return configuration.getWaitPollingIntervalInMillis();
+    }
+
+    public static int getWaitMaxPollingIntervalInMillis () {
+        return configuration.getWaitMaxPollingIntervalInMillis();
+    }
+
+    public static double getWaitBackoffMultiplier () {
+        return configuration.getWaitBackoffMultiplier();
+    }
+
+    public static String getScreenShotFormat () {
+        return configuration.getScreenShotFormat();
+    }
+
+    public static int getScreenShotQuality () {
+        return configuration.getScreenShotQuality();
+    }
+
+    public static int getScreenShotScalePercent () {
+        return configuration.getScreenShotScalePercent();
+    }
+
+    public static int getScreenShotByteBudgetInMB () {
+        return configuration.getScreenShotByteBudgetInMB();
+    }
+
+    public static boolean isDriverCommandMetricsEnabled () {
+        return configuration.isDriverCommandMetrics();
+    }
+
+    public static boolean isVirtualThreadsEnabled () {
+        return configuration.isVirtualThreads();
+    }
+
+    public static boolean isRerunFailedEnabled () {
+        return configuration.isRerunFailed();
+    }
+
+    public static int getShardIndex () {
+        return configuration.getShardIndex();
+    }
+
+    public static int getShardTotal () {
+        return configuration.getShardTotal();
+    }
+
+    public static SchedulingStrategy getSchedulingStrategy () {
+        return configuration.getSchedulingStrategy();
+    }
+
+    public static String getScenarioDurationsFile () {
+        return configuration.getScenarioDurationsFile();
+    }
+
+    public static Path getShardDurationsFile () {
+        String shardDurationsFile = configuration.getShardDurationsFile();
+        return NOT_SET.equals(shardDurationsFile) ? null : Paths.get(shardDurationsFile);
+    }
+
+    public static boolean isWebDriverPoolEnabled () {
+        return getWebDriverPoolSize() > 0;
+    }
+
+    public static int getWebDriverPoolSize () {
+        return configuration.getWebDriverPoolSize();
+    }
+
+    public static String getRemoteWebDriverGridUrls () {
+        return configuration.getRemoteWebDriverGridUrls();
+    }
+
+    public static int getRemoteWebDriverQuarantineAfterFailures () {
+        return configuration.getRemoteWebDriverQuarantineAfterFailures();
+    }
+
+    public static int getRemoteWebDriverQuarantineInSeconds () {
+        return configuration.getRemoteWebDriverQuarantineInSeconds();
+    }
+
+    public static int getWebDriverPoolMaxUsesPerBrowser () {
+        return configuration.getWebDriverPoolMaxUsesPerBrowser();
+    }
+
+    public static int getWebDriverPoolLeaseTimeoutInSeconds () {
+        return configuration.getWebDriverPoolLeaseTimeoutInSeconds();
     }
 
-    public static Map initialiseApplitoolsConfiguration () {
+    public static String getLogDirectory () {
+        return configuration.getLogDirectory();
+    }
+
+    public static Map<String, Object> initialiseApplitoolsConfiguration () {
+        Configuration currentConfiguration = configuration;
+        Map<String, Object> applitoolsConfiguration = currentConfiguration.getApplitoolsConfiguration();
         if (applitoolsConfiguration.isEmpty()) {
-            getApplitoolsConfigFromProvidedConfigFile();
-            applitoolsConfiguration.put(APPLITOOLS.APP_NAME, configs.get(Runner.APP_NAME));
+            applitoolsConfiguration = getApplitoolsConfigFromProvidedConfigFile(currentConfiguration.getApplitoolsConfigurationFile());
+            applitoolsConfiguration.put(APPLITOOLS.APP_NAME, currentConfiguration.getAppName());
             applitoolsConfiguration.put(APPLITOOLS.API_KEY, Variable.getOverriddenStringValue("APPLITOOLS_API_KEY", String.valueOf(applitoolsConfiguration.get(APPLITOOLS.API_KEY))));
-            applitoolsConfiguration.put(APPLITOOLS.BATCH_NAME, new BatchInfo(configs.get(LAUNCH_NAME) + "-" + configs.get(TARGET_ENVIRONMENT)));
-            applitoolsConfiguration.put(APPLITOOLS.DEFAULT_MATCH_LEVEL, getMatchLevel());
-            applitoolsConfiguration.put(APPLITOOLS.RECTANGLE_SIZE, getViewportSize());
-            applitoolsConfiguration.put(APPLITOOLS.IS_BENCHMARKING_ENABLED, isBenchmarkingEnabled());
+            applitoolsConfiguration.put(APPLITOOLS.BATCH_NAME, new BatchInfo(currentConfiguration.getLaunchName() + "-" + currentConfiguration.getTargetEnvironment()));
+            applitoolsConfiguration.put(APPLITOOLS.DEFAULT_MATCH_LEVEL, getMatchLevel(applitoolsConfiguration));
+            applitoolsConfiguration.put(APPLITOOLS.RECTANGLE_SIZE, getViewportSize(applitoolsConfiguration));
+            applitoolsConfiguration.put(APPLITOOLS.IS_BENCHMARKING_ENABLED, isBenchmarkingEnabled(applitoolsConfiguration));
+            Configuration updatedConfiguration = currentConfiguration.toBuilder().applitoolsConfiguration(applitoolsConfiguration).build();
+            publish(updatedConfiguration);
+            applitoolsConfiguration = updatedConfiguration.getApplitoolsConfiguration();
         }
         LOGGER.info("applitoolsConfiguration: " + applitoolsConfiguration);
         return applitoolsConfiguration;
     }
 
-    private static boolean isBenchmarkingEnabled () {
+    private static boolean isBenchmarkingEnabled (Map<String, Object> applitoolsConfiguration) {
         return Boolean.parseBoolean(String.valueOf(applitoolsConfiguration.get(APPLITOOLS.ENABLE_BENCHMARK_PER_VALIDATION)));
     }
 
-    private static void getApplitoolsConfigFromProvidedConfigFile () {
-        String applitoolsConfigurationFileName = configs.get(APPLITOOLS_CONFIGURATION);
+    private static Map<String, Object> getApplitoolsConfigFromProvidedConfigFile (String applitoolsConfigurationFileName) {
         if (applitoolsConfigurationFileName.equals(NOT_SET)) {
             LOGGER.info("Applitools configuration not provided. Will use defaults%n");
-        } else {
-            LOGGER.info("Loading Applitools configuration from: "+  applitoolsConfigurationFileName);
-            applitoolsConfiguration = JsonFile.loadJsonFile(applitoolsConfigurationFileName);
+            return new HashMap<>();
         }
+        LOGGER.info("Loading Applitools configuration from: "+  applitoolsConfigurationFileName);
+        return new HashMap<>(JsonFile.loadJsonFile(applitoolsConfigurationFileName));
     }
 
-    private static MatchLevel getMatchLevel () {
+    private static MatchLevel getMatchLevel (Map<String, Object> applitoolsConfiguration) {
         MatchLevel matchLevel;
         try {
             matchLevel = MatchLevel.valueOf(String.valueOf(applitoolsConfiguration.get(APPLITOOLS.DEFAULT_MATCH_LEVEL)));
@@ -302,7 +497,7 @@ public class Runner {
     }
 
     @NotNull
-    private static RectangleSize getViewportSize () {
+    private static RectangleSize getViewportSize (Map<String, Object> applitoolsConfiguration) {
         RectangleSize viewportSize = new RectangleSize(1280, 960);
         try {
             String[] viewP = ((String) applitoolsConfiguration.get(APPLITOOLS.VIEWPORT_SIZE)).split("x");
@@ -314,55 +509,234 @@ public class Runner {
     }
 
     private void getBranchName () {
-        String[] listOfDevices = new String[]{"git", "rev-parse", "--abbrev-ref", "HEAD"};
-        CommandLineResponse response = CommandLineExecutor.execCommand(listOfDevices);
+        CommandLine getBranchName = new CommandLine("git", "rev-parse", "--abbrev-ref", "HEAD").withTimeout(Duration.ofSeconds(10));
+        CommandLineResponse response = CommandLineExecutor.execCommand(getBranchName);
         String branchName = response.getStdOut();
         LOGGER.info("BRANCH_NAME: " + branchName);
-        configs.put(BRANCH_NAME, branchName);
+        publish(configuration.toBuilder().branchName(branchName).build());
     }
 
     private void loadAndUpdateConfigParameters (String configFilePath) {
-        configs.put(CONFIG_FILE, configFilePath);
-        buildMapOfRequiredProperties();
-
-        LOGGER.info("Updated string values from property file for missing properties: \n" + configs);
-        LOGGER.info("Updated boolean values from property file for missing properties: \n" + configsBoolean);
-        LOGGER.info("Updated integer values from property file for missing properties: \n" + configsInteger);
+        publish(buildConfiguration(configFilePath));
+        LOGGER.info("Loaded configuration: \n" + configuration);
     }
 
     public void run (ArrayList<String> args, String stepDefsDir, String featuresDir) {
         args.add("--glue");
         args.add(stepDefsDir);
-        args.add(featuresDir);
+        if (null == previouslyFailedScenarios) {
+            args.add(featuresDir);
+        } else {
+            LOGGER.info("Rerunning failed scenarios of the previous run: " + previouslyFailedScenarios.getFeaturePathsWithLines());
+            args.addAll(previouslyFailedScenarios.getFeaturePathsWithLines());
+        }
         LOGGER.info("Begin running tests...");
         LOGGER.info("Args: " + args);
         String[] array = args.stream().toArray(String[]::new);
-        byte exitStatus = Main.run(array);
+        byte exitStatus;
+        try {
+            exitStatus = runCucumber(array);
+            recordScenarioDurations();
+            if (null != previouslyFailedScenarios) {
+                previouslyFailedScenarios.saveRerunSummary(getCucumberJsonReport(),
+                        Paths.get(configuration.getLogDirectory(), "reports", "rerun-summary.txt"));
+            }
+        } finally {
+            Drivers.shutdownWebDriverPool();
+            Drivers.logRemoteWebDriverGridSummary();
+            Visual.closeWebEyesRunner();
+        }
+        if (isDriverCommandMetricsEnabled()) {
+            CommandMetrics.getRunMetrics().saveAsPrometheusText(Paths.get(configuration.getLogDirectory(), "reports", "driver-commands.prom"));
+        }
         LOGGER.info("Output of test run: " + exitStatus);
         if (exitStatus != 0) {
             throw new TestExecutionFailedException("Test execution failed. Exit status: " + exitStatus);
         }
     }
 
-    private void buildMapOfRequiredProperties () {
-        configs.put(APP_NAME, getOverriddenStringValue(APP_NAME, getStringValueFromPropertiesIfAvailable(APP_NAME, NOT_SET)));
-        configs.put(APP_PACKAGE_NAME, getOverriddenStringValue(APP_PACKAGE_NAME, getStringValueFromPropertiesIfAvailable(APP_PACKAGE_NAME, NOT_SET)));
-        configs.put(APP_PATH, getOverriddenStringValue(APP_PATH, getStringValueFromPropertiesIfAvailable(APP_PATH, NOT_SET)));
-        configs.put(APPLITOOLS_CONFIGURATION, getStringValueFromPropertiesIfAvailable(APPLITOOLS_CONFIGURATION, NOT_SET));
-        configs.put(BROWSER, getOverriddenStringValue(BROWSER, getStringValueFromPropertiesIfAvailable(BROWSER, CHROME)));
-        configs.put(BASE_URL_FOR_WEB, getOverriddenStringValue(BASE_URL_FOR_WEB, getStringValueFromPropertiesIfAvailable(BASE_URL_FOR_WEB, NOT_SET)));
-        configs.put(CAPS, getOverriddenStringValue(CAPS, getStringValueFromPropertiesIfAvailable(CAPS, NOT_SET)));
-        configs.put(DEVICE_LAB_URL, getOverriddenStringValue(DEVICE_LAB_URL, getStringValueFromPropertiesIfAvailable(DEVICE_LAB_URL, NOT_SET)));
-        configs.put(ENVIRONMENT_CONFIG_FILE, getOverriddenStringValue(ENVIRONMENT_CONFIG_FILE, getStringValueFromPropertiesIfAvailable(ENVIRONMENT_CONFIG_FILE, NOT_SET)));
-        configsBoolean.put(IS_VISUAL, getOverriddenBooleanValue(IS_VISUAL, getBooleanValueFromPropertiesIfAvailable(IS_VISUAL, false)));
-        configs.put(LOG_DIR, getOverriddenStringValue(LOG_DIR, getStringValueFromPropertiesIfAvailable(LOG_DIR, DEFAULT_LOG_DIR)));
-        configs.put(LOG_PROPERTIES_FILE, getStringValueFromPropertiesIfAvailable(LOG_PROPERTIES_FILE, DEFAULT_LOG_PROPERTIES_FILE));
-        platform = Platform.valueOf(getOverriddenStringValue(PLATFORM, getStringValueFromPropertiesIfAvailable(PLATFORM, Platform.android.name())));
-        configsInteger.put(PARALLEL, getOverriddenIntValue(PARALLEL, Integer.parseInt(getStringValueFromPropertiesIfAvailable(PARALLEL, String.valueOf(DEFAULT_PARALLEL)))));
-        configsBoolean.put(RUN_IN_CI, getOverriddenBooleanValue(RUN_IN_CI, getBooleanValueFromPropertiesIfAvailable(RUN_IN_CI, false)));
-        configs.put(TAG, getOverriddenStringValue(TAG, getStringValueFromPropertiesIfAvailable(TAG, NOT_SET)));
-        configs.put(TARGET_ENVIRONMENT, getOverriddenStringValue(TARGET_ENVIRONMENT, getStringValueFromPropertiesIfAvailable(TARGET_ENVIRONMENT, NOT_SET)));
-        configs.put(TEST_DATA_FILE, getOverriddenStringValue(TEST_DATA_FILE, getStringValueFromPropertiesIfAvailable(TEST_DATA_FILE, NOT_SET)));
+    private byte runCucumber (String[] args) {
+        PickleOrder pickleOrder = getPickleOrder();
+        if (null == pickleOrder) {
+            return Main.run(args);
+        }
+        // Main.run cannot be given a PickleOrder. Cucumber's own parsers build the options Main.run would use, and the
+        // pickle order is set on top of them, as the highest precedence layer
+        RuntimeOptions propertiesOptions = null;
+        for (Map<String, String> properties : Arrays.asList(CucumberProperties.fromPropertiesFile(), CucumberProperties.fromEnvironment(), CucumberProperties.fromSystemProperties())) {
+            RuntimeOptionsBuilder propertiesOptionsBuilder = new CucumberPropertiesParser().parse(properties);
+            propertiesOptions = (null == propertiesOptions) ? propertiesOptionsBuilder.build() : propertiesOptionsBuilder.build(propertiesOptions);
+        }
+        CommandlineOptionsParser commandlineOptionsParser = new CommandlineOptionsParser(System.out);
+        RuntimeOptions commandlineOptions = commandlineOptionsParser
+                .parse(args)
+                .addDefaultGlueIfAbsent()
+                .addDefaultFeaturePathIfAbsent()
+                .addDefaultFormatterIfAbsent()
+                .addDefaultSummaryPrinterIfAbsent()
+                .enablePublishPlugin()
+                .build(propertiesOptions);
+        Optional<Byte> exitStatus = commandlineOptionsParser.exitStatus();
+        if (exitStatus.isPresent()) {
+            return exitStatus.get();
+        }
+        ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+        io.cucumber.core.runtime.Runtime runtime = io.cucumber.core.runtime.Runtime.builder()
+                .withRuntimeOptions(new RuntimeOptionsBuilder().setPickleOrder(pickleOrder).build(commandlineOptions))
+                .withClassLoader(() -> classLoader)
+                .build();
+        runtime.run();
+        return runtime.exitStatus();
+    }
+
+    private PickleOrder getPickleOrder () {
+        boolean isLongestFirst = SchedulingStrategy.LONGEST_FIRST == configuration.getSchedulingStrategy();
+        boolean isSharded = configuration.getShardTotal() > 1 && null == previouslyFailedScenarios;
+        if (!isLongestFirst && !isSharded) {
+            return null;
+        }
+        PickleOrder pickleOrder = StandardPickleOrders.lexicalUriOrder();
+        if (isLongestFirst) {
+            ScenarioDurations scenarioDurations = ScenarioDurations.load(Paths.get(configuration.getScenarioDurationsFile()));
+            if (scenarioDurations.isEmpty()) {
+                LOGGER.info("No scenario durations available. Running scenarios in feature file order");
+            } else {
+                LOGGER.info("Running scenarios longest first, using durations from: " + configuration.getScenarioDurationsFile());
+                pickleOrder = new LongestFirstPickleOrder(scenarioDurations);
+            }
+        }
+        if (isSharded) {
+            ScenarioDurations sharedDurations = ScenarioShards.loadSharedDurations(getShardDurationsFile());
+            LOGGER.info(String.format("Running shard '%d' of '%d'. Assigning scenarios to shards by: '%s'",
+                    configuration.getShardIndex(),
+                    configuration.getShardTotal(),
+                    sharedDurations.isEmpty() ? "location hash" : "duration"));
+            pickleOrder = new ShardPickleOrder(pickleOrder, sharedDurations, configuration.getShardIndex(), configuration.getShardTotal());
+        }
+        return pickleOrder;
+    }
+
+    private void loadPreviouslyFailedScenarios () {
+        if (!configuration.isRerunFailed()) {
+            return;
+        }
+        Path previousReport = getCucumberJsonReport();
+        if (!Files.exists(previousReport)) {
+            throw new InvalidTestDataException(String.format("%s=true, but the previous run's report is not available: '%s'",
+                    RERUN_FAILED, previousReport));
+        }
+        previouslyFailedScenarios = FailedScenarios.fromReport(previousReport);
+    }
+
+    private void seedScenarioDurationsFromPreviousRun () {
+        Path scenarioDurationsFile = Paths.get(configuration.getScenarioDurationsFile());
+        if (!Files.exists(scenarioDurationsFile) && !isSharedByShards(scenarioDurationsFile)) {
+            ScenarioDurations.load(scenarioDurationsFile).recordRun(getCucumberJsonReport());
+        }
+    }
+
+    private void recordScenarioDurations () {
+        Path scenarioDurationsFile = Paths.get(configuration.getScenarioDurationsFile());
+        if (isSharedByShards(scenarioDurationsFile)) {
+            LOGGER.info(String.format("Not recording the durations of shard '%d' in the shared durations file: '%s'. Merge the durations of all shards after the run",
+                    configuration.getShardIndex(), scenarioDurationsFile));
+            return;
+        }
+        try {
+            ScenarioDurations.load(scenarioDurationsFile).recordRun(getCucumberJsonReport());
+        } catch (InvalidTestDataException e) {
+            LOGGER.info("Unable to record scenario durations: " + e.getMessage());
+        }
+    }
+
+    // a shard has run only some of the scenarios - its durations must not replace the ones all shards assign scenarios by
+    private boolean isSharedByShards (Path scenarioDurationsFile) {
+        Path shardDurationsFile = getShardDurationsFile();
+        return configuration.getShardTotal() > 1
+                && null != shardDurationsFile
+                && shardDurationsFile.toAbsolutePath().normalize().equals(scenarioDurationsFile.toAbsolutePath().normalize());
+    }
+
+    private static Path getCucumberJsonReport () {
+        return Paths.get(configuration.getLogDirectory(), "reports", "cucumber-json-report.json");
+    }
+
+    private Configuration buildConfiguration (String configFilePath) {
+        Configuration defaults = Configuration.builder().build();
+        return Configuration.builder()
+                .configFile(configFilePath)
+                .appName(getOverriddenStringValue(APP_NAME, getStringValueFromPropertiesIfAvailable(APP_NAME, NOT_SET)))
+                .appPackageName(getOverriddenStringValue(APP_PACKAGE_NAME, getStringValueFromPropertiesIfAvailable(APP_PACKAGE_NAME, NOT_SET)))
+                .appPath(getOverriddenStringValue(APP_PATH, getStringValueFromPropertiesIfAvailable(APP_PATH, NOT_SET)))
+                .applitoolsConfigurationFile(getStringValueFromPropertiesIfAvailable(APPLITOOLS_CONFIGURATION, NOT_SET))
+                .browser(getOverriddenStringValue(BROWSER, getStringValueFromPropertiesIfAvailable(BROWSER, defaults.getBrowser())))
+                .baseUrlForWeb(getOverriddenStringValue(BASE_URL_FOR_WEB, getStringValueFromPropertiesIfAvailable(BASE_URL_FOR_WEB, NOT_SET)))
+                .caps(getOverriddenStringValue(CAPS, getStringValueFromPropertiesIfAvailable(CAPS, NOT_SET)))
+                .deviceLabInsecure(getOverriddenBooleanValue(DEVICE_LAB_INSECURE, getBooleanValueFromPropertiesIfAvailable(DEVICE_LAB_INSECURE, false)))
+                .deviceLabUploadCacheFile(getOverriddenStringValue(DEVICE_LAB_UPLOAD_CACHE_FILE, getStringValueFromPropertiesIfAvailable(DEVICE_LAB_UPLOAD_CACHE_FILE, defaults.getDeviceLabUploadCacheFile())))
+                .deviceLabURL(getOverriddenStringValue(DEVICE_LAB_URL, getStringValueFromPropertiesIfAvailable(DEVICE_LAB_URL, NOT_SET)))
+                .driverCommandMetrics(getOverriddenBooleanValue(DRIVER_COMMAND_METRICS, getBooleanValueFromPropertiesIfAvailable(DRIVER_COMMAND_METRICS, false)))
+                .environmentConfigFile(getOverriddenStringValue(ENVIRONMENT_CONFIG_FILE, getStringValueFromPropertiesIfAvailable(ENVIRONMENT_CONFIG_FILE, NOT_SET)))
+                .visual(getOverriddenBooleanValue(IS_VISUAL, getBooleanValueFromPropertiesIfAvailable(IS_VISUAL, false)))
+                .logDirectory(getOverriddenStringValue(LOG_DIR, getStringValueFromPropertiesIfAvailable(LOG_DIR, defaults.getLogDirectory())))
+                .logPropertiesFile(getStringValueFromPropertiesIfAvailable(LOG_PROPERTIES_FILE, defaults.getLogPropertiesFile()))
+                .platform(getEnumValue(PLATFORM, Platform.class, getOverriddenStringValue(PLATFORM, getStringValueFromPropertiesIfAvailable(PLATFORM, defaults.getPlatform().name()))))
+                .parallel(getIntValue(PARALLEL, defaults.getParallel()))
+                .schedulingStrategy(getEnumValue(SCHEDULING_STRATEGY, SchedulingStrategy.class, getOverriddenStringValue(SCHEDULING_STRATEGY, getStringValueFromPropertiesIfAvailable(SCHEDULING_STRATEGY, defaults.getSchedulingStrategy().name()))))
+                .shardDurationsFile(getOverriddenStringValue(SHARD_DURATIONS_FILE, getStringValueFromPropertiesIfAvailable(SHARD_DURATIONS_FILE, NOT_SET)))
+                .shardIndex(getIntValue(SHARD_INDEX, defaults.getShardIndex()))
+                .shardTotal(getIntValue(SHARD_TOTAL, defaults.getShardTotal()))
+                .scenarioDurationsFile(getOverriddenStringValue(SCENARIO_DURATIONS_FILE, getStringValueFromPropertiesIfAvailable(SCENARIO_DURATIONS_FILE, defaults.getScenarioDurationsFile())))
+                .rerunFailed(getOverriddenBooleanValue(RERUN_FAILED, getBooleanValueFromPropertiesIfAvailable(RERUN_FAILED, false)))
+                .remoteWebDriverGridUrls(getOverriddenStringValue(REMOTE_WEBDRIVER_GRID_URLS, getStringValueFromPropertiesIfAvailable(REMOTE_WEBDRIVER_GRID_URLS, defaults.getRemoteWebDriverGridUrls())))
+                .remoteWebDriverQuarantineAfterFailures(getIntValue(REMOTE_WEBDRIVER_QUARANTINE_AFTER_FAILURES, defaults.getRemoteWebDriverQuarantineAfterFailures()))
+                .remoteWebDriverQuarantineInSeconds(getIntValue(REMOTE_WEBDRIVER_QUARANTINE_IN_SECONDS, defaults.getRemoteWebDriverQuarantineInSeconds()))
+                .runInCI(getOverriddenBooleanValue(RUN_IN_CI, getBooleanValueFromPropertiesIfAvailable(RUN_IN_CI, false)))
+                .screenShotByteBudgetInMB(getIntValue(SCREENSHOT_BYTE_BUDGET_IN_MB, defaults.getScreenShotByteBudgetInMB()))
+                .screenShotFormat(getOverriddenStringValue(SCREENSHOT_FORMAT, getStringValueFromPropertiesIfAvailable(SCREENSHOT_FORMAT, defaults.getScreenShotFormat())))
+                .screenShotQuality(getIntValue(SCREENSHOT_QUALITY, defaults.getScreenShotQuality()))
+                .screenShotScalePercent(getIntValue(SCREENSHOT_SCALE_PERCENT, defaults.getScreenShotScalePercent()))
+                .tag(getOverriddenStringValue(TAG, getStringValueFromPropertiesIfAvailable(TAG, NOT_SET)))
+                .targetEnvironment(getOverriddenStringValue(TARGET_ENVIRONMENT, getStringValueFromPropertiesIfAvailable(TARGET_ENVIRONMENT, NOT_SET)))
+                .testDataFile(getOverriddenStringValue(TEST_DATA_FILE, getStringValueFromPropertiesIfAvailable(TEST_DATA_FILE, NOT_SET)))
+                .virtualThreads(getOverriddenBooleanValue(VIRTUAL_THREADS, getBooleanValueFromPropertiesIfAvailable(VIRTUAL_THREADS, false)))
+                .testDataLeaseTimeoutInSeconds(getIntValue(TEST_DATA_LEASE_TIMEOUT_IN_SECONDS, defaults.getTestDataLeaseTimeoutInSeconds()))
+                .teardownTimeoutInSeconds(getIntValue(TEARDOWN_TIMEOUT_IN_SECONDS, defaults.getTeardownTimeoutInSeconds()))
+                .waitBackoffMultiplier(getDoubleValue(WAIT_BACKOFF_MULTIPLIER, defaults.getWaitBackoffMultiplier()))
+                .waitMaxPollingIntervalInMillis(getIntValue(WAIT_MAX_POLLING_INTERVAL_IN_MILLIS, defaults.getWaitMaxPollingIntervalInMillis()))
+                .waitPollingIntervalInMillis(getIntValue(WAIT_POLLING_INTERVAL_IN_MILLIS, defaults.getWaitPollingIntervalInMillis()))
+                .waitTimeoutInSeconds(getIntValue(WAIT_TIMEOUT_IN_SECONDS, defaults.getWaitTimeoutInSeconds()))
+                .webDriverPoolLeaseTimeoutInSeconds(getIntValue(WEB_DRIVER_POOL_LEASE_TIMEOUT_IN_SECONDS, defaults.getWebDriverPoolLeaseTimeoutInSeconds()))
+                .webDriverPoolMaxUsesPerBrowser(getIntValue(WEB_DRIVER_POOL_MAX_USES_PER_BROWSER, defaults.getWebDriverPoolMaxUsesPerBrowser()))
+                .webDriverPoolSize(getIntValue(WEB_DRIVER_POOL_SIZE, defaults.getWebDriverPoolSize()))
+                .build();
+    }
+
+    private int getIntValue (String key, int defaultValue) {
+        String value = getOverriddenStringValue(key, getStringValueFromPropertiesIfAvailable(key, String.valueOf(defaultValue)));
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new InvalidTestDataException(String.format("Invalid value: '%s' for: '%s'. Expected an integer", value, key), e);
+        }
+    }
+
+    private double getDoubleValue (String key, double defaultValue) {
+        String value = getOverriddenStringValue(key, getStringValueFromPropertiesIfAvailable(key, String.valueOf(defaultValue)));
+        try {
+            return Double.parseDouble(value.trim());
+        } catch (NumberFormatException e) {
+            throw new InvalidTestDataException(String.format("Invalid value: '%s' for: '%s'. Expected a number", value, key), e);
+        }
+    }
+
+    private <T extends Enum<T>> T getEnumValue (String key, Class<T> enumType, String value) {
+        for (T enumConstant : enumType.getEnumConstants()) {
+            if (enumConstant.name().equalsIgnoreCase(value.trim())) {
+                return enumConstant;
+            }
+        }
+        throw new InvalidTestDataException(String.format("Invalid value: '%s' for: '%s'. Expected one of: %s", value, key, Arrays.toString(enumType.getEnumConstants())));
     }
 
     private String getStringValueFromPropertiesIfAvailable (String key, String defaultValue) {
@@ -393,27 +767,32 @@ public class Runner {
     }
 
     private void setupWebExecution () {
-        if (platform.equals(Platform.web)) {
-            configs.put(APP_PATH, configs.get(BROWSER));
+        if (configuration.getPlatform().equals(Platform.web)) {
+            publish(configuration.toBuilder()
+                    .appPath(configuration.getBrowser())
+                    .executedOn("Local Browsers")
+                    .build());
             cukeArgs.add("--threads");
-            cukeArgs.add(String.valueOf(configsInteger.get(PARALLEL)));
+            cukeArgs.add(String.valueOf(configuration.getParallel()));
             cukeArgs.add(PLUGIN);
             cukeArgs.add("com.znsio.e2e.listener.CucumberWebScenarioListener");
             cukeArgs.add(PLUGIN);
             cukeArgs.add("com.znsio.e2e.listener.CucumberWebScenarioReporterListener");
-            configs.put(EXECUTED_ON, "Local Browsers");
+            if (isWebDriverPoolEnabled()) {
+                Drivers.prewarmWebDriverPool(configuration.getParallel());
+            }
         }
     }
 
     private void setupAndroidExecution () {
-        if (platform.equals(Platform.android)) {
-            if (configsBoolean.get(RUN_IN_CI)) {
+        if (configuration.getPlatform().equals(Platform.android)) {
+            if (configuration.isRunInCI()) {
                 setupCloudExecution();
             } else {
                 setupLocalExecution();
             }
             cukeArgs.add("--threads");
-            cukeArgs.add(String.valueOf(configsInteger.get(PARALLEL)));
+            cukeArgs.add(String.valueOf(configuration.getParallel()));
             cukeArgs.add(PLUGIN);
             cukeArgs.add("com.cucumber.listener.CucumberScenarioListener");
             cukeArgs.add(PLUGIN);
@@ -422,29 +801,29 @@ public class Runner {
     }
 
     private void updateAppPath () {
-        String appPath = String.valueOf(configs.get(APP_PATH));
+        String appPath = configuration.getAppPath();
         LOGGER.info("Update path to Apk: " + appPath);
         if (appPath.equals(NOT_SET)) {
             appPath = getAppPathFromCapabilities();
-            configs.put(APP_PATH, appPath);
-            String capabilitiesFile = configs.get(CAPS);
-            LOGGER.info("\tUsing AppPath: "+ appPath +" in file: "+ capabilitiesFile +":: " +  platform);
+            publish(configuration.toBuilder().appPath(appPath).build());
+            String capabilitiesFile = configuration.getCaps();
+            LOGGER.info("\tUsing AppPath: "+ appPath +" in file: "+ capabilitiesFile +":: " +  configuration.getPlatform());
         } else {
             LOGGER.info("\tUsing AppPath provided as environment variable -  "+ appPath);
         }
     }
 
     private String getAppPathFromCapabilities () {
-        String capabilityFile = configs.get(CAPS);
-        return JsonFile.getNodeValueAsStringFromJsonFile(capabilityFile, new String[]{platform.name(), "app", "local"});
+        String capabilityFile = configuration.getCaps();
+        return JsonFile.getNodeValueAsStringFromJsonFile(capabilityFile, new String[]{configuration.getPlatform().name(), "app", "local"});
     }
 
     private void updateCapabilities (String emailID, String authenticationKey) {
-        String capabilityFile = configs.get(CAPS);
-        String appPath = configs.get(APP_PATH);
+        String capabilityFile = configuration.getCaps();
+        String appPath = configuration.getAppPath();
         Map<String, Map> loadedCapabilityFile = JsonFile.loadJsonFile(capabilityFile);
 
-        String platformName = platform.name();
+        String platformName = configuration.getPlatform().name();
         Map loadedPlatformCapability = loadedCapabilityFile.get(platformName);
         loadedPlatformCapability.remove("app");
         loadedPlatformCapability.put("pCloudy_Username", emailID);
@@ -453,7 +832,7 @@ public class Runner {
         loadedPlatformCapability.put("pCloudy_ApplicationName", splitAppPath[splitAppPath.length - 1]);
         String osVersion = (String) loadedPlatformCapability.get("pCloudy_DeviceVersion");
         ArrayList listOfAndroidDevices = new ArrayList();
-        for (int numDevices = 0; numDevices < configsInteger.get(PARALLEL); numDevices++) {
+        for (int numDevices = 0; numDevices < configuration.getParallel(); numDevices++) {
             HashMap<String, String> deviceInfo = new HashMap();
             deviceInfo.put("osVersion", osVersion);
             listOfAndroidDevices.add(deviceInfo);
@@ -465,14 +844,14 @@ public class Runner {
 
         String updatedCapabilitesFile = getTempPathForFile(capabilityFile);
         JsonFile.saveJsonToFile(loadedCapabilityFile, updatedCapabilitesFile);
-        configs.put(CAPS, updatedCapabilitesFile);
+        publish(configuration.toBuilder().caps(updatedCapabilitesFile).build());
     }
 
     private String getTempPathForFile (String fullFilePath) {
         LOGGER.info("\tgetTempPathForFile: fullFilePath: " + fullFilePath);
         Path path = Paths.get(fullFilePath);
         String fileName = path.getFileName().toString();
-        String tempFileName = configs.get(LOG_DIR) + "/" + fileName;
+        String tempFileName = configuration.getLogDirectory() + "/" + fileName;
         LOGGER.info("\tTemp file available here: " + tempFileName);
         return tempFileName;
     }
@@ -484,21 +863,17 @@ public class Runner {
         if (parallelCount == 0) {
             throw new EnvironmentSetupException("No devices available to run the tests");
         }
-        configsInteger.put(PARALLEL, parallelCount);
-        configs.put(EXECUTED_ON, "Local Devices");
+        publish(configuration.toBuilder()
+                .parallel(parallelCount)
+                .executedOn("Local Devices")
+                .build());
     }
 
     private List<Device> setupLocalDevices () {
         startADBServer();
         if (null == devices) {
-            JadbConnection jadb = new JadbConnection();
-            List<JadbDevice> deviceList = new ArrayList<>();
             devices = new ArrayList<>();
-            try {
-                deviceList = jadb.getDevices();
-            } catch (IOException | JadbException e) {
-                throw new EnvironmentSetupException("Unable to get devices information", e);
-            }
+            List<JadbDevice> deviceList = AdbService.getDevices();
 
             extractInfoFromEachDevice(deviceList);
 
@@ -508,46 +883,75 @@ public class Runner {
     }
 
     private void extractInfoFromEachDevice (List<JadbDevice> deviceList) {
-        deviceList.forEach(jadbDevice -> {
-            try {
-                Device device = new Device();
-                device.setName(jadbDevice.getSerial());
-                device.setUdid(jadbDevice.getSerial());
-//                    device.setUdid(getAdbCommandOutput(jadbDevice, "getprop", "ro.serialno"));
-                device.setApiLevel(getAdbCommandOutput(jadbDevice, "getprop", "ro.build.version.sdk"));
-                device.setDeviceManufacturer(getAdbCommandOutput(jadbDevice, "getprop", "ro.product.brand"));
-                device.setDeviceModel(getAdbCommandOutput(jadbDevice, "getprop", "ro.product.model"));
-                device.setOsVersion(getAdbCommandOutput(jadbDevice, "getprop", "ro.build.version.release"));
-                devices.add(device);
-                uninstallAppFromDevice(device, configs.get(APP_PACKAGE_NAME));
-            } catch (IOException | JadbException e) {
-                throw new EnvironmentSetupException("Unable to get devices information", e);
-            }
+        String appPackageName = configuration.getAppPackageName();
+        // daemon threads - a device that does not respond to adb must not keep the JVM alive
+        ExecutorService devicePreparationExecutor = Executors.newFixedThreadPool(Math.max(1, deviceList.size()), task -> {
+            Thread thread = new Thread(task, "device-preparation");
+            thread.setDaemon(true);
+            return thread;
         });
+        Map<String, Future<Device>> preparedDevices = new LinkedHashMap<>();
+        deviceList.forEach(jadbDevice -> preparedDevices.put(jadbDevice.getSerial(),
+                devicePreparationExecutor.submit(() -> prepareDevice(jadbDevice, appPackageName))));
+        devicePreparationExecutor.shutdown();
+        // the devices are prepared concurrently, so they all share one deadline
+        long deadline = System.nanoTime() + DEVICE_PREPARATION_TIMEOUT.toNanos();
+        try {
+            preparedDevices.forEach((serial, preparedDevice) -> {
+                try {
+                    devices.add(preparedDevice.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS));
+                } catch (ExecutionException e) {
+                    LOGGER.info(String.format("Unable to prepare device: '%s'. It will not be used for this run. Error: %s",
+                            serial,
+                            e.getCause()));
+                } catch (TimeoutException e) {
+                    preparedDevice.cancel(true);
+                    LOGGER.info(String.format("Device: '%s' not prepared within '%d' seconds. It will not be used for this run",
+                            serial,
+                            DEVICE_PREPARATION_TIMEOUT.getSeconds()));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new EnvironmentSetupException("Interrupted while preparing devices", e);
+                }
+            });
+        } finally {
+            devicePreparationExecutor.shutdownNow();
+        }
     }
 
-    private void uninstallAppFromDevice (Device device, String appPackageName) {
-        String[] uninstallAppiumAutomator2Server = new String[]{"adb", "-s", device.getUdid(), "uninstall", "io.appium.uiautomator2.server"};
-        CommandLineExecutor.execCommand(uninstallAppiumAutomator2Server);
-        String[] uninstallAppiumSettings = new String[]{"adb", "-s", device.getUdid(), "uninstall", "io.appium.settings"};
-        CommandLineExecutor.execCommand(uninstallAppiumSettings);
-        String[] uninstallApp = new String[]{"adb", "-s", device.getUdid(), "uninstall", appPackageName};
-        CommandLineExecutor.execCommand(uninstallApp);
+    private Device prepareDevice (JadbDevice jadbDevice, String appPackageName) {
+        long startTime = System.currentTimeMillis();
+        String serial = jadbDevice.getSerial();
+        Map<String, String> deviceProperties = AdbService.getDeviceProperties(serial);
+        Device device = new Device();
+        device.setName(serial);
+        device.setUdid(serial);
+        device.setApiLevel(deviceProperties.get("ro.build.version.sdk"));
+        device.setDeviceManufacturer(deviceProperties.get("ro.product.brand"));
+        device.setDeviceModel(deviceProperties.get("ro.product.model"));
+        device.setOsVersion(deviceProperties.get("ro.build.version.release"));
+        long propertiesFetchedTime = System.currentTimeMillis();
+        uninstallAppFromDevice(serial, appPackageName);
+        long preparedTime = System.currentTimeMillis();
+        LOGGER.info(String.format("Device: '%s' prepared in '%d' ms. Get properties: '%d' ms, Uninstall apps: '%d' ms",
+                serial,
+                preparedTime - startTime,
+                propertiesFetchedTime - startTime,
+                preparedTime - propertiesFetchedTime));
+        return device;
     }
 
-    @NotNull
-    private String getAdbCommandOutput (JadbDevice device, String command, String args) throws IOException, JadbException {
-        InputStream inputStream = device.executeShell(command, args);
-        LOGGER.info("\tadb command: "+  command +", args: "+ args +", ");
-        String adbCommandOutput = Stream.readAll(inputStream, StandardCharsets.UTF_8).replaceAll("\n$", "");
-        LOGGER.info("\tOutput: "+ adbCommandOutput);
-        return adbCommandOutput;
+    private void uninstallAppFromDevice (String serial, String appPackageName) {
+        List<String> uninstallOutputs = AdbService.executeShellCommands(serial, Arrays.asList(
+                "pm uninstall io.appium.uiautomator2.server",
+                "pm uninstall io.appium.settings",
+                "pm uninstall " + appPackageName));
+        LOGGER.debug("\t" + serial + ": uninstall apps: " + uninstallOutputs);
     }
 
     private void startADBServer () {
         LOGGER.info("Start ADB server");
-        String[] listOfDevices = new String[]{"adb", "devices"};
-        CommandLineExecutor.execCommand(listOfDevices);
+        CommandLineExecutor.execCommand(new CommandLine("adb", "devices").withTimeout(Duration.ofSeconds(30)));
     }
 
     private void setupCloudExecution () {
@@ -556,147 +960,56 @@ public class Runner {
         String authenticationKey = System.getenv("CLOUD_KEY");
         uploadAPKTopCloudy(emailID, authenticationKey);
         updateCapabilities(emailID, authenticationKey);
-        configs.put(EXECUTED_ON, "Cloud Devices");
+        publish(configuration.toBuilder().executedOn("Cloud Devices").build());
     }
 
     private void uploadAPKTopCloudy (String emailID, String authenticationKey) {
-        String appPath = configs.get(APP_PATH);
-        String deviceLabURL = configs.get(DEVICE_LAB_URL);
-
-        String authToken = getpCloudyAuthToken(emailID, authenticationKey, appPath, deviceLabURL);
-        if (isAPKAlreadyAvailableInCloud(authToken, appPath)) {
-            LOGGER.info("\tAPK is already available in cloud. No need to upload it again");
-        } else {
-            LOGGER.info("\tAPK is NOT available in cloud. Upload it");
-            configs.put(APP_PATH, uploadAPKToPCloudy(appPath, deviceLabURL, authToken));
-        }
-    }
-
-    private boolean isAPKAlreadyAvailableInCloud (String authToken, String appPath) {
-        Path path = Paths.get(appPath);
-        String appNameFromPath = path.getFileName().toString();
-        LOGGER.info("isAPKAlreadyAvailableInCloud: Start: " + appPath);
-
-        CommandLineResponse uploadResponse = getListOfUploadedFilesInDeviceFarm(authToken);
-        JsonObject result = JsonFile.convertToMap(uploadResponse.getStdOut()).getAsJsonObject("result");
-        JsonArray availableFiles = result.getAsJsonArray("files");
-        AtomicBoolean isFileAlreadyUploaded = new AtomicBoolean(false);
-        availableFiles.forEach(file -> {
-            String fileName = ((JsonObject) file).get("file").getAsString();
-            LOGGER.info("\tThis file is available in Device Farm: " + fileName);
-            if (appNameFromPath.equals(fileName)) {
-                isFileAlreadyUploaded.set(true);
-            }
-        });
-
-        return isFileAlreadyUploaded.get();
-    }
-
-    @NotNull
-    private CommandLineResponse getListOfUploadedFilesInDeviceFarm (String authToken) {
-        String deviceLabURL = configs.get(DEVICE_LAB_URL);
-        Map payload = new HashMap();
-        payload.put("token", authToken);
-        payload.put("limit", 15);
-        payload.put("filter", "all");
-        String[] listOfDevices = new String[]{
-                "curl --insecure",
-                "-H",
-                "Content-Type:application/json",
-                "-d",
-                "'" + JsonParser.parseString(payload.toString()) + "'",
-                deviceLabURL + "/api/drive"};
-
-        CommandLineResponse listFilesInPCloudyResponse = CommandLineExecutor.execCommand(listOfDevices);
-        LOGGER.info("\tlistFilesInPCloudyResponse: " + listFilesInPCloudyResponse.getStdOut());
-        JsonObject result = JsonFile.convertToMap(listFilesInPCloudyResponse.getStdOut()).getAsJsonObject("result");
-        JsonElement resultCode = result.get("code");
-        int uploadStatus = (null == resultCode) ? 400 : resultCode.getAsInt();
-        if (200 != uploadStatus) {
-            throw new EnvironmentSetupException(String.format("Unable to get list of uploaded files%n%s",
-                    listFilesInPCloudyResponse));
-        }
-
-        return listFilesInPCloudyResponse;
-    }
-
-    private String uploadAPKToPCloudy (String appPath, String deviceLabURL, String authToken) {
-        LOGGER.info("uploadAPKTopCloudy: " + appPath);
-        String[] listOfDevices = new String[]{
-                "curl --insecure",
-                "-X",
-                "POST",
-                "-F",
-                "file=@\"" + appPath + "\"",
-                "-F",
-                "\"source_type=raw\"",
-                "-F",
-                "\"token=" + authToken + "\"",
-                "-F",
-                "\"filter=apk\"",
-                deviceLabURL + "/api/upload_file"};
-
-        CommandLineResponse uploadApkResponse = CommandLineExecutor.execCommand(listOfDevices);
-        LOGGER.info("\tuploadApkResponse: " + uploadApkResponse.getStdOut());
-        JsonObject result = JsonFile.convertToMap(uploadApkResponse.getStdOut()).getAsJsonObject("result");
-        int uploadStatus = result.get("code").getAsInt();
-        if (200 != uploadStatus) {
-            throw new EnvironmentSetupException(String.format("Unable to upload app: '%s' to '%s'%n%s",
-                    appPath, deviceLabURL, uploadApkResponse));
-        }
-        String uploadedFileName = result.get("file").getAsString();
-        LOGGER.info("\tuploadAPKToPCloudy: Uploaded: " + uploadedFileName);
-        return uploadedFileName;
-    }
-
-    private String getpCloudyAuthToken (String emailID, String authenticationKey, String appPath, String deviceLabURL) {
-        LOGGER.info("Get pCloudy Auth Token");
-        String[] getAppToken = new String[]{
-                "curl --insecure",
-                "-u",
-                "\"" + emailID + ":" + authenticationKey + "\"",
-                deviceLabURL + "/api/access"
-        };
-        CommandLineResponse authTokenResponse = CommandLineExecutor.execCommand(getAppToken);
-        LOGGER.info("\tauthTokenResponse: " + authTokenResponse.getStdOut());
-        if (authTokenResponse.getStdOut().contains("error")) {
-            throw new EnvironmentSetupException(String.format("Unable to get auth: '%s' to '%s'%n%s", appPath, deviceLabURL, authTokenResponse));
-        }
-        String authToken = JsonFile.convertToMap(authTokenResponse.getStdOut()).getAsJsonObject("result").get("token").getAsString();
-        LOGGER.info("\tauthToken: " + authToken);
-        return authToken;
+        Path appPath = Paths.get(configuration.getAppPath());
+        String deviceLabURL = configuration.getDeviceLabURL();
+        DeviceLabClient deviceLabClient = new DeviceLabClient(deviceLabURL, configuration.isDeviceLabInsecure());
+        // the auth token is requested while the apk is hashed, and joined when the device lab is checked for the apk
+        CompletableFuture<String> authToken = deviceLabClient.getAuthToken(emailID, authenticationKey);
+        String contentHash = AppUploadCache.getContentHash(appPath);
+        LOGGER.info(String.format("uploadAPKTopCloudy: '%s' with content hash: '%s'", appPath, contentHash));
+
+        AppUploadCache appUploadCache = new AppUploadCache(configuration.getDeviceLabUploadCacheFile());
+        String uploadedFileName = deviceLabClient.uploadAppIfNotAvailable(appPath, contentHash, appUploadCache, authToken);
+        publish(configuration.toBuilder().appPath(uploadedFileName).build());
     }
 
     private void getPlatformTagsAndLaunchName () {
         LOGGER.info("Get Platform, Tags and LaunchName");
-        String launchName = configs.get(APP_NAME) + " Tests";
-        if (configsBoolean.get(RUN_IN_CI)) {
+        Platform executionPlatform = configuration.getPlatform();
+        String launchName = configuration.getAppName() + " Tests";
+        if (configuration.isRunInCI()) {
             launchName += " on Device Farm";
         }
         String inferredTags = getCustomTags();
-        String providedTags = configs.get(TAG);
+        String providedTags = configuration.getTag();
         if (providedTags.isEmpty() || providedTags.equals(NOT_SET)) {
             LOGGER.info("\tTags not specified");
-            launchName += " - " + platform;
+            launchName += " - " + executionPlatform;
         } else {
             if (providedTags.contains("multiuser-android-web")) {
-                platform = Platform.android;
+                executionPlatform = Platform.android;
                 inferredTags = providedTags + " and not @wip";
                 launchName += " - Real User Simulation on Android & Web";
             } else if (providedTags.contains("multiuser-web-web")) {
-                platform = Platform.web;
+                executionPlatform = Platform.web;
                 inferredTags = providedTags + " and not @wip";
                 launchName += " - Real User Simulation on Web";
             } else {
-                launchName += " - " + platform;
+                launchName += " - " + executionPlatform;
             }
         }
-        LOGGER.info("\tRunning tests with platform: "+ platform +" and the following tag criteria : "+  inferredTags);
+        LOGGER.info("\tRunning tests with platform: "+ executionPlatform +" and the following tag criteria : "+  inferredTags);
         LOGGER.info("\tReportPortal Tests Launch name: " + launchName);
 
-        configs.put(PLATFORM, platform.name());
-        configs.put(LAUNCH_NAME, launchName);
-        configs.put(TAG, inferredTags);
+        publish(configuration.toBuilder()
+                .platform(executionPlatform)
+                .launchName(launchName)
+                .tag(inferredTags)
+                .build());
         cukeArgs.add("--tags");
         cukeArgs.add(inferredTags);
     }
@@ -705,7 +1018,7 @@ public class Runner {
         cukeArgs.add(PLUGIN);
         cukeArgs.add("pretty");
         cukeArgs.add(PLUGIN);
-        String logDir = configs.get(LOG_DIR);
+        String logDir = configuration.getLogDirectory();
         cukeArgs.add("html:" + logDir + "/reports/cucumber-html-report.html");
         cukeArgs.add(PLUGIN);
         cukeArgs.add("junit:" + logDir + "/reports/cucumber-junit-report.xml");
@@ -715,11 +1028,13 @@ public class Runner {
         cukeArgs.add("message:" + logDir + "/reports/results.ndjson");
         cukeArgs.add(PLUGIN);
         cukeArgs.add("timeline:" + logDir + "/reports/timeline");
+        cukeArgs.add(PLUGIN);
+        cukeArgs.add("com.znsio.e2e.listener.StepTimingListener:" + logDir + "/reports/step-timings.json");
     }
 
     private String getCustomTags () {
-        String customTags = "@" + platform + " and not @wip";
-        String providedTags = configs.get(TAG);
+        String customTags = "@" + configuration.getPlatform() + " and not @wip";
+        String providedTags = configuration.getTag();
         if (!providedTags.equalsIgnoreCase(NOT_SET)) {
             if (!providedTags.startsWith("@")) {
                 providedTags = "@" + providedTags;
@@ -780,13 +1095,13 @@ public class Runner {
     private List<String> listOfDirectoriesToCreate () {
         List<String> files = new ArrayList<>();
         files.add(tempDirectory);
-        files.add(configs.get(LOG_DIR));
+        files.add(configuration.getLogDirectory());
         return files;
     }
 
     private List<String> listOfDirectoriesToDelete () {
         List<String> files = new ArrayList<>();
-        files.add(configs.get(LOG_DIR));
+        files.add(configuration.getLogDirectory());
         return files;
     }
 }
@@ -0,0 +1,173 @@
+package com.znsio.e2e.runner;
+
+import com.context.SessionContext;
+import com.context.TestExecutionContext;
+import org.apache.log4j.Logger;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Scenario-scoped handle to the TestExecutionContext. The context registered for the scenario thread is found as before,
+ * and is also available to the work the scenario hands off to other threads - either passed explicitly
+ * (runWith / callWith), or captured when a task is submitted (propagate, propagating executors, runAsync / supplyAsync).
+ */
+public final class ScenarioContext {
+    private static final Logger LOGGER = Logger.getLogger(ScenarioContext.class.getName());
+    private static final ThreadLocal<TestExecutionContext> boundContext = new ThreadLocal<>();
+    private static volatile ExecutorService asyncExecutor;
+
+    private ScenarioContext () {
+    }
+
+    public static TestExecutionContext current () {
+        TestExecutionContext context = boundContext.get();
+        return (null == context) ? SessionContext.getTestExecutionContext(Thread.currentThread().getId()) : context;
+    }
+
+    public static void runWith (TestExecutionContext context, Runnable task) {
+        TestExecutionContext previousContext = boundContext.get();
+        boundContext.set(context);
+        try {
+            task.run();
+        } finally {
+            restore(previousContext);
+        }
+    }
+
+    public static <T> T callWith (TestExecutionContext context, Callable<T> task) throws Exception {
+        TestExecutionContext previousContext = boundContext.get();
+        boundContext.set(context);
+        try {
+            return task.call();
+        } finally {
+            restore(previousContext);
+        }
+    }
+
+    private static void restore (TestExecutionContext previousContext) {
+        if (null == previousContext) {
+            boundContext.remove();
+        } else {
+            boundContext.set(previousContext);
+        }
+    }
+
+    public static Runnable propagate (Runnable task) {
+        TestExecutionContext context = current();
+        return () -> runWith(context, task);
+    }
+
+    public static <T> Callable<T> propagate (Callable<T> task) {
+        TestExecutionContext context = current();
+        return () -> callWith(context, task);
+    }
+
+    public static <T> Supplier<T> propagate (Supplier<T> task) {
+        TestExecutionContext context = current();
+        return () -> {
+            TestExecutionContext previousContext = boundContext.get();
+            boundContext.set(context);
+            try {
+                return task.get();
+            } finally {
+                restore(previousContext);
+            }
+        };
+    }
+
+    public static ExecutorService propagating (ExecutorService executor) {
+        return new PropagatingExecutorService(executor);
+    }
+
+    public static CompletableFuture<Void> runAsync (Runnable task) {
+        return CompletableFuture.runAsync(propagate(task), getAsyncExecutor());
+    }
+
+    public static <T> CompletableFuture<T> supplyAsync (Supplier<T> task) {
+        return CompletableFuture.supplyAsync(propagate(task), getAsyncExecutor());
+    }
+
+    public static ExecutorService getAsyncExecutor () {
+        if (null == asyncExecutor) {
+            synchronized (ScenarioContext.class) {
+                if (null == asyncExecutor) {
+                    asyncExecutor = propagating(createAsyncExecutor(null != Runner.getConfiguration() && Runner.isVirtualThreadsEnabled()));
+                }
+            }
+        }
+        return asyncExecutor;
+    }
+
+    static ExecutorService createAsyncExecutor (boolean useVirtualThreads) {
+        if (useVirtualThreads) {
+            try {
+                ExecutorService virtualThreadExecutor = (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+                LOGGER.info("Scenario async tasks will run on virtual threads");
+                return virtualThreadExecutor;
+            } catch (NoSuchMethodException | IllegalAccessException | InvocationTargetException e) {
+                LOGGER.info(String.format("Virtual threads are not available in Java '%s'. Scenario async tasks will run on platform threads",
+                        System.getProperty("java.version")));
+            }
+        }
+        return Executors.newCachedThreadPool(new AsyncThreadFactory());
+    }
+
+    private static class AsyncThreadFactory implements ThreadFactory {
+        private final AtomicInteger threadNumber = new AtomicInteger();
+
+        @Override
+        public Thread newThread (Runnable task) {
+            Thread thread = new Thread(task, "scenario-async-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+
+    private static class PropagatingExecutorService extends AbstractExecutorService {
+        private final ExecutorService delegate;
+
+        private PropagatingExecutorService (ExecutorService delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void execute (Runnable task) {
+            delegate.execute(propagate(task));
+        }
+
+        @Override
+        public void shutdown () {
+            delegate.shutdown();
+        }
+
+        @Override
+        public List<Runnable> shutdownNow () {
+            return delegate.shutdownNow();
+        }
+
+        @Override
+        public boolean isShutdown () {
+            return delegate.isShutdown();
+        }
+
+        @Override
+        public boolean isTerminated () {
+            return delegate.isTerminated();
+        }
+
+        @Override
+        public boolean awaitTermination (long timeout, TimeUnit unit) throws InterruptedException {
+            return delegate.awaitTermination(timeout, unit);
+        }
+    }
+}
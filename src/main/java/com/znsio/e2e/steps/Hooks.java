@@ -6,10 +6,14 @@ import com.znsio.e2e.entities.TEST_CONTEXT;
 import com.znsio.e2e.runner.Runner;
 import com.znsio.e2e.tools.Drivers;
 import com.znsio.e2e.tools.ScreenShotManager;
+import com.znsio.e2e.tools.metrics.CommandMetrics;
+import com.znsio.e2e.tools.testdata.ScenarioTestData;
+import com.znsio.e2e.tools.wait.WaitStatistics;
 import io.cucumber.java.Scenario;
 import org.apache.log4j.Logger;
 import org.assertj.core.api.SoftAssertions;
 
+import java.nio.file.Paths;
 import java.util.Date;
 
 public class Hooks {
@@ -19,9 +23,14 @@ public class Hooks {
         long threadId = Thread.currentThread().getId();
         TestExecutionContext testExecutionContext = Runner.getTestExecutionContext(threadId);
         LOGGER.info("ThreadId :  " + threadId + " In RunCukes - Before:  " +scenario.getName());
-        LOGGER.info("Running test  "+ testExecutionContext.getTestName() + " on  " + Runner.platform);
+        LOGGER.info("Running test  "+ testExecutionContext.getTestName() + " on  " + Runner.getPlatform());
+        testExecutionContext.addTestState(TEST_CONTEXT.WAIT_STATISTICS, new WaitStatistics(scenario.getName()));
         testExecutionContext.addTestState(TEST_CONTEXT.SCREENSHOT_MANAGER, new ScreenShotManager());
         testExecutionContext.addTestState(TEST_CONTEXT.ALL_DRIVERS, new Drivers());
+        testExecutionContext.addTestState(TEST_CONTEXT.SCENARIO_TEST_DATA, new ScenarioTestData());
+        if (Runner.isDriverCommandMetricsEnabled()) {
+            testExecutionContext.addTestState(TEST_CONTEXT.DRIVER_COMMAND_METRICS, new CommandMetrics());
+        }
         SoftAssertions softly = new SoftAssertions();
         testExecutionContext.addTestState(TEST_CONTEXT.SOFT_ASSERTIONS, softly);
         ReportPortal.emitLog(testExecutionContext.getTestState(TEST_CONTEXT.DEVICE_INFO).toString(), "info", new Date());
@@ -32,10 +41,40 @@ public class Hooks {
         LOGGER.info("ThreadId:  "+ threadId + "  In RunCukes - After: "+scenario.getName());
         TestExecutionContext testExecutionContext = Runner.getTestExecutionContext(threadId);
         ScreenShotManager screenShotManager = (ScreenShotManager) testExecutionContext.getTestState(TEST_CONTEXT.SCREENSHOT_MANAGER);
-        takeScreenShotOnTestCompletion(scenario, screenShotManager);
-        Runner.closeAllDrivers(threadId);
-        SoftAssertions softly = Runner.getSoftAssertion(threadId);
-        softly.assertAll();
+        try {
+            try {
+                takeScreenShotOnTestCompletion(scenario, screenShotManager);
+                Runner.closeAllDrivers(threadId);
+            } finally {
+                // the screenshots are attached to the report when flushed, so they are flushed even if the teardown fails
+                screenShotManager.flushPendingWrites();
+            }
+            reportWaitStatistics(testExecutionContext);
+            reportDriverCommandMetrics(testExecutionContext);
+            SoftAssertions softly = Runner.getSoftAssertion(threadId);
+            softly.assertAll();
+        } finally {
+            Runner.releaseTestData(threadId);
+        }
+    }
+
+    private void reportWaitStatistics (TestExecutionContext testExecutionContext) {
+        WaitStatistics waitStatistics = (WaitStatistics) testExecutionContext.getTestState(TEST_CONTEXT.WAIT_STATISTICS);
+        String summary = waitStatistics.getSummary();
+        LOGGER.info(summary);
+        ReportPortal.emitLog(summary, "DEBUG", new Date());
+    }
+
+    private void reportDriverCommandMetrics (TestExecutionContext testExecutionContext) {
+        CommandMetrics commandMetrics = (CommandMetrics) testExecutionContext.getTestState(TEST_CONTEXT.DRIVER_COMMAND_METRICS);
+        if (null == commandMetrics) {
+            return;
+        }
+        String summary = commandMetrics.getSummary();
+        LOGGER.info(summary);
+        ReportPortal.emitLog(summary, "DEBUG", new Date());
+        String scenarioLogDir = Runner.USER_DIRECTORY + testExecutionContext.getTestStateAsString(TEST_CONTEXT.SCENARIO_LOG_DIRECTORY);
+        commandMetrics.saveAsPrometheusText(Paths.get(scenarioLogDir, "driver-commands.prom"));
     }
 
     private void takeScreenShotOnTestCompletion (Scenario scenario, ScreenShotManager screenShotManager) {
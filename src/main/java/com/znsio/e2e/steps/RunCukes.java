@@ -1,15 +1,29 @@
 package com.znsio.e2e.steps;
 
-import com.context.SessionContext;
 import com.context.TestExecutionContext;
+import com.znsio.e2e.entities.SchedulingStrategy;
+import com.znsio.e2e.runner.Runner;
+import com.znsio.e2e.runner.ScenarioContext;
 import com.znsio.e2e.tools.ScreenShotManager;
+import com.znsio.e2e.tools.reports.ScenarioLocation;
+import com.znsio.e2e.tools.scheduling.LongestFirstPickleOrder;
+import com.znsio.e2e.tools.scheduling.ScenarioDurations;
+import com.znsio.e2e.tools.scheduling.ScenarioShards;
 import io.cucumber.java.After;
 import io.cucumber.java.Before;
 import io.cucumber.java.Scenario;
 import io.cucumber.testng.AbstractTestNGCucumberTests;
+import io.cucumber.testng.Pickle;
+import io.cucumber.testng.PickleWrapper;
 import org.apache.log4j.Logger;
 import org.testng.annotations.DataProvider;
 
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+
 public class RunCukes extends AbstractTestNGCucumberTests {
     private final TestExecutionContext context;
     private final ScreenShotManager screenShotManager;
@@ -18,7 +32,7 @@ public class RunCukes extends AbstractTestNGCucumberTests {
     public RunCukes () {
         long threadId = Thread.currentThread().getId();
         LOGGER.info("RunCukes constructor: ThreadId: " + threadId);
-        context = SessionContext.getTestExecutionContext(threadId);
+        context = ScenarioContext.current();
         screenShotManager = new ScreenShotManager();
     }
 
@@ -28,9 +42,43 @@ public class RunCukes extends AbstractTestNGCucumberTests {
         System.out.printf("ThreadID: %d: in overridden scenarios%n", Thread.currentThread().getId());
         Object[][] scenarios = super.scenarios();
         LOGGER.info(scenarios);
+        boolean isLongestFirst = SchedulingStrategy.LONGEST_FIRST == Runner.getSchedulingStrategy();
+        // a rerun runs only the failed scenarios of the previous run, which are not split across shards again
+        boolean isSharded = Runner.getShardTotal() > 1 && !Runner.isRerunFailedEnabled();
+        if (isLongestFirst || isSharded) {
+            scenarios = shardAndOrder(scenarios, isLongestFirst, isSharded);
+        }
         return scenarios;
     }
 
+    private Object[][] shardAndOrder (Object[][] scenarios, boolean isLongestFirst, boolean isSharded) {
+        List<Object[]> orderedScenarios = Arrays.asList(scenarios);
+        if (isSharded) {
+            ScenarioDurations sharedDurations = ScenarioShards.loadSharedDurations(Runner.getShardDurationsFile());
+            orderedScenarios = ScenarioShards.select(orderedScenarios,
+                    scenario -> {
+                        Pickle pickle = ((PickleWrapper) scenario[0]).getPickle();
+                        return ScenarioLocation.of(pickle.getUri(), pickle.getLine());
+                    },
+                    sharedDurations,
+                    getEstimatedDuration(sharedDurations),
+                    Runner.getShardIndex(),
+                    Runner.getShardTotal());
+        }
+        ScenarioDurations scenarioDurations = ScenarioDurations.load(Paths.get(Runner.getScenarioDurationsFile()));
+        if (isLongestFirst && !scenarioDurations.isEmpty()) {
+            orderedScenarios = LongestFirstPickleOrder.sortLongestFirst(orderedScenarios, getEstimatedDuration(scenarioDurations));
+        }
+        return orderedScenarios.toArray(new Object[0][]);
+    }
+
+    private static Function<Object[], Duration> getEstimatedDuration (ScenarioDurations scenarioDurations) {
+        return scenario -> {
+            Pickle pickle = ((PickleWrapper) scenario[0]).getPickle();
+            return scenarioDurations.getEstimatedDuration(pickle.getUri(), pickle.getLine(), pickle.getName());
+        };
+    }
+
     @Before
     public void beforeScenario (Scenario scenario) {
         new Hooks().beforeScenario(scenario);
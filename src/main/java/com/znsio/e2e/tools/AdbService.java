@@ -0,0 +1,125 @@
+package com.znsio.e2e.tools;
+
+import com.znsio.e2e.exceptions.EnvironmentSetupException;
+import io.appium.java_client.AppiumDriver;
+import org.apache.log4j.Logger;
+import org.openqa.selenium.Capabilities;
+import org.openqa.selenium.WebElement;
+import se.vidstige.jadb.JadbConnection;
+import se.vidstige.jadb.JadbDevice;
+import se.vidstige.jadb.JadbException;
+import se.vidstige.jadb.Stream;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+public class AdbService {
+    private static final String UDID = "udid";
+    private static final String DEVICE_NAME = "deviceName";
+    private static final Pattern DEVICE_PROPERTY_PATTERN = Pattern.compile("^\\[(.+?)]: \\[(.*)]$");
+    private static final Map<String, JadbDevice> devicesByUdid = new ConcurrentHashMap<>();
+    private static volatile JadbConnection jadbConnection;
+    private static final Logger LOGGER = Logger.getLogger(AdbService.class.getName());
+
+    private AdbService () {
+    }
+
+    public static List<JadbDevice> getDevices () {
+        try {
+            List<JadbDevice> devices = getConnection().getDevices();
+            devices.forEach(device -> devicesByUdid.put(device.getSerial(), device));
+            return devices;
+        } catch (IOException | JadbException e) {
+            throw new EnvironmentSetupException("Unable to get devices information", e);
+        }
+    }
+
+    public static String executeShell (AppiumDriver<WebElement> appiumDriver, String command, String... args) {
+        return executeShell(getUdid(appiumDriver), command, args);
+    }
+
+    static String getUdid (AppiumDriver<WebElement> appiumDriver) {
+        Capabilities capabilities = appiumDriver.getCapabilities();
+        Object udid = capabilities.getCapability(UDID);
+        return String.valueOf((null == udid) ? capabilities.getCapability(DEVICE_NAME) : udid);
+    }
+
+    public static String executeShell (String udid, String command, String... args) {
+        JadbDevice device = getDevice(udid);
+        LOGGER.debug("\t" + udid + ": adb command: " + command + ", args: " + Arrays.toString(args));
+        try (InputStream inputStream = device.executeShell(command, args)) {
+            String adbCommandOutput = Stream.readAll(inputStream, StandardCharsets.UTF_8).replaceAll("\n$", "");
+            LOGGER.debug("\t" + udid + ": Output: " + adbCommandOutput);
+            return adbCommandOutput;
+        } catch (IOException | JadbException e) {
+            throw new EnvironmentSetupException(String.format("Unable to execute adb command: '%s' on device: '%s'", command, udid), e);
+        }
+    }
+
+    public static List<String> executeShellCommands (AppiumDriver<WebElement> appiumDriver, List<String> commands) {
+        return executeShellCommands(getUdid(appiumDriver), commands);
+    }
+
+    public static List<String> executeShellCommands (String udid, List<String> commands) {
+        String endOfOutputMarker = "--end-of-output-" + UUID.randomUUID() + "--";
+        StringBuilder batchedCommands = new StringBuilder();
+        commands.forEach(command -> batchedCommands.append(command).append(" 2>&1; echo ").append(endOfOutputMarker).append("; "));
+        String batchedOutput = executeShell(udid, batchedCommands.toString());
+
+        List<String> outputs = new ArrayList<>();
+        for (String output : batchedOutput.split(Pattern.quote(endOfOutputMarker), -1)) {
+            if (outputs.size() < commands.size()) {
+                outputs.add(output.trim());
+            }
+        }
+        return outputs;
+    }
+
+    public static Map<String, String> getDeviceProperties (String udid) {
+        Map<String, String> deviceProperties = new HashMap<>();
+        String allProperties = executeShell(udid, "getprop");
+        for (String property : allProperties.split("\\r?\\n")) {
+            Matcher matcher = DEVICE_PROPERTY_PATTERN.matcher(property.trim());
+            if (matcher.matches()) {
+                deviceProperties.put(matcher.group(1), matcher.group(2));
+            }
+        }
+        return deviceProperties;
+    }
+
+    private static JadbDevice getDevice (String udid) {
+        JadbDevice device = devicesByUdid.get(udid);
+        if (null == device) {
+            LOGGER.info(String.format("AdbService: device: '%s' not known yet. Refresh list of devices", udid));
+            getDevices();
+            device = devicesByUdid.get(udid);
+        }
+        if (null == device) {
+            throw new EnvironmentSetupException(String.format("Device: '%s' is not connected to adb. Connected devices: '%s'",
+                    udid,
+                    devicesByUdid.keySet()));
+        }
+        return device;
+    }
+
+    private static JadbConnection getConnection () {
+        if (null == jadbConnection) {
+            synchronized (AdbService.class) {
+                if (null == jadbConnection) {
+                    jadbConnection = new JadbConnection();
+                }
+            }
+        }
+        return jadbConnection;
+    }
+}
@@ -0,0 +1,27 @@
+package com.znsio.e2e.tools;
+
+import com.znsio.e2e.exceptions.EnvironmentSetupException;
+import org.openqa.selenium.remote.CommandExecutor;
+import org.openqa.selenium.remote.RemoteWebDriver;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+public final class CommandExecutors {
+    private CommandExecutors () {
+    }
+
+    /**
+     * Swaps the executor of a RemoteWebDriver / AppiumDriver in place, so the driver keeps its type and any casts on it keep working.
+     * java-client and Selenium only read the executor when sending a command, so swapping it after the session is created is safe.
+     */
+    public static void replace (RemoteWebDriver remoteWebDriver, CommandExecutor commandExecutor) {
+        try {
+            Method setCommandExecutor = RemoteWebDriver.class.getDeclaredMethod("setCommandExecutor", CommandExecutor.class);
+            setCommandExecutor.setAccessible(true);
+            setCommandExecutor.invoke(remoteWebDriver, commandExecutor);
+        } catch (NoSuchMethodException | IllegalAccessException | InvocationTargetException e) {
+            throw new EnvironmentSetupException("Unable to replace the command executor of " + remoteWebDriver.getClass().getName(), e);
+        }
+    }
+}
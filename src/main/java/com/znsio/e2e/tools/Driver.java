@@ -1,18 +1,23 @@
 package com.znsio.e2e.tools;
 
+import com.znsio.e2e.entities.Platform;
 import com.znsio.e2e.runner.Runner;
+import com.znsio.e2e.tools.metrics.InstrumentedCommandExecutor;
+import com.znsio.e2e.tools.wait.ConditionWait;
+import com.znsio.e2e.tools.wait.WaitStatistics;
 import io.appium.java_client.AppiumDriver;
 import io.appium.java_client.MobileBy;
 import io.appium.java_client.TouchAction;
 import io.appium.java_client.android.AndroidDriver;
 import io.appium.java_client.android.StartsActivity;
+import io.appium.java_client.appmanagement.ApplicationState;
 import io.appium.java_client.touch.WaitOptions;
 import io.appium.java_client.touch.offset.PointOption;
 import org.apache.log4j.Logger;
 import org.openqa.selenium.*;
 import org.openqa.selenium.interactions.Actions;
+import org.openqa.selenium.support.ui.ExpectedCondition;
 import org.openqa.selenium.support.ui.ExpectedConditions;
-import org.openqa.selenium.support.ui.WebDriverWait;
 
 import java.time.Duration;
 import java.util.List;
@@ -24,12 +29,15 @@ public class Driver {
     public static final String APPIUM_DRIVER = "AppiumDriver";
     private final String type;
     private final WebDriver driver;
+    private final ConditionWait conditionWait;
     private Visual visually;
+    private InstrumentedCommandExecutor instrumentedCommandExecutor;
     private static final Logger LOGGER = Logger.getLogger(Driver.class.getName());
 
     public Driver (String testName, AppiumDriver<WebElement> appiumDriver) {
         this.driver = appiumDriver;
         this.type = APPIUM_DRIVER;
+        this.conditionWait = ConditionWait.withConfiguredBackoff(appiumDriver, Wait.getWaitStatisticsForCurrentScenario());
         instantiateEyes(testName, appiumDriver);
     }
 
@@ -40,15 +48,42 @@ public class Driver {
     public Driver (String testName, WebDriver webDriver) {
         this.driver = webDriver;
         this.type = WEB_DRIVER;
+        this.conditionWait = ConditionWait.withConfiguredBackoff(webDriver, Wait.getWaitStatisticsForCurrentScenario());
         instantiateEyes(testName, webDriver);
     }
 
     public WebElement waitForVisibilityOf (By elementId) {
-        return (new WebDriverWait(driver, 10)).until(ExpectedConditions.elementToBeClickable(elementId));
+        return waitForVisibilityOf(WaitStatistics.UNKNOWN_SCREEN, elementId);
     }
 
     public WebElement waitForVisibilityOf (String elementId) {
-        return (new WebDriverWait(driver, 10)).until(ExpectedConditions.elementToBeClickable(findElementByAccessibilityId(elementId)));
+        return waitForVisibilityOf(WaitStatistics.UNKNOWN_SCREEN, MobileBy.AccessibilityId(elementId));
+    }
+
+    public WebElement waitForVisibilityOf (String forScreen, By elementId) {
+        onScreen(forScreen);
+        return conditionWait.until(forScreen, ExpectedConditions.elementToBeClickable(elementId));
+    }
+
+    public WebElement waitForPresenceOf (String forScreen, By elementId) {
+        onScreen(forScreen);
+        return conditionWait.until(forScreen, ExpectedConditions.presenceOfElementLocated(elementId));
+    }
+
+    public <T> T waitUntil (String forScreen, ExpectedCondition<T> condition) {
+        onScreen(forScreen);
+        return conditionWait.until(forScreen, condition);
+    }
+
+    public void waitForPageToLoad (String forScreen) {
+        onScreen(forScreen);
+        conditionWait.until(forScreen, webDriver -> "complete".equals(((JavascriptExecutor) webDriver).executeScript("return document.readyState")));
+    }
+
+    public void waitForAppState (String forScreen, ApplicationState expectedApplicationState) {
+        onScreen(forScreen);
+        String appPackageName = Runner.getAppPackageName();
+        conditionWait.until(forScreen, webDriver -> expectedApplicationState.equals(((AppiumDriver) webDriver).queryAppState(appPackageName)));
     }
 
     public WebElement findElementByAccessibilityId (String locator) {
@@ -56,8 +91,12 @@ public class Driver {
     }
 
     public void waitForAlert () {
-        (new WebDriverWait(driver, 10)).until(ExpectedConditions.alertIsPresent());
-        driver.switchTo().alert();
+        waitForAlert(WaitStatistics.UNKNOWN_SCREEN);
+    }
+
+    public Alert waitForAlert (String forScreen) {
+        onScreen(forScreen);
+        return conditionWait.until(forScreen, ExpectedConditions.alertIsPresent());
     }
 
     public WebElement findElement (By elementId) {
@@ -213,6 +252,16 @@ public class Driver {
         ((StartsActivity) driver).currentActivity();
     }
 
+    void instrumentCommands (String userPersona, Platform forPlatform) {
+        instrumentedCommandExecutor = InstrumentedCommandExecutor.instrument(driver, userPersona, forPlatform.name());
+    }
+
+    private void onScreen (String forScreen) {
+        if (null != instrumentedCommandExecutor && !WaitStatistics.UNKNOWN_SCREEN.equals(forScreen)) {
+            instrumentedCommandExecutor.onScreen(forScreen);
+        }
+    }
+
     public WebDriver getInnerDriver () {
         return driver;
     }
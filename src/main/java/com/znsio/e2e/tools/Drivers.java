@@ -1,15 +1,14 @@
 package com.znsio.e2e.tools;
 
 import com.context.TestExecutionContext;
-import com.epam.reportportal.service.ReportPortal;
 import com.mashape.unirest.http.Unirest;
 import com.znsio.e2e.entities.Platform;
 import com.znsio.e2e.entities.TEST_CONTEXT;
 import com.znsio.e2e.exceptions.EnvironmentSetupException;
 import com.znsio.e2e.exceptions.InvalidTestDataException;
 import com.znsio.e2e.runner.Runner;
-import com.znsio.e2e.tools.cmd.CommandLineExecutor;
-import com.znsio.e2e.tools.cmd.CommandLineResponse;
+import com.znsio.e2e.runner.ScenarioContext;
+import com.znsio.e2e.tools.grid.RemoteWebDriverFactory;
 import io.appium.java_client.AppiumDriver;
 import io.appium.java_client.appmanagement.ApplicationState;
 import io.github.bonigarcia.wdm.WebDriverManager;
@@ -18,6 +17,7 @@ import org.jetbrains.annotations.NotNull;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.WebElement;
 import org.openqa.selenium.chrome.ChromeDriver;
+import org.openqa.selenium.chrome.ChromeDriverService;
 import org.openqa.selenium.chrome.ChromeOptions;
 import org.openqa.selenium.logging.LogType;
 import org.openqa.selenium.logging.LoggingPreferences;
@@ -26,22 +26,40 @@ import org.openqa.selenium.remote.RemoteWebDriver;
 
 import java.io.File;
 import java.io.IOException;
-import java.net.MalformedURLException;
-import java.net.URL;
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
 import java.util.logging.Level;
 
 public class Drivers {
     private static final String USER_DIR = "user.dir";
-    private final Map<String, Driver> userPersonaDrivers = new HashMap<>();
-    private final Map<String, Platform> userPersonaPlatforms = new HashMap<>();
-    private final Map<String, String> userPersonaBrowserLogs = new HashMap<>();
+    private final Map<String, Driver> userPersonaDrivers = new ConcurrentHashMap<>();
+    private final Map<String, Platform> userPersonaPlatforms = new ConcurrentHashMap<>();
+    private final Map<String, String> userPersonaBrowserLogs = new ConcurrentHashMap<>();
     private static final Logger LOGGER = Logger.getLogger(Drivers.class.getName());
+    private static volatile WebDriverPool webDriverPool;
+    private static volatile RemoteWebDriverFactory remoteWebDriverFactory;
 
     private final int MAX_NUMBER_OF_APPIUM_DRIVERS = 1;
     private final int MAX_NUMBER_OF_WEB_DRIVERS = 2;
-    private int numberOfAndroidDriversUsed = 0;
-    private int numberOfWebDriversUsed = 0;
+    private final AtomicInteger numberOfAndroidDriversUsed = new AtomicInteger();
+    private final AtomicInteger numberOfWebDriversUsed = new AtomicInteger();
+    private final DriverCreator driverCreator;
+    private final DriverCloser driverCloser;
+
+    public Drivers () {
+        this.driverCreator = this::createDriverOnPlatform;
+        this.driverCloser = this::closeDriver;
+    }
+
+    Drivers (DriverCreator driverCreator, DriverCloser driverCloser) {
+        this.driverCreator = driverCreator;
+        this.driverCloser = driverCloser;
+    }
 
     public Driver setDriverFor (String userPersona, Platform forPlatform, TestExecutionContext context) {
         LOGGER.info(String.format("getDriverFor: start: userPersona: '%s', Platform: '%s'", userPersona, forPlatform.name()));
@@ -59,57 +77,158 @@ public class Drivers {
 
     public Driver createDriverFor (String userPersona, Platform forPlatform, TestExecutionContext context) {
         LOGGER.info(String.format("allocateDriverFor: start: userPersona: '%s', Platform: '%s'", userPersona, forPlatform.name()));
-        Driver currentDriver = null;
-        if (userPersonaDrivers.containsKey(userPersona)) {
-            String message = String.format("ERROR: Driver for user persona: '%s' ALREADY EXISTS%nAvailable drivers: '%s'",
-                    userPersona,
-                    userPersonaDrivers.keySet());
-            throw new InvalidTestDataException(message);
+        verifyDriverDoesNotExistFor(Collections.singleton(userPersona));
+        Driver currentDriver = provisionDriverFor(userPersona, forPlatform, context);
+        synchronized (this) {
+            verifyDriverDoesNotExistFor(Collections.singleton(userPersona));
+            assignDriverFor(userPersona, forPlatform, currentDriver, context);
+        }
+        System.out.printf("allocateDriverFor: done: userPersona: '%s', Platform: '%s'%n",
+                userPersona,
+                forPlatform.name());
+
+        return currentDriver;
+    }
+
+    /**
+     * Creates the drivers of all the given user personas concurrently, so setting up a multi-user scenario takes as long as
+     * the slowest driver instead of the sum of all of them. The drivers are registered together, only if all of them were
+     * created. The first user persona becomes the current one.
+     */
+    public Map<String, Driver> createDriversFor (Map<String, Platform> userPersonas, TestExecutionContext context) {
+        LOGGER.info("createDriversFor: start: userPersonas: " + userPersonas);
+        verifyDriverDoesNotExistFor(userPersonas.keySet());
+        Map<String, CompletableFuture<Driver>> driversBeingCreated = new LinkedHashMap<>();
+        userPersonas.forEach((userPersona, forPlatform) -> driversBeingCreated.put(userPersona,
+                ScenarioContext.supplyAsync(() -> provisionDriverFor(userPersona, forPlatform, context))));
+
+        Map<String, Driver> createdDrivers = new LinkedHashMap<>();
+        Throwable creationFailure = null;
+        for (Map.Entry<String, CompletableFuture<Driver>> driverBeingCreated : driversBeingCreated.entrySet()) {
+            try {
+                createdDrivers.put(driverBeingCreated.getKey(), driverBeingCreated.getValue().join());
+            } catch (CompletionException e) {
+                LOGGER.info(String.format("createDriversFor: Unable to create driver for user persona: '%s': %s",
+                        driverBeingCreated.getKey(),
+                        e.getCause()));
+                if (null == creationFailure) {
+                    creationFailure = e.getCause();
+                }
+            }
+        }
+        if (null != creationFailure) {
+            createdDrivers.forEach((userPersona, driver) -> {
+                try {
+                    driverCloser.close(userPersona, driver, ScenarioTeardown::attachToReportPortal);
+                } catch (RuntimeException e) {
+                    LOGGER.info(String.format("createDriversFor: Unable to close driver for user persona: '%s': %s", userPersona, e));
+                } finally {
+                    getNumberOfDriversUsedOn(userPersona, userPersonas.get(userPersona)).decrementAndGet();
+                }
+            });
+            // drivers are created by Suppliers, so the failure is either a RuntimeException or an Error
+            if (creationFailure instanceof Error) {
+                throw (Error) creationFailure;
+            }
+            throw (RuntimeException) creationFailure;
+        }
+
+        synchronized (this) {
+            verifyDriverDoesNotExistFor(userPersonas.keySet());
+            List<String> userPersonasInReverseOrder = new ArrayList<>(createdDrivers.keySet());
+            Collections.reverse(userPersonasInReverseOrder);
+            userPersonasInReverseOrder.forEach(userPersona -> assignDriverFor(userPersona, userPersonas.get(userPersona), createdDrivers.get(userPersona), context));
+        }
+        LOGGER.info("createDriversFor: done: userPersonas: " + createdDrivers.keySet());
+        return createdDrivers;
+    }
+
+    private void verifyDriverDoesNotExistFor (Collection<String> userPersonas) {
+        for (String userPersona : userPersonas) {
+            if (userPersonaDrivers.containsKey(userPersona)) {
+                String message = String.format("ERROR: Driver for user persona: '%s' ALREADY EXISTS%nAvailable drivers: '%s'",
+                        userPersona,
+                        userPersonaDrivers.keySet());
+                throw new InvalidTestDataException(message);
+            }
+        }
+    }
+
+    private Driver provisionDriverFor (String userPersona, Platform forPlatform, TestExecutionContext context) {
+        AtomicInteger numberOfDriversUsed = getNumberOfDriversUsedOn(userPersona, forPlatform);
+        int maxNumberOfDrivers = forPlatform.equals(Platform.android) ? MAX_NUMBER_OF_APPIUM_DRIVERS : MAX_NUMBER_OF_WEB_DRIVERS;
+        if (!reserveDriver(numberOfDriversUsed, maxNumberOfDrivers)) {
+            throw new InvalidTestDataException(
+                    String.format("Current number of drivers used on platform: '%s': '%d'. Unable to create more than '%d' drivers for user persona: '%s'",
+                            forPlatform.name(),
+                            numberOfDriversUsed.get(),
+                            maxNumberOfDrivers,
+                            userPersona)
+            );
         }
+        try {
+            return driverCreator.create(userPersona, forPlatform, context);
+        } catch (RuntimeException | Error e) {
+            numberOfDriversUsed.decrementAndGet();
+            throw e;
+        }
+    }
 
+    private AtomicInteger getNumberOfDriversUsedOn (String userPersona, Platform forPlatform) {
         switch (forPlatform) {
             case android:
-                currentDriver = createAndroidDriverForUser(userPersona, forPlatform, context);
-                break;
+                return numberOfAndroidDriversUsed;
             case web:
-                currentDriver = createWebDriverForUser(userPersona, forPlatform, context);
-                break;
+                return numberOfWebDriversUsed;
             default:
                 throw new InvalidTestDataException(
                         String.format("Unexpected platform value: '%s' provided to assign Driver for user: '%s': ",
                                 forPlatform,
                                 userPersona));
         }
-        context.addTestState(TEST_CONTEXT.CURRENT_DRIVER, currentDriver);
-        context.addTestState(TEST_CONTEXT.CURRENT_USER_PERSONA, userPersona);
-        userPersonaDrivers.put(userPersona, currentDriver);
-        userPersonaPlatforms.put(userPersona, forPlatform);
-        System.out.printf("allocateDriverFor: done: userPersona: '%s', Platform: '%s'%n",
-                userPersona,
-                forPlatform.name());
+    }
 
+    int getNumberOfDriversUsedOn (Platform forPlatform) {
+        return getNumberOfDriversUsedOn(null, forPlatform).get();
+    }
+
+    private Driver createDriverOnPlatform (String userPersona, Platform forPlatform, TestExecutionContext context) {
+        Driver currentDriver = forPlatform.equals(Platform.android)
+                ? createAndroidDriverForUser(userPersona, forPlatform, context)
+                : createWebDriverForUser(userPersona, forPlatform, context);
+        if (Runner.isDriverCommandMetricsEnabled()) {
+            currentDriver.instrumentCommands(userPersona, forPlatform);
+        }
         return currentDriver;
     }
 
+    void assignDriverFor (String userPersona, Platform forPlatform, Driver driver, TestExecutionContext context) {
+        // the platform is registered first, so the platform of any registered driver can always be found
+        userPersonaPlatforms.put(userPersona, forPlatform);
+        userPersonaDrivers.put(userPersona, driver);
+        context.addTestState(TEST_CONTEXT.CURRENT_DRIVER, driver);
+        context.addTestState(TEST_CONTEXT.CURRENT_USER_PERSONA, userPersona);
+    }
+
+    private static boolean reserveDriver (AtomicInteger numberOfDriversUsed, int maxNumberOfDrivers) {
+        int driversUsed;
+        do {
+            driversUsed = numberOfDriversUsed.get();
+            if (driversUsed >= maxNumberOfDrivers) {
+                return false;
+            }
+        } while (!numberOfDriversUsed.compareAndSet(driversUsed, driversUsed + 1));
+        return true;
+    }
+
     @NotNull
     private Driver createAndroidDriverForUser (String userPersona, Platform forPlatform, TestExecutionContext context) {
         System.out.printf("getAndroidDriverForUser: begin: userPersona: '%s', Platform: '%s', Number of appiumDrivers: '%d'%n",
                 userPersona,
                 forPlatform.name(),
                 numberOfAndroidDriversUsed);
-        Driver currentDriver;
-        if (Platform.android.equals(forPlatform) && numberOfAndroidDriversUsed == MAX_NUMBER_OF_APPIUM_DRIVERS) {
-            throw new InvalidTestDataException(
-                    String.format("Unable to create more than '%d' drivers for user persona: '%s' on platform: '%s'",
-                            numberOfAndroidDriversUsed,
-                            userPersona,
-                            forPlatform.name())
-            );
-        }
-        currentDriver = new Driver(
-                context.getTestName() + "-" + userPersona,
-                (AppiumDriver<WebElement>) context.getTestState(TEST_CONTEXT.APPIUM_DRIVER));
-        numberOfAndroidDriversUsed++;
+        AppiumDriver<WebElement> appiumDriver = (AppiumDriver<WebElement>) context.getTestState(TEST_CONTEXT.APPIUM_DRIVER);
+        Driver currentDriver = new Driver(context.getTestName() + "-" + userPersona, appiumDriver);
         System.out.printf("getAndroidDriverForUser: done: userPersona: '%s', Platform: '%s', Number of appiumDrivers: '%d'%n",
                 userPersona,
                 forPlatform.name(),
@@ -125,13 +244,15 @@ public class Drivers {
             Object disableNotifications = ((AppiumDriver) currentDriver.getInnerDriver()).executeScript("pCloudy_executeAdbCommand", "adb shell settings put global heads_up_notifications_enabled 0");
             LOGGER.info("@disableNotificationsCommandResponse: " + disableNotifications);
         } else {
-            String[] disableToastsCommand = new String[]{"adb", "-s", "${device.SERIAL}", "shell", "appops", "set", Runner.getAppPackageName(), "TOAST_WINDOW", "deny"};
-            String[] disableNotificationsCommand = new String[]{"adb", "-s", "${device.SERIAL}", "shell", "settings", "put", "global", "heads_up_notifications_enabled", "0"};
-
-            CommandLineResponse disableToastsCommandResponse = CommandLineExecutor.execCommand(disableToastsCommand);
-            LOGGER.info("disableToastsCommandResponse: " + disableToastsCommandResponse);
-            CommandLineResponse disableNotificationsCommandResponse = CommandLineExecutor.execCommand(disableNotificationsCommand);
-            LOGGER.info("disableNotificationsCommandResponse: " + disableNotificationsCommandResponse);
+            try {
+                List<String> responses = AdbService.executeShellCommands((AppiumDriver<WebElement>) currentDriver.getInnerDriver(), Arrays.asList(
+                        "appops set " + Runner.getAppPackageName() + " TOAST_WINDOW deny",
+                        "settings put global heads_up_notifications_enabled 0"));
+                LOGGER.info("disableToastsCommandResponse: " + responses.get(0));
+                LOGGER.info("disableNotificationsCommandResponse: " + responses.get(1));
+            } catch (EnvironmentSetupException e) {
+                LOGGER.info("Unable to disable notifications and toasts on device: " + e.getMessage());
+            }
         }
     }
 
@@ -141,39 +262,67 @@ public class Drivers {
                 userPersona,
                 forPlatform.name(),
                 numberOfWebDriversUsed);
-
-        Driver currentDriver;
-        if (Platform.web.equals(forPlatform) && numberOfWebDriversUsed == MAX_NUMBER_OF_WEB_DRIVERS) {
-            throw new InvalidTestDataException(
-                    String.format("Unable to create more than '%d' drivers for user persona: '%s' on platform: '%s'",
-                            numberOfWebDriversUsed,
-                            userPersona,
-                            forPlatform.name())
-            );
-        }
         String updatedTestName = context.getTestName() + "-" + userPersona;
-        if (numberOfWebDriversUsed < MAX_NUMBER_OF_WEB_DRIVERS) {
-            currentDriver = new Driver(updatedTestName, createNewWebDriver(userPersona, context));
-        } else {
-            throw new InvalidTestDataException(
-                    String.format("Current number of WebDriver instances used: '%d'. Unable to create more than '%d' drivers for user persona: '%s' on platform: '%s'",
-                            numberOfWebDriversUsed,
-                            MAX_NUMBER_OF_WEB_DRIVERS,
-                            userPersona,
-                            forPlatform.name())
-            );
-        }
-        numberOfWebDriversUsed++;
+        Driver currentDriver = new Driver(updatedTestName, createNewWebDriver(userPersona, context));
         LOGGER.info(String.format("getWebDriverForUser: done: userPersona: '%s', Platform: '%s', Number of webdrivers: '%d'", userPersona, forPlatform.name(), numberOfWebDriversUsed));
         return currentDriver;
     }
 
     @NotNull
     private WebDriver createNewWebDriver (String forUserPersona, TestExecutionContext testExecutionContext) {
-        WebDriverManager.chromedriver().setup();
+        WebDriver driver;
+        if (Runner.isWebDriverPoolEnabled()) {
+            WebDriverPool pool = getWebDriverPool();
+            driver = pool.lease(Duration.ofSeconds(Runner.getWebDriverPoolLeaseTimeoutInSeconds()));
+            // the logs of this scenario are copied from the pooled browser's log file when the browser is returned
+            userPersonaBrowserLogs.put(forUserPersona, getChromeLogFile(forUserPersona, testExecutionContext));
+        } else {
+            WebDriverManager.chromedriver().setup();
+            String logFile = getChromeLogFile(forUserPersona, testExecutionContext);
+            userPersonaBrowserLogs.put(forUserPersona, logFile);
+            driver = launchBrowser(logFile);
+        }
+
+        String providedBaseUrl = Runner.getBaseURLForWeb();
+        if (null == providedBaseUrl) {
+            throw new InvalidTestDataException("baseUrl not provided as an environment variable");
+        }
+        String baseUrl = String.valueOf(Runner.getFromEnvironmentConfiguration(providedBaseUrl));
+        LOGGER.info("baseUrl: " + baseUrl);
+        driver.get(baseUrl);
+        driver.manage().window().maximize();
+        return driver;
+    }
 
-        userPersonaBrowserLogs.put(forUserPersona, setChromeLogDirectory(testExecutionContext));
+    public static void prewarmWebDriverPool (int numberOfBrowsers) {
+        getWebDriverPool().prewarm(numberOfBrowsers);
+    }
 
+    public static synchronized void shutdownWebDriverPool () {
+        if (null != webDriverPool) {
+            webDriverPool.shutdown();
+            webDriverPool = null;
+        }
+    }
+
+    private static synchronized WebDriverPool getWebDriverPool () {
+        if (null == webDriverPool) {
+            WebDriverManager.chromedriver().setup();
+            String poolLogDirectory = Runner.USER_DIRECTORY + File.separator + Runner.getLogDirectory() + File.separator + "webDriverPool";
+            new File(poolLogDirectory).mkdirs();
+            webDriverPool = new WebDriverPool(
+                    Runner.getWebDriverPoolSize(),
+                    Runner.getWebDriverPoolMaxUsesPerBrowser(),
+                    poolLogDirectory,
+                    Drivers::launchBrowser);
+            // quits the pooled browsers even if the run is aborted, e.g. by System.exit or Ctrl-C
+            Runtime.getRuntime().addShutdownHook(new Thread(Drivers::shutdownWebDriverPool, "webDriverPool-shutdown"));
+        }
+        return webDriverPool;
+    }
+
+    @NotNull
+    private static WebDriver launchBrowser (String logFile) {
         ChromeOptions chromeOptions = new ChromeOptions();
         List<String> excludeSwitches = Arrays.asList(
                 "enable-automation",
@@ -207,30 +356,39 @@ public class Drivers {
 
         LOGGER.info("ChromeOptions: " + chromeOptions.asMap());
 
-        WebDriver driver = Runner.isRunningInCI() ? createRemoteWebDriver(chromeOptions) : new ChromeDriver(chromeOptions);
-
-        String providedBaseUrl = Runner.getBaseURLForWeb();
-        if (null == providedBaseUrl) {
-            throw new InvalidTestDataException("baseUrl not provided as an environment variable");
+        if (Runner.isRunningInCI()) {
+            return createRemoteWebDriver(chromeOptions);
         }
-        String baseUrl = String.valueOf(Runner.getFromEnvironmentConfiguration(providedBaseUrl));
-        LOGGER.info("baseUrl: " + baseUrl);
-        driver.get(baseUrl);
-        driver.manage().window().maximize();
-        return driver;
+        // the log file is set per browser, instead of in the 'webdriver.chrome.logfile' system property, as browsers can be launched concurrently
+        ChromeDriverService chromeDriverService = new ChromeDriverService.Builder()
+                .usingAnyFreePort()
+                .withLogFile(new File(logFile))
+                .build();
+        return new ChromeDriver(chromeDriverService, chromeOptions);
     }
 
     @NotNull
-    private RemoteWebDriver createRemoteWebDriver (ChromeOptions chromeOptions) {
-        try {
-            return new RemoteWebDriver(new URL("http://localhost:4444/wd/hub"), chromeOptions);
-        } catch (MalformedURLException e) {
-            throw new EnvironmentSetupException("Unable to create a new RemoteWebDriver", e);
+    private static RemoteWebDriver createRemoteWebDriver (ChromeOptions chromeOptions) {
+        return getRemoteWebDriverFactory().create(chromeOptions);
+    }
+
+    private static synchronized RemoteWebDriverFactory getRemoteWebDriverFactory () {
+        if (null == remoteWebDriverFactory) {
+            remoteWebDriverFactory = new RemoteWebDriverFactory(
+                    RemoteWebDriverFactory.parseEndpointUrls(Runner.getRemoteWebDriverGridUrls()),
+                    Runner.getRemoteWebDriverQuarantineAfterFailures(),
+                    Duration.ofSeconds(Runner.getRemoteWebDriverQuarantineInSeconds()));
         }
+        return remoteWebDriverFactory;
     }
 
-    private String setChromeLogDirectory (TestExecutionContext testExecutionContext) {
-        String forUserPersona = testExecutionContext.getTestStateAsString(TEST_CONTEXT.CURRENT_USER_PERSONA);
+    public static synchronized void logRemoteWebDriverGridSummary () {
+        if (null != remoteWebDriverFactory) {
+            LOGGER.info(remoteWebDriverFactory.getSummary());
+        }
+    }
+
+    private String getChromeLogFile (String forUserPersona, TestExecutionContext testExecutionContext) {
         String scenarioLogDir = Runner.USER_DIRECTORY + testExecutionContext.getTestStateAsString(TEST_CONTEXT.SCENARIO_LOG_DIRECTORY);
         String logFile = scenarioLogDir + File.separator + "deviceLogs" + File.separator + "chrome-" + forUserPersona + ".log";
 
@@ -238,12 +396,13 @@ public class Drivers {
         file.getParentFile().mkdirs();
 
         LOGGER.info("Creating Chrome logs in file: " + logFile);
-        System.setProperty("webdriver.chrome.logfile", logFile);
-
-//        System.setProperty("webdriver.chrome.verboseLogging", "true");
         return logFile;
     }
 
+    public boolean hasDriverFor (String userPersona) {
+        return null != userPersona && userPersonaDrivers.containsKey(userPersona);
+    }
+
     public Driver getDriverForUser (String userPersona) {
         if (!userPersonaDrivers.containsKey(userPersona)) {
             LOGGER.info("getDriverForUser: Drivers available for userPersonas: " + userPersonaDrivers.keySet());
@@ -265,27 +424,34 @@ public class Drivers {
         return userPersonaPlatforms.get(userPersona);
     }
 
+    /**
+     * The user personas are torn down concurrently - each gets its visual test results and closes its driver - within
+     * TEARDOWN_TIMEOUT_IN_SECONDS. The logs and failures are then reported in the order of the user persona names.
+     */
     public void attachLogsAndCloseAllWebDrivers (TestExecutionContext context) {
         LOGGER.info("Close all drivers:");
-        userPersonaDrivers.keySet().forEach(key -> {
-            LOGGER.info("\tUser Persona: " + key);
-            validateVisualTestResults(key);
-            attachLogsAndCloseDriver(key);
-        });
+        shutdownUnirestBackgroundConnections();
+        ScenarioTeardown scenarioTeardown = new ScenarioTeardown();
+        new TreeSet<>(userPersonaDrivers.keySet()).forEach(key -> scenarioTeardown.add(key, attachLog -> {
+            try {
+                validateVisualTestResults(key, attachLog);
+            } finally {
+                driverCloser.close(key, userPersonaDrivers.get(key), attachLog);
+            }
+        }));
+        scenarioTeardown.await(Duration.ofSeconds(Runner.getTeardownTimeoutInSeconds()), ScenarioTeardown::attachToReportPortal);
     }
 
-    private void validateVisualTestResults (String key) {
+    private void validateVisualTestResults (String key, BiConsumer<String, File> attachLog) {
         Driver driver = userPersonaDrivers.get(key);
-        driver.getVisual().handleTestResults(key);
+        driver.getVisual().handleTestResults(key, attachLog);
     }
 
-    private void attachLogsAndCloseDriver (String key) {
-        Driver driver = userPersonaDrivers.get(key);
-        shutdownUnirestBackgroundConnections();
+    private void closeDriver (String key, Driver driver, BiConsumer<String, File> attachLog) {
         if (driver.getType().equals(Driver.WEB_DRIVER)) {
-            closeWebDriver(key, driver);
+            closeWebDriver(key, driver, attachLog);
         } else {
-            closeAppOnDevice(driver);
+            closeAppOnDevice(driver, attachLog);
         }
     }
 
@@ -298,13 +464,13 @@ public class Drivers {
         }
     }
 
-    private void closeAppOnDevice (Driver driver) {
+    private void closeAppOnDevice (Driver driver, BiConsumer<String, File> attachLog) {
         String appPackageName = Runner.getAppPackageName();
         AppiumDriver appiumDriver = (AppiumDriver) driver.getInnerDriver();
         if (Runner.isRunningInCI()) {
             String message = "Skip terminating & closing app on Cloud device";
             LOGGER.info(message);
-            ReportPortal.emitLog(message, "DEBUG", new Date());
+            attachLog.accept(message, null);
         } else {
 
             LOGGER.info("Terminate app: " + appPackageName);
@@ -313,27 +479,37 @@ public class Drivers {
             ApplicationState applicationState = appiumDriver.queryAppState(appPackageName);
             LOGGER.info("Application State: " + applicationState);
             appiumDriver.closeApp();
-            ReportPortal.emitLog(
+            attachLog.accept(
                     String.format("App: '%s' termiated? '%s'. Current application state: '%s'%n",
                             appPackageName,
                             isAppTerminated,
                             applicationState),
-                    "DEBUG",
-                    new Date());
+                    null);
         }
     }
 
-    private void closeWebDriver (String key, Driver driver) {
-        ReportPortal.emitLog(
-                "Chrome browser logs for user: " + key,
-                "DEBUG",
-                new Date(), new File(userPersonaBrowserLogs.get(key)));
+    private void closeWebDriver (String key, Driver driver, BiConsumer<String, File> attachLog) {
         WebDriver webDriver = driver.getInnerDriver();
         if (null == webDriver) {
             LOGGER.info(String.format("Strange. But WebDriver for user: '%s' already closed", key));
+        } else if (null != webDriverPool && webDriverPool.isLeased(webDriver)) {
+            LOGGER.info(String.format("Returning WebDriver for user: '%s' to WebDriverPool", key));
+            webDriverPool.saveLogOfLease(webDriver, userPersonaBrowserLogs.get(key));
+            webDriverPool.release(webDriver);
         } else {
             LOGGER.info(String.format("Closing WebDriver for user: '%s'", key));
             webDriver.quit();
         }
+        attachLog.accept("Chrome browser logs for user: " + key, new File(userPersonaBrowserLogs.get(key)));
+    }
+
+    @FunctionalInterface
+    interface DriverCreator {
+        Driver create (String userPersona, Platform forPlatform, TestExecutionContext context);
+    }
+
+    @FunctionalInterface
+    interface DriverCloser {
+        void close (String userPersona, Driver driver, BiConsumer<String, File> attachLog);
     }
 }
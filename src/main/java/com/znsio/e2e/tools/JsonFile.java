@@ -3,25 +3,48 @@ package com.znsio.e2e.tools;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
 import com.google.gson.JsonParser;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
 import com.znsio.e2e.exceptions.EnvironmentSetupException;
 import com.znsio.e2e.exceptions.InvalidTestDataException;
 import org.apache.log4j.Logger;
 
 import java.io.*;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 
 public class JsonFile {
+    private static final TypeAdapter<Object> JSON_VALUE_ADAPTER = new Gson().getAdapter(Object.class);
+    static final int MAX_CACHED_NODES = 64;
+    static final long MAX_CACHED_FILE_SIZE_IN_BYTES = 1024 * 1024;
+    // least recently used nodes are evicted first. Large files are not cached at all
+    private static final Map<String, CachedNode> cachedNodes = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry (Map.Entry<String, CachedNode> eldest) {
+            return size() > MAX_CACHED_NODES;
+        }
+    });
     private static final Logger LOGGER = Logger.getLogger(JsonFile.class.getName());
 
     private JsonFile () {
     }
 
     public static void saveJsonToFile (Map<String, Map> jsonMap, String fileName) {
-        LOGGER.info("\tSave the following json to file: "+  fileName + "   with jsonmap:  " + jsonMap);
+        LOGGER.info("\tSave json to file: " + fileName);
+        LOGGER.debug("\tjsonmap: " + jsonMap);
+        evictCachedNodes(fileName);
         File file = new File(fileName);
         if (file.exists()) {
             LOGGER.info("File: "+ file + "  exixts.  Delete it first");
@@ -42,55 +65,170 @@ public class JsonFile {
     }
 
     public static Map<String, Map> getNodeValueAsMapFromJsonFile (String node, String fileName) {
-        Map<String, Map> map = loadJsonFile(fileName);
         LOGGER.info("\tPlatform: " + node);
-        Map<String, Map> envMap = map.get(node);
-        LOGGER.info("\tLoaded map: " + envMap);
+        Map<String, Map> envMap = (Map<String, Map>) deepCopy(getNodeValue(fileName, node));
         if (null == envMap) {
             throw new InvalidTestDataException(String.format("Node: '%s' not found in file: '%s'", node, fileName));
         }
+        LOGGER.info(String.format("\tLoaded map with '%d' keys", envMap.size()));
+        LOGGER.debug("\tLoaded map: " + envMap);
         return envMap;
     }
 
     public static Map<String, Map> loadJsonFile (String fileName) {
-        LOGGER.info("\tLoading Json file: "+ fileName);
-        try {
-            Gson gson = new Gson();
-            Reader reader = Files.newBufferedReader(Paths.get(fileName));
-            Map<String, Map> map = gson.fromJson(reader, Map.class);
-            reader.close();
-            return map;
-        } catch (IOException e) {
-            throw new InvalidTestDataException(String.format("Unable to load json file: '%s'", fileName), e);
-        }
+        LOGGER.info("\tLoading Json file: " + fileName);
+        return (Map<String, Map>) deepCopy(getNodeValue(fileName));
     }
 
     public static String getNodeValueAsStringFromJsonFile (String fileName, String[] nodeTree) {
-        Map<String, Map> map = loadJsonFile(fileName);
-
-        String nodePath = "";
-        for (int nodeCount = 0; nodeCount < nodeTree.length - 1; nodeCount++) {
-            LOGGER.info("\tFinding node: " + nodeTree[nodeCount]);
-            nodePath += nodeTree[nodeCount] + " -> ";
-            map = map.get(nodeTree[nodeCount]);
-            if (null == map) {
-                throw new InvalidTestDataException(String.format("Node: '%s' not found in file: '%s'", nodePath, fileName));
-            }
-        }
-        String retValue = String.valueOf(map.get(nodeTree[nodeTree.length - 1]));
+        LOGGER.info("\tFinding node: " + String.join(" -> ", nodeTree));
+        String retValue = String.valueOf(getNodeValue(fileName, nodeTree));
         LOGGER.info("\tFound value: " + retValue);
         return retValue;
     }
 
     public static ArrayList<Map> getNodeValueAsArrayListFromJsonFile (String node, String fileName) {
-        Map<String, Map> map = loadJsonFile(fileName);
         LOGGER.info("\tPlatform: " + node);
-        ArrayList<Map> envMap = (ArrayList<Map>) map.get(node);
-        LOGGER.info("\tLoaded arraylist: " + envMap);
+        ArrayList<Map> envMap = (ArrayList<Map>) deepCopy(getNodeValue(fileName, node));
+        LOGGER.debug("\tLoaded arraylist: " + envMap);
         return envMap;
     }
 
     public static JsonObject convertToMap (String jsonAsString) {
         return JsonParser.parseString(jsonAsString).getAsJsonObject();
     }
+
+    private static Object getNodeValue (String fileName, String... nodeTree) {
+        Path path = Paths.get(fileName).toAbsolutePath().normalize();
+        FileVersion fileVersion = FileVersion.of(path, fileName);
+        String nodeKey = path + "#" + String.join("/", nodeTree);
+        CachedNode cachedNode = cachedNodes.get(nodeKey);
+        if (null != cachedNode && cachedNode.fileVersion.equals(fileVersion)) {
+            return cachedNode.value;
+        }
+        CachedNode cachedFile = cachedNodes.get(path + "#");
+        Object value = (null != cachedFile && cachedFile.fileVersion.equals(fileVersion))
+                ? findNode(cachedFile.value, fileName, nodeTree)
+                : readNode(path, fileName, nodeTree);
+        if (null != value && fileVersion.size <= MAX_CACHED_FILE_SIZE_IN_BYTES) {
+            cachedNodes.put(nodeKey, new CachedNode(fileVersion, value));
+        }
+        return value;
+    }
+
+    private static Object findNode (Object jsonValue, String fileName, String[] nodeTree) {
+        Object node = jsonValue;
+        String nodePath = "";
+        for (int nodeCount = 0; nodeCount < nodeTree.length; nodeCount++) {
+            if (!(node instanceof Map)) {
+                throw new InvalidTestDataException(String.format("Node: '%s' not found in file: '%s'", nodePath, fileName));
+            }
+            node = ((Map) node).get(nodeTree[nodeCount]);
+            nodePath += nodeTree[nodeCount] + " -> ";
+            if (null == node && nodeCount < nodeTree.length - 1) {
+                throw new InvalidTestDataException(String.format("Node: '%s' not found in file: '%s'", nodePath, fileName));
+            }
+        }
+        return node;
+    }
+
+    private static Object readNode (Path path, String fileName, String[] nodeTree) {
+        try (JsonReader reader = new JsonReader(Files.newBufferedReader(path))) {
+            String nodePath = "";
+            for (int nodeCount = 0; nodeCount < nodeTree.length; nodeCount++) {
+                if (JsonToken.BEGIN_OBJECT != reader.peek()) {
+                    throw new InvalidTestDataException(String.format("Node: '%s' not found in file: '%s'", nodePath, fileName));
+                }
+                nodePath += nodeTree[nodeCount] + " -> ";
+                if (!skipToName(reader, nodeTree[nodeCount])) {
+                    if (nodeCount == nodeTree.length - 1) {
+                        return null;
+                    }
+                    throw new InvalidTestDataException(String.format("Node: '%s' not found in file: '%s'", nodePath, fileName));
+                }
+            }
+            return JSON_VALUE_ADAPTER.read(reader);
+        } catch (IOException | JsonParseException | IllegalStateException e) {
+            throw new InvalidTestDataException(String.format("Unable to load json file: '%s'", fileName), e);
+        }
+    }
+
+    private static boolean skipToName (JsonReader reader, String name) throws IOException {
+        reader.beginObject();
+        while (reader.hasNext()) {
+            if (reader.nextName().equals(name)) {
+                return true;
+            }
+            reader.skipValue();
+        }
+        return false;
+    }
+
+    private static Object deepCopy (Object jsonValue) {
+        if (jsonValue instanceof Map) {
+            Map<Object, Object> copy = new LinkedHashMap<>();
+            ((Map<?, ?>) jsonValue).forEach((key, value) -> copy.put(key, deepCopy(value)));
+            return copy;
+        }
+        if (jsonValue instanceof List) {
+            List<Object> copy = new ArrayList<>();
+            ((List<?>) jsonValue).forEach(value -> copy.add(deepCopy(value)));
+            return copy;
+        }
+        return jsonValue;
+    }
+
+    private static void evictCachedNodes (String fileName) {
+        String pathPrefix = Paths.get(fileName).toAbsolutePath().normalize() + "#";
+        synchronized (cachedNodes) {
+            cachedNodes.keySet().removeIf(nodeKey -> nodeKey.startsWith(pathPrefix));
+        }
+    }
+
+    static int getNumberOfCachedNodes () {
+        return cachedNodes.size();
+    }
+
+    private static final class CachedNode {
+        private final FileVersion fileVersion;
+        private final Object value;
+
+        private CachedNode (FileVersion fileVersion, Object value) {
+            this.fileVersion = fileVersion;
+            this.value = value;
+        }
+    }
+
+    private static final class FileVersion {
+        private final FileTime lastModifiedTime;
+        private final long size;
+
+        private FileVersion (FileTime lastModifiedTime, long size) {
+            this.lastModifiedTime = lastModifiedTime;
+            this.size = size;
+        }
+
+        private static FileVersion of (Path path, String fileName) {
+            try {
+                BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+                return new FileVersion(attributes.lastModifiedTime(), attributes.size());
+            } catch (IOException e) {
+                throw new InvalidTestDataException(String.format("Unable to load json file: '%s'", fileName), e);
+            }
+        }
+
+        @Override
+        public boolean equals (Object other) {
+            if (!(other instanceof FileVersion)) {
+                return false;
+            }
+            FileVersion otherVersion = (FileVersion) other;
+            return size == otherVersion.size && lastModifiedTime.equals(otherVersion.lastModifiedTime);
+        }
+
+        @Override
+        public int hashCode () {
+            return Objects.hash(lastModifiedTime, size);
+        }
+    }
 }
@@ -0,0 +1,80 @@
+package com.znsio.e2e.tools;
+
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.remote.Command;
+import org.openqa.selenium.remote.CommandExecutor;
+import org.openqa.selenium.remote.DriverCommand;
+import org.openqa.selenium.remote.RemoteWebDriver;
+import org.openqa.selenium.remote.Response;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Records the origins a pooled browser is navigated to (and the origins its current url is read on), so that its cookies
+ * and storage - which WebDriver can only clear for the current origin - can be cleared for each of them before reuse.
+ */
+class OriginTrackingCommandExecutor implements CommandExecutor {
+    private final CommandExecutor delegate;
+    private final Set<String> visitedOrigins = ConcurrentHashMap.newKeySet();
+
+    private OriginTrackingCommandExecutor (CommandExecutor delegate) {
+        this.delegate = delegate;
+    }
+
+    static OriginTrackingCommandExecutor track (WebDriver webDriver) {
+        if (!(webDriver instanceof RemoteWebDriver)) {
+            return null;
+        }
+        RemoteWebDriver remoteWebDriver = (RemoteWebDriver) webDriver;
+        OriginTrackingCommandExecutor originTrackingCommandExecutor = new OriginTrackingCommandExecutor(remoteWebDriver.getCommandExecutor());
+        CommandExecutors.replace(remoteWebDriver, originTrackingCommandExecutor);
+        return originTrackingCommandExecutor;
+    }
+
+    static String getOriginOf (String url) {
+        if (null == url) {
+            return null;
+        }
+        try {
+            URI uri = new URI(url);
+            String scheme = uri.getScheme();
+            if (null == uri.getHost() || !("http".equalsIgnoreCase(scheme) || "https".equalsIgnoreCase(scheme))) {
+                return null;
+            }
+            return scheme.toLowerCase() + "://" + uri.getHost().toLowerCase() + ((-1 == uri.getPort()) ? "" : ":" + uri.getPort());
+        } catch (URISyntaxException e) {
+            return null;
+        }
+    }
+
+    Set<String> getVisitedOrigins () {
+        return new LinkedHashSet<>(visitedOrigins);
+    }
+
+    void clear () {
+        visitedOrigins.clear();
+    }
+
+    @Override
+    public Response execute (Command command) throws IOException {
+        Response response = delegate.execute(command);
+        if (DriverCommand.GET.equals(command.getName())) {
+            record(String.valueOf(command.getParameters().get("url")));
+        } else if (DriverCommand.GET_CURRENT_URL.equals(command.getName()) && null != response.getValue()) {
+            record(String.valueOf(response.getValue()));
+        }
+        return response;
+    }
+
+    private void record (String url) {
+        String origin = getOriginOf(url);
+        if (null != origin) {
+            visitedOrigins.add(origin);
+        }
+    }
+}
@@ -1,16 +1,80 @@
 package com.znsio.e2e.tools;
 
-import org.apache.commons.lang3.RandomStringUtils;
+import com.znsio.e2e.exceptions.InvalidTestDataException;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
 
 public class Randomizer {
+    public static final int MAX_NUMBER_OF_WORKERS = 100;
+    private static final int NO_WORKER_ID = -1;
+    private static final String NUMERIC = "0123456789";
+    private static final String ALPHANUMERIC = "abcdefghijklmnopqrstuvwxyz0123456789";
+    private static final int NUMERIC_LENGTH = 8;
+    private static final int ALPHANUMERIC_LENGTH = 10;
+    private static final Set<String> generatedValues = ConcurrentHashMap.newKeySet();
+    private static volatile int workerId = NO_WORKER_ID;
+
+    /**
+     * Sets the id of this worker (ex: the shard index) that is part of every generated value, so that workers that run at
+     * the same time never generate the same value. Without a worker id, the complete value is random
+     */
+    public static void setWorkerId (int workerId) {
+        if (workerId < 0 || workerId >= MAX_NUMBER_OF_WORKERS) {
+            throw new InvalidTestDataException(String.format("Invalid worker id: '%d' for Randomizer. Should be between 0 and %d",
+                    workerId, MAX_NUMBER_OF_WORKERS - 1));
+        }
+        Randomizer.workerId = workerId;
+    }
+
+    static void clearWorkerId () {
+        Randomizer.workerId = NO_WORKER_ID;
+    }
+
     public static String randomize (String randomizeTestData) {
         String randomizedValue = randomizeTestData;
         try {
             Long.parseLong(randomizeTestData);
-            randomizedValue = "80" + RandomStringUtils.randomNumeric(8);
+            randomizedValue = "80" + uniqueNumeric();
         } catch (NumberFormatException nfe) {
-            randomizedValue = "e2e_" + RandomStringUtils.randomAlphanumeric(10) + "@getnada.com";
+            randomizedValue = "e2e_" + uniqueAlphanumeric() + "@getnada.com";
         }
         return randomizedValue;
     }
+
+    public static String uniqueNumeric () {
+        int currentWorkerId = workerId;
+        if (NO_WORKER_ID == currentWorkerId) {
+            return unique("", NUMERIC, NUMERIC_LENGTH);
+        }
+        // the worker id takes 2 of the digits. Values of all workers of a run together still cover all the digits
+        return unique(String.format("%02d", currentWorkerId), NUMERIC, NUMERIC_LENGTH - 2);
+    }
+
+    public static String uniqueAlphanumeric () {
+        int currentWorkerId = workerId;
+        if (NO_WORKER_ID == currentWorkerId) {
+            return unique("", ALPHANUMERIC, ALPHANUMERIC_LENGTH);
+        }
+        return unique(Integer.toString(currentWorkerId, Character.MAX_RADIX) + "_", ALPHANUMERIC, ALPHANUMERIC_LENGTH);
+    }
+
+    // a random value is drawn again only if this process has generated it already
+    private static String unique (String prefix, String characters, int length) {
+        String value;
+        do {
+            value = prefix + random(characters, length);
+        } while (!generatedValues.add(value));
+        return value;
+    }
+
+    private static String random (String characters, int length) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        StringBuilder randomValue = new StringBuilder(length);
+        for (int count = 0; count < length; count++) {
+            randomValue.append(characters.charAt(random.nextInt(characters.length())));
+        }
+        return randomValue.toString();
+    }
 }
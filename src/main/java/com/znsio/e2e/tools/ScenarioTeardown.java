@@ -0,0 +1,95 @@
+package com.znsio.e2e.tools;
+
+import com.epam.reportportal.service.ReportPortal;
+import com.znsio.e2e.exceptions.EnvironmentSetupException;
+import com.znsio.e2e.runner.ScenarioContext;
+import org.apache.log4j.Logger;
+
+import java.io.File;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * Tears down the user personas of a scenario concurrently, within an overall deadline.
+ * ReportPortal attaches logs to the scenario only from the scenario's own thread, so the logs of each user persona are
+ * collected while it is torn down, and attached in await() - in the order the user personas were added, as are the failures.
+ */
+class ScenarioTeardown {
+    private static final Logger LOGGER = Logger.getLogger(ScenarioTeardown.class.getName());
+    private final Map<String, CompletableFuture<Void>> teardowns = new LinkedHashMap<>();
+    private final Map<String, CollectedLogs> userPersonaLogs = new LinkedHashMap<>();
+
+    static void attachToReportPortal (String message, File logFile) {
+        if (null == logFile) {
+            ReportPortal.emitLog(message, "DEBUG", new Date());
+        } else {
+            ReportPortal.emitLog(message, "DEBUG", new Date(), logFile);
+        }
+    }
+
+    void add (String userPersona, Consumer<BiConsumer<String, File>> teardown) {
+        CollectedLogs logs = new CollectedLogs();
+        userPersonaLogs.put(userPersona, logs);
+        teardowns.put(userPersona, ScenarioContext.runAsync(() -> {
+            LOGGER.info("\tUser Persona: " + userPersona);
+            teardown.accept(logs);
+        }));
+    }
+
+    void await (Duration timeout, BiConsumer<String, File> attachLog) {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        Map<String, Throwable> failures = new LinkedHashMap<>();
+        for (Map.Entry<String, CompletableFuture<Void>> teardown : teardowns.entrySet()) {
+            String userPersona = teardown.getKey();
+            try {
+                teardown.getValue().get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } catch (ExecutionException e) {
+                failures.put(userPersona, e.getCause());
+            } catch (TimeoutException e) {
+                String message = String.format("Teardown of user persona: '%s' did not complete in '%d' seconds", userPersona, timeout.getSeconds());
+                LOGGER.info(message);
+                failures.put(userPersona, new EnvironmentSetupException(message));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                failures.put(userPersona, e);
+            }
+        }
+        userPersonaLogs.values().forEach(logs -> logs.attachTo(attachLog));
+        throwIfFailed(failures);
+    }
+
+    private static void throwIfFailed (Map<String, Throwable> failures) {
+        if (failures.isEmpty()) {
+            return;
+        }
+        failures.forEach((userPersona, failure) -> LOGGER.info(String.format("Teardown of user persona: '%s' failed: %s", userPersona, failure)));
+        EnvironmentSetupException teardownFailed = new EnvironmentSetupException("Teardown failed for user personas: " + failures.keySet());
+        Iterator<Throwable> allFailures = failures.values().iterator();
+        teardownFailed.initCause(allFailures.next());
+        allFailures.forEachRemaining(teardownFailed::addSuppressed);
+        throw teardownFailed;
+    }
+
+    private static class CollectedLogs implements BiConsumer<String, File> {
+        private final List<Map.Entry<String, File>> logs = Collections.synchronizedList(new ArrayList<>());
+
+        @Override
+        public void accept (String message, File logFile) {
+            logs.add(new AbstractMap.SimpleImmutableEntry<>(message, logFile));
+        }
+
+        private void attachTo (BiConsumer<String, File> attachLog) {
+            List<Map.Entry<String, File>> collectedLogs;
+            synchronized (logs) {
+                collectedLogs = new ArrayList<>(logs);
+            }
+            collectedLogs.forEach(log -> attachLog.accept(log.getKey(), log.getValue()));
+        }
+    }
+}
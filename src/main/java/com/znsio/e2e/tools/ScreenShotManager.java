@@ -1,55 +1,105 @@
 package com.znsio.e2e.tools;
 
-import com.context.SessionContext;
 import com.context.TestExecutionContext;
+import com.epam.reportportal.message.ReportPortalMessage;
 import com.epam.reportportal.service.ReportPortal;
 import com.znsio.e2e.entities.TEST_CONTEXT;
-import org.apache.commons.io.FileUtils;
+import com.znsio.e2e.runner.ScenarioContext;
 import org.apache.log4j.Logger;
 import org.openqa.selenium.OutputType;
 import org.openqa.selenium.TakesScreenshot;
+import rp.com.google.common.io.ByteSource;
 
 import java.io.File;
-import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.regex.Pattern;
 
 
 public class ScreenShotManager {
 
+    private static final long FLUSH_TIMEOUT_IN_SECONDS = 60;
+    private static final Pattern SPECIAL_CHARACTERS = Pattern.compile("[`~ !@#$%^&*()\\-=+\\[\\]{}\\\\|;:'\",<.>/?]");
     private final TestExecutionContext context;
     private final String directoryPath;
+    private final ScreenShotStore screenShotStore;
+    private final List<PendingWrite> pendingWrites = new ArrayList<>();
+    private final Set<String> uploadedScreenShots = new HashSet<>();
     private int counter;
     private static final Logger LOGGER = Logger.getLogger(ScreenShotManager.class.getName());
 
     public ScreenShotManager () {
-        context = SessionContext.getTestExecutionContext(Thread.currentThread().getId());
+        context = ScenarioContext.current();
         directoryPath = context.getTestStateAsString(TEST_CONTEXT.SCREENSHOT_DIRECTORY);
+        screenShotStore = ScreenShotStore.getInstance();
         counter = 0;
         File file = new File(directoryPath);
         file.getParentFile().mkdirs();
     }
 
-    public void takeScreenShot (String fileName) {
+    public byte[] takeScreenShot (String fileName) {
         Driver driver = (Driver) context.getTestState(TEST_CONTEXT.CURRENT_DRIVER);
-        if (null != driver) {
-            File screenshot = ((TakesScreenshot) driver.getInnerDriver()).getScreenshotAs(OutputType.FILE);
-            fileName = normaliseScenarioName(getPrefix() + "-" + fileName);
-            File destinationFile = createScreenshotFile(directoryPath, fileName);
-            LOGGER.info("The screenshot is placed in : " + destinationFile.getAbsolutePath());
+        if (null == driver) {
+            LOGGER.info("Driver is not instantiated for this test");
+            return null;
+        }
+        byte[] screenshot = ((TakesScreenshot) driver.getInnerDriver()).getScreenshotAs(OutputType.BYTES);
+        fileName = normaliseScenarioName(getPrefix() + "-" + fileName);
+        File destinationFile = createScreenshotFile(directoryPath, fileName);
+        LOGGER.info("The screenshot will be placed in : " + destinationFile.getAbsolutePath());
+        String contentHash = ScreenShotStore.getContentHash(screenshot);
+        Future<ScreenShotStore.EncodedScreenShot> encodedScreenShot = ScreenShotWriter.write(screenShotStore, screenshot, contentHash, destinationFile);
+        boolean isFirstInScenario;
+        synchronized (pendingWrites) {
+            isFirstInScenario = uploadedScreenShots.add(contentHash);
+            pendingWrites.add(new PendingWrite(fileName, new Date(), encodedScreenShot, isFirstInScenario));
+        }
+        if (!isFirstInScenario) {
+            ReportPortal.emitLog(fileName + ": identical to an earlier screenshot", "DEBUG", new Date());
+        }
+        return screenshot;
+    }
+
+    /**
+     * Waits for the pending screenshot writes, and attaches the encoded screenshots to the report - with the time they
+     * were taken, so they show up in the report where they were taken.
+     */
+    public void flushPendingWrites () {
+        List<PendingWrite> writesToFlush;
+        synchronized (pendingWrites) {
+            writesToFlush = new ArrayList<>(pendingWrites);
+            pendingWrites.clear();
+        }
+        LOGGER.info("Flush pending screenshot writes: " + writesToFlush.size());
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(FLUSH_TIMEOUT_IN_SECONDS);
+        for (PendingWrite pendingWrite : writesToFlush) {
             try {
-                FileUtils.copyFile(screenshot, destinationFile);
-                ReportPortal.emitLog(fileName, "DEBUG", new Date(), destinationFile);
-            } catch (IOException e) {
-                LOGGER.info("ERROR: Unable to save or upload screenshot: "+ destinationFile.getAbsolutePath()  +" or upload sceeenshot to ReportPortal%n" );
-                e.printStackTrace();
+                ScreenShotStore.EncodedScreenShot encodedScreenShot = pendingWrite.encodedScreenShot.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                if (pendingWrite.isUploaded) {
+                    ReportPortal.emitLog(
+                            new ReportPortalMessage(ByteSource.wrap(encodedScreenShot.getBytes()), encodedScreenShot.getMediaType(), pendingWrite.fileName),
+                            "DEBUG",
+                            pendingWrite.takenAt);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                LOGGER.info("Interrupted while flushing pending screenshot writes");
+                return;
+            } catch (ExecutionException | TimeoutException e) {
+                LOGGER.info("ERROR: Unable to flush pending screenshot write: " + e.getMessage());
             }
-        } else {
-            LOGGER.info("Driver is not instantiated for this test");
         }
     }
 
-    private String normaliseScenarioName (String scenarioName) {
-        return scenarioName.replaceAll("[`~ !@#$%^&*()\\-=+\\[\\]{}\\\\|;:'\",<.>/?]", "_");
+    public static String normaliseScenarioName (String scenarioName) {
+        return SPECIAL_CHARACTERS.matcher(scenarioName).replaceAll("_");
     }
 
     private int getPrefix () {
@@ -57,10 +107,25 @@ public class ScreenShotManager {
     }
 
     private File createScreenshotFile (String dirName, String fileName) {
-        fileName = fileName.endsWith(".png") ? fileName : fileName + ".png";
+        String fileExtension = "." + screenShotStore.getFileExtension();
+        fileName = fileName.endsWith(fileExtension) ? fileName : fileName + fileExtension;
         return new File(System.getProperty("user.dir")
                 + dirName
                 + File.separator
                 + fileName);
     }
+
+    private static class PendingWrite {
+        private final String fileName;
+        private final Date takenAt;
+        private final Future<ScreenShotStore.EncodedScreenShot> encodedScreenShot;
+        private final boolean isUploaded;
+
+        private PendingWrite (String fileName, Date takenAt, Future<ScreenShotStore.EncodedScreenShot> encodedScreenShot, boolean isUploaded) {
+            this.fileName = fileName;
+            this.takenAt = takenAt;
+            this.encodedScreenShot = encodedScreenShot;
+            this.isUploaded = isUploaded;
+        }
+    }
 }
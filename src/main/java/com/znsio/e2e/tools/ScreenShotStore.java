@@ -0,0 +1,247 @@
+package com.znsio.e2e.tools;
+
+import com.znsio.e2e.runner.Runner;
+import org.apache.commons.io.FileUtils;
+import org.apache.log4j.Logger;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Encodes screenshots and stores each distinct screenshot (by content hash) only once during a run - duplicates are
+ * hard-linked to the first copy.
+ */
+class ScreenShotStore {
+    static final String PNG = "png";
+    static final String JPG = "jpg";
+    static final String WEBP = "webp";
+    private static final long BYTES_IN_MB = 1024L * 1024L;
+    private static final Logger LOGGER = Logger.getLogger(ScreenShotStore.class.getName());
+    private static ScreenShotStore screenShotStore;
+    private final String format;
+    private final int quality;
+    private final int scalePercent;
+    private final long byteBudget;
+    private final Map<String, CompletableFuture<Path>> storedScreenShots = new ConcurrentHashMap<>();
+    private final AtomicLong bytesStored = new AtomicLong(0);
+    private final AtomicBoolean isByteBudgetExhausted = new AtomicBoolean(false);
+
+    ScreenShotStore (String format, int quality, int scalePercent, long byteBudget) {
+        this.format = getSupportedFormat(format.toLowerCase());
+        this.quality = quality;
+        this.scalePercent = scalePercent;
+        this.byteBudget = byteBudget;
+    }
+
+    static synchronized ScreenShotStore getInstance () {
+        if (null == screenShotStore) {
+            screenShotStore = new ScreenShotStore(Runner.getScreenShotFormat(),
+                    Runner.getScreenShotQuality(),
+                    Runner.getScreenShotScalePercent(),
+                    Runner.getScreenShotByteBudgetInMB() * BYTES_IN_MB);
+        }
+        return screenShotStore;
+    }
+
+    static String getContentHash (byte[] screenshot) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(screenshot);
+            StringBuilder contentHash = new StringBuilder();
+            for (byte digestByte : digest) {
+                contentHash.append(String.format("%02x", digestByte));
+            }
+            return contentHash.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static String getSupportedFormat (String format) {
+        if (format.equals(WEBP) && !ImageIO.getImageWritersByFormatName(WEBP).hasNext()) {
+            return JPG;
+        }
+        return format.equals(WEBP) || format.equals(JPG) ? format : PNG;
+    }
+
+    String getFileExtension () {
+        return format;
+    }
+
+    long getBytesStored () {
+        return bytesStored.get();
+    }
+
+    /**
+     * Saves the screenshot, and returns it as encoded for the configured format - or as captured (png), if it could not
+     * be encoded - to be attached to the report.
+     */
+    EncodedScreenShot save (byte[] screenshot, String contentHash, File destinationFile) {
+        CompletableFuture<Path> storedScreenShot = new CompletableFuture<>();
+        CompletableFuture<Path> originalScreenShot = storedScreenShots.putIfAbsent(contentHash, storedScreenShot);
+        if (null != originalScreenShot) {
+            Path originalPath = originalScreenShot.join();
+            if (linkToOriginal(originalPath, destinationFile)) {
+                try {
+                    return new EncodedScreenShot(Files.readAllBytes(originalPath), format);
+                } catch (IOException e) {
+                    LOGGER.info("ERROR: Unable to read screenshot: " + originalPath + ": " + e.getMessage());
+                }
+            }
+            return encodeOrKeepAsCaptured(screenshot, destinationFile);
+        }
+        Path storedPath = null;
+        EncodedScreenShot encodedScreenShot = encodeOrKeepAsCaptured(screenshot, destinationFile);
+        try {
+            if (encodedScreenShot.getFormat().equals(format) && reserveBytes(encodedScreenShot.getBytes().length)) {
+                FileUtils.writeByteArrayToFile(destinationFile, encodedScreenShot.getBytes());
+                storedPath = destinationFile.toPath();
+            }
+        } catch (IOException | RuntimeException e) {
+            LOGGER.info("ERROR: Unable to save screenshot: " + destinationFile.getAbsolutePath() + ": " + e.getMessage());
+        } finally {
+            storedScreenShot.complete(storedPath);
+        }
+        return encodedScreenShot;
+    }
+
+    private EncodedScreenShot encodeOrKeepAsCaptured (byte[] screenshot, File destinationFile) {
+        try {
+            return new EncodedScreenShot(encode(screenshot), format);
+        } catch (IOException | RuntimeException e) {
+            LOGGER.info("ERROR: Unable to encode screenshot: " + destinationFile.getAbsolutePath() + ": " + e.getMessage());
+            return new EncodedScreenShot(screenshot, PNG);
+        }
+    }
+
+    private boolean linkToOriginal (Path originalScreenShot, File destinationFile) {
+        if (null == originalScreenShot) {
+            LOGGER.info("Duplicate of a screenshot that was not saved. Skip: " + destinationFile.getAbsolutePath());
+            return false;
+        }
+        try {
+            Files.createDirectories(destinationFile.toPath().getParent());
+            Files.createLink(destinationFile.toPath(), originalScreenShot);
+            LOGGER.info(String.format("Duplicate screenshot: '%s' linked to: '%s'", destinationFile.getAbsolutePath(), originalScreenShot));
+            return true;
+        } catch (IOException | UnsupportedOperationException e) {
+            LOGGER.info(String.format("Duplicate screenshot: '%s' of: '%s' skipped. Unable to link it: %s",
+                    destinationFile.getAbsolutePath(),
+                    originalScreenShot,
+                    e.getMessage()));
+            return false;
+        }
+    }
+
+    private boolean reserveBytes (long numberOfBytes) {
+        if (byteBudget <= 0) {
+            bytesStored.addAndGet(numberOfBytes);
+            return true;
+        }
+        long totalBytes = bytesStored.addAndGet(numberOfBytes);
+        if (totalBytes > byteBudget) {
+            bytesStored.addAndGet(-numberOfBytes);
+            if (isByteBudgetExhausted.compareAndSet(false, true)) {
+                LOGGER.info(String.format("Screenshot byte budget of '%d' MB exhausted. Further screenshots will not be saved",
+                        byteBudget / BYTES_IN_MB));
+            }
+            return false;
+        }
+        return true;
+    }
+
+    private byte[] encode (byte[] screenshot) throws IOException {
+        if (format.equals(PNG) && scalePercent >= 100) {
+            return screenshot;
+        }
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(screenshot));
+        if (null == image) {
+            throw new IOException("Unable to decode screenshot");
+        }
+        BufferedImage scaledImage = scale(image, scalePercent, format.equals(PNG));
+        ByteArrayOutputStream encodedScreenShot = new ByteArrayOutputStream();
+        if (format.equals(PNG)) {
+            ImageIO.write(scaledImage, PNG, encodedScreenShot);
+        } else {
+            writeWithQuality(scaledImage, format, quality, encodedScreenShot);
+        }
+        return encodedScreenShot.toByteArray();
+    }
+
+    private static BufferedImage scale (BufferedImage image, int scalePercent, boolean keepAlpha) {
+        int percent = Math.max(1, Math.min(100, scalePercent));
+        int width = Math.max(1, image.getWidth() * percent / 100);
+        int height = Math.max(1, image.getHeight() * percent / 100);
+        BufferedImage scaledImage = new BufferedImage(width, height, keepAlpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = scaledImage.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.drawImage(image, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        return scaledImage;
+    }
+
+    private static void writeWithQuality (BufferedImage image, String format, int quality, ByteArrayOutputStream encodedScreenShot) throws IOException {
+        Iterator<ImageWriter> imageWriters = ImageIO.getImageWritersByFormatName(format);
+        if (!imageWriters.hasNext()) {
+            throw new IOException("No image writer available for format: " + format);
+        }
+        ImageWriter imageWriter = imageWriters.next();
+        try (ImageOutputStream imageOutputStream = ImageIO.createImageOutputStream(encodedScreenShot)) {
+            imageWriter.setOutput(imageOutputStream);
+            ImageWriteParam writeParam = imageWriter.getDefaultWriteParam();
+            if (writeParam.canWriteCompressed()) {
+                writeParam.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                if (null == writeParam.getCompressionType() && writeParam.getCompressionTypes().length > 0) {
+                    writeParam.setCompressionType(writeParam.getCompressionTypes()[0]);
+                }
+                writeParam.setCompressionQuality(Math.max(0, Math.min(100, quality)) / 100f);
+            }
+            imageWriter.write(null, new IIOImage(image, null, null), writeParam);
+        } finally {
+            imageWriter.dispose();
+        }
+    }
+
+    static class EncodedScreenShot {
+        private final byte[] bytes;
+        private final String format;
+
+        private EncodedScreenShot (byte[] bytes, String format) {
+            this.bytes = bytes;
+            this.format = format;
+        }
+
+        byte[] getBytes () {
+            return bytes;
+        }
+
+        String getFormat () {
+            return format;
+        }
+
+        String getMediaType () {
+            return format.equals(JPG) ? "image/jpeg" : "image/" + format;
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.znsio.e2e.tools;
+
+import java.io.File;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class ScreenShotWriter {
+    private static final int NUMBER_OF_WRITERS = 2;
+    private static final int MAX_PENDING_WRITES = 50;
+    private static final AtomicInteger writerCounter = new AtomicInteger(0);
+    private static final ExecutorService writers = new ThreadPoolExecutor(
+            NUMBER_OF_WRITERS,
+            NUMBER_OF_WRITERS,
+            60,
+            TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(MAX_PENDING_WRITES),
+            runnable -> {
+                Thread writer = new Thread(runnable, "screenshot-writer-" + writerCounter.incrementAndGet());
+                writer.setDaemon(true);
+                return writer;
+            },
+            new ThreadPoolExecutor.CallerRunsPolicy());
+
+    private ScreenShotWriter () {
+    }
+
+    static Future<ScreenShotStore.EncodedScreenShot> write (ScreenShotStore screenShotStore, byte[] screenshot, String contentHash, File destinationFile) {
+        return writers.submit(() -> screenShotStore.save(screenshot, contentHash, destinationFile));
+    }
+}
@@ -1,24 +1,30 @@
 package com.znsio.e2e.tools;
 
 import com.applitools.eyes.*;
+import com.applitools.eyes.exceptions.TestFailedException;
+import com.applitools.eyes.selenium.BrowserType;
+import com.applitools.eyes.selenium.ClassicRunner;
+import com.applitools.eyes.selenium.Configuration;
 import com.applitools.eyes.selenium.StitchMode;
 import com.applitools.eyes.selenium.fluent.SeleniumCheckSettings;
 import com.applitools.eyes.selenium.fluent.Target;
-import com.context.SessionContext;
+import com.applitools.eyes.visualgrid.services.VisualGridRunner;
 import com.context.TestExecutionContext;
 import com.epam.reportportal.service.ReportPortal;
 import com.znsio.e2e.entities.APPLITOOLS;
 import com.znsio.e2e.entities.TEST_CONTEXT;
+import com.znsio.e2e.exceptions.TestExecutionFailedException;
 import com.znsio.e2e.runner.Runner;
+import com.znsio.e2e.runner.ScenarioContext;
 import org.apache.log4j.Logger;
 import org.jetbrains.annotations.NotNull;
 import org.openqa.selenium.WebDriver;
 
 import java.io.File;
 import java.time.Duration;
-import java.time.LocalDateTime;
 import java.util.Date;
 import java.util.Map;
+import java.util.function.BiConsumer;
 
 public class Visual {
     private final String visualTestNotEnabledMessage = "Visual Test is not enabled";
@@ -27,21 +33,24 @@ public class Visual {
     private final TestExecutionContext context;
     private final ScreenShotManager screenShotManager;
     private final String targetEnvironment = Runner.getTargetEnvironment();
-    private final Map applitoolsConfig;
+    private final Map<String, Object> applitoolsConfig;
     private final boolean isEnableBenchmarkPerValidation;
     private final boolean isVerboseLoggingEnabled;
+    private final boolean isAsyncCheckpointsEnabled;
     private String applitoolsLogFileNameForWeb = Runner.NOT_SET;
     private String applitoolsLogFileNameForApp = Runner.NOT_SET;
     private static final Logger LOGGER = Logger.getLogger(Visual.class.getName());
+    private static EyesRunner webEyesRunner;
 
     public Visual (String driverType, WebDriver innerDriver, String testName, boolean isVisualTestingEnabled) {
         LOGGER.info("Visual constructor: Driver type: "+ driverType +", testName: "+ testName +", isVisualTestingEnabled:  " + isVisualTestingEnabled);
-        this.context = SessionContext.getTestExecutionContext(Thread.currentThread().getId());
+        this.context = ScenarioContext.current();
         this.screenShotManager = (ScreenShotManager) context.getTestState(TEST_CONTEXT.SCREENSHOT_MANAGER);
         this.applitoolsConfig = Runner.initialiseApplitoolsConfiguration();
         this.isEnableBenchmarkPerValidation = Boolean.parseBoolean(String.valueOf(this.applitoolsConfig.get(APPLITOOLS.ENABLE_BENCHMARK_PER_VALIDATION)));
         this.isVerboseLoggingEnabled = (boolean) getValueFromConfig(APPLITOOLS.ENABLE_VERBOSE_LOGS, true);
-        String appName = this.applitoolsConfig.get(APPLITOOLS.APP_NAME) + "-" + Runner.platform;
+        this.isAsyncCheckpointsEnabled = Boolean.parseBoolean(String.valueOf(getValueFromConfig(APPLITOOLS.ENABLE_ASYNC_CHECKPOINTS, false)));
+        String appName = this.applitoolsConfig.get(APPLITOOLS.APP_NAME) + "-" + Runner.getPlatform();
         eyesOnApp = instantiateAppiumEyes(driverType, innerDriver, appName, testName, isVisualTestingEnabled);
         eyesOnWeb = instantiateWebEyes(driverType, innerDriver, appName, testName, isVisualTestingEnabled);
     }
@@ -73,8 +82,10 @@ public class Visual {
         if (driverType.equals(Driver.APPIUM_DRIVER)) {
             isVisualTestingEnabled = false;
         }
-        LOGGER.info("instantiateWebEyes: isVisualTestingEnabled: " + isVisualTestingEnabled);
-        com.applitools.eyes.selenium.Eyes eyes = new com.applitools.eyes.selenium.Eyes();
+        LOGGER.info("instantiateWebEyes: isVisualTestingEnabled: " + isVisualTestingEnabled + ", isAsyncCheckpointsEnabled: " + isAsyncCheckpointsEnabled);
+        com.applitools.eyes.selenium.Eyes eyes = isVisualTestingEnabled
+                ? new com.applitools.eyes.selenium.Eyes(getWebEyesRunner())
+                : new com.applitools.eyes.selenium.Eyes();
         eyes.setApiKey(String.valueOf(getValueFromConfig(APPLITOOLS.API_KEY)));
         eyes.setBatch((BatchInfo) getValueFromConfig(APPLITOOLS.BATCH_NAME));
         eyes.setEnvName(targetEnvironment);
@@ -87,13 +98,75 @@ public class Visual {
 
         applitoolsLogFileNameForWeb = getApplitoolsLogFileNameFor("web");
         eyes.setLogHandler(new FileLogger(applitoolsLogFileNameForWeb, true, isVerboseLoggingEnabled));
+        RectangleSize viewportSize = (RectangleSize) getValueFromConfig(APPLITOOLS.RECTANGLE_SIZE);
+        if (isVisualTestingEnabled && isAsyncCheckpointsEnabled) {
+            addUltrafastGridBrowser(eyes, viewportSize);
+        }
         if (isVisualTestingEnabled) {
-            eyes.open(innerDriver, appName, testName, (RectangleSize) getValueFromConfig(APPLITOOLS.RECTANGLE_SIZE));
+            eyes.open(innerDriver, appName, testName, viewportSize);
         }
         LOGGER.info("instantiateWebEyes: eyes.getIsDisabled(): " + eyes.getIsDisabled());
         return eyes;
     }
 
+    /**
+     * The Ultrafast Grid renders checkpoints on its own browsers - the browser of the run, with the configured viewport, is
+     * rendered on explicitly rather than the SDK default. The renders still differ from the screenshots taken by the
+     * ClassicRunner, so they are compared with their own baselines.
+     */
+    private void addUltrafastGridBrowser (com.applitools.eyes.selenium.Eyes eyes, RectangleSize viewportSize) {
+        BrowserType browserType = getUltrafastGridBrowserType(Runner.getConfiguration().getBrowser());
+        LOGGER.info(String.format("addUltrafastGridBrowser: browser: '%s', viewport: '%s'", browserType, viewportSize));
+        Configuration eyesConfiguration = eyes.getConfiguration();
+        eyesConfiguration.setViewportSize(viewportSize);
+        eyesConfiguration.addBrowser(viewportSize.getWidth(), viewportSize.getHeight(), browserType);
+        eyes.setConfiguration(eyesConfiguration);
+    }
+
+    static BrowserType getUltrafastGridBrowserType (String browser) {
+        switch (browser.toLowerCase()) {
+            case "firefox":
+                return BrowserType.FIREFOX;
+            case "safari":
+                return BrowserType.SAFARI;
+            case "edge":
+                return BrowserType.EDGE;
+            default:
+                return BrowserType.CHROME;
+        }
+    }
+
+    /**
+     * One runner is shared by the web Eyes of all scenarios, so the checkpoints in flight are bounded for the whole run.
+     * The Ultrafast Grid runner is only used for async checkpoints.
+     */
+    private EyesRunner getWebEyesRunner () {
+        synchronized (Visual.class) {
+            if (null == webEyesRunner) {
+                if (isAsyncCheckpointsEnabled) {
+                    int concurrency = (int) Double.parseDouble(String.valueOf(getValueFromConfig(APPLITOOLS.ASYNC_CHECKPOINT_CONCURRENCY, 5)));
+                    LOGGER.info("getWebEyesRunner: VisualGridRunner for async checkpoints with concurrency: " + concurrency);
+                    webEyesRunner = new VisualGridRunner(concurrency);
+                } else {
+                    LOGGER.info("getWebEyesRunner: ClassicRunner");
+                    webEyesRunner = new ClassicRunner();
+                }
+            }
+            return webEyesRunner;
+        }
+    }
+
+    public static void closeWebEyesRunner () {
+        synchronized (Visual.class) {
+            if (null == webEyesRunner) {
+                return;
+            }
+            TestResultsSummary allTestResults = webEyesRunner.getAllTestResults(false);
+            LOGGER.info("Web visual testing results of the run: " + allTestResults);
+            webEyesRunner = null;
+        }
+    }
+
     private Object getValueFromConfig (String key, Object defaultValue) {
         return (null == applitoolsConfig.get(key)) ? defaultValue : applitoolsConfig.get(key);
     }
@@ -115,20 +188,18 @@ public class Visual {
         LOGGER.info("checkWindow: eyesOnWeb.getIsDisabled(): " + eyesOnWeb.getIsDisabled());
         LOGGER.info("checkWindow: eyesOnApp.getIsDisabled(): " + eyesOnApp.getIsDisabled());
 
-        LocalDateTime webStart = LocalDateTime.now();
+        long webStart = System.nanoTime();
         eyesOnWeb.checkWindow(formattedTagName);
-        LocalDateTime webFinish = LocalDateTime.now();
-        Duration webDuration = Duration.between(webStart, webFinish);
+        Duration webDuration = Duration.ofNanos(System.nanoTime() - webStart);
         if (isEnableBenchmarkPerValidation) {
-            LOGGER.info(fromScreen + " :"+ tag +":: Web: checkWindow: Time taken: "+ webDuration.getSeconds() +" sec " );
+            LOGGER.info(fromScreen + " :"+ tag +":: Web: checkWindow: Time taken: "+ webDuration.toMillis() +" ms " );
         }
 
-        LocalDateTime appStart = LocalDateTime.now();
+        long appStart = System.nanoTime();
         eyesOnApp.checkWindow(formattedTagName);
-        LocalDateTime appFinish = LocalDateTime.now();
-        Duration appDuration = Duration.between(appStart, appFinish);
+        Duration appDuration = Duration.ofNanos(System.nanoTime() - appStart);
         if (isEnableBenchmarkPerValidation) {
-            LOGGER.info(fromScreen + " :"+ tag +":: App: checkWindow: Time taken: "+ appDuration.getSeconds() +" sec " );
+            LOGGER.info(fromScreen + " :"+ tag +":: App: checkWindow: Time taken: "+ appDuration.toMillis() +" ms " );
         }
 
         screenShotManager.takeScreenShot(formattedTagName);
@@ -146,20 +217,18 @@ public class Visual {
         LOGGER.info("check: eyesOnWeb.getIsDisabled(): " + eyesOnWeb.getIsDisabled());
         LOGGER.info("check: eyesOnApp.getIsDisabled(): " + eyesOnApp.getIsDisabled());
 
-        LocalDateTime webStart = LocalDateTime.now();
+        long webStart = System.nanoTime();
         eyesOnWeb.check(formattedTagName, checkSettings);
-        LocalDateTime webFinish = LocalDateTime.now();
-        Duration webDuration = Duration.between(webStart, webFinish);
+        Duration webDuration = Duration.ofNanos(System.nanoTime() - webStart);
         if (isEnableBenchmarkPerValidation) {
-            LOGGER.info(fromScreen + " :"+ tag +":: Web: checkWindow: Time taken: "+ webDuration.getSeconds() +" sec " );
+            LOGGER.info(fromScreen + " :"+ tag +":: Web: checkWindow: Time taken: "+ webDuration.toMillis() +" ms " );
         }
 
-        LocalDateTime appStart = LocalDateTime.now();
+        long appStart = System.nanoTime();
         eyesOnApp.check(formattedTagName, checkSettings);
-        LocalDateTime appFinish = LocalDateTime.now();
-        Duration appDuration = Duration.between(appStart, appFinish);
+        Duration appDuration = Duration.ofNanos(System.nanoTime() - appStart);
         if (isEnableBenchmarkPerValidation) {
-            LOGGER.info(fromScreen + " :"+ tag +":: App: checkWindow: Time taken: "+ appDuration.getSeconds() +" sec " );
+            LOGGER.info(fromScreen + " :"+ tag +":: App: checkWindow: Time taken: "+ appDuration.toMillis() +" ms " );
         }
 
         screenShotManager.takeScreenShot(formattedTagName);
@@ -173,20 +242,18 @@ public class Visual {
         LOGGER.info("checkWindow: eyesOnApp.getIsDisabled(): " + eyesOnApp.getIsDisabled());
 
 
-        LocalDateTime webStart = LocalDateTime.now();
+        long webStart = System.nanoTime();
         eyesOnWeb.check(getFormattedTagName(fromScreen, tag), Target.window().matchLevel(level));
-        LocalDateTime webFinish = LocalDateTime.now();
-        Duration webDuration = Duration.between(webStart, webFinish);
+        Duration webDuration = Duration.ofNanos(System.nanoTime() - webStart);
         if (isEnableBenchmarkPerValidation) {
-            LOGGER.info(fromScreen + ":"+ tag +":: Web: checkWindow with MatchLevel: "+ level.name() +": Time taken: "+ webDuration.getSeconds() +" sec" );
+            LOGGER.info(fromScreen + ":"+ tag +":: Web: checkWindow with MatchLevel: "+ level.name() +": Time taken: "+ webDuration.toMillis() +" ms" );
         }
 
-        LocalDateTime appStart = LocalDateTime.now();
+        long appStart = System.nanoTime();
         eyesOnApp.check(getFormattedTagName(fromScreen, tag), Target.window().matchLevel(level));
-        LocalDateTime appFinish = LocalDateTime.now();
-        Duration appDuration = Duration.between(appStart, appFinish);
+        Duration appDuration = Duration.ofNanos(System.nanoTime() - appStart);
         if (isEnableBenchmarkPerValidation) {
-            LOGGER.info(fromScreen + ":"+ tag +":: App: checkWindow with MatchLevel: "+ level.name() +": Time taken: "+ appDuration.getSeconds() +" sec" );
+            LOGGER.info(fromScreen + ":"+ tag +":: App: checkWindow with MatchLevel: "+ level.name() +": Time taken: "+ appDuration.toMillis() +" ms" );
         }
 
         screenShotManager.takeScreenShot(getFormattedTagName(fromScreen, tag));
@@ -199,33 +266,75 @@ public class Visual {
     }
 
     public void handleTestResults (String userPersona) {
-        getVisualResultsFromWeb(userPersona);
-        getVisualResultsFromApp(userPersona);
+        handleTestResults(userPersona, (message, logFile) -> ReportPortal.emitLog(message, "DEBUG", new Date(), logFile));
     }
 
-    private String getVisualResultsFromWeb (String userPersona) {
+    public void handleTestResults (String userPersona, BiConsumer<String, File> attachLog) {
+        getVisualResultsFromWeb(userPersona, attachLog);
+        getVisualResultsFromApp(userPersona, attachLog);
+    }
+
+    private String getVisualResultsFromWeb (String userPersona, BiConsumer<String, File> attachLog) {
         LOGGER.info("getVisualResultsFromWeb: user: " + userPersona);
-        TestResults visualResults = eyesOnWeb.close(false);
+        TestResults visualResults;
+        try {
+            visualResults = (eyesOnWeb.getIsDisabled() || !isAsyncCheckpointsEnabled)
+                    ? eyesOnWeb.close(false)
+                    : waitForAsyncCheckpointResults(userPersona);
+        } catch (TestExecutionFailedException e) {
+            attachLog.accept(e.getMessage(), new File(applitoolsLogFileNameForWeb));
+            throw e;
+        }
         String reportUrl = handleTestResults(visualResults);
         String message = String.format("Web Visual Testing Results for user persona: '%s' :: '%s'", userPersona, reportUrl);
         LOGGER.info(message);
         LOGGER.info("Applitools logs available here: " + applitoolsLogFileNameForWeb);
-        ReportPortal.emitLog(message, "DEBUG", new Date(), new File(applitoolsLogFileNameForWeb));
+        attachLog.accept(message, new File(applitoolsLogFileNameForWeb));
         return reportUrl;
     }
 
-    private String getVisualResultsFromApp (String userPersona) {
+    private TestResults waitForAsyncCheckpointResults (String userPersona) {
+        long start = System.nanoTime();
+        TestResults visualResults;
+        try {
+            visualResults = eyesOnWeb.close(true);
+        } catch (Error | RuntimeException e) {
+            // the Eyes rethrows the exception of a checkpoint wrapped in an Error
+            Throwable checkpointException = (null == e.getCause()) ? e : e.getCause();
+            if (checkpointException instanceof TestFailedException && null != ((TestFailedException) checkpointException).getTestResults()) {
+                // differences are reported through the results, the same as for synchronous checkpoints
+                visualResults = ((TestFailedException) checkpointException).getTestResults();
+            } else {
+                TestExecutionFailedException asyncCheckpointFailure = new TestExecutionFailedException(
+                        String.format("Async visual checkpoints failed for user persona: '%s'", userPersona));
+                asyncCheckpointFailure.initCause(checkpointException);
+                throw asyncCheckpointFailure;
+            }
+        } finally {
+            LOGGER.info("Waited for async checkpoints: Time taken: " + Duration.ofNanos(System.nanoTime() - start).toMillis() + " ms");
+        }
+        if (null == visualResults) {
+            throw new TestExecutionFailedException(String.format("No results for the async visual checkpoints of user persona: '%s'", userPersona));
+        }
+        return visualResults;
+    }
+
+    private String getVisualResultsFromApp (String userPersona, BiConsumer<String, File> attachLog) {
         LOGGER.info("getVisualResultsFromApp: user: " + userPersona);
         TestResults visualResults = eyesOnApp.close(false);
         String reportUrl = handleTestResults(visualResults);
         String message = String.format("App Visual Testing Results for user persona: '%s' :: '%s'", userPersona, reportUrl);
         LOGGER.info(message);
         LOGGER.info("Applitools logs available here: " + applitoolsLogFileNameForApp);
-        ReportPortal.emitLog(message, "DEBUG", new Date(), new File(applitoolsLogFileNameForApp));
+        attachLog.accept(message, new File(applitoolsLogFileNameForApp));
         return reportUrl;
     }
 
     private String handleTestResults (TestResults result) {
+        if (null == result) {
+            LOGGER.info("\t\tNo Visual Testing results available");
+            return Runner.NOT_SET;
+        }
         LOGGER.info("\t\t" + result);
         LOGGER.info("\t\tmatched = "+ result.getMatches()
                 + ", mismatched = "+ result.getMismatches()
@@ -1,15 +1,35 @@
 package com.znsio.e2e.tools;
 
+import com.context.TestExecutionContext;
+import com.znsio.e2e.entities.TEST_CONTEXT;
+import com.znsio.e2e.runner.ScenarioContext;
+import com.znsio.e2e.tools.wait.WaitStatistics;
 import org.apache.log4j.Logger;
 
 public class Wait {
     private static final Logger LOGGER = Logger.getLogger(Wait.class.getName());
 
-    public synchronized static void waitFor (int seconds) {
-        LOGGER.info("Wait for "+ seconds +" seconds");
+    public static void waitFor (int seconds) {
+        waitFor(WaitStatistics.UNKNOWN_SCREEN, seconds);
+    }
+
+    public static void waitFor (String forScreen, int seconds) {
+        LOGGER.info("Wait for " + seconds + " seconds on screen: " + forScreen);
+        long start = System.nanoTime();
         try {
-            Thread.sleep(seconds * 1000);
+            Thread.sleep(seconds * 1000L);
         } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            WaitStatistics waitStatistics = getWaitStatisticsForCurrentScenario();
+            if (null != waitStatistics) {
+                waitStatistics.record(forScreen, System.nanoTime() - start);
+            }
         }
     }
+
+    static WaitStatistics getWaitStatisticsForCurrentScenario () {
+        TestExecutionContext context = ScenarioContext.current();
+        return (null == context) ? null : (WaitStatistics) context.getTestState(TEST_CONTEXT.WAIT_STATISTICS);
+    }
 }
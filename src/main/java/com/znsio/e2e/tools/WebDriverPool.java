@@ -0,0 +1,267 @@
+package com.znsio.e2e.tools;
+
+import com.znsio.e2e.exceptions.EnvironmentSetupException;
+import org.apache.log4j.Logger;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+public class WebDriverPool {
+    private static final String BLANK_PAGE = "about:blank";
+    private static final long IDLE_POLL_INTERVAL_IN_MILLIS = 500;
+    private final int maxNumberOfBrowsers;
+    private final int maxUsesPerBrowser;
+    private final String logDirectory;
+    private final Function<String, WebDriver> browserFactory;
+    private final BlockingQueue<PooledWebDriver> idleBrowsers = new LinkedBlockingQueue<>();
+    private final Map<WebDriver, PooledWebDriver> leasedBrowsers = new ConcurrentHashMap<>();
+    private final Semaphore capacity;
+    private final AtomicInteger browserCounter = new AtomicInteger(0);
+    private volatile boolean isShutdown = false;
+    private static final Logger LOGGER = Logger.getLogger(WebDriverPool.class.getName());
+
+    public WebDriverPool (int maxNumberOfBrowsers, int maxUsesPerBrowser, String logDirectory, Function<String, WebDriver> browserFactory) {
+        this.maxNumberOfBrowsers = maxNumberOfBrowsers;
+        this.maxUsesPerBrowser = maxUsesPerBrowser;
+        this.logDirectory = logDirectory;
+        this.browserFactory = browserFactory;
+        this.capacity = new Semaphore(maxNumberOfBrowsers);
+        LOGGER.info(String.format("WebDriverPool: max browsers: '%d', max uses per browser: '%d'", maxNumberOfBrowsers, maxUsesPerBrowser));
+    }
+
+    public void prewarm (int numberOfBrowsers) {
+        int browsersToLaunch = Math.min(numberOfBrowsers, maxNumberOfBrowsers);
+        LOGGER.info("WebDriverPool: prewarm browsers: " + browsersToLaunch);
+        ExecutorService launcher = Executors.newFixedThreadPool(Math.max(1, browsersToLaunch));
+        for (int browser = 0; browser < browsersToLaunch; browser++) {
+            if (!capacity.tryAcquire()) {
+                break;
+            }
+            launcher.submit(() -> {
+                try {
+                    idleBrowsers.offer(launchBrowser());
+                } catch (RuntimeException e) {
+                    capacity.release();
+                    LOGGER.info("WebDriverPool: Unable to prewarm browser: " + e.getMessage());
+                }
+            });
+        }
+        launcher.shutdown();
+    }
+
+    public WebDriver lease (Duration timeout) {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (!isShutdown) {
+            PooledWebDriver pooledWebDriver = idleBrowsers.poll();
+            if (null == pooledWebDriver && capacity.tryAcquire()) {
+                try {
+                    pooledWebDriver = launchBrowser();
+                } catch (RuntimeException e) {
+                    capacity.release();
+                    throw e;
+                }
+            }
+            if (null == pooledWebDriver) {
+                if (System.nanoTime() > deadline) {
+                    throw new EnvironmentSetupException(String.format("No browser available in WebDriverPool within '%d' seconds. Max browsers: '%d'",
+                            timeout.getSeconds(),
+                            maxNumberOfBrowsers));
+                }
+                pooledWebDriver = pollIdleBrowser();
+            }
+            if (null != pooledWebDriver) {
+                if (isHealthy(pooledWebDriver)) {
+                    pooledWebDriver.numberOfUses++;
+                    pooledWebDriver.logFileLengthAtLease = new File(pooledWebDriver.logFile).length();
+                    leasedBrowsers.put(pooledWebDriver.webDriver, pooledWebDriver);
+                    LOGGER.info(String.format("WebDriverPool: leased browser: '%s' for use: '%d'", pooledWebDriver.name, pooledWebDriver.numberOfUses));
+                    return pooledWebDriver.webDriver;
+                }
+                evict(pooledWebDriver, "failed health check");
+            }
+        }
+        throw new EnvironmentSetupException("WebDriverPool is already shutdown");
+    }
+
+    public boolean isLeased (WebDriver webDriver) {
+        return leasedBrowsers.containsKey(webDriver);
+    }
+
+    public String getLogFileFor (WebDriver webDriver) {
+        PooledWebDriver pooledWebDriver = leasedBrowsers.get(webDriver);
+        return (null == pooledWebDriver) ? null : pooledWebDriver.logFile;
+    }
+
+    /**
+     * The log file of a pooled browser has the logs of all the scenarios it was used in. This saves the logs written since
+     * the browser was leased - i.e. of the current scenario only.
+     */
+    public void saveLogOfLease (WebDriver webDriver, String toLogFile) {
+        PooledWebDriver pooledWebDriver = leasedBrowsers.get(webDriver);
+        if (null == pooledWebDriver) {
+            return;
+        }
+        Path logFile = Paths.get(pooledWebDriver.logFile);
+        try (FileChannel from = FileChannel.open(logFile, StandardOpenOption.READ);
+             FileChannel to = FileChannel.open(Paths.get(toLogFile), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            long start = Math.min(pooledWebDriver.logFileLengthAtLease, from.size());
+            from.transferTo(start, from.size() - start, to);
+        } catch (IOException e) {
+            LOGGER.info(String.format("WebDriverPool: unable to save logs of browser: '%s' to: '%s': %s", pooledWebDriver.name, toLogFile, e.getMessage()));
+        }
+    }
+
+    public void release (WebDriver webDriver) {
+        PooledWebDriver pooledWebDriver = leasedBrowsers.remove(webDriver);
+        if (null == pooledWebDriver) {
+            LOGGER.info("WebDriverPool: browser not leased from pool. Quit it");
+            webDriver.quit();
+            return;
+        }
+        if (isShutdown) {
+            evict(pooledWebDriver, "pool is shutdown");
+        } else if (pooledWebDriver.numberOfUses >= maxUsesPerBrowser) {
+            evict(pooledWebDriver, "reached max uses: " + maxUsesPerBrowser);
+        } else if (resetState(pooledWebDriver)) {
+            LOGGER.info(String.format("WebDriverPool: returned browser: '%s' to pool", pooledWebDriver.name));
+            idleBrowsers.offer(pooledWebDriver);
+        } else {
+            evict(pooledWebDriver, "unable to reset state");
+        }
+    }
+
+    public void shutdown () {
+        isShutdown = true;
+        List<PooledWebDriver> browsersToQuit = new ArrayList<>();
+        idleBrowsers.drainTo(browsersToQuit);
+        // browsers still leased at shutdown belong to scenarios that were aborted, and are never returned
+        List<WebDriver> leasedWebDrivers = new ArrayList<>(leasedBrowsers.keySet());
+        leasedWebDrivers.forEach(webDriver -> {
+            PooledWebDriver pooledWebDriver = leasedBrowsers.remove(webDriver);
+            if (null != pooledWebDriver) {
+                browsersToQuit.add(pooledWebDriver);
+            }
+        });
+        LOGGER.info("WebDriverPool: shutdown. Quit browsers: " + browsersToQuit.size());
+        browsersToQuit.forEach(pooledWebDriver -> evict(pooledWebDriver, "pool is shutdown"));
+    }
+
+    private PooledWebDriver pollIdleBrowser () {
+        try {
+            return idleBrowsers.poll(IDLE_POLL_INTERVAL_IN_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new EnvironmentSetupException("Interrupted while waiting for a browser from WebDriverPool", e);
+        }
+    }
+
+    private PooledWebDriver launchBrowser () {
+        String name = "browser-" + browserCounter.incrementAndGet();
+        String logFile = logDirectory + "/chrome-" + name + ".log";
+        LOGGER.info(String.format("WebDriverPool: launch browser: '%s' with logs in: '%s'", name, logFile));
+        WebDriver webDriver = browserFactory.apply(logFile);
+        return new PooledWebDriver(name, logFile, webDriver, OriginTrackingCommandExecutor.track(webDriver));
+    }
+
+    private boolean isHealthy (PooledWebDriver pooledWebDriver) {
+        try {
+            return !pooledWebDriver.webDriver.getWindowHandles().isEmpty();
+        } catch (WebDriverException e) {
+            LOGGER.info(String.format("WebDriverPool: browser: '%s' is not healthy: %s", pooledWebDriver.name, e.getMessage()));
+            return false;
+        }
+    }
+
+    private boolean resetState (PooledWebDriver pooledWebDriver) {
+        WebDriver webDriver = pooledWebDriver.webDriver;
+        try {
+            Set<String> visitedOrigins = new LinkedHashSet<>();
+            if (null != pooledWebDriver.originTracker) {
+                visitedOrigins.addAll(pooledWebDriver.originTracker.getVisitedOrigins());
+            }
+            List<String> windowHandles = new ArrayList<>(webDriver.getWindowHandles());
+            for (int handle = 1; handle < windowHandles.size(); handle++) {
+                webDriver.switchTo().window(windowHandles.get(handle));
+                addOriginOfCurrentPage(webDriver, visitedOrigins);
+                webDriver.close();
+            }
+            webDriver.switchTo().window(windowHandles.get(0));
+            addOriginOfCurrentPage(webDriver, visitedOrigins);
+            // cookies and storage can only be cleared for the origin of the current page, so visit each origin used in the scenario
+            for (String origin : visitedOrigins) {
+                webDriver.get(origin);
+                webDriver.manage().deleteAllCookies();
+                clearStorage(webDriver);
+            }
+            webDriver.get(BLANK_PAGE);
+            if (null != pooledWebDriver.originTracker) {
+                pooledWebDriver.originTracker.clear();
+            }
+            return true;
+        } catch (WebDriverException e) {
+            LOGGER.info(String.format("WebDriverPool: unable to reset browser: '%s': %s", pooledWebDriver.name, e.getMessage()));
+            return false;
+        }
+    }
+
+    private static void addOriginOfCurrentPage (WebDriver webDriver, Set<String> visitedOrigins) {
+        String origin = OriginTrackingCommandExecutor.getOriginOf(webDriver.getCurrentUrl());
+        if (null != origin) {
+            visitedOrigins.add(origin);
+        }
+    }
+
+    private void clearStorage (WebDriver webDriver) {
+        try {
+            ((JavascriptExecutor) webDriver).executeScript("window.localStorage.clear(); window.sessionStorage.clear();");
+        } catch (WebDriverException e) {
+            LOGGER.info("WebDriverPool: storage not accessible for current page. Skip clearing it: " + e.getMessage());
+        }
+    }
+
+    private void evict (PooledWebDriver pooledWebDriver, String reason) {
+        LOGGER.info(String.format("WebDriverPool: evict browser: '%s' after '%d' uses. Reason: %s",
+                pooledWebDriver.name,
+                pooledWebDriver.numberOfUses,
+                reason));
+        try {
+            pooledWebDriver.webDriver.quit();
+        } catch (WebDriverException e) {
+            LOGGER.info(String.format("WebDriverPool: error quitting browser: '%s': %s", pooledWebDriver.name, e.getMessage()));
+        } finally {
+            capacity.release();
+        }
+    }
+
+    private static class PooledWebDriver {
+        private final String name;
+        private final String logFile;
+        private final WebDriver webDriver;
+        private final OriginTrackingCommandExecutor originTracker;
+        private int numberOfUses = 0;
+        private long logFileLengthAtLease = 0;
+
+        private PooledWebDriver (String name, String logFile, WebDriver webDriver, OriginTrackingCommandExecutor originTracker) {
+            this.name = name;
+            this.logFile = logFile;
+            this.webDriver = webDriver;
+            this.originTracker = originTracker;
+        }
+    }
+}
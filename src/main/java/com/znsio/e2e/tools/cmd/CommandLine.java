@@ -0,0 +1,77 @@
+package com.znsio.e2e.tools.cmd;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+
+public class CommandLine {
+    public static final Duration DEFAULT_TIMEOUT = Duration.ofSeconds(60);
+    private final List<String> command;
+    private Duration timeout = DEFAULT_TIMEOUT;
+    private KillPolicy killPolicy = KillPolicy.DESTROY;
+    private boolean inShell = false;
+    private Consumer<String> outputLineConsumer = line -> {
+    };
+    private Consumer<String> errorLineConsumer = line -> {
+    };
+
+    public CommandLine (String... command) {
+        this.command = Collections.unmodifiableList(Arrays.asList(command));
+    }
+
+    public CommandLine withTimeout (Duration timeout) {
+        this.timeout = timeout;
+        return this;
+    }
+
+    public CommandLine withKillPolicy (KillPolicy killPolicy) {
+        this.killPolicy = killPolicy;
+        return this;
+    }
+
+    public CommandLine inShell () {
+        this.inShell = true;
+        return this;
+    }
+
+    public CommandLine onOutputLine (Consumer<String> outputLineConsumer) {
+        this.outputLineConsumer = outputLineConsumer;
+        return this;
+    }
+
+    public CommandLine onErrorLine (Consumer<String> errorLineConsumer) {
+        this.errorLineConsumer = errorLineConsumer;
+        return this;
+    }
+
+    public List<String> getCommand () {
+        return command;
+    }
+
+    public Duration getTimeout () {
+        return timeout;
+    }
+
+    public KillPolicy getKillPolicy () {
+        return killPolicy;
+    }
+
+    public boolean isInShell () {
+        return inShell;
+    }
+
+    public Consumer<String> getOutputLineConsumer () {
+        return outputLineConsumer;
+    }
+
+    public Consumer<String> getErrorLineConsumer () {
+        return errorLineConsumer;
+    }
+
+    @Override
+    public String toString () {
+        return String.join(" ", command);
+    }
+}
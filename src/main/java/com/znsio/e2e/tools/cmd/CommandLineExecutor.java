@@ -1,36 +1,153 @@
 package com.znsio.e2e.tools.cmd;
 
 import com.znsio.e2e.runner.Runner;
-import org.apache.commons.io.IOUtils;
 import org.apache.log4j.Logger;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 
 public class CommandLineExecutor {
+    private static final Duration DESTROY_GRACE_PERIOD = Duration.ofSeconds(5);
+    private static final Duration OUTPUT_DRAIN_GRACE_PERIOD = Duration.ofSeconds(5);
+    private static final AtomicInteger outputReaderCounter = new AtomicInteger(0);
+    private static final ExecutorService outputReaders = Executors.newCachedThreadPool(runnable -> {
+        Thread outputReader = new Thread(runnable, "command-line-output-" + outputReaderCounter.incrementAndGet());
+        outputReader.setDaemon(true);
+        return outputReader;
+    });
     private static final Logger LOGGER = Logger.getLogger(CommandLineExecutor.class.getName());
 
+    private CommandLineExecutor () {
+    }
+
     public static CommandLineResponse execCommand (final String[] command) {
-        String jointCommand = String.join(" ", command);
-        String message = "\tExecuting Command : " + jointCommand;
-        LOGGER.info(message);
+        return execCommand(new CommandLine(command).inShell());
+    }
+
+    public static CommandLineResponse execCommand (CommandLine commandLine) {
+        try {
+            return execCommandAsync(commandLine).join();
+        } catch (CompletionException e) {
+            throw new RuntimeException("Error executing command: " + commandLine, e.getCause());
+        }
+    }
+
+    public static CompletableFuture<CommandLineResponse> execCommandAsync (CommandLine commandLine) {
+        LOGGER.info("\tExecuting Command : " + commandLine);
+        Process process;
+        try {
+            process = new ProcessBuilder(getProcessCommand(commandLine)).start();
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(new RuntimeException("Error executing command: " + commandLine, e));
+        }
+        closeInput(process);
+        StringBuffer stdOut = new StringBuffer();
+        StringBuffer errOut = new StringBuffer();
+        CompletableFuture<Void> stdOutDrained = drain(process.getInputStream(), stdOut, commandLine.getOutputLineConsumer());
+        CompletableFuture<Void> errOutDrained = drain(process.getErrorStream(), errOut, commandLine.getErrorLineConsumer());
+
+        return process.onExit()
+                .thenApply(exitedProcess -> false)
+                .completeOnTimeout(true, commandLine.getTimeout().toMillis(), TimeUnit.MILLISECONDS)
+                .thenComposeAsync(isTimedOut -> {
+                    if (isTimedOut) {
+                        LOGGER.info(String.format("\tCommand did not complete within '%d' ms. Kill policy: '%s': %s",
+                                commandLine.getTimeout().toMillis(), commandLine.getKillPolicy(), commandLine));
+                        kill(process, commandLine.getKillPolicy());
+                    }
+                    CompletableFuture<Void> outputDrained = (isTimedOut && KillPolicy.LEAVE_RUNNING == commandLine.getKillPolicy())
+                            ? CompletableFuture.completedFuture(null)
+                            : CompletableFuture.allOf(stdOutDrained, errOutDrained)
+                            .completeOnTimeout(null, OUTPUT_DRAIN_GRACE_PERIOD.toMillis(), TimeUnit.MILLISECONDS);
+                    return outputDrained.thenApply(drained -> {
+                        CommandLineResponse response = new CommandLineResponse();
+                        response.setStdOut(stdOut.toString().trim());
+                        response.setErrOut(errOut.toString().trim());
+                        response.setTimedOut(isTimedOut);
+                        response.setExitCode(process.isAlive() ? -1 : process.exitValue());
+                        LOGGER.info("\t" + response.getStdOut());
+                        return response;
+                    });
+                }, outputReaders);
+    }
+
+    private static void closeInput (Process process) {
         try {
-            CommandLineResponse response = new CommandLineResponse();
-            ProcessBuilder builder = new ProcessBuilder(command);
-            if (Runner.IS_WINDOWS) {
-                builder.command("cmd.exe", "/c", jointCommand);
-            } else {
-                builder.command("sh", "-c", jointCommand);
+            process.getOutputStream().close();
+        } catch (IOException e) {
+            LOGGER.debug("\tUnable to close input of command: " + e.getMessage());
+        }
+    }
+
+    private static List<String> getProcessCommand (CommandLine commandLine) {
+        if (!commandLine.isInShell()) {
+            return commandLine.getCommand();
+        }
+        List<String> processCommand = new ArrayList<>();
+        if (Runner.IS_WINDOWS) {
+            processCommand.add("cmd.exe");
+            processCommand.add("/c");
+        } else {
+            processCommand.add("sh");
+            processCommand.add("-c");
+        }
+        processCommand.add(commandLine.toString());
+        return processCommand;
+    }
+
+    private static CompletableFuture<Void> drain (InputStream stream, StringBuffer output, Consumer<String> lineConsumer) {
+        return CompletableFuture.runAsync(() -> {
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(stream, StandardCharsets.UTF_8))) {
+                String line;
+                while (null != (line = reader.readLine())) {
+                    output.append(line).append(System.lineSeparator());
+                    try {
+                        lineConsumer.accept(line);
+                    } catch (RuntimeException e) {
+                        // the process blocks once the pipe is full, so keep draining even if the consumer fails
+                        LOGGER.info(String.format("\tError consuming command output line: '%s': %s", line, e));
+                    }
+                }
+            } catch (IOException e) {
+                LOGGER.debug("\tStream closed while reading command output: " + e.getMessage());
             }
-            Process process = builder.start();
-            process.waitFor(60, TimeUnit.SECONDS);
-            response.setStdOut(IOUtils.toString(process.getInputStream(), StandardCharsets.UTF_8).trim());
-            response.setErrOut(IOUtils.toString(process.getErrorStream(), StandardCharsets.UTF_8).trim());
-            response.setExitCode(process.exitValue());
-            LOGGER.info("\t" + response.getStdOut());
-            return response;
-        } catch (Exception e) {
-            throw new RuntimeException("Error " + message, e);
+        }, outputReaders);
+    }
+
+    private static void kill (Process process, KillPolicy killPolicy) {
+        switch (killPolicy) {
+            case LEAVE_RUNNING:
+                break;
+            case DESTROY_FORCIBLY:
+                process.descendants().forEach(ProcessHandle::destroyForcibly);
+                process.destroyForcibly();
+                break;
+            case DESTROY:
+            default:
+                process.descendants().forEach(ProcessHandle::destroy);
+                process.destroy();
+                try {
+                    if (!process.waitFor(DESTROY_GRACE_PERIOD.toMillis(), TimeUnit.MILLISECONDS)) {
+                        process.descendants().forEach(ProcessHandle::destroyForcibly);
+                        process.destroyForcibly();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    process.destroyForcibly();
+                }
         }
     }
 }
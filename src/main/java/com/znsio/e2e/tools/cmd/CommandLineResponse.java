@@ -5,6 +5,7 @@ public class CommandLineResponse {
     private int exitCode;
     private String stdOut;
     private String errOut;
+    private boolean timedOut;
 
     public int getExitCode () {
         return exitCode;
@@ -30,8 +31,16 @@ public class CommandLineResponse {
         this.errOut = errOut;
     }
 
+    public boolean isTimedOut () {
+        return timedOut;
+    }
+
+    public void setTimedOut (boolean timedOut) {
+        this.timedOut = timedOut;
+    }
+
     @Override
     public String toString () {
-        return "CommandLineResponse [exitCode=" + exitCode + ", stdOut=" + stdOut + ", errOut=" + errOut + "]";
+        return "CommandLineResponse [exitCode=" + exitCode + ", stdOut=" + stdOut + ", errOut=" + errOut + ", timedOut=" + timedOut + "]";
     }
 }
@@ -0,0 +1,7 @@
+package com.znsio.e2e.tools.cmd;
+
+public enum KillPolicy {
+    DESTROY,
+    DESTROY_FORCIBLY,
+    LEAVE_RUNNING
+}
@@ -0,0 +1,116 @@
+package com.znsio.e2e.tools.devicelab;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.reflect.TypeToken;
+import com.znsio.e2e.exceptions.EnvironmentSetupException;
+import org.apache.log4j.Logger;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.lang.reflect.Type;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.Map;
+
+public class AppUploadCache {
+    private static final Type CACHE_TYPE = new TypeToken<Map<String, Map<String, String>>>() {
+    }.getType();
+    private static final int CONTENT_HASH_LENGTH_IN_FILE_NAME = 12;
+    private final Path cacheFile;
+    private final Map<String, Map<String, String>> uploadedFilesForDeviceLab;
+    private static final Logger LOGGER = Logger.getLogger(AppUploadCache.class.getName());
+
+    public AppUploadCache (String cacheFileName) {
+        this.cacheFile = Paths.get(cacheFileName);
+        this.uploadedFilesForDeviceLab = load(cacheFile);
+    }
+
+    public static String getContentHash (Path appPath) {
+        try (InputStream app = new DigestInputStream(Files.newInputStream(appPath), newContentDigest())) {
+            byte[] buffer = new byte[64 * 1024];
+            while (app.read(buffer) != -1) {
+                // read the complete file to compute the digest
+            }
+            return toHex(((DigestInputStream) app).getMessageDigest().digest());
+        } catch (IOException e) {
+            throw new EnvironmentSetupException(String.format("Unable to compute content hash of app: '%s'", appPath), e);
+        }
+    }
+
+    public static String getContentAddressedFileName (Path appPath, String contentHash) {
+        String fileName = appPath.getFileName().toString();
+        int extensionIndex = fileName.lastIndexOf('.');
+        String baseName = (extensionIndex > 0) ? fileName.substring(0, extensionIndex) : fileName;
+        String extension = (extensionIndex > 0) ? fileName.substring(extensionIndex) : "";
+        return baseName + "-" + contentHash.substring(0, CONTENT_HASH_LENGTH_IN_FILE_NAME) + extension;
+    }
+
+    static MessageDigest newContentDigest () {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    static String toHex (byte[] digest) {
+        StringBuilder hex = new StringBuilder();
+        for (byte digestByte : digest) {
+            hex.append(String.format("%02x", digestByte));
+        }
+        return hex.toString();
+    }
+
+    public synchronized String getUploadedFileName (String deviceLabURL, String contentHash) {
+        Map<String, String> uploadedFiles = uploadedFilesForDeviceLab.get(deviceLabURL);
+        return (null == uploadedFiles) ? null : uploadedFiles.get(contentHash);
+    }
+
+    public synchronized void addUploadedFile (String deviceLabURL, String contentHash, String uploadedFileName) {
+        uploadedFilesForDeviceLab.computeIfAbsent(deviceLabURL, key -> new HashMap<>()).put(contentHash, uploadedFileName);
+        save();
+    }
+
+    public synchronized void removeUploadedFile (String deviceLabURL, String contentHash) {
+        Map<String, String> uploadedFiles = uploadedFilesForDeviceLab.get(deviceLabURL);
+        if (null != uploadedFiles && null != uploadedFiles.remove(contentHash)) {
+            save();
+        }
+    }
+
+    private void save () {
+        try {
+            Path parentDirectory = cacheFile.toAbsolutePath().getParent();
+            Files.createDirectories(parentDirectory);
+            Path tempCacheFile = Files.createTempFile(parentDirectory, cacheFile.getFileName().toString(), ".tmp");
+            try (Writer writer = Files.newBufferedWriter(tempCacheFile)) {
+                new GsonBuilder().setPrettyPrinting().create().toJson(uploadedFilesForDeviceLab, CACHE_TYPE, writer);
+            }
+            Files.move(tempCacheFile, cacheFile, java.nio.file.StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            LOGGER.info(String.format("Unable to save app upload cache: '%s': %s", cacheFile, e.getMessage()));
+        }
+    }
+
+    private static Map<String, Map<String, String>> load (Path cacheFile) {
+        if (!Files.exists(cacheFile)) {
+            LOGGER.info("App upload cache not found. Will create: " + cacheFile);
+            return new HashMap<>();
+        }
+        try (Reader reader = Files.newBufferedReader(cacheFile)) {
+            Map<String, Map<String, String>> uploadedFiles = new Gson().fromJson(reader, CACHE_TYPE);
+            return (null == uploadedFiles) ? new HashMap<>() : uploadedFiles;
+        } catch (IOException | RuntimeException e) {
+            LOGGER.info(String.format("Unable to read app upload cache: '%s'. Ignoring it: %s", cacheFile, e.getMessage()));
+            return new HashMap<>();
+        }
+    }
+}
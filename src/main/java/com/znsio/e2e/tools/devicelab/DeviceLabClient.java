@@ -0,0 +1,393 @@
+package com.znsio.e2e.tools.devicelab;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.znsio.e2e.exceptions.EnvironmentSetupException;
+import com.znsio.e2e.tools.JsonFile;
+import org.apache.log4j.Logger;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.TrustManager;
+import javax.net.ssl.X509ExtendedTrustManager;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.io.UncheckedIOException;
+import java.net.Socket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.DigestInputStream;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.security.cert.X509Certificate;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+public class DeviceLabClient {
+    private static final int MAX_ATTEMPTS = 3;
+    private static final int LIST_FILES_LIMIT = 15;
+    private static final int MAX_LIST_FILES_LIMIT = 960;
+    private static final Duration RETRY_BACKOFF = Duration.ofSeconds(2);
+    private static final Duration CONNECT_TIMEOUT = Duration.ofSeconds(30);
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(60);
+    private static final Duration UPLOAD_TIMEOUT = Duration.ofMinutes(10);
+    private static final HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(CONNECT_TIMEOUT)
+            .build();
+    private final String deviceLabURL;
+    private final Duration retryBackoff;
+    private final HttpClient deviceLabHttpClient;
+    private static final Logger LOGGER = Logger.getLogger(DeviceLabClient.class.getName());
+
+    public DeviceLabClient (String deviceLabURL) {
+        this(deviceLabURL, false);
+    }
+
+    public DeviceLabClient (String deviceLabURL, boolean isInsecure) {
+        this(deviceLabURL, RETRY_BACKOFF, isInsecure);
+    }
+
+    DeviceLabClient (String deviceLabURL, Duration retryBackoff) {
+        this(deviceLabURL, retryBackoff, false);
+    }
+
+    DeviceLabClient (String deviceLabURL, Duration retryBackoff, boolean isInsecure) {
+        this.deviceLabURL = deviceLabURL;
+        this.retryBackoff = retryBackoff;
+        if (isInsecure) {
+            LOGGER.info("Device lab certificate will NOT be verified: " + deviceLabURL);
+        }
+        this.deviceLabHttpClient = isInsecure ? InsecureHttpClient.httpClient : httpClient;
+    }
+
+    public static <T> T await (CompletableFuture<T> deviceLabCall) {
+        try {
+            return deviceLabCall.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new EnvironmentSetupException("Interrupted while waiting for device lab", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof EnvironmentSetupException) {
+                throw (EnvironmentSetupException) e.getCause();
+            }
+            throw new EnvironmentSetupException("Device lab call failed", e);
+        }
+    }
+
+    /**
+     * Returns the name of the app with the given content hash in the device lab, uploading it if the device lab does not
+     * have it. A cached upload is verified against the files in the device lab - the lab may have deleted it - and evicted
+     * from the cache only if the complete listing of the device lab does not have it. The auth token is requested by the
+     * caller, so the request can overlap with the hashing of the app.
+     */
+    public String uploadAppIfNotAvailable (Path appPath, String contentHash, AppUploadCache appUploadCache, CompletableFuture<String> authToken) {
+        String cachedFileName = appUploadCache.getUploadedFileName(deviceLabURL, contentHash);
+        String uploadFileName = AppUploadCache.getContentAddressedFileName(appPath, contentHash);
+        String uploadedFileName = await(authToken.thenCompose(token -> {
+            CompletableFuture<Boolean> isCachedFileAvailable = (null == cachedFileName)
+                    ? CompletableFuture.completedFuture(false)
+                    : isUploaded(token, cachedFileName, true);
+            return isCachedFileAvailable.thenCompose(isCachedFileUploaded -> {
+                if (isCachedFileUploaded) {
+                    LOGGER.info("	APK with same content already uploaded to cloud as: " + cachedFileName + ". No need to upload it again");
+                    return CompletableFuture.completedFuture(cachedFileName);
+                }
+                if (null != cachedFileName) {
+                    LOGGER.info("	APK uploaded to cloud as: " + cachedFileName + " is no longer available. Remove it from the upload cache");
+                    appUploadCache.removeUploadedFile(deviceLabURL, contentHash);
+                }
+                return isUploaded(token, uploadFileName, false).thenCompose(isUploaded -> {
+                    if (isUploaded) {
+                        LOGGER.info("	APK is already available in cloud. No need to upload it again");
+                        return CompletableFuture.completedFuture(uploadFileName);
+                    }
+                    LOGGER.info("	APK is NOT available in cloud. Upload it");
+                    return uploadApp(appPath, uploadFileName, contentHash, token);
+                });
+            });
+        }));
+        if (!uploadedFileName.equals(cachedFileName)) {
+            appUploadCache.addUploadedFile(deviceLabURL, contentHash, uploadedFileName);
+        }
+        return uploadedFileName;
+    }
+
+    /**
+     * The device lab lists only as many of the newest files as asked for, so the listing is widened until the file is
+     * found, or the device lab has no more files. If the device lab has more files than can be listed, the file is
+     * assumed to be available if it is not found - and not uploaded again.
+     */
+    CompletableFuture<Boolean> isUploaded (String authToken, String fileName, boolean isAvailableIfNotListed) {
+        return isUploaded(authToken, fileName, isAvailableIfNotListed, LIST_FILES_LIMIT);
+    }
+
+    private CompletableFuture<Boolean> isUploaded (String authToken, String fileName, boolean isAvailableIfNotListed, int limit) {
+        return getUploadedFileNames(authToken, limit).thenCompose(uploadedFileNames -> {
+            if (uploadedFileNames.contains(fileName)) {
+                return CompletableFuture.completedFuture(true);
+            }
+            if (uploadedFileNames.size() < limit) {
+                return CompletableFuture.completedFuture(false);
+            }
+            if (limit >= MAX_LIST_FILES_LIMIT) {
+                LOGGER.info(String.format("	'%s' not found in the newest '%d' files in the device lab. Assume it is available? '%s'",
+                        fileName, limit, isAvailableIfNotListed));
+                return CompletableFuture.completedFuture(isAvailableIfNotListed);
+            }
+            return isUploaded(authToken, fileName, isAvailableIfNotListed, Math.min(limit * 4, MAX_LIST_FILES_LIMIT));
+        });
+    }
+
+    public CompletableFuture<String> getAuthToken (String emailID, String authenticationKey) {
+        LOGGER.info("Get device lab auth token from: " + deviceLabURL);
+        String credentials = Base64.getEncoder().encodeToString((emailID + ":" + authenticationKey).getBytes(StandardCharsets.UTF_8));
+        return sendWithRetries("getAuthToken",
+                () -> newRequest("/api/access", REQUEST_TIMEOUT)
+                        .header("Authorization", "Basic " + credentials)
+                        .GET()
+                        .build(),
+                response -> {
+                    if (response.body().contains("error")) {
+                        throw new EnvironmentSetupException(String.format("Unable to get auth token from: '%s'%n%s", deviceLabURL, response.body()));
+                    }
+                    String authToken = getResult(response).get("token").getAsString();
+                    LOGGER.info("\tauthToken: " + authToken);
+                    return authToken;
+                });
+    }
+
+    public CompletableFuture<List<String>> getUploadedFileNames (String authToken) {
+        return getUploadedFileNames(authToken, LIST_FILES_LIMIT);
+    }
+
+    private CompletableFuture<List<String>> getUploadedFileNames (String authToken, int limit) {
+        JsonObject payload = new JsonObject();
+        payload.addProperty("token", authToken);
+        payload.addProperty("limit", limit);
+        payload.addProperty("filter", "all");
+        return sendWithRetries("getUploadedFileNames",
+                () -> newRequest("/api/drive", REQUEST_TIMEOUT)
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(payload.toString()))
+                        .build(),
+                response -> {
+                    LOGGER.debug("\tlistFilesInDeviceLabResponse: " + response.body());
+                    JsonObject result = getSuccessfulResult(response, "Unable to get list of uploaded files");
+                    JsonArray availableFiles = result.getAsJsonArray("files");
+                    List<String> uploadedFileNames = new ArrayList<>();
+                    if (null != availableFiles) {
+                        availableFiles.forEach(file -> uploadedFileNames.add(((JsonObject) file).get("file").getAsString()));
+                    }
+                    return uploadedFileNames;
+                });
+    }
+
+    public CompletableFuture<String> uploadApp (Path appPath, String uploadFileName, String contentHash, String authToken) {
+        LOGGER.info(String.format("uploadApp: '%s' as '%s' to '%s'", appPath, uploadFileName, deviceLabURL));
+        AtomicReference<DigestInputStream> uploadedApp = new AtomicReference<>();
+        return sendWithRetries("uploadApp",
+                () -> newUploadRequest(appPath, uploadFileName, authToken, uploadedApp),
+                response -> {
+                    String uploadedContentHash = AppUploadCache.toHex(uploadedApp.get().getMessageDigest().digest());
+                    if (!contentHash.equals(uploadedContentHash)) {
+                        throw new EnvironmentSetupException(String.format("App: '%s' changed during upload. Expected content hash: '%s', uploaded: '%s'",
+                                appPath, contentHash, uploadedContentHash));
+                    }
+                    LOGGER.info("\tuploadApkResponse: " + response.body());
+                    JsonObject result = getSuccessfulResult(response, String.format("Unable to upload app: '%s'", appPath));
+                    String uploadedFileName = result.get("file").getAsString();
+                    LOGGER.info("\tuploadApp: Uploaded: " + uploadedFileName);
+                    return uploadedFileName;
+                });
+    }
+
+    private HttpRequest newUploadRequest (Path appPath, String uploadFileName, String authToken, AtomicReference<DigestInputStream> uploadedApp) {
+        String boundary = "----unified-e2e-" + UUID.randomUUID();
+        byte[] head = (formField(boundary, "source_type", "raw") +
+                formField(boundary, "token", authToken) +
+                formField(boundary, "filter", "apk") +
+                "--" + boundary + "\r\n" +
+                "Content-Disposition: form-data; name=\"file\"; filename=\"" + uploadFileName + "\"\r\n" +
+                "Content-Type: application/vnd.android.package-archive\r\n\r\n").getBytes(StandardCharsets.UTF_8);
+        byte[] tail = ("\r\n--" + boundary + "--\r\n").getBytes(StandardCharsets.UTF_8);
+        long contentLength;
+        try {
+            contentLength = head.length + Files.size(appPath) + tail.length;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        HttpRequest.BodyPublisher body = HttpRequest.BodyPublishers.fromPublisher(HttpRequest.BodyPublishers.ofInputStream(() -> {
+            try {
+                DigestInputStream app = new DigestInputStream(Files.newInputStream(appPath), AppUploadCache.newContentDigest());
+                uploadedApp.set(app);
+                return new SequenceInputStream(Collections.enumeration(List.<InputStream>of(
+                        new ByteArrayInputStream(head),
+                        app,
+                        new ByteArrayInputStream(tail))));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }), contentLength);
+
+        return newRequest("/api/upload_file", UPLOAD_TIMEOUT)
+                .header("Content-Type", "multipart/form-data; boundary=" + boundary)
+                .POST(body)
+                .build();
+    }
+
+    private HttpRequest.Builder newRequest (String api, Duration timeout) {
+        return HttpRequest.newBuilder(URI.create(deviceLabURL + api)).timeout(timeout);
+    }
+
+    private <T> CompletableFuture<T> sendWithRetries (String operation, Supplier<HttpRequest> request, Function<HttpResponse<String>, T> parseResponse) {
+        return sendWithRetries(operation, request, parseResponse, 1);
+    }
+
+    private <T> CompletableFuture<T> sendWithRetries (String operation, Supplier<HttpRequest> request, Function<HttpResponse<String>, T> parseResponse, int attempt) {
+        CompletableFuture<HttpResponse<String>> response;
+        try {
+            response = deviceLabHttpClient.sendAsync(request.get(), HttpResponse.BodyHandlers.ofString());
+        } catch (RuntimeException e) {
+            response = CompletableFuture.failedFuture(e);
+        }
+        return response
+                .thenApply(httpResponse -> {
+                    if (httpResponse.statusCode() >= 500) {
+                        throw new RetryableDeviceLabException(String.format("Device lab returned HTTP '%d'%n%s", httpResponse.statusCode(), httpResponse.body()));
+                    }
+                    return parseResponse.apply(httpResponse);
+                })
+                .handle((value, throwable) -> {
+                    if (null == throwable) {
+                        return CompletableFuture.completedFuture(value);
+                    }
+                    Throwable cause = (throwable instanceof CompletionException && null != throwable.getCause()) ? throwable.getCause() : throwable;
+                    if (cause instanceof EnvironmentSetupException) {
+                        return CompletableFuture.<T>failedFuture(cause);
+                    }
+                    if (attempt >= MAX_ATTEMPTS || !isRetryable(cause)) {
+                        return CompletableFuture.<T>failedFuture(new EnvironmentSetupException(String.format("Device lab call: '%s' to '%s' failed after '%d' attempt(s): %s",
+                                operation, deviceLabURL, attempt, cause.getMessage()), asException(cause)));
+                    }
+                    long backoffInMillis = retryBackoff.toMillis() << (attempt - 1);
+                    LOGGER.info(String.format("\tDevice lab call: '%s' attempt '%d' of '%d' failed. Retry in '%d' ms: %s",
+                            operation, attempt, MAX_ATTEMPTS, backoffInMillis, cause.getMessage()));
+                    return CompletableFuture.runAsync(() -> {
+                            }, CompletableFuture.delayedExecutor(backoffInMillis, TimeUnit.MILLISECONDS))
+                            .thenCompose(retry -> sendWithRetries(operation, request, parseResponse, attempt + 1));
+                })
+                .thenCompose(Function.identity());
+    }
+
+    private static boolean isRetryable (Throwable cause) {
+        return cause instanceof IOException || cause instanceof UncheckedIOException || cause instanceof RetryableDeviceLabException;
+    }
+
+    private static Exception asException (Throwable cause) {
+        return (cause instanceof Exception) ? (Exception) cause : new RuntimeException(cause);
+    }
+
+    private JsonObject getResult (HttpResponse<String> response) {
+        JsonObject result = JsonFile.convertToMap(response.body()).getAsJsonObject("result");
+        if (null == result) {
+            throw new EnvironmentSetupException(String.format("Unexpected response from device lab: '%s'%n%s", deviceLabURL, response.body()));
+        }
+        return result;
+    }
+
+    private JsonObject getSuccessfulResult (HttpResponse<String> response, String errorMessage) {
+        JsonObject result = getResult(response);
+        JsonElement resultCode = result.get("code");
+        int status = (null == resultCode) ? 400 : resultCode.getAsInt();
+        if (200 != status) {
+            throw new EnvironmentSetupException(String.format("%s. Device lab: '%s'%n%s", errorMessage, deviceLabURL, response.body()));
+        }
+        return result;
+    }
+
+    private static String formField (String boundary, String name, String value) {
+        return "--" + boundary + "\r\n" +
+                "Content-Disposition: form-data; name=\"" + name + "\"\r\n\r\n" +
+                value + "\r\n";
+    }
+
+    private static class RetryableDeviceLabException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        private RetryableDeviceLabException (String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * The equivalent of curl --insecure, for device labs with a self-signed certificate: neither the certificate chain
+     * nor the host name is verified. Only created when a device lab is configured to be used this way.
+     */
+    private static class InsecureHttpClient {
+        private static final HttpClient httpClient = HttpClient.newBuilder()
+                .connectTimeout(CONNECT_TIMEOUT)
+                .sslContext(trustAllCertificates())
+                .build();
+
+        private static SSLContext trustAllCertificates () {
+            try {
+                SSLContext sslContext = SSLContext.getInstance("TLS");
+                sslContext.init(null, new TrustManager[]{new TrustAllCertificates()}, new SecureRandom());
+                return sslContext;
+            } catch (GeneralSecurityException e) {
+                throw new EnvironmentSetupException("Unable to create insecure SSL context for device lab", e);
+            }
+        }
+    }
+
+    private static class TrustAllCertificates extends X509ExtendedTrustManager {
+        @Override
+        public void checkClientTrusted (X509Certificate[] chain, String authType, Socket socket) {
+        }
+
+        @Override
+        public void checkServerTrusted (X509Certificate[] chain, String authType, Socket socket) {
+        }
+
+        @Override
+        public void checkClientTrusted (X509Certificate[] chain, String authType, SSLEngine engine) {
+        }
+
+        @Override
+        public void checkServerTrusted (X509Certificate[] chain, String authType, SSLEngine engine) {
+        }
+
+        @Override
+        public void checkClientTrusted (X509Certificate[] chain, String authType) {
+        }
+
+        @Override
+        public void checkServerTrusted (X509Certificate[] chain, String authType) {
+        }
+
+        @Override
+        public X509Certificate[] getAcceptedIssuers () {
+            return new X509Certificate[0];
+        }
+    }
+}
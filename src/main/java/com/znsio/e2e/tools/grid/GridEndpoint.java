@@ -0,0 +1,89 @@
+package com.znsio.e2e.tools.grid;
+
+import com.znsio.e2e.tools.metrics.LatencyHistogram;
+
+import java.net.URL;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A Selenium grid / hub that remote browsers are created on, with its active sessions and session creation statistics.
+ * Active sessions include the sessions being created, so concurrent requests are spread across the endpoints.
+ */
+public class GridEndpoint {
+    private final URL url;
+    private final AtomicInteger activeSessions = new AtomicInteger();
+    private final LatencyHistogram sessionCreationLatency = new LatencyHistogram();
+    private final LongAdder sessionCreationFailures = new LongAdder();
+    private int consecutiveFailures = 0;
+    private long quarantinedUntilNanos = 0;
+    private boolean isQuarantined = false;
+
+    GridEndpoint (URL url) {
+        this.url = url;
+    }
+
+    public URL getUrl () {
+        return url;
+    }
+
+    public int getActiveSessions () {
+        return activeSessions.get();
+    }
+
+    public long getSessionsCreated () {
+        return sessionCreationLatency.getCount();
+    }
+
+    public long getSessionCreationFailures () {
+        return sessionCreationFailures.sum();
+    }
+
+    public LatencyHistogram getSessionCreationLatency () {
+        return sessionCreationLatency;
+    }
+
+    public synchronized boolean isQuarantined () {
+        return isQuarantined;
+    }
+
+    synchronized boolean isAvailable (long nowNanos) {
+        return !isQuarantined || nowNanos - quarantinedUntilNanos >= 0;
+    }
+
+    void reserveSession () {
+        activeSessions.incrementAndGet();
+    }
+
+    void releaseSession () {
+        activeSessions.decrementAndGet();
+    }
+
+    synchronized void onSessionCreated (long durationInNanos) {
+        sessionCreationLatency.record(durationInNanos);
+        consecutiveFailures = 0;
+        isQuarantined = false;
+    }
+
+    /**
+     * @return true if this failure quarantined the endpoint
+     */
+    synchronized boolean onSessionCreationFailed (long nowNanos, int maxConsecutiveFailures, Duration quarantineDuration) {
+        sessionCreationFailures.increment();
+        consecutiveFailures++;
+        if (consecutiveFailures < maxConsecutiveFailures) {
+            return false;
+        }
+        // an endpoint that fails again after its quarantine ends is quarantined again straight away
+        consecutiveFailures = maxConsecutiveFailures - 1;
+        isQuarantined = true;
+        quarantinedUntilNanos = nowNanos + quarantineDuration.toNanos();
+        return true;
+    }
+
+    @Override
+    public String toString () {
+        return url.toString();
+    }
+}
@@ -0,0 +1,52 @@
+package com.znsio.e2e.tools.grid;
+
+import org.openqa.selenium.remote.Command;
+import org.openqa.selenium.remote.CommandExecutor;
+import org.openqa.selenium.remote.DriverCommand;
+import org.openqa.selenium.remote.Response;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Sends the commands of one remote browser to its grid endpoint. Times the creation of the session, and releases the
+ * session on the endpoint when the browser is quit - by Drivers, the WebDriverPool or anything else holding the driver.
+ */
+class GridSessionExecutor implements CommandExecutor {
+    private final GridEndpoint endpoint;
+    private final CommandExecutor delegate;
+    private final AtomicBoolean isSessionReserved = new AtomicBoolean(true);
+
+    GridSessionExecutor (GridEndpoint endpoint, CommandExecutor delegate) {
+        this.endpoint = endpoint;
+        this.delegate = delegate;
+    }
+
+    void releaseSession () {
+        // RemoteWebDriver quits itself if the session cannot be started, so the session may be released more than once
+        if (isSessionReserved.compareAndSet(true, false)) {
+            endpoint.releaseSession();
+        }
+    }
+
+    @Override
+    public Response execute (Command command) throws IOException {
+        if (DriverCommand.NEW_SESSION.equals(command.getName())) {
+            long start = System.nanoTime();
+            Response response = delegate.execute(command);
+            if (null == response.getStatus() || 0 == response.getStatus()) {
+                endpoint.onSessionCreated(System.nanoTime() - start);
+            }
+            return response;
+        }
+        if (DriverCommand.QUIT.equals(command.getName())) {
+            try {
+                return delegate.execute(command);
+            } finally {
+                // the session is released even if the grid could not be reached, so the endpoint is not blocked forever
+                releaseSession();
+            }
+        }
+        return delegate.execute(command);
+    }
+}
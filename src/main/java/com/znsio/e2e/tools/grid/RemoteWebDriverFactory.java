@@ -0,0 +1,129 @@
+package com.znsio.e2e.tools.grid;
+
+import com.znsio.e2e.exceptions.EnvironmentSetupException;
+import com.znsio.e2e.exceptions.InvalidTestDataException;
+import org.apache.log4j.Logger;
+import org.openqa.selenium.Capabilities;
+import org.openqa.selenium.remote.HttpCommandExecutor;
+import org.openqa.selenium.remote.RemoteWebDriver;
+
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Creates remote browsers on the grid endpoint with the fewest active sessions. If a session cannot be created on an
+ * endpoint, the next one is tried. An endpoint that fails to create sessions 'quarantineAfterFailures' times in a row is
+ * not used for 'quarantineDuration', unless all the endpoints are quarantined.
+ */
+public class RemoteWebDriverFactory {
+    private static final Logger LOGGER = Logger.getLogger(RemoteWebDriverFactory.class.getName());
+    private final List<GridEndpoint> endpoints;
+    private final int quarantineAfterFailures;
+    private final Duration quarantineDuration;
+
+    public RemoteWebDriverFactory (List<URL> endpointUrls, int quarantineAfterFailures, Duration quarantineDuration) {
+        if (endpointUrls.isEmpty()) {
+            throw new InvalidTestDataException("No grid endpoints provided for RemoteWebDriver");
+        }
+        List<GridEndpoint> gridEndpoints = new ArrayList<>();
+        endpointUrls.forEach(url -> gridEndpoints.add(new GridEndpoint(url)));
+        this.endpoints = Collections.unmodifiableList(gridEndpoints);
+        this.quarantineAfterFailures = quarantineAfterFailures;
+        this.quarantineDuration = quarantineDuration;
+        LOGGER.info(String.format("RemoteWebDriverFactory: grid endpoints: '%s', quarantine after failures: '%d', quarantine: '%d' seconds",
+                endpoints,
+                quarantineAfterFailures,
+                quarantineDuration.getSeconds()));
+    }
+
+    public static List<URL> parseEndpointUrls (String commaSeparatedUrls) {
+        List<URL> endpointUrls = new ArrayList<>();
+        for (String url : commaSeparatedUrls.split(",")) {
+            if (url.trim().isEmpty()) {
+                continue;
+            }
+            try {
+                endpointUrls.add(new URL(url.trim()));
+            } catch (MalformedURLException e) {
+                throw new InvalidTestDataException(String.format("Invalid grid endpoint: '%s'", url.trim()), e);
+            }
+        }
+        return endpointUrls;
+    }
+
+    public List<GridEndpoint> getEndpoints () {
+        return endpoints;
+    }
+
+    public RemoteWebDriver create (Capabilities capabilities) {
+        List<GridEndpoint> triedEndpoints = new ArrayList<>();
+        RuntimeException creationFailure = null;
+        GridEndpoint endpoint;
+        while (null != (endpoint = reserveEndpoint(triedEndpoints))) {
+            triedEndpoints.add(endpoint);
+            GridSessionExecutor gridSessionExecutor = new GridSessionExecutor(endpoint, new HttpCommandExecutor(endpoint.getUrl()));
+            try {
+                RemoteWebDriver remoteWebDriver = new RemoteWebDriver(gridSessionExecutor, capabilities);
+                LOGGER.info(String.format("RemoteWebDriverFactory: created session: '%s' on: '%s'. Active sessions: '%d'",
+                        remoteWebDriver.getSessionId(),
+                        endpoint,
+                        endpoint.getActiveSessions()));
+                return remoteWebDriver;
+            } catch (RuntimeException e) {
+                gridSessionExecutor.releaseSession();
+                boolean isQuarantined = endpoint.onSessionCreationFailed(System.nanoTime(), quarantineAfterFailures, quarantineDuration);
+                LOGGER.info(String.format("RemoteWebDriverFactory: unable to create session on: '%s'%s: %s",
+                        endpoint,
+                        isQuarantined ? String.format(". Quarantined for '%d' seconds", quarantineDuration.getSeconds()) : "",
+                        e.getMessage()));
+                if (null == creationFailure) {
+                    creationFailure = e;
+                } else {
+                    creationFailure.addSuppressed(e);
+                }
+            }
+        }
+        throw new EnvironmentSetupException("Unable to create a RemoteWebDriver on grid endpoints: " + triedEndpoints, creationFailure);
+    }
+
+    private synchronized GridEndpoint reserveEndpoint (List<GridEndpoint> triedEndpoints) {
+        long now = System.nanoTime();
+        List<GridEndpoint> candidates = new ArrayList<>();
+        for (GridEndpoint endpoint : endpoints) {
+            if (!triedEndpoints.contains(endpoint) && endpoint.isAvailable(now)) {
+                candidates.add(endpoint);
+            }
+        }
+        if (candidates.isEmpty() && triedEndpoints.isEmpty()) {
+            LOGGER.info("RemoteWebDriverFactory: all grid endpoints are quarantined. Trying them anyway");
+            candidates.addAll(endpoints);
+        }
+        // min() keeps the first of equals, so endpoints with the same number of active sessions are used in the configured order
+        return candidates.stream()
+                .min(Comparator.comparingInt(GridEndpoint::getActiveSessions))
+                .map(endpoint -> {
+                    endpoint.reserveSession();
+                    return endpoint;
+                })
+                .orElse(null);
+    }
+
+    public String getSummary () {
+        StringBuilder summary = new StringBuilder(String.format("Grid endpoints: '%d'%n", endpoints.size()));
+        endpoints.forEach(endpoint -> summary.append(String.format("\tEndpoint: '%s': Active sessions: '%d': Sessions created: '%d': Failed: '%d': Quarantined: '%s': p50: '%d' ms: p95: '%d' ms: Max: '%d' ms%n",
+                endpoint,
+                endpoint.getActiveSessions(),
+                endpoint.getSessionsCreated(),
+                endpoint.getSessionCreationFailures(),
+                endpoint.isQuarantined(),
+                Duration.ofNanos(endpoint.getSessionCreationLatency().getValueAtPercentile(50)).toMillis(),
+                Duration.ofNanos(endpoint.getSessionCreationLatency().getValueAtPercentile(95)).toMillis(),
+                Duration.ofNanos(endpoint.getSessionCreationLatency().getMax()).toMillis())));
+        return summary.toString();
+    }
+}
@@ -0,0 +1,177 @@
+package com.znsio.e2e.tools.metrics;
+
+import org.apache.log4j.Logger;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency and failure counts of WebDriver / Appium commands, tagged by user persona, platform and screen.
+ * One instance collects the metrics for the whole run, and one more is kept per scenario.
+ */
+public class CommandMetrics {
+    private static final Logger LOGGER = Logger.getLogger(CommandMetrics.class.getName());
+    private static final CommandMetrics RUN_METRICS = new CommandMetrics();
+    private static final String DURATION_METRIC = "e2e_driver_command_duration_seconds";
+    private static final String FAILURES_METRIC = "e2e_driver_command_failures_total";
+    private static final double[] QUANTILES = {0.5, 0.95, 0.99};
+    private static final double NANOS_IN_SECOND = 1_000_000_000.0;
+    private final Map<CommandKey, CommandStatistics> commandStatistics = new ConcurrentHashMap<>();
+
+    public static CommandMetrics getRunMetrics () {
+        return RUN_METRICS;
+    }
+
+    public void record (String userPersona, String platform, String screen, String command, long durationInNanos, boolean failed) {
+        CommandStatistics statistics = commandStatistics.computeIfAbsent(new CommandKey(userPersona, platform, screen, command),
+                key -> new CommandStatistics());
+        statistics.latency.record(durationInNanos);
+        if (failed) {
+            statistics.failures.increment();
+        }
+    }
+
+    public boolean isEmpty () {
+        return commandStatistics.isEmpty();
+    }
+
+    public long getNumberOfCommands () {
+        return commandStatistics.values().stream().mapToLong(statistics -> statistics.latency.getCount()).sum();
+    }
+
+    public Duration getTotalCommandTime () {
+        return Duration.ofNanos(commandStatistics.values().stream().mapToLong(statistics -> statistics.latency.getTotal()).sum());
+    }
+
+    public String getSummary () {
+        StringBuilder summary = new StringBuilder(String.format("Driver commands: '%d': Total time: '%d' ms%n",
+                getNumberOfCommands(),
+                getTotalCommandTime().toMillis()));
+        commandStatistics.entrySet().stream()
+                .sorted(Comparator.comparingLong((Map.Entry<CommandKey, CommandStatistics> entry) -> entry.getValue().latency.getTotal()).reversed())
+                .forEach(entry -> {
+                    CommandKey key = entry.getKey();
+                    LatencyHistogram latency = entry.getValue().latency;
+                    summary.append(String.format("\tUser: '%s': Platform: '%s': Screen: '%s': Command: '%s': Count: '%d': Failed: '%d': p50: '%d' ms: p95: '%d' ms: Max: '%d' ms%n",
+                            key.userPersona,
+                            key.platform,
+                            key.screen,
+                            key.command,
+                            latency.getCount(),
+                            entry.getValue().failures.sum(),
+                            Duration.ofNanos(latency.getValueAtPercentile(50)).toMillis(),
+                            Duration.ofNanos(latency.getValueAtPercentile(95)).toMillis(),
+                            Duration.ofNanos(latency.getMax()).toMillis()));
+                });
+        return summary.toString();
+    }
+
+    public void saveAsPrometheusText (Path prometheusFile) {
+        try {
+            Path parent = prometheusFile.toAbsolutePath().getParent();
+            if (null != parent) {
+                Files.createDirectories(parent);
+            }
+            try (Writer writer = Files.newBufferedWriter(prometheusFile)) {
+                writePrometheusText(writer);
+            }
+            LOGGER.info(String.format("Saved metrics of '%d' driver commands to: %s", getNumberOfCommands(), prometheusFile));
+        } catch (IOException e) {
+            LOGGER.info(String.format("Unable to save driver command metrics to: '%s': %s", prometheusFile, e.getMessage()));
+        }
+    }
+
+    public void writePrometheusText (Writer writer) throws IOException {
+        writer.write("# HELP " + DURATION_METRIC + " Latency of WebDriver / Appium commands\n");
+        writer.write("# TYPE " + DURATION_METRIC + " summary\n");
+        try {
+            commandStatistics.forEach((key, statistics) -> {
+                LatencyHistogram latency = statistics.latency;
+                String labels = key.getLabels();
+                for (double quantile : QUANTILES) {
+                    writeSample(writer, DURATION_METRIC, labels + ",quantile=\"" + quantile + "\"",
+                            toSeconds(latency.getValueAtPercentile(quantile * 100)));
+                }
+                writeSample(writer, DURATION_METRIC + "_sum", labels, toSeconds(latency.getTotal()));
+                writeSample(writer, DURATION_METRIC + "_count", labels, String.valueOf(latency.getCount()));
+            });
+            writer.write("# HELP " + FAILURES_METRIC + " WebDriver / Appium commands that failed\n");
+            writer.write("# TYPE " + FAILURES_METRIC + " counter\n");
+            commandStatistics.forEach((key, statistics) -> writeSample(writer, FAILURES_METRIC, key.getLabels(),
+                    String.valueOf(statistics.failures.sum())));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static void writeSample (Writer writer, String metric, String labels, String value) {
+        try {
+            writer.write(metric + "{" + labels + "} " + value + "\n");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String toSeconds (long nanos) {
+        return String.valueOf(nanos / NANOS_IN_SECOND);
+    }
+
+    static String escapeLabelValue (String value) {
+        return String.valueOf(value).replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    private static class CommandStatistics {
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private final LongAdder failures = new LongAdder();
+    }
+
+    private static class CommandKey {
+        private final String userPersona;
+        private final String platform;
+        private final String screen;
+        private final String command;
+
+        private CommandKey (String userPersona, String platform, String screen, String command) {
+            this.userPersona = userPersona;
+            this.platform = platform;
+            this.screen = screen;
+            this.command = command;
+        }
+
+        private String getLabels () {
+            return "persona=\"" + escapeLabelValue(userPersona)
+                    + "\",platform=\"" + escapeLabelValue(platform)
+                    + "\",screen=\"" + escapeLabelValue(screen)
+                    + "\",command=\"" + escapeLabelValue(command) + "\"";
+        }
+
+        @Override
+        public boolean equals (Object other) {
+            if (this == other) {
+                return true;
+            }
+            if (!(other instanceof CommandKey)) {
+                return false;
+            }
+            CommandKey that = (CommandKey) other;
+            return Objects.equals(userPersona, that.userPersona)
+                    && Objects.equals(platform, that.platform)
+                    && Objects.equals(screen, that.screen)
+                    && Objects.equals(command, that.command);
+        }
+
+        @Override
+        public int hashCode () {
+            return Objects.hash(userPersona, platform, screen, command);
+        }
+    }
+}
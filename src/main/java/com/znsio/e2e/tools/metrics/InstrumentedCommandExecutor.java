@@ -0,0 +1,82 @@
+package com.znsio.e2e.tools.metrics;
+
+import com.context.TestExecutionContext;
+import com.znsio.e2e.entities.TEST_CONTEXT;
+import com.znsio.e2e.runner.ScenarioContext;
+import com.znsio.e2e.tools.CommandExecutors;
+import org.apache.log4j.Logger;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.remote.Command;
+import org.openqa.selenium.remote.CommandExecutor;
+import org.openqa.selenium.remote.RemoteWebDriver;
+import org.openqa.selenium.remote.Response;
+
+import java.io.IOException;
+
+/**
+ * Times every command sent by a RemoteWebDriver / AppiumDriver to the browser, grid or device farm.
+ * The executor is swapped in place, so the driver keeps its type (AppiumDriver, AndroidDriver, ...) and any casts on it keep working.
+ */
+public class InstrumentedCommandExecutor implements CommandExecutor {
+    public static final String UNKNOWN = "unknown";
+    private static final Logger LOGGER = Logger.getLogger(InstrumentedCommandExecutor.class.getName());
+    private final CommandExecutor delegate;
+    private final CommandMetrics runMetrics;
+    private volatile String userPersona = UNKNOWN;
+    private volatile String platform = UNKNOWN;
+    private volatile String screen = UNKNOWN;
+
+    InstrumentedCommandExecutor (CommandExecutor delegate, CommandMetrics runMetrics) {
+        this.delegate = delegate;
+        this.runMetrics = runMetrics;
+    }
+
+    public static InstrumentedCommandExecutor instrument (WebDriver driver, String userPersona, String platform) {
+        if (!(driver instanceof RemoteWebDriver)) {
+            LOGGER.info(String.format("Unable to instrument commands of '%s' for user persona: '%s'. Not a RemoteWebDriver",
+                    null == driver ? null : driver.getClass().getName(),
+                    userPersona));
+            return null;
+        }
+        RemoteWebDriver remoteWebDriver = (RemoteWebDriver) driver;
+        InstrumentedCommandExecutor instrumentedCommandExecutor;
+        if (remoteWebDriver.getCommandExecutor() instanceof InstrumentedCommandExecutor) {
+            // pooled browsers and reused Appium sessions are already instrumented
+            instrumentedCommandExecutor = (InstrumentedCommandExecutor) remoteWebDriver.getCommandExecutor();
+        } else {
+            instrumentedCommandExecutor = new InstrumentedCommandExecutor(remoteWebDriver.getCommandExecutor(), CommandMetrics.getRunMetrics());
+            CommandExecutors.replace(remoteWebDriver, instrumentedCommandExecutor);
+        }
+        instrumentedCommandExecutor.userPersona = userPersona;
+        instrumentedCommandExecutor.platform = platform;
+        instrumentedCommandExecutor.screen = UNKNOWN;
+        return instrumentedCommandExecutor;
+    }
+
+    public void onScreen (String screen) {
+        this.screen = screen;
+    }
+
+    @Override
+    public Response execute (Command command) throws IOException {
+        boolean failed = true;
+        long start = System.nanoTime();
+        try {
+            Response response = delegate.execute(command);
+            failed = (null != response.getStatus()) && (0 != response.getStatus());
+            return response;
+        } finally {
+            long durationInNanos = System.nanoTime() - start;
+            runMetrics.record(userPersona, platform, screen, command.getName(), durationInNanos, failed);
+            CommandMetrics scenarioMetrics = getCommandMetricsForCurrentScenario();
+            if (null != scenarioMetrics) {
+                scenarioMetrics.record(userPersona, platform, screen, command.getName(), durationInNanos, failed);
+            }
+        }
+    }
+
+    private static CommandMetrics getCommandMetricsForCurrentScenario () {
+        TestExecutionContext context = ScenarioContext.current();
+        return (null == context) ? null : (CommandMetrics) context.getTestState(TEST_CONTEXT.DRIVER_COMMAND_METRICS);
+    }
+}
@@ -0,0 +1,91 @@
+package com.znsio.e2e.tools.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free, log-linear histogram of non-negative values (nanoseconds), in the style of HdrHistogram: every power of 2 is
+ * split into 32 linear sub-buckets, so any recorded value is reported within ~3% of its actual value.
+ */
+public class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int LINEAR_VALUES = SUB_BUCKET_COUNT * 2;
+    private static final int NUMBER_OF_BUCKETS = LINEAR_VALUES + (Long.SIZE - 1 - (SUB_BUCKET_BITS + 1)) * SUB_BUCKET_COUNT;
+    private final AtomicLongArray counts = new AtomicLongArray(NUMBER_OF_BUCKETS);
+    private final LongAdder totalCount = new LongAdder();
+    private final LongAdder totalValue = new LongAdder();
+    private final AtomicLong minValue = new AtomicLong(Long.MAX_VALUE);
+    private final AtomicLong maxValue = new AtomicLong(0);
+
+    static int getBucketIndex (long value) {
+        if (value < LINEAR_VALUES) {
+            return (int) value;
+        }
+        int highestBit = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+        int shift = highestBit - SUB_BUCKET_BITS;
+        int subBucket = (int) (value >>> shift) - SUB_BUCKET_COUNT;
+        return LINEAR_VALUES + (highestBit - (SUB_BUCKET_BITS + 1)) * SUB_BUCKET_COUNT + subBucket;
+    }
+
+    static long getHighestValueInBucket (int bucketIndex) {
+        if (bucketIndex < LINEAR_VALUES) {
+            return bucketIndex;
+        }
+        int highestBit = (bucketIndex - LINEAR_VALUES) / SUB_BUCKET_COUNT + SUB_BUCKET_BITS + 1;
+        int subBucket = (bucketIndex - LINEAR_VALUES) % SUB_BUCKET_COUNT + SUB_BUCKET_COUNT;
+        int shift = highestBit - SUB_BUCKET_BITS;
+        long lowestValue = ((long) subBucket) << shift;
+        return lowestValue + ((1L << shift) - 1);
+    }
+
+    public void record (long value) {
+        long recordedValue = Math.max(0, value);
+        counts.incrementAndGet(getBucketIndex(recordedValue));
+        totalCount.increment();
+        totalValue.add(recordedValue);
+        minValue.accumulateAndGet(recordedValue, Math::min);
+        maxValue.accumulateAndGet(recordedValue, Math::max);
+    }
+
+    public long getCount () {
+        return totalCount.sum();
+    }
+
+    public long getTotal () {
+        return totalValue.sum();
+    }
+
+    public long getMin () {
+        return (0 == getCount()) ? 0 : minValue.get();
+    }
+
+    public long getMax () {
+        return maxValue.get();
+    }
+
+    public long getMean () {
+        long count = getCount();
+        return (0 == count) ? 0 : getTotal() / count;
+    }
+
+    public long getValueAtPercentile (double percentile) {
+        long count = 0;
+        for (int bucketIndex = 0; bucketIndex < NUMBER_OF_BUCKETS; bucketIndex++) {
+            count += counts.get(bucketIndex);
+        }
+        if (0 == count) {
+            return 0;
+        }
+        long countAtPercentile = Math.max(1, (long) Math.ceil(Math.min(100, Math.max(0, percentile)) / 100 * count));
+        long cumulativeCount = 0;
+        for (int bucketIndex = 0; bucketIndex < NUMBER_OF_BUCKETS; bucketIndex++) {
+            cumulativeCount += counts.get(bucketIndex);
+            if (cumulativeCount >= countAtPercentile) {
+                return Math.min(getHighestValueInBucket(bucketIndex), getMax());
+            }
+        }
+        return getMax();
+    }
+}
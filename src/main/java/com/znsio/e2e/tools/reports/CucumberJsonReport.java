@@ -0,0 +1,123 @@
+package com.znsio.e2e.tools.reports;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.stream.JsonReader;
+import com.znsio.e2e.exceptions.InvalidTestDataException;
+import org.apache.log4j.Logger;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+public class CucumberJsonReport {
+    private static final String BACKGROUND = "background";
+    private static final Gson GSON = new Gson();
+    private static final Logger LOGGER = Logger.getLogger(CucumberJsonReport.class.getName());
+
+    private CucumberJsonReport () {
+    }
+
+    public static List<ScenarioResult> getScenarioResults (Path report) {
+        List<ScenarioResult> scenarioResults = new ArrayList<>();
+        forEachScenarioResult(report, scenarioResults::add);
+        return scenarioResults;
+    }
+
+    public static void forEachScenarioResult (Path report, Consumer<ScenarioResult> scenarioResultConsumer) {
+        LOGGER.info("Reading scenario results from: " + report);
+        try (JsonReader reader = new JsonReader(Files.newBufferedReader(report))) {
+            reader.beginArray();
+            while (reader.hasNext()) {
+                Feature feature = GSON.fromJson(reader, Feature.class);
+                addScenarioResults(feature, scenarioResultConsumer);
+            }
+            reader.endArray();
+        } catch (IOException | JsonParseException | IllegalStateException e) {
+            throw new InvalidTestDataException("Unable to read cucumber json report: " + report, e);
+        }
+    }
+
+    private static void addScenarioResults (Feature feature, Consumer<ScenarioResult> scenarioResultConsumer) {
+        if (null == feature || null == feature.elements) {
+            return;
+        }
+        StepResults backgroundResults = new StepResults();
+        for (Element element : feature.elements) {
+            if (BACKGROUND.equals(element.type)) {
+                backgroundResults = new StepResults();
+                backgroundResults.addAll(element);
+                continue;
+            }
+            StepResults scenarioResults = new StepResults();
+            scenarioResults.add(backgroundResults);
+            scenarioResults.addAll(element);
+            backgroundResults = new StepResults();
+            scenarioResultConsumer.accept(new ScenarioResult(feature.uri,
+                    element.line,
+                    element.name,
+                    Duration.ofNanos(scenarioResults.durationInNanos),
+                    scenarioResults.status));
+        }
+    }
+
+    private static class StepResults {
+        private long durationInNanos = 0;
+        private String status = ScenarioResult.PASSED;
+
+        private void addAll (Element element) {
+            addAll(element.before);
+            addAll(element.steps);
+            addAll(element.after);
+        }
+
+        private void addAll (List<Step> steps) {
+            if (null == steps) {
+                return;
+            }
+            steps.forEach(step -> {
+                if (null != step.result) {
+                    add(step.result.duration, step.result.status);
+                }
+            });
+        }
+
+        private void add (StepResults stepResults) {
+            add(stepResults.durationInNanos, stepResults.status);
+        }
+
+        private void add (long duration, String stepStatus) {
+            durationInNanos += duration;
+            if (ScenarioResult.PASSED.equals(status) && null != stepStatus && !ScenarioResult.PASSED.equals(stepStatus)) {
+                status = stepStatus;
+            }
+        }
+    }
+
+    private static class Feature {
+        private String uri;
+        private List<Element> elements;
+    }
+
+    private static class Element {
+        private String name;
+        private String type;
+        private int line;
+        private List<Step> before;
+        private List<Step> steps;
+        private List<Step> after;
+    }
+
+    private static class Step {
+        private Result result;
+    }
+
+    private static class Result {
+        private String status;
+        private long duration;
+    }
+}
@@ -0,0 +1,96 @@
+package com.znsio.e2e.tools.reports;
+
+import org.apache.log4j.Logger;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+public class FailedScenarios {
+    private static final Logger LOGGER = Logger.getLogger(FailedScenarios.class.getName());
+    private final List<ScenarioResult> failedScenarios;
+
+    private FailedScenarios (List<ScenarioResult> failedScenarios) {
+        this.failedScenarios = Collections.unmodifiableList(failedScenarios);
+    }
+
+    public static FailedScenarios fromReport (Path cucumberJsonReport) {
+        List<ScenarioResult> failedScenarios = new ArrayList<>();
+        CucumberJsonReport.forEachScenarioResult(cucumberJsonReport, scenarioResult -> {
+            if (!scenarioResult.isPassed()) {
+                failedScenarios.add(scenarioResult);
+            }
+        });
+        LOGGER.info(String.format("Found '%d' failed scenarios in: %s", failedScenarios.size(), cucumberJsonReport));
+        return new FailedScenarios(failedScenarios);
+    }
+
+    public boolean isEmpty () {
+        return failedScenarios.isEmpty();
+    }
+
+    public List<ScenarioResult> getScenarios () {
+        return failedScenarios;
+    }
+
+    public List<String> getFeaturePathsWithLines () {
+        Map<String, TreeSet<Integer>> linesPerFeature = new LinkedHashMap<>();
+        failedScenarios.forEach(scenario -> linesPerFeature.computeIfAbsent(scenario.getUri(), uri -> new TreeSet<>()).add(scenario.getLine()));
+        List<String> featurePathsWithLines = new ArrayList<>();
+        linesPerFeature.forEach((uri, lines) -> {
+            StringBuilder featurePathWithLines = new StringBuilder(uri);
+            lines.forEach(line -> featurePathWithLines.append(":").append(line));
+            featurePathsWithLines.add(featurePathWithLines.toString());
+        });
+        return featurePathsWithLines;
+    }
+
+    public String getRerunSummary (Path rerunCucumberJsonReport) {
+        Map<String, ScenarioResult> rerunResults = new HashMap<>();
+        if (Files.exists(rerunCucumberJsonReport)) {
+            CucumberJsonReport.forEachScenarioResult(rerunCucumberJsonReport,
+                    scenarioResult -> rerunResults.put(scenarioResult.getLocation(), scenarioResult));
+        }
+        List<ScenarioResult> confirmedFailures = new ArrayList<>();
+        List<ScenarioResult> flakyScenarios = new ArrayList<>();
+        List<ScenarioResult> notRerun = new ArrayList<>();
+        failedScenarios.forEach(previousResult -> {
+            ScenarioResult rerunResult = rerunResults.get(previousResult.getLocation());
+            if (null == rerunResult) {
+                notRerun.add(previousResult);
+            } else if (rerunResult.isPassed()) {
+                flakyScenarios.add(rerunResult);
+            } else {
+                confirmedFailures.add(rerunResult);
+            }
+        });
+        StringBuilder summary = new StringBuilder(String.format("Rerun of '%d' failed scenarios: Confirmed failures: '%d', Flaky: '%d', Not rerun: '%d'%n",
+                failedScenarios.size(), confirmedFailures.size(), flakyScenarios.size(), notRerun.size()));
+        appendScenarios(summary, "Confirmed failure", confirmedFailures);
+        appendScenarios(summary, "Flaky", flakyScenarios);
+        appendScenarios(summary, "Not rerun", notRerun);
+        return summary.toString();
+    }
+
+    public void saveRerunSummary (Path rerunCucumberJsonReport, Path summaryFile) {
+        String summary = getRerunSummary(rerunCucumberJsonReport);
+        LOGGER.info(summary);
+        try {
+            Files.createDirectories(summaryFile.toAbsolutePath().getParent());
+            Files.writeString(summaryFile, summary);
+        } catch (IOException e) {
+            LOGGER.info(String.format("Unable to save rerun summary to: '%s': %s", summaryFile, e.getMessage()));
+        }
+    }
+
+    private static void appendScenarios (StringBuilder summary, String classification, List<ScenarioResult> scenarios) {
+        scenarios.forEach(scenario -> summary.append(String.format("\t%s: %s%n", classification, scenario)));
+    }
+}
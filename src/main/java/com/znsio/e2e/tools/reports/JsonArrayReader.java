@@ -0,0 +1,65 @@
+package com.znsio.e2e.tools.reports;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Reads a single json array, embedded in a larger (javascript) stream, and ends the stream when the array is closed.
+ * The underlying reader is left positioned right after the closing bracket.
+ */
+class JsonArrayReader extends Reader {
+    private final Reader reader;
+    private int depth = 0;
+    private boolean isInString = false;
+    private boolean isEscaped = false;
+    private boolean isArrayStarted = false;
+
+    JsonArrayReader (Reader reader) {
+        this.reader = reader;
+    }
+
+    @Override
+    public int read (char[] buffer, int offset, int length) throws IOException {
+        if (isArrayStarted && 0 == depth) {
+            return -1;
+        }
+        int count = 0;
+        while (count < length) {
+            int character = reader.read();
+            if (-1 == character) {
+                break;
+            }
+            buffer[offset + count++] = (char) character;
+            track((char) character);
+            if (isArrayStarted && 0 == depth) {
+                break;
+            }
+        }
+        return (0 == count) ? -1 : count;
+    }
+
+    private void track (char character) {
+        if (isInString) {
+            if (isEscaped) {
+                isEscaped = false;
+            } else if ('\\' == character) {
+                isEscaped = true;
+            } else if ('"' == character) {
+                isInString = false;
+            }
+            return;
+        }
+        if ('"' == character) {
+            isInString = true;
+        } else if ('[' == character || '{' == character) {
+            depth++;
+            isArrayStarted = true;
+        } else if (']' == character || '}' == character) {
+            depth--;
+        }
+    }
+
+    @Override
+    public void close () {
+    }
+}
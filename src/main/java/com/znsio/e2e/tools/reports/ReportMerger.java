@@ -0,0 +1,469 @@
+package com.znsio.e2e.tools.reports;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import com.znsio.e2e.exceptions.InvalidTestDataException;
+import org.apache.log4j.Logger;
+
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLEventFactory;
+import javax.xml.stream.XMLEventReader;
+import javax.xml.stream.XMLEventWriter;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.events.Attribute;
+import javax.xml.stream.events.StartElement;
+import javax.xml.stream.events.XMLEvent;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+public class ReportMerger {
+    public static final String CUCUMBER_JSON_REPORT = "cucumber-json-report.json";
+    public static final String CUCUMBER_JUNIT_REPORT = "cucumber-junit-report.xml";
+    public static final String CUCUMBER_MESSAGES_REPORT = "results.ndjson";
+    public static final String TIMELINE_DIRECTORY = "timeline";
+    private static final String TIMELINE_REPORT = "report.js";
+    private static final String TIMELINE_ITEMS = "CucumberHTML.timelineItems.pushArray(";
+    private static final String TIMELINE_GROUPS = "CucumberHTML.timelineGroups.pushArray(";
+    private static final String TEST_RUN_STARTED = "testRunStarted";
+    private static final String TEST_RUN_FINISHED = "testRunFinished";
+    private static final String META = "meta";
+    private static final String SOURCE = "source";
+    private static final String GHERKIN_DOCUMENT = "gherkinDocument";
+    private static final String[] JUNIT_COUNTERS = {"tests", "skipped", "failures", "errors"};
+    private static final Gson GSON = new Gson();
+    private static final Logger LOGGER = Logger.getLogger(ReportMerger.class.getName());
+
+    private ReportMerger () {
+    }
+
+    public static void main (String[] args) {
+        if (args.length < 2) {
+            throw new InvalidTestDataException("Expected following parameters: 'String mergedReportsDirectory, String reportsDirectory...'");
+        }
+        List<Path> reportDirectories = Stream.of(args).skip(1).map(Paths::get).collect(Collectors.toList());
+        merge(reportDirectories, Paths.get(args[0]));
+    }
+
+    public static void merge (List<Path> reportDirectories, Path mergedReportsDirectory) {
+        LOGGER.info(String.format("Merging reports from: %s into: %s", reportDirectories, mergedReportsDirectory));
+        try {
+            Files.createDirectories(mergedReportsDirectory);
+        } catch (IOException e) {
+            throw new InvalidTestDataException("Unable to create merged reports directory: " + mergedReportsDirectory, e);
+        }
+        mergeCucumberJsonReports(existing(reportDirectories, CUCUMBER_JSON_REPORT), mergedReportsDirectory.resolve(CUCUMBER_JSON_REPORT));
+        mergeJUnitReports(existing(reportDirectories, CUCUMBER_JUNIT_REPORT), mergedReportsDirectory.resolve(CUCUMBER_JUNIT_REPORT));
+        mergeMessagesReports(existing(reportDirectories, CUCUMBER_MESSAGES_REPORT), mergedReportsDirectory.resolve(CUCUMBER_MESSAGES_REPORT));
+        mergeTimelines(existing(reportDirectories, TIMELINE_DIRECTORY), mergedReportsDirectory.resolve(TIMELINE_DIRECTORY));
+    }
+
+    private static List<Path> existing (List<Path> reportDirectories, String report) {
+        List<Path> reports = new ArrayList<>();
+        reportDirectories.forEach(reportDirectory -> {
+            Path reportPath = reportDirectory.resolve(report);
+            if (Files.exists(reportPath)) {
+                reports.add(reportPath);
+            } else {
+                LOGGER.info("Report not available. Skipping it: " + reportPath);
+            }
+        });
+        return reports;
+    }
+
+    static void mergeCucumberJsonReports (List<Path> reports, Path mergedReport) {
+        if (reports.isEmpty()) {
+            return;
+        }
+        try (JsonWriter writer = new JsonWriter(Files.newBufferedWriter(mergedReport))) {
+            writer.beginArray();
+            for (Path report : reports) {
+                try (JsonReader reader = new JsonReader(Files.newBufferedReader(report))) {
+                    reader.beginArray();
+                    while (reader.hasNext()) {
+                        copyValue(reader, writer);
+                    }
+                    reader.endArray();
+                }
+            }
+            writer.endArray();
+        } catch (IOException | IllegalStateException e) {
+            throw new InvalidTestDataException("Unable to merge cucumber json reports: " + reports, e);
+        }
+        LOGGER.info(String.format("Merged '%d' cucumber json reports into: %s", reports.size(), mergedReport));
+    }
+
+    static void mergeJUnitReports (List<Path> reports, Path mergedReport) {
+        if (reports.isEmpty()) {
+            return;
+        }
+        XMLInputFactory inputFactory = XMLInputFactory.newInstance();
+        XMLEventFactory eventFactory = XMLEventFactory.newInstance();
+        BigDecimal[] totals = {BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO};
+        BigDecimal totalTime = BigDecimal.ZERO;
+        StartElement firstTestSuite = null;
+        for (Path report : reports) {
+            StartElement testSuite = readRootElement(inputFactory, report);
+            for (int counter = 0; counter < JUNIT_COUNTERS.length; counter++) {
+                totals[counter] = totals[counter].add(getNumericAttribute(testSuite, JUNIT_COUNTERS[counter]));
+            }
+            totalTime = totalTime.add(getNumericAttribute(testSuite, "time"));
+            if (null == firstTestSuite) {
+                firstTestSuite = testSuite;
+            }
+        }
+
+        try (OutputStream outputStream = Files.newOutputStream(mergedReport)) {
+            XMLEventWriter writer = XMLOutputFactory.newInstance().createXMLEventWriter(outputStream, "UTF-8");
+            writer.add(eventFactory.createStartDocument("UTF-8", "1.0"));
+            writer.add(eventFactory.createStartElement(firstTestSuite.getName(), null, null));
+            for (Iterator<?> attributes = firstTestSuite.getAttributes(); attributes.hasNext(); ) {
+                Attribute attribute = (Attribute) attributes.next();
+                String name = attribute.getName().getLocalPart();
+                String value = attribute.getValue();
+                for (int counter = 0; counter < JUNIT_COUNTERS.length; counter++) {
+                    if (JUNIT_COUNTERS[counter].equals(name)) {
+                        value = totals[counter].toPlainString();
+                    }
+                }
+                if ("time".equals(name)) {
+                    value = totalTime.toPlainString();
+                }
+                writer.add(eventFactory.createAttribute(attribute.getName(), value));
+            }
+            for (Path report : reports) {
+                copyTestCases(inputFactory, report, writer);
+            }
+            writer.add(eventFactory.createEndElement(firstTestSuite.getName(), null));
+            writer.add(eventFactory.createEndDocument());
+            writer.close();
+        } catch (IOException | XMLStreamException e) {
+            throw new InvalidTestDataException("Unable to merge junit reports: " + reports, e);
+        }
+        LOGGER.info(String.format("Merged '%d' junit reports into: %s", reports.size(), mergedReport));
+    }
+
+    static void mergeMessagesReports (List<Path> reports, Path mergedReport) {
+        if (reports.isEmpty()) {
+            return;
+        }
+        JsonObject testRunStarted = null;
+        JsonObject testRunFinished = null;
+        for (Path report : reports) {
+            try (BufferedReader reader = Files.newBufferedReader(report)) {
+                String message;
+                while (null != (message = reader.readLine())) {
+                    String messageType = getMessageType(message);
+                    if (TEST_RUN_STARTED.equals(messageType)) {
+                        testRunStarted = earliest(testRunStarted, JsonParser.parseString(message).getAsJsonObject());
+                    } else if (TEST_RUN_FINISHED.equals(messageType)) {
+                        testRunFinished = combineTestRunFinished(testRunFinished, JsonParser.parseString(message).getAsJsonObject());
+                    }
+                }
+            } catch (IOException | JsonParseException | IllegalStateException e) {
+                throw new InvalidTestDataException("Unable to read messages report: " + report, e);
+            }
+        }
+
+        try (BufferedWriter writer = Files.newBufferedWriter(mergedReport)) {
+            boolean isMetaWritten = false;
+            Set<String> writtenFeatureFiles = new HashSet<>();
+            for (Path report : reports) {
+                try (BufferedReader reader = Files.newBufferedReader(report)) {
+                    String message;
+                    while (null != (message = reader.readLine())) {
+                        String messageType = getMessageType(message);
+                        if (META.equals(messageType)) {
+                            if (isMetaWritten) {
+                                continue;
+                            }
+                            isMetaWritten = true;
+                        } else if (TEST_RUN_STARTED.equals(messageType)) {
+                            if (null == testRunStarted) {
+                                continue;
+                            }
+                            message = GSON.toJson(testRunStarted);
+                            testRunStarted = null;
+                        } else if (TEST_RUN_FINISHED.equals(messageType)) {
+                            continue;
+                        } else if ((SOURCE.equals(messageType) || GHERKIN_DOCUMENT.equals(messageType))
+                                && !writtenFeatureFiles.add(messageType + ":" + getUri(message, messageType, report))) {
+                            // every shard parses all feature files
+                            continue;
+                        }
+                        writer.write(message);
+                        writer.newLine();
+                    }
+                }
+            }
+            if (null != testRunFinished) {
+                writer.write(GSON.toJson(testRunFinished));
+                writer.newLine();
+            }
+        } catch (IOException e) {
+            throw new InvalidTestDataException("Unable to merge messages reports: " + reports, e);
+        }
+        LOGGER.info(String.format("Merged '%d' messages reports into: %s", reports.size(), mergedReport));
+    }
+
+    static void mergeTimelines (List<Path> timelines, Path mergedTimeline) {
+        if (timelines.isEmpty()) {
+            return;
+        }
+        try {
+            Files.createDirectories(mergedTimeline);
+            try (Stream<Path> timelineFiles = Files.list(timelines.get(0))) {
+                for (Path timelineFile : timelineFiles.collect(Collectors.toList())) {
+                    if (!TIMELINE_REPORT.equals(timelineFile.getFileName().toString())) {
+                        Files.copy(timelineFile, mergedTimeline.resolve(timelineFile.getFileName()), StandardCopyOption.REPLACE_EXISTING);
+                    }
+                }
+            }
+            try (BufferedWriter writer = Files.newBufferedWriter(mergedTimeline.resolve(TIMELINE_REPORT))) {
+                writer.write("$(document).ready(function() {\n" + TIMELINE_ITEMS);
+                copyTimelineArrays(timelines, TIMELINE_ITEMS, writer);
+                writer.write(");\n" + TIMELINE_GROUPS);
+                copyTimelineArrays(timelines, TIMELINE_GROUPS, writer);
+                writer.write(");\n});\n");
+            }
+        } catch (IOException e) {
+            throw new InvalidTestDataException("Unable to merge timelines: " + timelines, e);
+        }
+        LOGGER.info(String.format("Merged '%d' timelines into: %s", timelines.size(), mergedTimeline));
+    }
+
+    private static void copyTimelineArrays (List<Path> timelines, String timelineArray, Writer writer) throws IOException {
+        writer.write("[");
+        boolean isFirstEntry = true;
+        for (int timelineIndex = 0; timelineIndex < timelines.size(); timelineIndex++) {
+            Path timelineReport = timelines.get(timelineIndex).resolve(TIMELINE_REPORT);
+            String groupPrefix = timelineIndex + "-";
+            String groupNamePrefix = getShardName(timelines.get(timelineIndex), timelineIndex) + ": ";
+            try (Reader reader = Files.newBufferedReader(timelineReport)) {
+                if (!skipPast(reader, timelineArray)) {
+                    LOGGER.info(String.format("'%s' not found in: %s", timelineArray, timelineReport));
+                    continue;
+                }
+                JsonReader arrayReader = new JsonReader(new JsonArrayReader(reader));
+                arrayReader.setLenient(true);
+                arrayReader.beginArray();
+                while (arrayReader.hasNext()) {
+                    JsonObject timelineEntry = JsonParser.parseReader(arrayReader).getAsJsonObject();
+                    if (TIMELINE_ITEMS.equals(timelineArray) && timelineEntry.has("group")) {
+                        timelineEntry.addProperty("group", groupPrefix + timelineEntry.get("group").getAsString());
+                    } else if (TIMELINE_GROUPS.equals(timelineArray)) {
+                        timelineEntry.addProperty("id", groupPrefix + timelineEntry.get("id").getAsString());
+                        if (timelineEntry.has("content")) {
+                            timelineEntry.addProperty("content", groupNamePrefix + timelineEntry.get("content").getAsString());
+                        }
+                    }
+                    if (!isFirstEntry) {
+                        writer.write(",");
+                    }
+                    writer.write(GSON.toJson(timelineEntry));
+                    isFirstEntry = false;
+                }
+            }
+        }
+        writer.write("]");
+    }
+
+    // timelines are in <shard>/reports/timeline
+    static String getShardName (Path timeline, int timelineIndex) {
+        Path reportsDirectory = timeline.toAbsolutePath().normalize().getParent();
+        Path shardDirectory = (null == reportsDirectory) ? null : reportsDirectory.getParent();
+        Path shardName = (null == shardDirectory) ? null : shardDirectory.getFileName();
+        return (null == shardName) ? "shard" + timelineIndex : shardName.toString();
+    }
+
+    private static boolean skipPast (Reader reader, String marker) throws IOException {
+        int matched = 0;
+        int character;
+        while (-1 != (character = reader.read())) {
+            if (character == marker.charAt(matched)) {
+                matched++;
+                if (matched == marker.length()) {
+                    return true;
+                }
+            } else {
+                matched = (character == marker.charAt(0)) ? 1 : 0;
+            }
+        }
+        return false;
+    }
+
+    private static String getMessageType (String message) {
+        try (JsonReader reader = new JsonReader(new StringReader(message))) {
+            reader.beginObject();
+            return reader.hasNext() ? reader.nextName() : "";
+        } catch (IOException | IllegalStateException e) {
+            return "";
+        }
+    }
+
+    private static String getUri (String message, String messageType, Path report) {
+        try {
+            JsonElement uri = JsonParser.parseString(message).getAsJsonObject().getAsJsonObject(messageType).get("uri");
+            return (null == uri) ? "" : uri.getAsString();
+        } catch (JsonParseException | IllegalStateException | ClassCastException e) {
+            throw new InvalidTestDataException(String.format("Unable to read '%s' message in messages report: %s", messageType, report), e);
+        }
+    }
+
+    private static JsonObject earliest (JsonObject current, JsonObject candidate) {
+        if (null == current) {
+            return candidate;
+        }
+        return getTimestamp(candidate, TEST_RUN_STARTED).compareTo(getTimestamp(current, TEST_RUN_STARTED)) < 0 ? candidate : current;
+    }
+
+    private static JsonObject combineTestRunFinished (JsonObject current, JsonObject candidate) {
+        if (null == current) {
+            return candidate;
+        }
+        JsonObject latest = getTimestamp(candidate, TEST_RUN_FINISHED).compareTo(getTimestamp(current, TEST_RUN_FINISHED)) > 0
+                ? candidate.deepCopy()
+                : current.deepCopy();
+        JsonObject latestTestRunFinished = latest.getAsJsonObject(TEST_RUN_FINISHED);
+        boolean isSuccess = isSuccess(current) && isSuccess(candidate);
+        latestTestRunFinished.addProperty("success", isSuccess);
+        if (!isSuccess(latest) && isSuccess) {
+            latestTestRunFinished.remove("message");
+        }
+        return latest;
+    }
+
+    private static boolean isSuccess (JsonObject testRunFinished) {
+        JsonElement success = testRunFinished.getAsJsonObject(TEST_RUN_FINISHED).get("success");
+        return null != success && success.getAsBoolean();
+    }
+
+    private static BigDecimal getTimestamp (JsonObject message, String messageType) {
+        JsonObject timestamp = message.getAsJsonObject(messageType).getAsJsonObject("timestamp");
+        if (null == timestamp) {
+            return BigDecimal.ZERO;
+        }
+        BigDecimal seconds = timestamp.has("seconds") ? timestamp.get("seconds").getAsBigDecimal() : BigDecimal.ZERO;
+        BigDecimal nanos = timestamp.has("nanos") ? timestamp.get("nanos").getAsBigDecimal() : BigDecimal.ZERO;
+        return seconds.add(nanos.movePointLeft(9));
+    }
+
+    private static StartElement readRootElement (XMLInputFactory inputFactory, Path report) {
+        try (InputStream inputStream = Files.newInputStream(report)) {
+            XMLEventReader reader = inputFactory.createXMLEventReader(inputStream);
+            try {
+                while (reader.hasNext()) {
+                    XMLEvent event = reader.nextEvent();
+                    if (event.isStartElement()) {
+                        return event.asStartElement();
+                    }
+                }
+            } finally {
+                reader.close();
+            }
+        } catch (IOException | XMLStreamException e) {
+            throw new InvalidTestDataException("Unable to read junit report: " + report, e);
+        }
+        throw new InvalidTestDataException("No testsuite found in junit report: " + report);
+    }
+
+    private static BigDecimal getNumericAttribute (StartElement element, String attributeName) {
+        Attribute attribute = element.getAttributeByName(new QName(attributeName));
+        if (null == attribute) {
+            return BigDecimal.ZERO;
+        }
+        try {
+            return new BigDecimal(attribute.getValue().replace(",", ""));
+        } catch (NumberFormatException e) {
+            return BigDecimal.ZERO;
+        }
+    }
+
+    private static void copyTestCases (XMLInputFactory inputFactory, Path report, XMLEventWriter writer) throws IOException, XMLStreamException {
+        try (InputStream inputStream = Files.newInputStream(report)) {
+            XMLEventReader reader = inputFactory.createXMLEventReader(inputStream);
+            int depth = 0;
+            try {
+                while (reader.hasNext()) {
+                    XMLEvent event = reader.nextEvent();
+                    if (event.isStartElement()) {
+                        depth++;
+                    }
+                    if (depth > 1 && !event.isStartDocument() && !event.isEndDocument()) {
+                        writer.add(event);
+                    }
+                    if (event.isEndElement()) {
+                        depth--;
+                    }
+                }
+            } finally {
+                reader.close();
+            }
+        }
+    }
+
+    private static void copyValue (JsonReader reader, JsonWriter writer) throws IOException {
+        JsonToken token = reader.peek();
+        switch (token) {
+            case BEGIN_ARRAY:
+                reader.beginArray();
+                writer.beginArray();
+                while (reader.hasNext()) {
+                    copyValue(reader, writer);
+                }
+                reader.endArray();
+                writer.endArray();
+                break;
+            case BEGIN_OBJECT:
+                reader.beginObject();
+                writer.beginObject();
+                while (reader.hasNext()) {
+                    writer.name(reader.nextName());
+                    copyValue(reader, writer);
+                }
+                reader.endObject();
+                writer.endObject();
+                break;
+            case STRING:
+                writer.value(reader.nextString());
+                break;
+            case NUMBER:
+                writer.jsonValue(reader.nextString());
+                break;
+            case BOOLEAN:
+                writer.value(reader.nextBoolean());
+                break;
+            case NULL:
+                reader.nextNull();
+                writer.nullValue();
+                break;
+            default:
+                throw new IllegalStateException("Unexpected json token: " + token);
+        }
+    }
+}
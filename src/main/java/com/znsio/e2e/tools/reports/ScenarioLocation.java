@@ -0,0 +1,38 @@
+package com.znsio.e2e.tools.reports;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+public class ScenarioLocation {
+    private static final Path USER_DIRECTORY = Paths.get(System.getProperty("user.dir")).toAbsolutePath().normalize();
+
+    private ScenarioLocation () {
+    }
+
+    public static String of (String uri, int line) {
+        return normaliseUri(uri) + ":" + line;
+    }
+
+    public static String of (URI uri, int line) {
+        return of(uri.toString(), line);
+    }
+
+    public static String normaliseUri (String uri) {
+        if (null == uri) {
+            return "";
+        }
+        String path = uri;
+        if (path.startsWith("classpath:")) {
+            return "classpath:" + path.substring("classpath:".length()).replaceFirst("^/+", "");
+        }
+        if (path.startsWith("file:")) {
+            path = path.substring("file:".length());
+        }
+        Path featurePath = Paths.get(path).normalize();
+        if (featurePath.isAbsolute() && featurePath.startsWith(USER_DIRECTORY)) {
+            featurePath = USER_DIRECTORY.relativize(featurePath);
+        }
+        return featurePath.toString().replace('\\', '/');
+    }
+}
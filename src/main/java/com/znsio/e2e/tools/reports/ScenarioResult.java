@@ -0,0 +1,53 @@
+package com.znsio.e2e.tools.reports;
+
+import java.time.Duration;
+
+public class ScenarioResult {
+    public static final String PASSED = "passed";
+    private final String uri;
+    private final int line;
+    private final String name;
+    private final Duration duration;
+    private final String status;
+
+    public ScenarioResult (String uri, int line, String name, Duration duration, String status) {
+        this.uri = ScenarioLocation.normaliseUri(uri);
+        this.line = line;
+        this.name = name;
+        this.duration = duration;
+        this.status = status;
+    }
+
+    public String getUri () {
+        return uri;
+    }
+
+    public int getLine () {
+        return line;
+    }
+
+    public String getName () {
+        return name;
+    }
+
+    public Duration getDuration () {
+        return duration;
+    }
+
+    public String getStatus () {
+        return status;
+    }
+
+    public boolean isPassed () {
+        return PASSED.equals(status);
+    }
+
+    public String getLocation () {
+        return ScenarioLocation.of(uri, line);
+    }
+
+    @Override
+    public String toString () {
+        return String.format("%s (%s): %s in %d ms", getLocation(), name, status, duration.toMillis());
+    }
+}
@@ -0,0 +1,35 @@
+package com.znsio.e2e.tools.scheduling;
+
+import io.cucumber.core.gherkin.Pickle;
+import io.cucumber.core.order.PickleOrder;
+import org.apache.log4j.Logger;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Function;
+
+public class LongestFirstPickleOrder implements PickleOrder {
+    private static final Logger LOGGER = Logger.getLogger(LongestFirstPickleOrder.class.getName());
+    private final ScenarioDurations scenarioDurations;
+
+    public LongestFirstPickleOrder (ScenarioDurations scenarioDurations) {
+        this.scenarioDurations = scenarioDurations;
+    }
+
+    @Override
+    public List<Pickle> orderPickles (List<Pickle> pickles) {
+        return sortLongestFirst(pickles,
+                pickle -> scenarioDurations.getEstimatedDuration(pickle.getUri(), pickle.getLocation().getLine(), pickle.getName()));
+    }
+
+    public static <T> List<T> sortLongestFirst (List<T> scenarios, Function<T, Duration> estimatedDuration) {
+        List<T> orderedScenarios = new ArrayList<>(scenarios);
+        orderedScenarios.sort(Comparator.comparing(estimatedDuration).reversed());
+        Duration totalDuration = orderedScenarios.stream().map(estimatedDuration).reduce(Duration.ZERO, Duration::plus);
+        LOGGER.info(String.format("Ordered '%d' scenarios longest first. Estimated total duration: '%d' seconds",
+                orderedScenarios.size(), totalDuration.getSeconds()));
+        return orderedScenarios;
+    }
+}
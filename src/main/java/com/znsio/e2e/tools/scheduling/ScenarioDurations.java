@@ -0,0 +1,157 @@
+package com.znsio.e2e.tools.scheduling;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
+import com.google.gson.reflect.TypeToken;
+import com.znsio.e2e.exceptions.InvalidTestDataException;
+import com.znsio.e2e.tools.reports.CucumberJsonReport;
+import com.znsio.e2e.tools.reports.ScenarioLocation;
+import com.znsio.e2e.tools.reports.ScenarioResult;
+import org.apache.log4j.Logger;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.lang.reflect.Type;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+public class ScenarioDurations {
+    private static final double LATEST_RUN_WEIGHT = 0.7;
+    private static final Type DURATIONS_TYPE = new TypeToken<TreeMap<String, ScenarioDuration>>() {
+    }.getType();
+    private static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
+    private static final Logger LOGGER = Logger.getLogger(ScenarioDurations.class.getName());
+    private final Path durationsFile;
+    private final Map<String, ScenarioDuration> durationsByLocation;
+    private final Map<String, ScenarioDuration> durationsByName = new TreeMap<>();
+    private final Duration defaultDuration;
+
+    private ScenarioDurations (Path durationsFile, Map<String, ScenarioDuration> durationsByLocation) {
+        this.durationsFile = durationsFile;
+        this.durationsByLocation = durationsByLocation;
+        durationsByLocation.values().forEach(duration -> durationsByName.put(getNameKey(duration.uri, duration.name), duration));
+        this.defaultDuration = getMedianDuration(durationsByLocation);
+    }
+
+    /**
+     * Records the durations of the scenarios run by all the shards into the durations file shared by them. Run this after
+     * all shards have finished, with the cucumber json report of every shard (or the merged report).
+     */
+    public static void main (String[] args) {
+        if (args.length < 2) {
+            throw new InvalidTestDataException("Expected following parameters: 'String scenarioDurationsFile, String cucumberJsonReport...'");
+        }
+        ScenarioDurations scenarioDurations = load(Paths.get(args[0]));
+        Stream.of(args).skip(1).map(Paths::get).forEach(report -> CucumberJsonReport.forEachScenarioResult(report, scenarioDurations::record));
+        scenarioDurations.save();
+    }
+
+    public static ScenarioDurations empty () {
+        return new ScenarioDurations(null, new TreeMap<>());
+    }
+
+    public static ScenarioDurations load (Path durationsFile) {
+        if (!Files.exists(durationsFile)) {
+            LOGGER.info("No scenario durations available in: " + durationsFile);
+            return new ScenarioDurations(durationsFile, new TreeMap<>());
+        }
+        try (Reader reader = Files.newBufferedReader(durationsFile)) {
+            Map<String, ScenarioDuration> durations = GSON.fromJson(reader, DURATIONS_TYPE);
+            LOGGER.info(String.format("Loaded durations of '%d' scenarios from: %s", null == durations ? 0 : durations.size(), durationsFile));
+            return new ScenarioDurations(durationsFile, null == durations ? new TreeMap<>() : durations);
+        } catch (IOException | JsonParseException e) {
+            LOGGER.info(String.format("Unable to read scenario durations from: '%s'. Ignoring it: %s", durationsFile, e.getMessage()));
+            return new ScenarioDurations(durationsFile, new TreeMap<>());
+        }
+    }
+
+    public boolean isEmpty () {
+        return durationsByLocation.isEmpty();
+    }
+
+    public Duration getEstimatedDuration (URI uri, int line, String name) {
+        return getEstimatedDuration(uri.toString(), line, name);
+    }
+
+    public Duration getEstimatedDuration (String uri, int line, String name) {
+        ScenarioDuration duration = durationsByLocation.get(ScenarioLocation.of(uri, line));
+        if (null == duration) {
+            duration = durationsByName.get(getNameKey(ScenarioLocation.normaliseUri(uri), name));
+        }
+        return (null == duration) ? defaultDuration : Duration.ofMillis(duration.durationInMillis);
+    }
+
+    public void recordRun (Path cucumberJsonReport) {
+        if (!Files.exists(cucumberJsonReport)) {
+            LOGGER.info("No cucumber json report to record scenario durations from: " + cucumberJsonReport);
+            return;
+        }
+        CucumberJsonReport.forEachScenarioResult(cucumberJsonReport, this::record);
+        save();
+    }
+
+    private void record (ScenarioResult scenarioResult) {
+        String location = scenarioResult.getLocation();
+        long latestDurationInMillis = scenarioResult.getDuration().toMillis();
+        ScenarioDuration previous = durationsByLocation.get(location);
+        long durationInMillis = (null == previous)
+                ? latestDurationInMillis
+                : Math.round(LATEST_RUN_WEIGHT * latestDurationInMillis + (1 - LATEST_RUN_WEIGHT) * previous.durationInMillis);
+        ScenarioDuration duration = new ScenarioDuration(scenarioResult.getUri(), scenarioResult.getName(), durationInMillis);
+        durationsByLocation.put(location, duration);
+        durationsByName.put(getNameKey(duration.uri, duration.name), duration);
+    }
+
+    private void save () {
+        try {
+            Path parent = durationsFile.toAbsolutePath().getParent();
+            Files.createDirectories(parent);
+            Path tempFile = Files.createTempFile(parent, durationsFile.getFileName().toString(), ".tmp");
+            try (Writer writer = Files.newBufferedWriter(tempFile)) {
+                GSON.toJson(durationsByLocation, DURATIONS_TYPE, writer);
+            }
+            Files.move(tempFile, durationsFile, StandardCopyOption.REPLACE_EXISTING);
+            LOGGER.info(String.format("Saved durations of '%d' scenarios to: %s", durationsByLocation.size(), durationsFile));
+        } catch (IOException e) {
+            LOGGER.info(String.format("Unable to save scenario durations to: '%s': %s", durationsFile, e.getMessage()));
+        }
+    }
+
+    private static String getNameKey (String uri, String name) {
+        return uri + "#" + name;
+    }
+
+    private static Duration getMedianDuration (Map<String, ScenarioDuration> durations) {
+        if (durations.isEmpty()) {
+            return Duration.ZERO;
+        }
+        List<Long> durationsInMillis = new ArrayList<>();
+        durations.values().forEach(duration -> durationsInMillis.add(duration.durationInMillis));
+        Collections.sort(durationsInMillis);
+        return Duration.ofMillis(durationsInMillis.get(durationsInMillis.size() / 2));
+    }
+
+    private static class ScenarioDuration {
+        private final String uri;
+        private final String name;
+        private final long durationInMillis;
+
+        private ScenarioDuration (String uri, String name, long durationInMillis) {
+            this.uri = uri;
+            this.name = name;
+            this.durationInMillis = durationInMillis;
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.znsio.e2e.tools.scheduling;
+
+import com.znsio.e2e.exceptions.InvalidTestDataException;
+import org.apache.log4j.Logger;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.zip.CRC32;
+
+public class ScenarioShards {
+    private static final Logger LOGGER = Logger.getLogger(ScenarioShards.class.getName());
+
+    private ScenarioShards () {
+    }
+
+    public static <T> List<T> select (List<T> scenarios,
+                                      Function<T, String> location,
+                                      ScenarioDurations scenarioDurations,
+                                      Function<T, Duration> estimatedDuration,
+                                      int shardIndex,
+                                      int shardTotal) {
+        List<T> selectedScenarios = (null == scenarioDurations || scenarioDurations.isEmpty())
+                ? selectByHash(scenarios, location, shardIndex, shardTotal)
+                : selectByDuration(scenarios, location, estimatedDuration, shardIndex, shardTotal);
+        LOGGER.info(String.format("Shard '%d' of '%d': Selected '%d' of '%d' scenarios",
+                shardIndex, shardTotal, selectedScenarios.size(), scenarios.size()));
+        return selectedScenarios;
+    }
+
+    /**
+     * Returns the durations to assign the scenarios to shards by. Every shard must assign every scenario to the same shard,
+     * so durations are used only from a file that is explicitly shared by all shards - the durations recorded on each
+     * machine differ. Without it, the scenarios are assigned by a stable hash of their location.
+     */
+    public static ScenarioDurations loadSharedDurations (Path sharedDurationsFile) {
+        if (null == sharedDurationsFile) {
+            LOGGER.info("No shared scenario durations file provided. Assigning scenarios to shards by location hash");
+            return ScenarioDurations.empty();
+        }
+        if (!Files.isRegularFile(sharedDurationsFile)) {
+            throw new InvalidTestDataException(String.format("Shared scenario durations file: '%s' not found. It must be present, and identical, on every shard",
+                    sharedDurationsFile));
+        }
+        LOGGER.info(String.format("Assigning scenarios to shards by duration from: '%s' with content hash: '%s'. The content hash must be the same on every shard",
+                sharedDurationsFile, getContentHash(sharedDurationsFile)));
+        return ScenarioDurations.load(sharedDurationsFile);
+    }
+
+    private static String getContentHash (Path file) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(Files.readAllBytes(file));
+            StringBuilder contentHash = new StringBuilder();
+            for (byte digestByte : digest) {
+                contentHash.append(String.format("%02x", digestByte));
+            }
+            return contentHash.toString();
+        } catch (IOException | NoSuchAlgorithmException e) {
+            throw new InvalidTestDataException("Unable to compute content hash of: " + file, e);
+        }
+    }
+
+    static int getShardByHash (String location, int shardTotal) {
+        CRC32 crc32 = new CRC32();
+        crc32.update(location.getBytes(StandardCharsets.UTF_8));
+        return (int) (crc32.getValue() % shardTotal);
+    }
+
+    private static <T> List<T> selectByHash (List<T> scenarios, Function<T, String> location, int shardIndex, int shardTotal) {
+        List<T> selectedScenarios = new ArrayList<>();
+        scenarios.forEach(scenario -> {
+            if (shardIndex == getShardByHash(location.apply(scenario), shardTotal)) {
+                selectedScenarios.add(scenario);
+            }
+        });
+        return selectedScenarios;
+    }
+
+    static <T> List<T> selectByDuration (List<T> scenarios,
+                                                 Function<T, String> location,
+                                                 Function<T, Duration> estimatedDuration,
+                                                 int shardIndex,
+                                                 int shardTotal) {
+        List<T> longestFirst = new ArrayList<>(scenarios);
+        longestFirst.sort(Comparator.comparing(estimatedDuration).reversed().thenComparing(location));
+        long[] shardLoadInMillis = new long[shardTotal];
+        Set<T> assignedToShard = new HashSet<>();
+        for (T scenario : longestFirst) {
+            int leastLoadedShard = 0;
+            for (int shard = 1; shard < shardTotal; shard++) {
+                if (shardLoadInMillis[shard] < shardLoadInMillis[leastLoadedShard]) {
+                    leastLoadedShard = shard;
+                }
+            }
+            shardLoadInMillis[leastLoadedShard] += estimatedDuration.apply(scenario).toMillis();
+            if (leastLoadedShard == shardIndex) {
+                assignedToShard.add(scenario);
+            }
+        }
+        LOGGER.info(String.format("Shard '%d' of '%d': Estimated duration: '%d' seconds",
+                shardIndex, shardTotal, shardLoadInMillis[shardIndex] / 1000));
+        List<T> selectedScenarios = new ArrayList<>();
+        scenarios.forEach(scenario -> {
+            if (assignedToShard.contains(scenario)) {
+                selectedScenarios.add(scenario);
+            }
+        });
+        return selectedScenarios;
+    }
+}
@@ -0,0 +1,35 @@
+package com.znsio.e2e.tools.scheduling;
+
+import com.znsio.e2e.tools.reports.ScenarioLocation;
+import io.cucumber.core.gherkin.Pickle;
+import io.cucumber.core.order.PickleOrder;
+
+import java.util.List;
+
+public class ShardPickleOrder implements PickleOrder {
+    private final PickleOrder shardOrder;
+    private final ScenarioDurations sharedDurations;
+    private final int shardIndex;
+    private final int shardTotal;
+
+    /**
+     * @param sharedDurations durations that are identical on every shard - see {@link ScenarioShards#loadSharedDurations}
+     */
+    public ShardPickleOrder (PickleOrder shardOrder, ScenarioDurations sharedDurations, int shardIndex, int shardTotal) {
+        this.shardOrder = shardOrder;
+        this.sharedDurations = sharedDurations;
+        this.shardIndex = shardIndex;
+        this.shardTotal = shardTotal;
+    }
+
+    @Override
+    public List<Pickle> orderPickles (List<Pickle> pickles) {
+        List<Pickle> shardPickles = ScenarioShards.select(pickles,
+                pickle -> ScenarioLocation.of(pickle.getUri(), pickle.getLocation().getLine()),
+                sharedDurations,
+                pickle -> sharedDurations.getEstimatedDuration(pickle.getUri(), pickle.getLocation().getLine(), pickle.getName()),
+                shardIndex,
+                shardTotal);
+        return shardOrder.orderPickles(shardPickles);
+    }
+}
@@ -0,0 +1,28 @@
+package com.znsio.e2e.tools.testdata;
+
+import org.apache.log4j.Logger;
+
+import java.time.Duration;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+public class ScenarioTestData {
+    private static final Logger LOGGER = Logger.getLogger(ScenarioTestData.class.getName());
+    private final Queue<TestDataLease> leases = new ConcurrentLinkedQueue<>();
+
+    public TestDataLease lease (String poolName, Duration timeout) {
+        TestDataLease lease = TestDataPools.getPool(poolName).lease(timeout);
+        leases.add(lease);
+        return lease;
+    }
+
+    public void releaseAll () {
+        TestDataLease lease;
+        int numberOfLeases = 0;
+        while (null != (lease = leases.poll())) {
+            lease.release();
+            numberOfLeases++;
+        }
+        LOGGER.info(String.format("Released '%d' test data leases", numberOfLeases));
+    }
+}
@@ -0,0 +1,44 @@
+package com.znsio.e2e.tools.testdata;
+
+import com.znsio.e2e.exceptions.InvalidTestDataException;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class TestDataLease {
+    private final TestDataPool pool;
+    private final int itemIndex;
+    private final Map<String, Object> item;
+    private final AtomicBoolean isReleased = new AtomicBoolean(false);
+
+    TestDataLease (TestDataPool pool, int itemIndex, Map<String, Object> item) {
+        this.pool = pool;
+        this.itemIndex = itemIndex;
+        this.item = item;
+    }
+
+    public String getPoolName () {
+        return pool.getPoolName();
+    }
+
+    public Map<String, Object> getItem () {
+        return item;
+    }
+
+    public String get (String key) {
+        if (!item.containsKey(key)) {
+            throw new InvalidTestDataException(String.format("Key: '%s' not found in item leased from test data pool: '%s'", key, pool.getPoolName()));
+        }
+        return String.valueOf(item.get(key));
+    }
+
+    public boolean isReleased () {
+        return isReleased.get();
+    }
+
+    public void release () {
+        if (isReleased.compareAndSet(false, true)) {
+            pool.release(itemIndex);
+        }
+    }
+}
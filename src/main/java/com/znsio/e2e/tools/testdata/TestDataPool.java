@@ -0,0 +1,95 @@
+package com.znsio.e2e.tools.testdata;
+
+import com.znsio.e2e.exceptions.InvalidTestDataException;
+import org.apache.log4j.Logger;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.locks.LockSupport;
+
+public class TestDataPool {
+    private static final int FREE = 0;
+    private static final int LEASED = 1;
+    private static final long MIN_BACKOFF_IN_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long MAX_BACKOFF_IN_NANOS = TimeUnit.MILLISECONDS.toNanos(500);
+    private static final Logger LOGGER = Logger.getLogger(TestDataPool.class.getName());
+    private final String poolName;
+    private final List<Map<String, Object>> items;
+    private final AtomicIntegerArray itemStates;
+    private final AtomicInteger nextItem = new AtomicInteger(0);
+
+    public TestDataPool (String poolName, List<Map<String, Object>> items) {
+        this.poolName = poolName;
+        List<Map<String, Object>> poolItems = new ArrayList<>();
+        items.forEach(item -> poolItems.add(Collections.unmodifiableMap(new HashMap<>(item))));
+        this.items = Collections.unmodifiableList(poolItems);
+        this.itemStates = new AtomicIntegerArray(poolItems.size());
+    }
+
+    public String getPoolName () {
+        return poolName;
+    }
+
+    public int size () {
+        return items.size();
+    }
+
+    public int getNumberOfAvailableItems () {
+        int available = 0;
+        for (int itemIndex = 0; itemIndex < itemStates.length(); itemIndex++) {
+            if (FREE == itemStates.get(itemIndex)) {
+                available++;
+            }
+        }
+        return available;
+    }
+
+    public TestDataLease lease (Duration timeout) {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        long backoffInNanos = MIN_BACKOFF_IN_NANOS;
+        while (true) {
+            TestDataLease lease = tryLease();
+            if (null != lease) {
+                return lease;
+            }
+            long remainingInNanos = deadline - System.nanoTime();
+            if (remainingInNanos <= 0) {
+                throw new InvalidTestDataException(String.format("No test data available in pool: '%s' (size: '%d') after waiting for '%d' seconds",
+                        poolName, items.size(), timeout.getSeconds()));
+            }
+            LockSupport.parkNanos(Math.min(backoffInNanos, remainingInNanos));
+            backoffInNanos = Math.min(backoffInNanos * 2, MAX_BACKOFF_IN_NANOS);
+        }
+    }
+
+    public TestDataLease tryLease () {
+        int numberOfItems = items.size();
+        if (0 == numberOfItems) {
+            return null;
+        }
+        int startIndex = Math.floorMod(nextItem.getAndIncrement(), numberOfItems);
+        for (int offset = 0; offset < numberOfItems; offset++) {
+            int itemIndex = (startIndex + offset) % numberOfItems;
+            if (itemStates.compareAndSet(itemIndex, FREE, LEASED)) {
+                LOGGER.debug(String.format("\tLeased item: '%d' from test data pool: '%s'", itemIndex, poolName));
+                return new TestDataLease(this, itemIndex, items.get(itemIndex));
+            }
+        }
+        return null;
+    }
+
+    void release (int itemIndex) {
+        if (!itemStates.compareAndSet(itemIndex, LEASED, FREE)) {
+            LOGGER.info(String.format("Item: '%d' in test data pool: '%s' was not leased. Ignoring release", itemIndex, poolName));
+            return;
+        }
+        LOGGER.debug(String.format("\tReleased item: '%d' to test data pool: '%s'", itemIndex, poolName));
+    }
+}
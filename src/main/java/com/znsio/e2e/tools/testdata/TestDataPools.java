@@ -0,0 +1,67 @@
+package com.znsio.e2e.tools.testdata;
+
+import com.znsio.e2e.exceptions.InvalidTestDataException;
+import org.apache.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class TestDataPools {
+    public static final String POOLS_NODE = "pools";
+    private static final Logger LOGGER = Logger.getLogger(TestDataPools.class.getName());
+    private static volatile Map<String, TestDataPool> pools = Collections.emptyMap();
+
+    private TestDataPools () {
+    }
+
+    public static void load (Map<String, Object> testData, String testDataFile) {
+        Object poolsNode = testData.get(POOLS_NODE);
+        if (null == poolsNode) {
+            LOGGER.info("No test data pools provided");
+            pools = Collections.emptyMap();
+            return;
+        }
+        if (!(poolsNode instanceof Map)) {
+            throw new InvalidTestDataException(String.format("Test data node: '%s' in file: '%s' should be a map of pool name to a list of items",
+                    POOLS_NODE, testDataFile));
+        }
+        Map<String, TestDataPool> loadedPools = new HashMap<>();
+        ((Map<?, ?>) poolsNode).forEach((poolName, poolItems) -> {
+            TestDataPool pool = new TestDataPool(String.valueOf(poolName), toItems(String.valueOf(poolName), poolItems, testDataFile));
+            LOGGER.info(String.format("Loaded test data pool: '%s' with '%d' items", poolName, pool.size()));
+            loadedPools.put(String.valueOf(poolName), pool);
+        });
+        pools = Collections.unmodifiableMap(loadedPools);
+    }
+
+    private static List<Map<String, Object>> toItems (String poolName, Object poolItems, String testDataFile) {
+        if (!(poolItems instanceof List)) {
+            throw new InvalidTestDataException(String.format("Test data pool: '%s' in file: '%s' should be a list of items", poolName, testDataFile));
+        }
+        List<Map<String, Object>> items = new ArrayList<>();
+        List<?> itemsInFile = (List<?>) poolItems;
+        for (int itemIndex = 0; itemIndex < itemsInFile.size(); itemIndex++) {
+            Object itemInFile = itemsInFile.get(itemIndex);
+            if (!(itemInFile instanceof Map)) {
+                throw new InvalidTestDataException(String.format("Item: '%d' of test data pool: '%s' in file: '%s' should be a map of key to value. Found: '%s'",
+                        itemIndex, poolName, testDataFile, itemInFile));
+            }
+            Map<String, Object> item = new HashMap<>();
+            ((Map<?, ?>) itemInFile).forEach((key, value) -> item.put(String.valueOf(key), value));
+            items.add(item);
+        }
+        return items;
+    }
+
+    public static TestDataPool getPool (String poolName) {
+        TestDataPool pool = pools.get(poolName);
+        if (null == pool) {
+            throw new InvalidTestDataException(String.format("Test data pool: '%s' not found in: '%s'. Available pools: %s",
+                    poolName, POOLS_NODE, pools.keySet()));
+        }
+        return pool;
+    }
+}
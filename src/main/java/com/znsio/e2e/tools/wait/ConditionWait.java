@@ -0,0 +1,124 @@
+package com.znsio.e2e.tools.wait;
+
+import com.znsio.e2e.runner.Runner;
+import org.apache.log4j.Logger;
+import org.openqa.selenium.NoAlertPresentException;
+import org.openqa.selenium.NoSuchElementException;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriver;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+public class ConditionWait {
+    private final WebDriver driver;
+    private final Duration timeout;
+    private final Duration initialPollingInterval;
+    private final Duration maxPollingInterval;
+    private final double backoffMultiplier;
+    private final WaitStatistics waitStatistics;
+    private final WaitClock clock;
+    private static final Logger LOGGER = Logger.getLogger(ConditionWait.class.getName());
+
+    public ConditionWait (WebDriver driver, Duration timeout, Duration initialPollingInterval, Duration maxPollingInterval, double backoffMultiplier, WaitStatistics waitStatistics) {
+        this(driver, timeout, initialPollingInterval, maxPollingInterval, backoffMultiplier, waitStatistics, WaitClock.SYSTEM);
+    }
+
+    ConditionWait (WebDriver driver, Duration timeout, Duration initialPollingInterval, Duration maxPollingInterval, double backoffMultiplier, WaitStatistics waitStatistics, WaitClock clock) {
+        if (backoffMultiplier < 1) {
+            throw new IllegalArgumentException("Backoff multiplier should be >= 1. Provided: " + backoffMultiplier);
+        }
+        this.driver = driver;
+        this.timeout = timeout;
+        this.initialPollingInterval = initialPollingInterval;
+        this.maxPollingInterval = maxPollingInterval;
+        this.backoffMultiplier = backoffMultiplier;
+        this.waitStatistics = waitStatistics;
+        this.clock = clock;
+    }
+
+    public static ConditionWait withConfiguredBackoff (WebDriver driver, WaitStatistics waitStatistics) {
+        return new ConditionWait(driver,
+                Duration.ofSeconds(Runner.getWaitTimeoutInSeconds()),
+                Duration.ofMillis(Runner.getWaitPollingIntervalInMillis()),
+                Duration.ofMillis(Runner.getWaitMaxPollingIntervalInMillis()),
+                Runner.getWaitBackoffMultiplier(),
+                waitStatistics);
+    }
+
+    public <T> T until (String forScreen, Function<? super WebDriver, T> condition) {
+        return until(forScreen, condition, timeout);
+    }
+
+    public <T> T until (String forScreen, Function<? super WebDriver, T> condition, Duration withTimeout) {
+        long start = clock.nanoTime();
+        long deadline = start + withTimeout.toNanos();
+        long pollingIntervalInMillis = initialPollingInterval.toMillis();
+        RuntimeException lastException = null;
+        try {
+            while (true) {
+                try {
+                    T value = condition.apply(driver);
+                    if (null != value && !Boolean.FALSE.equals(value)) {
+                        return value;
+                    }
+                } catch (NoSuchElementException | StaleElementReferenceException | NoAlertPresentException e) {
+                    lastException = e;
+                }
+                long remainingInMillis = Duration.ofNanos(deadline - clock.nanoTime()).toMillis();
+                if (remainingInMillis <= 0) {
+                    String message = String.format("Screen: '%s': Condition not met within '%d' ms: '%s'",
+                            forScreen,
+                            withTimeout.toMillis(),
+                            condition);
+                    throw new TimeoutException(message, lastException);
+                }
+                sleep(Math.min(pollingIntervalInMillis, remainingInMillis));
+                pollingIntervalInMillis = getNextPollingIntervalInMillis(pollingIntervalInMillis);
+            }
+        } finally {
+            long waitTimeInNanos = clock.nanoTime() - start;
+            LOGGER.debug(String.format("Screen: '%s': Waited for '%d' ms", forScreen, Duration.ofNanos(waitTimeInNanos).toMillis()));
+            if (null != waitStatistics) {
+                waitStatistics.record(forScreen, waitTimeInNanos);
+            }
+        }
+    }
+
+    // rounded up, and by at least 1 ms - truncating would keep a short polling interval from ever growing
+    private long getNextPollingIntervalInMillis (long pollingIntervalInMillis) {
+        if (backoffMultiplier == 1) {
+            return pollingIntervalInMillis;
+        }
+        long nextPollingIntervalInMillis = Math.max(pollingIntervalInMillis + 1, (long) Math.ceil(pollingIntervalInMillis * backoffMultiplier));
+        return Math.min(nextPollingIntervalInMillis, maxPollingInterval.toMillis());
+    }
+
+    private void sleep (long millis) {
+        try {
+            clock.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TimeoutException("Interrupted while waiting for condition", e);
+        }
+    }
+
+    interface WaitClock {
+        WaitClock SYSTEM = new WaitClock() {
+            @Override
+            public long nanoTime () {
+                return System.nanoTime();
+            }
+
+            @Override
+            public void sleep (long millis) throws InterruptedException {
+                Thread.sleep(millis);
+            }
+        };
+
+        long nanoTime ();
+
+        void sleep (long millis) throws InterruptedException;
+    }
+}
@@ -0,0 +1,46 @@
+package com.znsio.e2e.tools.wait;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+public class WaitStatistics {
+    public static final String UNKNOWN_SCREEN = "unknown-screen";
+    private final String scenarioName;
+    private final Map<String, LongAdder> waitTimeInNanosPerScreen = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> numberOfWaitsPerScreen = new ConcurrentHashMap<>();
+
+    public WaitStatistics (String scenarioName) {
+        this.scenarioName = scenarioName;
+    }
+
+    public void record (String forScreen, long waitTimeInNanos) {
+        String screenName = (null == forScreen) ? UNKNOWN_SCREEN : forScreen;
+        waitTimeInNanosPerScreen.computeIfAbsent(screenName, key -> new LongAdder()).add(waitTimeInNanos);
+        numberOfWaitsPerScreen.computeIfAbsent(screenName, key -> new LongAdder()).increment();
+    }
+
+    public Duration getTotalWaitTime () {
+        long totalWaitTimeInNanos = waitTimeInNanosPerScreen.values().stream().mapToLong(LongAdder::sum).sum();
+        return Duration.ofNanos(totalWaitTimeInNanos);
+    }
+
+    public Duration getWaitTimeFor (String forScreen) {
+        LongAdder waitTime = waitTimeInNanosPerScreen.get(forScreen);
+        return (null == waitTime) ? Duration.ZERO : Duration.ofNanos(waitTime.sum());
+    }
+
+    public String getSummary () {
+        StringBuilder summary = new StringBuilder(String.format("Wait statistics for scenario: '%s': Total wait time: '%d' ms%n",
+                scenarioName,
+                getTotalWaitTime().toMillis()));
+        new TreeMap<>(waitTimeInNanosPerScreen).forEach((screenName, waitTime) -> summary.append(
+                String.format("\tScreen: '%s': Number of waits: '%d': Wait time: '%d' ms%n",
+                        screenName,
+                        numberOfWaitsPerScreen.get(screenName).sum(),
+                        Duration.ofNanos(waitTime.sum()).toMillis())));
+        return summary.toString();
+    }
+}
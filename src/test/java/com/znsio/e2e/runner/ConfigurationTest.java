@@ -0,0 +1,85 @@
+package com.znsio.e2e.runner;
+
+import com.znsio.e2e.entities.Platform;
+import com.znsio.e2e.entities.SchedulingStrategy;
+import com.znsio.e2e.exceptions.InvalidTestDataException;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ConfigurationTest {
+    @Test
+    void builderHasDefaults () {
+        Configuration configuration = Configuration.builder().build();
+
+        assertThat(configuration.getPlatform()).isEqualTo(Platform.android);
+        assertThat(configuration.getParallel()).isEqualTo(1);
+        assertThat(configuration.getShardIndex()).isZero();
+        assertThat(configuration.getShardTotal()).isEqualTo(1);
+        assertThat(configuration.getSchedulingStrategy()).isEqualTo(SchedulingStrategy.FEATURE_FILE_ORDER);
+        assertThat(configuration.getBrowser()).isEqualTo("chrome");
+        assertThat(configuration.getScreenShotFormat()).isEqualTo("png");
+        assertThat(configuration.getWaitBackoffMultiplier()).isEqualTo(1.5);
+        assertThat(configuration.isDeviceLabInsecure()).isFalse();
+        assertThat(configuration.getAppName()).isEqualTo(Runner.NOT_SET);
+        assertThat(configuration.getTestData()).isEmpty();
+        assertThat(configuration.getApplitoolsConfiguration()).isEmpty();
+    }
+
+    @Test
+    void buildRejectsInvalidValues () {
+        assertThatThrownBy(() -> Configuration.builder().parallel(0).build())
+                .isInstanceOf(InvalidTestDataException.class)
+                .hasMessage("Invalid value: '0' for: 'PARALLEL'. Should be >= 1");
+        assertThatThrownBy(() -> Configuration.builder().shardTotal(2).shardIndex(2).build())
+                .isInstanceOf(InvalidTestDataException.class)
+                .hasMessage("Invalid value: '2' for: 'SHARD_INDEX'. Should be between 0 and 1");
+        assertThatThrownBy(() -> Configuration.builder().waitPollingIntervalInMillis(500).waitMaxPollingIntervalInMillis(100).build())
+                .isInstanceOf(InvalidTestDataException.class)
+                .hasMessageContaining("'WAIT_MAX_POLLING_INTERVAL_IN_MILLIS'");
+        assertThatThrownBy(() -> Configuration.builder().waitBackoffMultiplier(0.5).build())
+                .isInstanceOf(InvalidTestDataException.class)
+                .hasMessageContaining("'WAIT_BACKOFF_MULTIPLIER'");
+        assertThatThrownBy(() -> Configuration.builder().platform(null).build())
+                .isInstanceOf(InvalidTestDataException.class)
+                .hasMessage("Platform is not provided");
+    }
+
+    @Test
+    void toBuilderCopiesEveryValueAndLeavesTheOriginalUnchanged () {
+        Map<String, Object> testData = new HashMap<>();
+        testData.put("user", "buyer");
+        Configuration original = Configuration.builder()
+                .platform(Platform.web)
+                .parallel(4)
+                .appName("MyApp")
+                .testData(testData)
+                .build();
+
+        Configuration copy = original.toBuilder().build();
+        Configuration updated = original.toBuilder().parallel(2).build();
+
+        assertThat(copy).hasToString(original.toString());
+        assertThat(copy.getTestData()).isEqualTo(testData);
+        assertThat(updated.getParallel()).isEqualTo(2);
+        assertThat(updated.getAppName()).isEqualTo("MyApp");
+        assertThat(original.getParallel()).isEqualTo(4);
+    }
+
+    @Test
+    void mapsAreCopiedAndUnmodifiable () {
+        Map<String, Object> applitoolsConfiguration = new HashMap<>();
+        applitoolsConfiguration.put("appName", "MyApp");
+        Configuration configuration = Configuration.builder().applitoolsConfiguration(applitoolsConfiguration).build();
+
+        applitoolsConfiguration.put("apiKey", "changed after build");
+
+        assertThat(configuration.getApplitoolsConfiguration()).containsOnlyKeys("appName");
+        assertThatThrownBy(() -> configuration.getApplitoolsConfiguration().put("apiKey", "key"))
+                .isInstanceOf(UnsupportedOperationException.class);
+    }
+}
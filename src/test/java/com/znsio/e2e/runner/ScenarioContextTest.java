@@ -0,0 +1,42 @@
+package com.znsio.e2e.runner;
+
+import com.context.TestExecutionContext;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ScenarioContextTest {
+    @Test
+    void contextIsPropagatedToAsyncTasksAndRestoredAfterwards () throws Exception {
+        TestExecutionContext scenarioContext = new TestExecutionContext("propagated scenario");
+        TestExecutionContext contextBefore = ScenarioContext.current();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            ScenarioContext.callWith(scenarioContext, () -> {
+                assertThat(ScenarioContext.current()).isSameAs(scenarioContext);
+                assertThat(ScenarioContext.supplyAsync(ScenarioContext::current).get(10, TimeUnit.SECONDS)).isSameAs(scenarioContext);
+                assertThat(ScenarioContext.propagating(executor).submit(ScenarioContext::current).get(10, TimeUnit.SECONDS)).isSameAs(scenarioContext);
+                return null;
+            });
+
+            assertThat(ScenarioContext.current()).isSameAs(contextBefore);
+            assertThat(executor.submit(ScenarioContext::current).get(10, TimeUnit.SECONDS)).isNotSameAs(scenarioContext);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void asyncExecutorRunsTasksWithOrWithoutVirtualThreadSupport () throws Exception {
+        ExecutorService executor = ScenarioContext.createAsyncExecutor(true);
+        try {
+            assertThat(executor.submit(() -> "done").get(10, TimeUnit.SECONDS)).isEqualTo("done");
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
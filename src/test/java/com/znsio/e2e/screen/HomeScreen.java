@@ -25,7 +25,7 @@ public abstract class HomeScreen {
             case android:
                 return new HomeScreenAndroid(driver, visually);
         }
-        throw new NotImplementedException(screenName + " is not implemented in " + Runner.platform);
+        throw new NotImplementedException(screenName + " is not implemented in " + Runner.getPlatform());
     }
 
     public abstract LoginScreen selectLoginTest ();
@@ -25,7 +25,7 @@ public abstract class LoginScreen {
             case android:
                 return new LoginScreenAndroid(driver, visually);
         }
-        throw new NotImplementedException(screenName + " is not implemented in " + Runner.platform);
+        throw new NotImplementedException(screenName + " is not implemented in " + Runner.getPlatform());
     }
 
     public abstract LoginScreen enterLoginDetails (String username, String password);
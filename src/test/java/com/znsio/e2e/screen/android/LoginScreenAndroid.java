@@ -3,10 +3,10 @@ package com.znsio.e2e.screen.android;
 import com.znsio.e2e.screen.LoginScreen;
 import com.znsio.e2e.tools.Driver;
 import com.znsio.e2e.tools.Visual;
+import io.appium.java_client.MobileBy;
 import org.openqa.selenium.By;
 import org.openqa.selenium.WebElement;
-
-import static com.znsio.e2e.tools.Wait.waitFor;
+import org.openqa.selenium.support.ui.ExpectedConditions;
 
 public class LoginScreenAndroid extends LoginScreen {
     private final Driver driver;
@@ -26,7 +26,7 @@ public class LoginScreenAndroid extends LoginScreen {
 
     @Override
     public LoginScreen enterLoginDetails (String username, String password) {
-        waitFor(2);
+        driver.waitForVisibilityOf(screenName, MobileBy.AccessibilityId(userNameId));
         driver.findElementByAccessibilityId(userNameId).sendKeys(username);
         driver.findElementByAccessibilityId(passwordId).sendKeys(password);
         driver.waitForVisibilityOf(passwordId).sendKeys(username);
@@ -38,13 +38,12 @@ public class LoginScreenAndroid extends LoginScreen {
     @Override
     public LoginScreen login () {
         driver.findElement(loginButtonXpath).click();
-        waitFor(2);
         return this;
     }
 
     @Override
     public String getInvalidLoginError () {
-        WebElement alertText = driver.waitForVisibilityOf(errorMessageId);
+        WebElement alertText = driver.waitForVisibilityOf(screenName, errorMessageId);
         visually.takeScreenshot(screenName, "Invalid Login alert");
         visually.checkWindow(screenName, "Invalid Login alert");
         return alertText.getText();
@@ -52,8 +51,8 @@ public class LoginScreenAndroid extends LoginScreen {
 
     @Override
     public LoginScreen dismissAlert () {
-        driver.waitForVisibilityOf(dismissAlertId).click();
-        waitFor(2);
+        driver.waitForVisibilityOf(screenName, dismissAlertId).click();
+        driver.waitUntil(screenName, ExpectedConditions.invisibilityOfElementLocated(errorMessageId));
         visually.takeScreenshot(screenName, "Invalid Login alert dismissed");
         return this;
     }
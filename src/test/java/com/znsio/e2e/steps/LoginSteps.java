@@ -9,6 +9,8 @@ import com.znsio.e2e.tools.Drivers;
 import io.cucumber.java.en.When;
 import org.apache.log4j.Logger;
 
+import java.util.Collections;
+
 public class LoginSteps {
     private final TestExecutionContext context;
     private final Drivers allDrivers;
@@ -24,9 +26,9 @@ public class LoginSteps {
 
     @When("I login with invalid credentials - {string}, {string}")
     public void iLoginWithInvalidCredentials (String userPersona, String password) {
-        LOGGER.info("iLoginWithInvalidCredentials - " + Runner.platform);
-        allDrivers.createDriverFor(SAMPLE_TEST_CONTEXT.ME, Runner.platform, context);
+        LOGGER.info("iLoginWithInvalidCredentials - " + Runner.getPlatform());
+        allDrivers.createDriversFor(Collections.singletonMap(SAMPLE_TEST_CONTEXT.ME, Runner.getPlatform()), context);
         context.addTestState(SAMPLE_TEST_CONTEXT.ME, userPersona);
-        new AppBL(SAMPLE_TEST_CONTEXT.ME, Runner.platform).provideValidDetailsForSignup(userPersona, password);
+        new AppBL(SAMPLE_TEST_CONTEXT.ME, Runner.getPlatform()).provideValidDetailsForSignup(userPersona, password);
     }
 }
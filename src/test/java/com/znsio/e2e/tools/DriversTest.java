@@ -0,0 +1,81 @@
+package com.znsio.e2e.tools;
+
+import com.context.TestExecutionContext;
+import com.znsio.e2e.entities.Platform;
+import com.znsio.e2e.exceptions.EnvironmentSetupException;
+import com.znsio.e2e.exceptions.InvalidTestDataException;
+import com.znsio.e2e.runner.ScenarioContext;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DriversTest {
+    private final List<String> createdFor = new CopyOnWriteArrayList<>();
+    private final List<String> closedFor = new CopyOnWriteArrayList<>();
+
+    @Test
+    void driversCreatedForOtherUserPersonasAreClosedAndReleasedIfOneFails () throws Exception {
+        Drivers drivers = new Drivers((userPersona, forPlatform, context) -> {
+            createdFor.add(userPersona);
+            if (userPersona.equals("seller")) {
+                throw new EnvironmentSetupException("Unable to create driver for: " + userPersona);
+            }
+            return null;
+        }, (userPersona, driver, attachLog) -> closedFor.add(userPersona));
+        Map<String, Platform> userPersonas = new LinkedHashMap<>();
+        userPersonas.put("buyer", Platform.android);
+        userPersonas.put("seller", Platform.web);
+        userPersonas.put("admin", Platform.web);
+
+        ScenarioContext.callWith(new TestExecutionContext("multi-persona scenario"), () -> {
+            TestExecutionContext context = ScenarioContext.current();
+            assertThatThrownBy(() -> drivers.createDriversFor(userPersonas, context))
+                    .isInstanceOf(EnvironmentSetupException.class)
+                    .hasMessage("Unable to create driver for: seller");
+            return null;
+        });
+
+        assertThat(createdFor).containsExactlyInAnyOrder("buyer", "seller", "admin");
+        assertThat(closedFor).containsExactlyInAnyOrder("buyer", "admin");
+        assertThat(drivers.getNumberOfDriversUsedOn(Platform.android)).isZero();
+        assertThat(drivers.getNumberOfDriversUsedOn(Platform.web)).isZero();
+        assertThatThrownBy(() -> drivers.getDriverForUser("buyer")).isInstanceOf(InvalidTestDataException.class);
+    }
+
+    @Test
+    void driverIsNotCreatedBeyondTheMaxNumberOfDriversOnAPlatform () throws Exception {
+        Drivers drivers = new Drivers((userPersona, forPlatform, context) -> {
+            createdFor.add(userPersona);
+            return null;
+        }, (userPersona, driver, attachLog) -> closedFor.add(userPersona));
+        Map<String, Platform> userPersonas = new LinkedHashMap<>();
+        userPersonas.put("buyer", Platform.android);
+        userPersonas.put("seller", Platform.android);
+
+        ScenarioContext.callWith(new TestExecutionContext("too many devices"), () -> {
+            TestExecutionContext context = ScenarioContext.current();
+            assertThatThrownBy(() -> drivers.createDriversFor(userPersonas, context))
+                    .isInstanceOf(InvalidTestDataException.class)
+                    .hasMessageContaining("Unable to create more than '1' drivers");
+            return null;
+        });
+
+        assertThat(createdFor).hasSize(1);
+        assertThat(closedFor).isEqualTo(createdFor);
+        assertThat(drivers.getNumberOfDriversUsedOn(Platform.android)).isZero();
+    }
+
+    @Test
+    void hasNoDriverForUserPersonaWithoutACreatedDriver () {
+        Drivers drivers = new Drivers((userPersona, forPlatform, context) -> null, (userPersona, driver, attachLog) -> closedFor.add(userPersona));
+
+        assertThat(drivers.hasDriverFor("buyer")).isFalse();
+        assertThat(drivers.hasDriverFor(null)).isFalse();
+    }
+}
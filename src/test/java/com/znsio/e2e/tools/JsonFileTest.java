@@ -0,0 +1,95 @@
+package com.znsio.e2e.tools;
+
+import com.znsio.e2e.exceptions.InvalidTestDataException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JsonFileTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void nestedNodeIsFoundAndMissingLeafIsNull () throws IOException {
+        String fileName = writeJson("config.json", "{\"other\":[1,2,{\"x\":1}],\"prod\":{\"android\":{\"url\":\"https://prod\"},\"web\":{}}}");
+
+        assertThat(JsonFile.getNodeValueAsStringFromJsonFile(fileName, new String[]{"prod", "android", "url"})).isEqualTo("https://prod");
+        assertThat(JsonFile.getNodeValueAsStringFromJsonFile(fileName, new String[]{"prod", "android", "missing"})).isEqualTo("null");
+        assertThat(JsonFile.getNodeValueAsMapFromJsonFile("prod", fileName)).containsOnlyKeys("android", "web");
+    }
+
+    @Test
+    void missingIntermediateNodeIsReported () throws IOException {
+        String fileName = writeJson("config.json", "{\"prod\":{\"android\":{\"url\":\"https://prod\"}}}");
+
+        assertThatThrownBy(() -> JsonFile.getNodeValueAsStringFromJsonFile(fileName, new String[]{"prod", "ios", "url"}))
+                .isInstanceOf(InvalidTestDataException.class)
+                .hasMessage(String.format("Node: 'prod -> ios -> ' not found in file: '%s'", fileName));
+        assertThatThrownBy(() -> JsonFile.getNodeValueAsStringFromJsonFile(fileName, new String[]{"prod", "android", "url", "host"}))
+                .isInstanceOf(InvalidTestDataException.class)
+                .hasMessageContaining("not found in file");
+        assertThatThrownBy(() -> JsonFile.getNodeValueAsMapFromJsonFile("staging", fileName))
+                .isInstanceOf(InvalidTestDataException.class)
+                .hasMessage(String.format("Node: 'staging' not found in file: '%s'", fileName));
+    }
+
+    @Test
+    void cachedNodeIsReloadedWhenTheFileSizeChanges () throws IOException {
+        String fileName = writeJson("config.json", "{\"prod\":{\"url\":\"https://v1\"}}");
+        assertThat(JsonFile.getNodeValueAsStringFromJsonFile(fileName, new String[]{"prod", "url"})).isEqualTo("https://v1");
+        FileTime lastModifiedTime = Files.getLastModifiedTime(Path.of(fileName));
+
+        writeJson("config.json", "{\"prod\":{\"url\":\"https://version-2\"}}");
+        Files.setLastModifiedTime(Path.of(fileName), lastModifiedTime);
+
+        assertThat(JsonFile.getNodeValueAsStringFromJsonFile(fileName, new String[]{"prod", "url"})).isEqualTo("https://version-2");
+    }
+
+    @Test
+    void cachedNodeIsReloadedWhenTheFileIsModified () throws IOException {
+        String fileName = writeJson("config.json", "{\"prod\":{\"url\":\"https://v1\"}}");
+        Files.setLastModifiedTime(Path.of(fileName), FileTime.from(Instant.parse("2021-01-01T00:00:00Z")));
+        assertThat(JsonFile.loadJsonFile(fileName)).containsKey("prod");
+        assertThat(JsonFile.getNodeValueAsStringFromJsonFile(fileName, new String[]{"prod", "url"})).isEqualTo("https://v1");
+
+        writeJson("config.json", "{\"prod\":{\"url\":\"https://v2\"}}");
+        Files.setLastModifiedTime(Path.of(fileName), FileTime.from(Instant.parse("2021-01-02T00:00:00Z")));
+
+        assertThat(JsonFile.getNodeValueAsStringFromJsonFile(fileName, new String[]{"prod", "url"})).isEqualTo("https://v2");
+        assertThat(((Map<?, ?>) JsonFile.loadJsonFile(fileName).get("prod")).get("url")).isEqualTo("https://v2");
+    }
+
+    @Test
+    void loadedMapsAreCopiesOfTheCachedNodes () throws IOException {
+        String fileName = writeJson("config.json", "{\"prod\":{\"android\":{\"url\":\"https://prod\"}}}");
+
+        JsonFile.getNodeValueAsMapFromJsonFile("prod", fileName).get("android").put("url", "changed by caller");
+
+        assertThat(JsonFile.getNodeValueAsMapFromJsonFile("prod", fileName).get("android").get("url")).isEqualTo("https://prod");
+    }
+
+    @Test
+    void numberOfCachedNodesIsBounded () throws IOException {
+        for (int fileNumber = 0; fileNumber <= JsonFile.MAX_CACHED_NODES; fileNumber++) {
+            String fileName = writeJson("config-" + fileNumber + ".json", "{\"prod\":{\"url\":\"https://prod\"}}");
+            JsonFile.getNodeValueAsMapFromJsonFile("prod", fileName);
+        }
+
+        assertThat(JsonFile.getNodeValueAsMapFromJsonFile("prod", writeJson("config.json", "{\"prod\":{}}"))).isEmpty();
+        assertThat(JsonFile.getNumberOfCachedNodes()).isLessThanOrEqualTo(JsonFile.MAX_CACHED_NODES);
+    }
+
+    private String writeJson (String fileName, String json) throws IOException {
+        return Files.write(tempDir.resolve(fileName), json.getBytes(StandardCharsets.UTF_8)).toString();
+    }
+}
@@ -0,0 +1,62 @@
+package com.znsio.e2e.tools;
+
+import com.znsio.e2e.exceptions.InvalidTestDataException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RandomizerTest {
+    @AfterEach
+    void resetWorkerId () {
+        Randomizer.clearWorkerId();
+    }
+
+    @Test
+    void valuesIncludeTheWorkerId () {
+        Randomizer.setWorkerId(42);
+
+        assertThat(Randomizer.randomize("9876543210")).hasSize(10).startsWith("8042");
+        assertThat(Randomizer.randomize("user@example.com")).startsWith("e2e_" + Integer.toString(42, Character.MAX_RADIX) + "_");
+    }
+
+    @Test
+    void valuesWithoutAWorkerIdAreCompletelyRandom () {
+        Set<String> workerIdDigits = new HashSet<>();
+        for (int count = 0; count < 1000; count++) {
+            String numericValue = Randomizer.randomize("9876543210");
+            assertThat(numericValue).hasSize(10).startsWith("80").containsOnlyDigits();
+            workerIdDigits.add(numericValue.substring(2, 4));
+        }
+
+        assertThat(workerIdDigits).hasSizeGreaterThan(1);
+        assertThat(Randomizer.randomize("user@example.com")).matches("e2e_[a-z0-9]{10}@getnada.com");
+    }
+
+    @Test
+    void valuesOfDifferentWorkersDoNotCollide () {
+        Set<String> numericValues = new HashSet<>();
+        Set<String> alphanumericValues = new HashSet<>();
+        for (int workerId = 0; workerId < Randomizer.MAX_NUMBER_OF_WORKERS; workerId++) {
+            Randomizer.setWorkerId(workerId);
+            for (int count = 0; count < 100; count++) {
+                numericValues.add(Randomizer.uniqueNumeric());
+                alphanumericValues.add(Randomizer.uniqueAlphanumeric());
+            }
+        }
+
+        assertThat(numericValues).hasSize(Randomizer.MAX_NUMBER_OF_WORKERS * 100);
+        assertThat(alphanumericValues).hasSize(Randomizer.MAX_NUMBER_OF_WORKERS * 100);
+    }
+
+    @Test
+    void workerIdOutOfRangeIsRejected () {
+        assertThatThrownBy(() -> Randomizer.setWorkerId(Randomizer.MAX_NUMBER_OF_WORKERS))
+                .isInstanceOf(InvalidTestDataException.class)
+                .hasMessage("Invalid worker id: '100' for Randomizer. Should be between 0 and 99");
+    }
+}
@@ -0,0 +1,71 @@
+package com.znsio.e2e.tools;
+
+import com.znsio.e2e.exceptions.EnvironmentSetupException;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ScenarioTeardownTest {
+    @Test
+    void userPersonasAreTornDownConcurrentlyAndLogsAreAttachedInOrder () {
+        CountDownLatch allStarted = new CountDownLatch(2);
+        ScenarioTeardown scenarioTeardown = new ScenarioTeardown();
+        scenarioTeardown.add("me", attachLog -> {
+            awaitOthers(allStarted);
+            sleep(100);
+            attachLog.accept("closed me", new File("me.log"));
+        });
+        scenarioTeardown.add("you", attachLog -> {
+            awaitOthers(allStarted);
+            attachLog.accept("closed you", null);
+        });
+
+        List<String> attachedLogs = new ArrayList<>();
+        scenarioTeardown.await(Duration.ofSeconds(10), (message, logFile) -> attachedLogs.add(message));
+
+        assertThat(attachedLogs).containsExactly("closed me", "closed you");
+    }
+
+    @Test
+    void failuresAndTimeoutsAreReportedInOrderAfterAllUserPersonasAreTornDown () {
+        List<String> attachedLogs = new ArrayList<>();
+        ScenarioTeardown scenarioTeardown = new ScenarioTeardown();
+        scenarioTeardown.add("me", attachLog -> sleep(5000));
+        scenarioTeardown.add("you", attachLog -> {
+            throw new IllegalStateException("browser crashed");
+        });
+        scenarioTeardown.add("them", attachLog -> attachLog.accept("closed them", null));
+
+        assertThatThrownBy(() -> scenarioTeardown.await(Duration.ofMillis(200), (message, logFile) -> attachedLogs.add(message)))
+                .isInstanceOf(EnvironmentSetupException.class)
+                .hasMessage("Teardown failed for user personas: [me, you]")
+                .hasCauseInstanceOf(EnvironmentSetupException.class)
+                .satisfies(e -> assertThat(e.getSuppressed()).hasSize(1).allMatch(IllegalStateException.class::isInstance));
+        assertThat(attachedLogs).containsExactly("closed them");
+    }
+
+    private static void awaitOthers (CountDownLatch allStarted) {
+        allStarted.countDown();
+        try {
+            assertThat(allStarted.await(10, TimeUnit.SECONDS)).isTrue();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void sleep (long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.znsio.e2e.tools;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ScreenShotStoreTest {
+    @TempDir
+    Path screenShotDirectory;
+
+    @Test
+    void pngAtFullScaleIsStoredAsCaptured () throws IOException {
+        ScreenShotStore screenShotStore = new ScreenShotStore("png", 80, 100, 0);
+        byte[] screenshot = createScreenShot(200, 100, 1);
+        File destinationFile = screenShotDirectory.resolve("1-home.png").toFile();
+
+        ScreenShotStore.EncodedScreenShot encodedScreenShot = screenShotStore.save(screenshot, ScreenShotStore.getContentHash(screenshot), destinationFile);
+
+        assertThat(encodedScreenShot.getBytes()).isEqualTo(screenshot);
+        assertThat(encodedScreenShot.getMediaType()).isEqualTo("image/png");
+        assertThat(Files.readAllBytes(destinationFile.toPath())).isEqualTo(screenshot);
+    }
+
+    @Test
+    void screenShotIsEncodedAndScaled () throws IOException {
+        ScreenShotStore screenShotStore = new ScreenShotStore("jpg", 50, 50, 0);
+        byte[] screenshot = createScreenShot(200, 100, 1);
+        File destinationFile = screenShotDirectory.resolve("1-home.jpg").toFile();
+
+        ScreenShotStore.EncodedScreenShot encodedScreenShot = screenShotStore.save(screenshot, ScreenShotStore.getContentHash(screenshot), destinationFile);
+
+        assertThat(encodedScreenShot.getMediaType()).isEqualTo("image/jpeg");
+        assertThat(Files.readAllBytes(destinationFile.toPath())).isEqualTo(encodedScreenShot.getBytes());
+        BufferedImage storedImage = ImageIO.read(new ByteArrayInputStream(encodedScreenShot.getBytes()));
+        assertThat(storedImage.getWidth()).isEqualTo(100);
+        assertThat(storedImage.getHeight()).isEqualTo(50);
+    }
+
+    @Test
+    void webpFallsBackToJpgWithoutAWebpWriter () {
+        ScreenShotStore screenShotStore = new ScreenShotStore("WEBP", 80, 100, 0);
+
+        String expectedExtension = ImageIO.getImageWritersByFormatName("webp").hasNext() ? "webp" : "jpg";
+        assertThat(screenShotStore.getFileExtension()).isEqualTo(expectedExtension);
+    }
+
+    @Test
+    void duplicateIsLinkedToTheFirstCopyAndCountedOnce () throws IOException {
+        ScreenShotStore screenShotStore = new ScreenShotStore("png", 80, 100, 0);
+        byte[] screenshot = createScreenShot(200, 100, 1);
+        String contentHash = ScreenShotStore.getContentHash(screenshot);
+        Path firstCopy = screenShotDirectory.resolve("scenario-1").resolve("1-home.png");
+        Path duplicate = screenShotDirectory.resolve("scenario-2").resolve("1-home.png");
+
+        screenShotStore.save(screenshot, contentHash, firstCopy.toFile());
+        ScreenShotStore.EncodedScreenShot encodedDuplicate = screenShotStore.save(screenshot, contentHash, duplicate.toFile());
+
+        assertThat(Files.isSameFile(firstCopy, duplicate)).isTrue();
+        assertThat(encodedDuplicate.getBytes()).isEqualTo(screenshot);
+        assertThat(screenShotStore.getBytesStored()).isEqualTo(screenshot.length);
+    }
+
+    @Test
+    void screenShotsAreNotStoredOnceTheByteBudgetIsExhausted () throws IOException {
+        byte[] firstScreenShot = createScreenShot(200, 100, 1);
+        byte[] secondScreenShot = createScreenShot(200, 100, 2);
+        ScreenShotStore screenShotStore = new ScreenShotStore("png", 80, 100, firstScreenShot.length + secondScreenShot.length - 1);
+        File firstFile = screenShotDirectory.resolve("1-home.png").toFile();
+        File secondFile = screenShotDirectory.resolve("2-home.png").toFile();
+
+        screenShotStore.save(firstScreenShot, ScreenShotStore.getContentHash(firstScreenShot), firstFile);
+        ScreenShotStore.EncodedScreenShot notStored = screenShotStore.save(secondScreenShot, ScreenShotStore.getContentHash(secondScreenShot), secondFile);
+
+        assertThat(firstFile).exists();
+        assertThat(secondFile).doesNotExist();
+        assertThat(notStored.getBytes()).isEqualTo(secondScreenShot);
+        assertThat(screenShotStore.getBytesStored()).isEqualTo(firstScreenShot.length);
+    }
+
+    private static byte[] createScreenShot (int width, int height, long seed) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Random random = new Random(seed);
+        Graphics2D graphics = image.createGraphics();
+        try {
+            for (int x = 0; x < width; x += 10) {
+                graphics.setColor(new Color(random.nextInt(0xFFFFFF)));
+                graphics.fillRect(x, 0, 10, height);
+            }
+        } finally {
+            graphics.dispose();
+        }
+        ByteArrayOutputStream screenshot = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", screenshot);
+        return screenshot.toByteArray();
+    }
+}
@@ -0,0 +1,203 @@
+package com.znsio.e2e.tools;
+
+import com.znsio.e2e.exceptions.EnvironmentSetupException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class WebDriverPoolTest {
+    @TempDir
+    Path logDirectory;
+    private final List<FakeBrowser> launchedBrowsers = new ArrayList<>();
+
+    @Test
+    void returnedBrowserIsLeasedAgainUntilItReachesMaxUses () {
+        WebDriverPool pool = createPool(1, 2);
+
+        WebDriver firstLease = pool.lease(Duration.ofSeconds(1));
+        assertThat(pool.isLeased(firstLease)).isTrue();
+        pool.release(firstLease);
+        WebDriver secondLease = pool.lease(Duration.ofSeconds(1));
+        pool.release(secondLease);
+        WebDriver thirdLease = pool.lease(Duration.ofSeconds(1));
+
+        assertThat(secondLease).isSameAs(firstLease);
+        assertThat(thirdLease).isNotSameAs(firstLease);
+        assertThat(launchedBrowsers).hasSize(2);
+        assertThat(launchedBrowsers.get(0).isQuit).isTrue();
+    }
+
+    @Test
+    void leaseWaitsForCapacityAndTimesOut () {
+        WebDriverPool pool = createPool(1, 10);
+        pool.lease(Duration.ofSeconds(1));
+
+        assertThatThrownBy(() -> pool.lease(Duration.ofMillis(100)))
+                .isInstanceOf(EnvironmentSetupException.class)
+                .hasMessageContaining("No browser available in WebDriverPool");
+    }
+
+    @Test
+    void unhealthyBrowserIsEvictedOnLease () {
+        WebDriverPool pool = createPool(1, 10);
+        WebDriver webDriver = pool.lease(Duration.ofSeconds(1));
+        pool.release(webDriver);
+        launchedBrowsers.get(0).isCrashed = true;
+
+        WebDriver replacement = pool.lease(Duration.ofSeconds(1));
+
+        assertThat(replacement).isNotSameAs(webDriver);
+        assertThat(launchedBrowsers.get(0).isQuit).isTrue();
+    }
+
+    @Test
+    void returnedBrowserIsResetForEveryOriginOpenInItsWindows () {
+        WebDriverPool pool = createPool(1, 10);
+        WebDriver webDriver = pool.lease(Duration.ofSeconds(1));
+        FakeBrowser browser = launchedBrowsers.get(0);
+        browser.navigateTo("https://app.example.com/home");
+        browser.openWindow("https://sso.example.com:8443/login?next=home");
+
+        pool.release(webDriver);
+
+        assertThat(browser.windows).hasSize(1);
+        assertThat(browser.clearedOrigins).containsExactlyInAnyOrder("https://app.example.com", "https://sso.example.com:8443");
+        assertThat(browser.clearedStorageOrigins).containsExactlyInAnyOrder("https://app.example.com", "https://sso.example.com:8443");
+        assertThat(browser.getCurrentUrl()).isEqualTo("about:blank");
+        assertThat(pool.isLeased(webDriver)).isFalse();
+    }
+
+    @Test
+    void logOfLeaseHasOnlyTheLogsWrittenSinceTheBrowserWasLeased () throws IOException {
+        WebDriverPool pool = createPool(1, 10);
+        WebDriver webDriver = pool.lease(Duration.ofSeconds(1));
+        Path pooledLogFile = launchedBrowsers.get(0).logFile;
+        Files.write(pooledLogFile, "scenario 1\n".getBytes(StandardCharsets.UTF_8), StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        pool.release(webDriver);
+
+        webDriver = pool.lease(Duration.ofSeconds(1));
+        Files.write(pooledLogFile, "scenario 2\n".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+        Path scenarioLogFile = logDirectory.resolve("chrome-me.log");
+        pool.saveLogOfLease(webDriver, scenarioLogFile.toString());
+
+        assertThat(new String(Files.readAllBytes(scenarioLogFile), StandardCharsets.UTF_8)).isEqualTo("scenario 2\n");
+    }
+
+    @Test
+    void shutdownQuitsIdleAndLeasedBrowsers () {
+        WebDriverPool pool = createPool(2, 10);
+        WebDriver idle = pool.lease(Duration.ofSeconds(1));
+        pool.lease(Duration.ofSeconds(1));
+        pool.release(idle);
+
+        pool.shutdown();
+
+        assertThat(launchedBrowsers).hasSize(2).allMatch(browser -> browser.isQuit);
+        assertThatThrownBy(() -> pool.lease(Duration.ofSeconds(1)))
+                .isInstanceOf(EnvironmentSetupException.class)
+                .hasMessage("WebDriverPool is already shutdown");
+    }
+
+    private WebDriverPool createPool (int maxNumberOfBrowsers, int maxUsesPerBrowser) {
+        return new WebDriverPool(maxNumberOfBrowsers, maxUsesPerBrowser, logDirectory.toString(), logFile -> {
+            FakeBrowser browser = new FakeBrowser(Path.of(logFile));
+            launchedBrowsers.add(browser);
+            return browser.webDriver;
+        });
+    }
+
+    private static class FakeBrowser {
+        private final Path logFile;
+        private final Map<String, String> windows = new LinkedHashMap<>();
+        private final Set<String> clearedOrigins = new HashSet<>();
+        private final Set<String> clearedStorageOrigins = new HashSet<>();
+        private final WebDriver webDriver;
+        private String currentWindow = "window-1";
+        private boolean isQuit = false;
+        private boolean isCrashed = false;
+
+        private FakeBrowser (Path logFile) {
+            this.logFile = logFile;
+            windows.put(currentWindow, "about:blank");
+            webDriver = (WebDriver) Proxy.newProxyInstance(getClass().getClassLoader(),
+                    new Class<?>[]{WebDriver.class, JavascriptExecutor.class},
+                    (proxy, method, args) -> {
+                        if (isCrashed && !"quit".equals(method.getName())) {
+                            throw new WebDriverException("browser crashed");
+                        }
+                        switch (method.getName()) {
+                            case "getWindowHandles":
+                                return new LinkedHashSet<>(windows.keySet());
+                            case "getCurrentUrl":
+                                return getCurrentUrl();
+                            case "get":
+                                navigateTo((String) args[0]);
+                                return null;
+                            case "close":
+                                windows.remove(currentWindow);
+                                return null;
+                            case "quit":
+                                isQuit = true;
+                                return null;
+                            case "switchTo":
+                                return proxyOf(WebDriver.TargetLocator.class, (targetLocator, targetMethod, targetArgs) -> {
+                                    currentWindow = (String) targetArgs[0];
+                                    return proxy;
+                                });
+                            case "manage":
+                                return proxyOf(WebDriver.Options.class, (options, optionsMethod, optionsArgs) -> {
+                                    clearedOrigins.add(OriginTrackingCommandExecutor.getOriginOf(getCurrentUrl()));
+                                    return null;
+                                });
+                            case "executeScript":
+                                clearedStorageOrigins.add(OriginTrackingCommandExecutor.getOriginOf(getCurrentUrl()));
+                                return null;
+                            case "hashCode":
+                                return System.identityHashCode(proxy);
+                            case "equals":
+                                return proxy == args[0];
+                            default:
+                                throw new UnsupportedOperationException(method.getName());
+                        }
+                    });
+        }
+
+        private static Object proxyOf (Class<?> type, InvocationHandler handler) {
+            return Proxy.newProxyInstance(FakeBrowser.class.getClassLoader(), new Class<?>[]{type}, handler);
+        }
+
+        private String getCurrentUrl () {
+            return windows.get(currentWindow);
+        }
+
+        private void navigateTo (String url) {
+            windows.put(currentWindow, url);
+        }
+
+        private void openWindow (String url) {
+            currentWindow = "window-" + (windows.size() + 1);
+            windows.put(currentWindow, url);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.znsio.e2e.tools.cmd;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledOnOs;
+import org.junit.jupiter.api.condition.OS;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisabledOnOs(OS.WINDOWS)
+class CommandLineExecutorTest {
+    private static final int NUMBER_OF_LINES = 100_000;
+
+    @Test
+    void outputLargerThanThePipeBufferIsDrainedFromBothStreams () {
+        CommandLine commandLine = new CommandLine(String.format("yes out | head -n %d; yes err | head -n %d 1>&2; exit 3", NUMBER_OF_LINES, NUMBER_OF_LINES))
+                .inShell()
+                .withTimeout(Duration.ofSeconds(30));
+
+        CommandLineResponse response = CommandLineExecutor.execCommand(commandLine);
+
+        assertThat(response.isTimedOut()).isFalse();
+        assertThat(response.getExitCode()).isEqualTo(3);
+        assertThat(response.getStdOut().split(System.lineSeparator())).hasSize(NUMBER_OF_LINES).containsOnly("out");
+        assertThat(response.getErrOut().split(System.lineSeparator())).hasSize(NUMBER_OF_LINES).containsOnly("err");
+    }
+
+    @Test
+    void hangingCommandIsKilledOnTimeout () {
+        CommandLine commandLine = new CommandLine("echo started; sleep 60")
+                .inShell()
+                .withTimeout(Duration.ofMillis(500));
+
+        long startedAt = System.nanoTime();
+        CommandLineResponse response = CommandLineExecutor.execCommand(commandLine);
+
+        assertThat(response.isTimedOut()).isTrue();
+        assertThat(response.getStdOut()).isEqualTo("started");
+        assertThat(Duration.ofNanos(System.nanoTime() - startedAt)).isLessThan(Duration.ofSeconds(30));
+    }
+
+    @Test
+    void outputIsDrainedWhenTheLineConsumerFails () {
+        List<String> consumedLines = new CopyOnWriteArrayList<>();
+        CommandLine commandLine = new CommandLine("printf '1\\n2\\n3\\n'")
+                .inShell()
+                .onOutputLine(line -> {
+                    if ("2".equals(line)) {
+                        throw new IllegalStateException("unable to consume: " + line);
+                    }
+                    consumedLines.add(line);
+                });
+
+        CommandLineResponse response = CommandLineExecutor.execCommand(commandLine);
+
+        assertThat(response.getExitCode()).isZero();
+        assertThat(response.getStdOut().split(System.lineSeparator())).containsExactly("1", "2", "3");
+        assertThat(consumedLines).containsExactly("1", "3");
+    }
+}
@@ -0,0 +1,228 @@
+package com.znsio.e2e.tools.devicelab;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import com.znsio.e2e.exceptions.EnvironmentSetupException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DeviceLabClientTest {
+    private final List<String> uploadedBodies = new CopyOnWriteArrayList<>();
+    private final List<String> uploadedContentLengths = new CopyOnWriteArrayList<>();
+    private final List<String> filesInDeviceLab = new CopyOnWriteArrayList<>(List.of("MyApp-1.apk", "MyApp-2.apk"));
+    private final List<Integer> listingLimits = new CopyOnWriteArrayList<>();
+    private final AtomicInteger failuresBeforeUpload = new AtomicInteger(0);
+    private HttpServer deviceLab;
+    private String deviceLabURL;
+
+    @TempDir
+    Path tempDir;
+
+    @BeforeEach
+    void startDeviceLab () throws IOException {
+        deviceLab = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        deviceLab.createContext("/api/upload_file", exchange -> {
+            String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.ISO_8859_1);
+            uploadedContentLengths.add(exchange.getRequestHeaders().getFirst("Content-Length"));
+            String response;
+            int statusCode = 200;
+            if (failuresBeforeUpload.getAndDecrement() > 0) {
+                statusCode = 503;
+                response = "Service Unavailable";
+            } else {
+                uploadedBodies.add(body);
+                String fileName = body.replaceAll("(?s).*filename=\"([^\"]+)\".*", "$1");
+                filesInDeviceLab.add(0, fileName);
+                response = "{\"result\":{\"code\":200,\"file\":\"" + fileName + "\"}}";
+            }
+            respond(exchange, statusCode, response);
+        });
+        deviceLab.createContext("/api/access", exchange -> {
+            String authorization = exchange.getRequestHeaders().getFirst("Authorization");
+            String expectedAuthorization = "Basic " + Base64.getEncoder().encodeToString("user@example.com:key-1".getBytes(StandardCharsets.UTF_8));
+            respond(exchange, 200, expectedAuthorization.equals(authorization)
+                    ? "{\"result\":{\"token\":\"token-1\"}}"
+                    : "{\"result\":{\"error\":\"invalid credentials\"}}");
+        });
+        deviceLab.createContext("/api/drive", exchange -> {
+            String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+            // newest files first, as many as asked for
+            int limit = Integer.parseInt(body.replaceAll("(?s).*\"limit\":(\\d+).*", "$1"));
+            listingLimits.add(limit);
+            String files = filesInDeviceLab.stream()
+                    .limit(limit)
+                    .map(fileName -> "{\"file\":\"" + fileName + "\"}")
+                    .collect(Collectors.joining(","));
+            respond(exchange, 200, body.contains("\"token\":\"token-1\"")
+                    ? "{\"result\":{\"code\":200,\"files\":[" + files + "]}}"
+                    : "{\"result\":{\"code\":401}}");
+        });
+        deviceLab.start();
+        deviceLabURL = "http://localhost:" + deviceLab.getAddress().getPort();
+    }
+
+    @AfterEach
+    void stopDeviceLab () {
+        deviceLab.stop(0);
+    }
+
+    @Test
+    void uploadsAppWithContentAddressedFileName () throws IOException {
+        Path app = createApp("MyApp.apk", "apk-content-v1");
+        String contentHash = AppUploadCache.getContentHash(app);
+        String uploadFileName = AppUploadCache.getContentAddressedFileName(app, contentHash);
+
+        String uploadedFileName = DeviceLabClient.await(new DeviceLabClient(deviceLabURL, Duration.ZERO).uploadApp(app, uploadFileName, contentHash, "token-1"));
+
+        assertThat(uploadFileName).isEqualTo("MyApp-" + contentHash.substring(0, 12) + ".apk");
+        assertThat(uploadedFileName).isEqualTo(uploadFileName);
+        assertThat(uploadedBodies).hasSize(1);
+        assertThat(uploadedBodies.get(0))
+                .contains("apk-content-v1")
+                .contains("name=\"token\"\r\n\r\ntoken-1")
+                .contains("name=\"source_type\"\r\n\r\nraw");
+        assertThat(uploadedContentLengths.get(0))
+                .as("upload should be streamed with a known content length")
+                .isEqualTo(String.valueOf(uploadedBodies.get(0).length()));
+    }
+
+    @Test
+    void retriesUploadWhenDeviceLabIsUnavailable () throws IOException {
+        Path app = createApp("MyApp.apk", "apk-content-v1");
+        String contentHash = AppUploadCache.getContentHash(app);
+        failuresBeforeUpload.set(2);
+
+        String uploadedFileName = DeviceLabClient.await(new DeviceLabClient(deviceLabURL, Duration.ZERO).uploadApp(app, "MyApp.apk", contentHash, "token-1"));
+
+        assertThat(uploadedFileName).isEqualTo("MyApp.apk");
+        assertThat(uploadedContentLengths).hasSize(3);
+        assertThat(uploadedBodies).hasSize(1);
+    }
+
+    @Test
+    void failsUploadWhenAppDoesNotMatchContentHash () throws IOException {
+        Path app = createApp("MyApp.apk", "apk-content-v1");
+        String staleContentHash = AppUploadCache.getContentHash(createApp("Older.apk", "apk-content-v0"));
+
+        assertThatThrownBy(() -> DeviceLabClient.await(new DeviceLabClient(deviceLabURL, Duration.ZERO).uploadApp(app, "MyApp.apk", staleContentHash, "token-1")))
+                .isInstanceOf(EnvironmentSetupException.class)
+                .hasMessageContaining("changed during upload");
+    }
+
+    @Test
+    void rebuiltAppWithSameNameIsNotFoundInUploadCache () throws IOException {
+        String cacheFile = tempDir.resolve("cache/deviceLabUploadCache.json").toString();
+        Path app = createApp("MyApp.apk", "apk-content-v1");
+        String contentHash = AppUploadCache.getContentHash(app);
+        new AppUploadCache(cacheFile).addUploadedFile(deviceLabURL, contentHash, "MyApp-uploaded.apk");
+
+        Path rebuiltApp = createApp("MyApp.apk", "apk-content-v2");
+        AppUploadCache reloadedCache = new AppUploadCache(cacheFile);
+
+        assertThat(reloadedCache.getUploadedFileName(deviceLabURL, contentHash)).isEqualTo("MyApp-uploaded.apk");
+        assertThat(reloadedCache.getUploadedFileName(deviceLabURL, AppUploadCache.getContentHash(rebuiltApp))).isNull();
+        assertThat(reloadedCache.getUploadedFileName("https://another.device.lab", contentHash)).isNull();
+    }
+
+    @Test
+    void cachedUploadIsUsedWhileItIsAvailableInDeviceLab () throws IOException {
+        AppUploadCache appUploadCache = new AppUploadCache(tempDir.resolve("deviceLabUploadCache.json").toString());
+        Path app = createApp("MyApp.apk", "apk-content-v1");
+        String contentHash = AppUploadCache.getContentHash(app);
+        appUploadCache.addUploadedFile(deviceLabURL, contentHash, "MyApp-1.apk");
+        DeviceLabClient deviceLabClient = new DeviceLabClient(deviceLabURL, Duration.ZERO);
+
+        String uploadedFileName = deviceLabClient.uploadAppIfNotAvailable(app, contentHash, appUploadCache, deviceLabClient.getAuthToken("user@example.com", "key-1"));
+
+        assertThat(uploadedFileName).isEqualTo("MyApp-1.apk");
+        assertThat(uploadedBodies).isEmpty();
+    }
+
+    @Test
+    void cachedUploadNoLongerInDeviceLabIsEvictedAndUploadedAgain () throws IOException {
+        String cacheFile = tempDir.resolve("deviceLabUploadCache.json").toString();
+        Path app = createApp("MyApp.apk", "apk-content-v1");
+        String contentHash = AppUploadCache.getContentHash(app);
+        new AppUploadCache(cacheFile).addUploadedFile(deviceLabURL, contentHash, "MyApp-deleted.apk");
+        DeviceLabClient deviceLabClient = new DeviceLabClient(deviceLabURL, Duration.ZERO);
+
+        String uploadedFileName = deviceLabClient.uploadAppIfNotAvailable(app, contentHash, new AppUploadCache(cacheFile), deviceLabClient.getAuthToken("user@example.com", "key-1"));
+
+        assertThat(uploadedFileName).isEqualTo(AppUploadCache.getContentAddressedFileName(app, contentHash));
+        assertThat(uploadedBodies).hasSize(1);
+        assertThat(new AppUploadCache(cacheFile).getUploadedFileName(deviceLabURL, contentHash)).isEqualTo(uploadedFileName);
+    }
+
+    @Test
+    void cachedUploadOlderThanTheNewestFilesIsFoundAndNotUploadedAgain () throws IOException {
+        AppUploadCache appUploadCache = new AppUploadCache(tempDir.resolve("deviceLabUploadCache.json").toString());
+        Path app = createApp("MyApp.apk", "apk-content-v1");
+        String contentHash = AppUploadCache.getContentHash(app);
+        appUploadCache.addUploadedFile(deviceLabURL, contentHash, "MyApp-2.apk");
+        for (int fileNumber = 3; fileNumber <= 40; fileNumber++) {
+            filesInDeviceLab.add(0, "Other-" + fileNumber + ".apk");
+        }
+        DeviceLabClient deviceLabClient = new DeviceLabClient(deviceLabURL, Duration.ZERO);
+
+        String uploadedFileName = deviceLabClient.uploadAppIfNotAvailable(app, contentHash, appUploadCache, deviceLabClient.getAuthToken("user@example.com", "key-1"));
+
+        assertThat(uploadedFileName).isEqualTo("MyApp-2.apk");
+        assertThat(uploadedBodies).isEmpty();
+        assertThat(listingLimits).containsExactly(15, 60);
+        assertThat(appUploadCache.getUploadedFileName(deviceLabURL, contentHash)).isEqualTo("MyApp-2.apk");
+    }
+
+    @Test
+    void evictedUploadIsRemovedFromCacheFile () throws IOException {
+        String cacheFile = tempDir.resolve("deviceLabUploadCache.json").toString();
+        String contentHash = AppUploadCache.getContentHash(createApp("MyApp.apk", "apk-content-v1"));
+        new AppUploadCache(cacheFile).addUploadedFile(deviceLabURL, contentHash, "MyApp-deleted.apk");
+
+        new AppUploadCache(cacheFile).removeUploadedFile(deviceLabURL, contentHash);
+
+        assertThat(new AppUploadCache(cacheFile).getUploadedFileName(deviceLabURL, contentHash)).isNull();
+    }
+
+    @Test
+    void getsAuthTokenAndUploadedFileNames () {
+        DeviceLabClient deviceLabClient = new DeviceLabClient(deviceLabURL, Duration.ZERO);
+
+        List<String> uploadedFileNames = DeviceLabClient.await(deviceLabClient.getAuthToken("user@example.com", "key-1")
+                .thenCompose(deviceLabClient::getUploadedFileNames));
+
+        assertThat(uploadedFileNames).containsExactly("MyApp-1.apk", "MyApp-2.apk");
+        assertThatThrownBy(() -> DeviceLabClient.await(deviceLabClient.getAuthToken("user@example.com", "wrong-key")))
+                .isInstanceOf(EnvironmentSetupException.class)
+                .hasMessageContaining("Unable to get auth token");
+    }
+
+    private static void respond (HttpExchange exchange, int statusCode, String response) throws IOException {
+        byte[] responseBytes = response.getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(statusCode, responseBytes.length);
+        try (OutputStream responseBody = exchange.getResponseBody()) {
+            responseBody.write(responseBytes);
+        }
+    }
+
+    private Path createApp (String fileName, String content) throws IOException {
+        return Files.write(tempDir.resolve(fileName), content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,138 @@
+package com.znsio.e2e.tools.grid;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import com.znsio.e2e.exceptions.EnvironmentSetupException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.openqa.selenium.chrome.ChromeOptions;
+import org.openqa.selenium.remote.RemoteWebDriver;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RemoteWebDriverFactoryTest {
+    private final List<StandInGrid> standInGrids = new ArrayList<>();
+
+    @AfterEach
+    void stopStandInGrids () {
+        standInGrids.forEach(standInGrid -> standInGrid.server.stop(0));
+    }
+
+    @Test
+    void sessionsAreCreatedOnTheEndpointWithTheFewestActiveSessions () {
+        StandInGrid firstGrid = startStandInGrid(true);
+        StandInGrid secondGrid = startStandInGrid(true);
+        RemoteWebDriverFactory factory = new RemoteWebDriverFactory(Arrays.asList(firstGrid.url, secondGrid.url), 3, Duration.ofMinutes(1));
+        GridEndpoint firstEndpoint = factory.getEndpoints().get(0);
+        GridEndpoint secondEndpoint = factory.getEndpoints().get(1);
+
+        RemoteWebDriver firstDriver = factory.create(new ChromeOptions());
+        factory.create(new ChromeOptions());
+        factory.create(new ChromeOptions());
+        assertThat(firstEndpoint.getActiveSessions()).isEqualTo(2);
+        assertThat(secondEndpoint.getActiveSessions()).isEqualTo(1);
+
+        firstDriver.quit();
+        assertThat(firstEndpoint.getActiveSessions()).isEqualTo(1);
+        factory.create(new ChromeOptions());
+
+        assertThat(firstGrid.newSessionRequests.get()).isEqualTo(3);
+        assertThat(secondGrid.newSessionRequests.get()).isEqualTo(1);
+        assertThat(firstEndpoint.getSessionsCreated()).isEqualTo(3);
+        assertThat(firstEndpoint.getSessionCreationLatency().getMax()).isPositive();
+        assertThat(factory.getSummary()).contains("Endpoint: '" + firstGrid.url + "': Active sessions: '2': Sessions created: '3': Failed: '0'");
+    }
+
+    @Test
+    void failingEndpointsAreSkippedAndQuarantined () {
+        StandInGrid failingGrid = startStandInGrid(false);
+        StandInGrid healthyGrid = startStandInGrid(true);
+        RemoteWebDriverFactory factory = new RemoteWebDriverFactory(Arrays.asList(failingGrid.url, healthyGrid.url), 2, Duration.ofHours(1));
+        GridEndpoint failingEndpoint = factory.getEndpoints().get(0);
+
+        for (int session = 0; session < 3; session++) {
+            factory.create(new ChromeOptions());
+        }
+
+        assertThat(failingGrid.newSessionRequests.get()).isEqualTo(2);
+        assertThat(failingEndpoint.getSessionCreationFailures()).isEqualTo(2);
+        assertThat(failingEndpoint.isQuarantined()).isTrue();
+        assertThat(failingEndpoint.getActiveSessions()).isZero();
+        assertThat(factory.getEndpoints().get(1).getActiveSessions()).isEqualTo(3);
+    }
+
+    @Test
+    void creationFailsWhenNoEndpointCanCreateTheSession () {
+        StandInGrid failingGrid = startStandInGrid(false);
+        RemoteWebDriverFactory factory = new RemoteWebDriverFactory(RemoteWebDriverFactory.parseEndpointUrls(failingGrid.url + ", "), 1, Duration.ofHours(1));
+
+        assertThatThrownBy(() -> factory.create(new ChromeOptions()))
+                .isInstanceOf(EnvironmentSetupException.class)
+                .hasMessageContaining(failingGrid.url.toString());
+        // a quarantined endpoint is still tried when there is no other endpoint
+        assertThatThrownBy(() -> factory.create(new ChromeOptions())).isInstanceOf(EnvironmentSetupException.class);
+        assertThat(failingGrid.newSessionRequests.get()).isEqualTo(2);
+        assertThat(factory.getEndpoints().get(0).getActiveSessions()).isZero();
+    }
+
+    private StandInGrid startStandInGrid (boolean canCreateSessions) {
+        try {
+            StandInGrid standInGrid = new StandInGrid(canCreateSessions);
+            standInGrids.add(standInGrid);
+            return standInGrid;
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to start stand-in grid", e);
+        }
+    }
+
+    private static class StandInGrid {
+        private final HttpServer server;
+        private final URL url;
+        private final AtomicInteger newSessionRequests = new AtomicInteger();
+        private final boolean canCreateSessions;
+
+        private StandInGrid (boolean canCreateSessions) throws IOException {
+            this.canCreateSessions = canCreateSessions;
+            server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+            server.createContext("/", this::handle);
+            server.start();
+            url = new URL("http://localhost:" + server.getAddress().getPort() + "/wd/hub");
+        }
+
+        private void handle (HttpExchange exchange) throws IOException {
+            exchange.getRequestBody().readAllBytes();
+            if ("POST".equals(exchange.getRequestMethod()) && exchange.getRequestURI().getPath().endsWith("/session")) {
+                newSessionRequests.incrementAndGet();
+                if (canCreateSessions) {
+                    respond(exchange, 200, "{\"value\": {\"sessionId\": \"" + UUID.randomUUID() + "\", \"capabilities\": {\"browserName\": \"chrome\"}}}");
+                } else {
+                    respond(exchange, 500, "{\"value\": {\"error\": \"session not created\", \"message\": \"No nodes available\", \"stacktrace\": \"\"}}");
+                }
+            } else {
+                respond(exchange, 200, "{\"value\": null}");
+            }
+        }
+
+        private static void respond (HttpExchange exchange, int status, String body) throws IOException {
+            byte[] response = body.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json; charset=utf-8");
+            exchange.sendResponseHeaders(status, response.length);
+            try (OutputStream responseBody = exchange.getResponseBody()) {
+                responseBody.write(response);
+            }
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.znsio.e2e.tools.metrics;
+
+import org.junit.jupiter.api.Test;
+import org.openqa.selenium.remote.Command;
+import org.openqa.selenium.remote.DriverCommand;
+import org.openqa.selenium.remote.Response;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CommandMetricsTest {
+    @Test
+    void instrumentedExecutorRecordsEveryCommandWithItsTags () throws IOException {
+        CommandMetrics commandMetrics = new CommandMetrics();
+        InstrumentedCommandExecutor executor = new InstrumentedCommandExecutor(command -> {
+            if (DriverCommand.QUIT.equals(command.getName())) {
+                throw new IOException("connection refused");
+            }
+            Response response = new Response();
+            response.setStatus(DriverCommand.CLICK_ELEMENT.equals(command.getName()) ? 7 : 0);
+            return response;
+        }, commandMetrics);
+        executor.onScreen("login");
+
+        executor.execute(new Command(null, DriverCommand.FIND_ELEMENT, Collections.emptyMap()));
+        executor.execute(new Command(null, DriverCommand.FIND_ELEMENT, Collections.emptyMap()));
+        executor.execute(new Command(null, DriverCommand.CLICK_ELEMENT, Collections.emptyMap()));
+        assertThatThrownBy(() -> executor.execute(new Command(null, DriverCommand.QUIT, Collections.emptyMap())))
+                .isInstanceOf(IOException.class);
+
+        StringWriter prometheusText = new StringWriter();
+        commandMetrics.writePrometheusText(prometheusText);
+
+        assertThat(commandMetrics.getNumberOfCommands()).isEqualTo(4);
+        assertThat(prometheusText.toString())
+                .contains("# TYPE e2e_driver_command_duration_seconds summary")
+                .contains("e2e_driver_command_duration_seconds_count{persona=\"unknown\",platform=\"unknown\",screen=\"login\",command=\"findElement\"} 2")
+                .contains("e2e_driver_command_failures_total{persona=\"unknown\",platform=\"unknown\",screen=\"login\",command=\"findElement\"} 0")
+                .contains("e2e_driver_command_failures_total{persona=\"unknown\",platform=\"unknown\",screen=\"login\",command=\"clickElement\"} 1")
+                .contains("e2e_driver_command_failures_total{persona=\"unknown\",platform=\"unknown\",screen=\"login\",command=\"quit\"} 1")
+                .contains("quantile=\"0.99\"");
+    }
+
+    @Test
+    void labelValuesAreEscaped () {
+        assertThat(CommandMetrics.escapeLabelValue("say \"hi\"\\\n")).isEqualTo("say \\\"hi\\\"\\\\\\n");
+    }
+}
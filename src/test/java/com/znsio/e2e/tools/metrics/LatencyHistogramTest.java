@@ -0,0 +1,37 @@
+package com.znsio.e2e.tools.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class LatencyHistogramTest {
+    @Test
+    void bucketsCoverEveryValueWithBoundedError () {
+        long[] values = {0, 1, 63, 64, 65, 127, 128, 1_000, 123_456_789, 1L << 40, Long.MAX_VALUE};
+        for (long value : values) {
+            int bucketIndex = LatencyHistogram.getBucketIndex(value);
+            long highestValueInBucket = LatencyHistogram.getHighestValueInBucket(bucketIndex);
+            assertThat(highestValueInBucket).isGreaterThanOrEqualTo(value);
+            assertThat((double) (highestValueInBucket - value)).isLessThanOrEqualTo(value / 32.0);
+            if (bucketIndex > 0) {
+                assertThat(LatencyHistogram.getHighestValueInBucket(bucketIndex - 1)).isLessThan(value);
+            }
+        }
+    }
+
+    @Test
+    void percentilesAreReportedWithinTheHistogramPrecision () {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long millis = 1; millis <= 1_000; millis++) {
+            histogram.record(millis * 1_000_000);
+        }
+
+        assertThat(histogram.getCount()).isEqualTo(1_000);
+        assertThat(histogram.getMin()).isEqualTo(1_000_000);
+        assertThat(histogram.getMax()).isEqualTo(1_000_000_000);
+        assertThat((double) histogram.getValueAtPercentile(50)).isCloseTo(500_000_000, within(500_000_000 * 0.035));
+        assertThat((double) histogram.getValueAtPercentile(99)).isCloseTo(990_000_000, within(990_000_000 * 0.035));
+        assertThat(histogram.getValueAtPercentile(100)).isEqualTo(1_000_000_000);
+    }
+}
@@ -0,0 +1,51 @@
+package com.znsio.e2e.tools.reports;
+
+import com.znsio.e2e.exceptions.InvalidTestDataException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CucumberJsonReportTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void backgroundAndHooksAreIncludedInTheScenarioResult () throws IOException {
+        Path report = Files.writeString(tempDir.resolve("cucumber-json-report.json"), "[{\"uri\":\"file:a.feature\",\"elements\":["
+                + "{\"type\":\"background\",\"line\":2,\"steps\":[{\"result\":{\"status\":\"passed\",\"duration\":1000000}}]},"
+                + "{\"type\":\"scenario\",\"name\":\"login\",\"line\":5,"
+                + "\"before\":[{\"result\":{\"status\":\"passed\",\"duration\":2000000}}],"
+                + "\"steps\":[{\"result\":{\"status\":\"passed\",\"duration\":3000000}},{\"result\":{\"status\":\"failed\",\"duration\":4000000}},{\"result\":{\"status\":\"skipped\"}}],"
+                + "\"after\":[{\"result\":{\"status\":\"passed\",\"duration\":5000000}}]},"
+                + "{\"type\":\"scenario\",\"name\":\"logout\",\"line\":9,\"steps\":[{\"result\":{\"status\":\"passed\",\"duration\":6000000}}]}"
+                + "]},{\"uri\":\"file:empty.feature\"}]");
+
+        List<ScenarioResult> scenarioResults = CucumberJsonReport.getScenarioResults(report);
+
+        assertThat(scenarioResults).extracting(ScenarioResult::getLocation).containsExactly("a.feature:5", "a.feature:9");
+        assertThat(scenarioResults.get(0).getDuration()).isEqualTo(Duration.ofMillis(15));
+        assertThat(scenarioResults.get(0).getStatus()).isEqualTo("failed");
+        assertThat(scenarioResults.get(0).isPassed()).isFalse();
+        assertThat(scenarioResults.get(1).getDuration())
+                .as("the background applies only to the scenario that follows it in the report")
+                .isEqualTo(Duration.ofMillis(6));
+        assertThat(scenarioResults.get(1).isPassed()).isTrue();
+    }
+
+    @Test
+    void unreadableReportIsReported () throws IOException {
+        Path report = Files.writeString(tempDir.resolve("cucumber-json-report.json"), "[{\"uri\":\"file:a.feature\",\"elements\":[");
+
+        assertThatThrownBy(() -> CucumberJsonReport.getScenarioResults(report))
+                .isInstanceOf(InvalidTestDataException.class)
+                .hasMessage("Unable to read cucumber json report: " + report);
+    }
+}
@@ -0,0 +1,77 @@
+package com.znsio.e2e.tools.reports;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FailedScenariosTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void failedScenariosAreRerunByFeatureAndLine () throws IOException {
+        Path report = writeReport("cucumber-json-report.json",
+                feature("a.feature", scenario("login", 9, "failed") + "," + scenario("search", 3, "passed") + "," + scenario("logout", 5, "undefined")),
+                feature("b.feature", scenario("checkout", 7, "failed")));
+
+        FailedScenarios failedScenarios = FailedScenarios.fromReport(report);
+
+        assertThat(failedScenarios.isEmpty()).isFalse();
+        assertThat(failedScenarios.getScenarios()).extracting(ScenarioResult::getName).containsExactly("login", "logout", "checkout");
+        assertThat(failedScenarios.getFeaturePathsWithLines()).containsExactly("a.feature:5:9", "b.feature:7");
+    }
+
+    @Test
+    void reportWithoutFailuresHasNoFailedScenarios () throws IOException {
+        Path report = writeReport("cucumber-json-report.json", feature("a.feature", scenario("search", 3, "passed")));
+
+        assertThat(FailedScenarios.fromReport(report).isEmpty()).isTrue();
+    }
+
+    @Test
+    void rerunResultsAreClassifiedAsConfirmedFlakyOrNotRerun () throws IOException {
+        FailedScenarios failedScenarios = FailedScenarios.fromReport(writeReport("cucumber-json-report.json",
+                feature("a.feature", scenario("login", 3, "failed") + "," + scenario("search", 5, "failed") + "," + scenario("logout", 7, "failed"))));
+        Path rerunReport = writeReport("rerun-cucumber-json-report.json",
+                feature("a.feature", scenario("login", 3, "failed") + "," + scenario("search", 5, "passed")));
+
+        String summary = failedScenarios.getRerunSummary(rerunReport);
+
+        assertThat(summary.split(System.lineSeparator())).containsExactly(
+                "Rerun of '3' failed scenarios: Confirmed failures: '1', Flaky: '1', Not rerun: '1'",
+                "\tConfirmed failure: a.feature:3 (login): failed in 1 ms",
+                "\tFlaky: a.feature:5 (search): passed in 1 ms",
+                "\tNot rerun: a.feature:7 (logout): failed in 1 ms");
+    }
+
+    @Test
+    void rerunSummaryIsSavedAndEveryScenarioIsNotRerunWithoutARerunReport () throws IOException {
+        FailedScenarios failedScenarios = FailedScenarios.fromReport(writeReport("cucumber-json-report.json",
+                feature("a.feature", scenario("login", 3, "failed"))));
+        Path summaryFile = tempDir.resolve("reports").resolve("rerun-summary.txt");
+
+        failedScenarios.saveRerunSummary(tempDir.resolve("missing.json"), summaryFile);
+
+        assertThat(Files.readString(summaryFile))
+                .startsWith("Rerun of '1' failed scenarios: Confirmed failures: '0', Flaky: '0', Not rerun: '1'")
+                .contains("\tNot rerun: a.feature:3 (login)");
+    }
+
+    private static String feature (String uri, String scenarios) {
+        return "{\"uri\":\"file:" + uri + "\",\"elements\":[" + scenarios + "]}";
+    }
+
+    private static String scenario (String name, int line, String status) {
+        return "{\"type\":\"scenario\",\"name\":\"" + name + "\",\"line\":" + line + ","
+                + "\"steps\":[{\"result\":{\"status\":\"" + status + "\",\"duration\":1000000}}]}";
+    }
+
+    private Path writeReport (String fileName, String... features) throws IOException {
+        return Files.writeString(tempDir.resolve(fileName), "[" + String.join(",", features) + "]");
+    }
+}
@@ -0,0 +1,90 @@
+package com.znsio.e2e.tools.reports;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReportMergerTest {
+    @TempDir
+    Path tempDir;
+
+    private Path createShardReports (String shardName, String scenarioName, boolean isSuccess, long finishedAtSeconds) throws IOException {
+        Path reports = tempDir.resolve(shardName).resolve("reports");
+        Files.createDirectories(reports.resolve(ReportMerger.TIMELINE_DIRECTORY));
+        Files.writeString(reports.resolve(ReportMerger.CUCUMBER_JSON_REPORT),
+                "[{\"uri\":\"file:a.feature\",\"elements\":[{\"name\":\"" + scenarioName + "\",\"line\":3,"
+                        + "\"steps\":[{\"result\":{\"status\":\"passed\",\"duration\":12},\"embeddings\":[{\"data\":\"aGVsbG8=\"}]}]}]}]");
+        Files.writeString(reports.resolve(ReportMerger.CUCUMBER_JUNIT_REPORT),
+                "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+                        + "<testsuite failures=\"" + (isSuccess ? 0 : 1) + "\" name=\"cucumber\" skipped=\"0\" errors=\"0\" tests=\"1\" time=\"1,000.5\">\n"
+                        + "<testcase classname=\"a\" name=\"" + scenarioName + "\" time=\"1000.5\"><system-out><![CDATA[ok]]></system-out></testcase>\n"
+                        + "</testsuite>\n");
+        Files.writeString(reports.resolve(ReportMerger.CUCUMBER_MESSAGES_REPORT),
+                "{\"meta\":{\"protocolVersion\":\"15.0.0\"}}\n"
+                        + "{\"source\":{\"uri\":\"file:a.feature\",\"data\":\"Feature: a\"}}\n"
+                        + "{\"gherkinDocument\":{\"uri\":\"file:a.feature\"}}\n"
+                        + "{\"source\":{\"uri\":\"file:" + shardName + ".feature\",\"data\":\"Feature: " + shardName + "\"}}\n"
+                        + "{\"testRunStarted\":{\"timestamp\":{\"seconds\":\"" + (finishedAtSeconds - 10) + "\"}}}\n"
+                        + "{\"testCaseStarted\":{\"id\":\"" + shardName + "\"}}\n"
+                        + "{\"testRunFinished\":{\"success\":" + isSuccess + ",\"timestamp\":{\"seconds\":\"" + finishedAtSeconds + "\"}}}\n");
+        Files.writeString(reports.resolve(ReportMerger.TIMELINE_DIRECTORY).resolve("index.html"), "<html/>");
+        Files.writeString(reports.resolve(ReportMerger.TIMELINE_DIRECTORY).resolve("report.js"),
+                "$(document).ready(function() {\n"
+                        + "CucumberHTML.timelineItems.pushArray([{\"id\":\"" + scenarioName + "\",\"scenario\":\"has ); and ] in it\",\"group\":1}]);\n"
+                        + "CucumberHTML.timelineGroups.pushArray([{\"id\":1,\"content\":\"Thread 1\"}]);\n"
+                        + "});");
+        return reports;
+    }
+
+    @Test
+    void reportsOfAllShardsAreMergedIntoOneReportSet () throws IOException {
+        Path shard0 = createShardReports("shard0", "first", true, 100);
+        Path shard1 = createShardReports("shard1", "second", false, 200);
+        Path merged = tempDir.resolve("merged");
+
+        ReportMerger.merge(List.of(shard0, shard1, tempDir.resolve("missing")), merged);
+
+        JsonArray features = JsonParser.parseString(Files.readString(merged.resolve(ReportMerger.CUCUMBER_JSON_REPORT))).getAsJsonArray();
+        assertThat(features).hasSize(2);
+        assertThat(CucumberJsonReport.getScenarioResults(merged.resolve(ReportMerger.CUCUMBER_JSON_REPORT)))
+                .extracting(ScenarioResult::getName)
+                .containsExactly("first", "second");
+
+        String junitReport = Files.readString(merged.resolve(ReportMerger.CUCUMBER_JUNIT_REPORT));
+        assertThat(junitReport).contains("tests=\"2\"", "failures=\"1\"", "time=\"2001.0\"", "name=\"first\"", "name=\"second\"", "ok");
+
+        List<String> messages = Files.readAllLines(merged.resolve(ReportMerger.CUCUMBER_MESSAGES_REPORT));
+        assertThat(messages).filteredOn(message -> message.startsWith("{\"meta\"")).hasSize(1);
+        assertThat(messages).filteredOn(message -> message.startsWith("{\"testRunStarted\"")).hasSize(1);
+        assertThat(messages).filteredOn(message -> message.startsWith("{\"source\"")).hasSize(3);
+        assertThat(messages).filteredOn(message -> message.startsWith("{\"gherkinDocument\"")).hasSize(1);
+        assertThat(messages).filteredOn(message -> message.startsWith("{\"testCaseStarted\"")).hasSize(2);
+        JsonObject testRunFinished = JsonParser.parseString(messages.get(messages.size() - 1)).getAsJsonObject().getAsJsonObject("testRunFinished");
+        assertThat(testRunFinished.get("success").getAsBoolean()).isFalse();
+        assertThat(testRunFinished.getAsJsonObject("timestamp").get("seconds").getAsString()).isEqualTo("200");
+
+        Path timeline = merged.resolve(ReportMerger.TIMELINE_DIRECTORY);
+        assertThat(timeline.resolve("index.html")).exists();
+        String timelineReport = Files.readString(timeline.resolve("report.js"));
+        assertThat(timelineReport)
+                .contains("\"group\":\"0-1\"", "\"group\":\"1-1\"", "\"id\":\"0-1\"", "\"id\":\"1-1\"", "shard1: Thread 1", "has ); and ] in it")
+                .endsWith("});\n");
+    }
+
+    @Test
+    void timelineWithoutAShardDirectoryIsNamedByItsIndex () {
+        Path timeline = tempDir.getRoot().resolve(ReportMerger.TIMELINE_DIRECTORY);
+
+        assertThat(ReportMerger.getShardName(timeline, 2)).isEqualTo("shard2");
+        assertThat(ReportMerger.getShardName(tempDir.resolve("shard1").resolve("reports").resolve(ReportMerger.TIMELINE_DIRECTORY), 1)).isEqualTo("shard1");
+    }
+}
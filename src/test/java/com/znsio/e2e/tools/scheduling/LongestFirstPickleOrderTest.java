@@ -0,0 +1,66 @@
+package com.znsio.e2e.tools.scheduling;
+
+import io.cucumber.core.gherkin.Pickle;
+import io.cucumber.plugin.event.Location;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LongestFirstPickleOrderTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void scenariosAreSortedLongestFirstKeepingTheOrderOfEqualDurations () {
+        Map<String, Duration> durations = Map.of("a", Duration.ofSeconds(1), "b", Duration.ofSeconds(3), "c", Duration.ofSeconds(1), "d", Duration.ofSeconds(2));
+
+        assertThat(LongestFirstPickleOrder.sortLongestFirst(List.of("a", "b", "c", "d"), durations::get)).containsExactly("b", "d", "a", "c");
+    }
+
+    @Test
+    void picklesAreOrderedByTheirRecordedDurations () throws IOException {
+        Path report = Files.writeString(tempDir.resolve("cucumber-json-report.json"), "[{\"uri\":\"file:a.feature\",\"elements\":["
+                + "{\"type\":\"scenario\",\"name\":\"short\",\"line\":3,\"steps\":[{\"result\":{\"status\":\"passed\",\"duration\":1000000000}}]},"
+                + "{\"type\":\"scenario\",\"name\":\"long\",\"line\":7,\"steps\":[{\"result\":{\"status\":\"passed\",\"duration\":9000000000}}]}"
+                + "]}]");
+        Path durationsFile = tempDir.resolve("scenarioDurations.json");
+        ScenarioDurations.load(durationsFile).recordRun(report);
+        Pickle shortPickle = pickle("short", 3);
+        Pickle longPickle = pickle("long", 7);
+
+        List<Pickle> orderedPickles = new LongestFirstPickleOrder(ScenarioDurations.load(durationsFile)).orderPickles(List.of(shortPickle, longPickle));
+
+        assertThat(orderedPickles).containsExactly(longPickle, shortPickle);
+    }
+
+    private static Pickle pickle (String name, int line) {
+        return (Pickle) Proxy.newProxyInstance(Pickle.class.getClassLoader(), new Class<?>[]{Pickle.class}, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "getName":
+                    return name;
+                case "getUri":
+                    return URI.create("file:a.feature");
+                case "getLocation":
+                    return new Location(line, 1);
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return name;
+                default:
+                    throw new UnsupportedOperationException(method.getName());
+            }
+        });
+    }
+}
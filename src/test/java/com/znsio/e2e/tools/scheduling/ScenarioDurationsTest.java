@@ -0,0 +1,58 @@
+package com.znsio.e2e.tools.scheduling;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ScenarioDurationsTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void durationsOfEarlierRunsAreSmoothed () throws IOException {
+        Path durationsFile = tempDir.resolve("scenarioDurations.json");
+
+        ScenarioDurations.load(durationsFile).recordRun(writeReport("run1.json", scenario("login", 5, 1000)));
+        ScenarioDurations.load(durationsFile).recordRun(writeReport("run2.json", scenario("login", 5, 2000)));
+
+        assertThat(ScenarioDurations.load(durationsFile).getEstimatedDuration("file:a.feature", 5, "login"))
+                .isEqualTo(Duration.ofMillis(1700));
+    }
+
+    @Test
+    void unknownScenarioIsEstimatedAsTheMedianDuration () throws IOException {
+        Path durationsFile = tempDir.resolve("scenarioDurations.json");
+        ScenarioDurations.load(durationsFile).recordRun(writeReport("run1.json",
+                scenario("fast", 5, 100) + "," + scenario("slow", 9, 300) + "," + scenario("medium", 13, 200)));
+
+        ScenarioDurations scenarioDurations = ScenarioDurations.load(durationsFile);
+
+        assertThat(scenarioDurations.getEstimatedDuration("file:a.feature", 40, "new scenario")).isEqualTo(Duration.ofMillis(200));
+        assertThat(scenarioDurations.getEstimatedDuration("file:a.feature", 41, "slow"))
+                .as("a scenario that moved in its feature file is found by name")
+                .isEqualTo(Duration.ofMillis(300));
+    }
+
+    @Test
+    void noDurationsAreAvailableWithoutADurationsFile () {
+        ScenarioDurations scenarioDurations = ScenarioDurations.load(tempDir.resolve("missing.json"));
+
+        assertThat(scenarioDurations.isEmpty()).isTrue();
+        assertThat(scenarioDurations.getEstimatedDuration("file:a.feature", 5, "login")).isEqualTo(Duration.ZERO);
+    }
+
+    private static String scenario (String name, int line, long durationInMillis) {
+        return "{\"type\":\"scenario\",\"name\":\"" + name + "\",\"line\":" + line + ","
+                + "\"steps\":[{\"result\":{\"status\":\"passed\",\"duration\":" + Duration.ofMillis(durationInMillis).toNanos() + "}}]}";
+    }
+
+    private Path writeReport (String fileName, String scenarios) throws IOException {
+        return Files.writeString(tempDir.resolve(fileName), "[{\"uri\":\"file:a.feature\",\"elements\":[" + scenarios + "]}]");
+    }
+}
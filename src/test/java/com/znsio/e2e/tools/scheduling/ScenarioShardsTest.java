@@ -0,0 +1,158 @@
+package com.znsio.e2e.tools.scheduling;
+
+import com.znsio.e2e.exceptions.InvalidTestDataException;
+import io.cucumber.core.gherkin.Pickle;
+import io.cucumber.core.order.StandardPickleOrders;
+import io.cucumber.plugin.event.Location;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ScenarioShardsTest {
+    private static final int SHARD_TOTAL = 3;
+
+    @TempDir
+    Path tempDir;
+
+    private static List<String> scenarioLocations () {
+        List<String> locations = new ArrayList<>();
+        for (int line = 1; line <= 30; line++) {
+            locations.add("src/test/resources/features/sample.feature:" + line);
+        }
+        return locations;
+    }
+
+    @Test
+    void everyScenarioIsAssignedToExactlyOneShardByHash () {
+        List<String> locations = scenarioLocations();
+        Set<String> assigned = new HashSet<>();
+        int numberOfAssignments = 0;
+        for (int shardIndex = 0; shardIndex < SHARD_TOTAL; shardIndex++) {
+            List<String> shard = ScenarioShards.select(locations, Function.identity(), null, location -> Duration.ZERO, shardIndex, SHARD_TOTAL);
+            assigned.addAll(shard);
+            numberOfAssignments += shard.size();
+            assertThat(ScenarioShards.select(locations, Function.identity(), null, location -> Duration.ZERO, shardIndex, SHARD_TOTAL))
+                    .isEqualTo(shard);
+        }
+
+        assertThat(assigned).containsExactlyInAnyOrderElementsOf(locations);
+        assertThat(numberOfAssignments).isEqualTo(locations.size());
+    }
+
+    @Test
+    void shardsAreBalancedByDuration () {
+        List<String> locations = List.of("a:1", "a:2", "a:3", "a:4", "a:5", "a:6");
+        List<Long> durationsInMinutes = List.of(30L, 20L, 10L, 10L, 10L, 10L);
+        Function<String, Duration> estimatedDuration = location -> Duration.ofMinutes(durationsInMinutes.get(locations.indexOf(location)));
+        List<Long> shardDurationsInMinutes = new ArrayList<>();
+        Set<String> assigned = new HashSet<>();
+        for (int shardIndex = 0; shardIndex < 2; shardIndex++) {
+            List<String> shard = ScenarioShards.selectByDuration(locations, Function.identity(), estimatedDuration, shardIndex, 2);
+            assigned.addAll(shard);
+            shardDurationsInMinutes.add(shard.stream().map(estimatedDuration).mapToLong(Duration::toMinutes).sum());
+        }
+
+        assertThat(assigned).containsExactlyInAnyOrderElementsOf(locations);
+        assertThat(shardDurationsInMinutes).containsExactly(50L, 40L);
+    }
+
+    @Test
+    void shardsWithDivergingLocalDurationsRunEveryScenarioExactlyOnce () throws IOException {
+        List<Pickle> pickles = pickles();
+        List<Pickle> run = new ArrayList<>();
+        for (int shardIndex = 0; shardIndex < SHARD_TOTAL; shardIndex++) {
+            ScenarioDurations localDurations = recordLocalDurations("shard" + shardIndex, shardIndex + 1);
+            ShardPickleOrder shardPickleOrder = new ShardPickleOrder(new LongestFirstPickleOrder(localDurations),
+                    ScenarioShards.loadSharedDurations(null), shardIndex, SHARD_TOTAL);
+            run.addAll(shardPickleOrder.orderPickles(pickles));
+        }
+
+        assertThat(run).containsExactlyInAnyOrderElementsOf(pickles);
+    }
+
+    @Test
+    void shardsWithTheSharedDurationsFileRunEveryScenarioExactlyOnce () throws IOException {
+        List<Pickle> pickles = pickles();
+        Path sharedDurationsFile = tempDir.resolve("shared").resolve("scenarioDurations.json");
+        Path report = writeReport("shared", line -> line * 1000L);
+        ScenarioDurations.main(new String[]{sharedDurationsFile.toString(), report.toString()});
+        List<Pickle> run = new ArrayList<>();
+        for (int shardIndex = 0; shardIndex < SHARD_TOTAL; shardIndex++) {
+            ShardPickleOrder shardPickleOrder = new ShardPickleOrder(StandardPickleOrders.lexicalUriOrder(),
+                    ScenarioShards.loadSharedDurations(sharedDurationsFile), shardIndex, SHARD_TOTAL);
+            run.addAll(shardPickleOrder.orderPickles(pickles));
+        }
+
+        assertThat(ScenarioShards.loadSharedDurations(sharedDurationsFile).isEmpty()).isFalse();
+        assertThat(run).containsExactlyInAnyOrderElementsOf(pickles);
+    }
+
+    @Test
+    void missingSharedDurationsFileFailsTheRun () {
+        Path sharedDurationsFile = tempDir.resolve("scenarioDurations.json");
+
+        assertThatThrownBy(() -> ScenarioShards.loadSharedDurations(sharedDurationsFile))
+                .isInstanceOf(InvalidTestDataException.class)
+                .hasMessageContaining("identical, on every shard");
+    }
+
+    private ScenarioDurations recordLocalDurations (String machine, long factor) throws IOException {
+        Path durationsFile = tempDir.resolve(machine).resolve("scenarioDurations.json");
+        ScenarioDurations.load(durationsFile).recordRun(writeReport(machine, line -> (line % 7) * factor * 1000L));
+        return ScenarioDurations.load(durationsFile);
+    }
+
+    private Path writeReport (String machine, Function<Integer, Long> durationInMillis) throws IOException {
+        String scenarios = pickles().stream()
+                .map(pickle -> String.format("{\"type\":\"scenario\",\"name\":\"%s\",\"line\":%d,\"steps\":[{\"result\":{\"status\":\"passed\",\"duration\":%d}}]}",
+                        pickle.getName(), pickle.getLocation().getLine(), durationInMillis.apply(pickle.getLocation().getLine()) * 1_000_000L))
+                .collect(Collectors.joining(","));
+        Path reportDirectory = Files.createDirectories(tempDir.resolve(machine).resolve("reports"));
+        return Files.writeString(reportDirectory.resolve("cucumber-json-report.json"),
+                "[{\"uri\":\"file:a.feature\",\"elements\":[" + scenarios + "]}]");
+    }
+
+    private static List<Pickle> pickles () {
+        List<Pickle> pickles = new ArrayList<>();
+        for (int line = 1; line <= 30; line++) {
+            pickles.add(pickle("scenario " + line, line));
+        }
+        return pickles;
+    }
+
+    private static Pickle pickle (String name, int line) {
+        return (Pickle) Proxy.newProxyInstance(Pickle.class.getClassLoader(), new Class<?>[]{Pickle.class}, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "getName":
+                    return name;
+                case "getUri":
+                    return URI.create("file:a.feature");
+                case "getLocation":
+                    return new Location(line, 1);
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return name;
+                default:
+                    throw new UnsupportedOperationException(method.getName());
+            }
+        });
+    }
+}
@@ -0,0 +1,86 @@
+package com.znsio.e2e.tools.testdata;
+
+import com.znsio.e2e.exceptions.InvalidTestDataException;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TestDataPoolTest {
+    private static TestDataPool poolOfUsers (int numberOfUsers) {
+        List<Map<String, Object>> users = new ArrayList<>();
+        for (int userNumber = 0; userNumber < numberOfUsers; userNumber++) {
+            users.add(Map.of("email", "user" + userNumber + "@example.com"));
+        }
+        return new TestDataPool("users", users);
+    }
+
+    @Test
+    void itemIsLeasedExclusivelyUntilReleased () {
+        TestDataPool pool = poolOfUsers(1);
+
+        TestDataLease lease = pool.tryLease();
+
+        assertThat(lease.get("email")).isEqualTo("user0@example.com");
+        assertThat(pool.tryLease()).isNull();
+        lease.release();
+        lease.release();
+        assertThat(pool.getNumberOfAvailableItems()).isEqualTo(1);
+        assertThat(pool.tryLease()).isNotNull();
+    }
+
+    @Test
+    void leaseTimesOutWhenPoolIsExhausted () {
+        TestDataPool pool = poolOfUsers(1);
+        pool.tryLease();
+
+        assertThatThrownBy(() -> pool.lease(Duration.ofMillis(50)))
+                .isInstanceOf(InvalidTestDataException.class)
+                .hasMessageContaining("users");
+    }
+
+    @Test
+    void concurrentScenariosNeverShareAnItem () throws Exception {
+        TestDataPool pool = poolOfUsers(4);
+        Set<String> inUse = ConcurrentHashMap.newKeySet();
+        AtomicInteger collisions = new AtomicInteger(0);
+        ExecutorService scenarios = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> results = new ArrayList<>();
+        for (int scenario = 0; scenario < 8; scenario++) {
+            results.add(scenarios.submit(() -> {
+                start.await();
+                for (int iteration = 0; iteration < 200; iteration++) {
+                    TestDataLease lease = pool.lease(Duration.ofSeconds(10));
+                    if (!inUse.add(lease.get("email"))) {
+                        collisions.incrementAndGet();
+                    }
+                    inUse.remove(lease.get("email"));
+                    lease.release();
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> result : results) {
+            result.get(30, TimeUnit.SECONDS);
+        }
+        scenarios.shutdown();
+
+        assertThat(collisions.get()).isZero();
+        assertThat(pool.getNumberOfAvailableItems()).isEqualTo(4);
+    }
+}
@@ -0,0 +1,52 @@
+package com.znsio.e2e.tools.testdata;
+
+import com.znsio.e2e.exceptions.InvalidTestDataException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TestDataPoolsTest {
+    private static final String TEST_DATA_FILE = "testData.json";
+
+    @AfterEach
+    void unloadPools () {
+        TestDataPools.load(Collections.emptyMap(), TEST_DATA_FILE);
+    }
+
+    @Test
+    void poolsAreLoadedFromThePoolsNode () {
+        TestDataPools.load(Map.of(TestDataPools.POOLS_NODE, Map.of("users", List.of(Map.of("email", "user1@example.com")))), TEST_DATA_FILE);
+
+        TestDataPool users = TestDataPools.getPool("users");
+
+        assertThat(users.size()).isEqualTo(1);
+        assertThat(users.tryLease().get("email")).isEqualTo("user1@example.com");
+    }
+
+    @Test
+    void itemThatIsNotAMapIsReportedWithItsFileAndIndex () {
+        Map<String, Object> testData = Map.of(TestDataPools.POOLS_NODE, Map.of("users", List.of(Map.of("email", "user1@example.com"), "user2@example.com")));
+
+        assertThatThrownBy(() -> TestDataPools.load(testData, TEST_DATA_FILE))
+                .isInstanceOf(InvalidTestDataException.class)
+                .hasMessage(String.format("Item: '1' of test data pool: 'users' in file: '%s' should be a map of key to value. Found: 'user2@example.com'", TEST_DATA_FILE));
+    }
+
+    @Test
+    void poolThatIsNotAListIsReported () {
+        Map<String, Object> testData = Map.of(TestDataPools.POOLS_NODE, Map.of("users", "user1@example.com"));
+
+        assertThatThrownBy(() -> TestDataPools.load(testData, TEST_DATA_FILE))
+                .isInstanceOf(InvalidTestDataException.class)
+                .hasMessage(String.format("Test data pool: 'users' in file: '%s' should be a list of items", TEST_DATA_FILE));
+        assertThatThrownBy(() -> TestDataPools.getPool("users"))
+                .isInstanceOf(InvalidTestDataException.class)
+                .hasMessageContaining("not found");
+    }
+}
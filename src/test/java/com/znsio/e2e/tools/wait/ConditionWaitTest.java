@@ -0,0 +1,114 @@
+package com.znsio.e2e.tools.wait;
+
+import org.junit.jupiter.api.Test;
+import org.openqa.selenium.NoSuchElementException;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriverException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ConditionWaitTest {
+    private final FakeClock clock = new FakeClock();
+    private final WaitStatistics waitStatistics = new WaitStatistics("scenario");
+
+    @Test
+    void pollingIntervalGrowsByTheBackoffMultiplierUpToTheMaximum () {
+        ConditionWait conditionWait = conditionWait(Duration.ofSeconds(10));
+        AtomicInteger attempts = new AtomicInteger();
+
+        String value = conditionWait.until("home", driver -> (attempts.incrementAndGet() < 6) ? null : "found");
+
+        assertThat(value).isEqualTo("found");
+        assertThat(clock.sleeps).containsExactly(100L, 200L, 400L, 500L, 500L);
+        assertThat(waitStatistics.getWaitTimeFor("home")).isEqualTo(Duration.ofMillis(1700));
+    }
+
+    @Test
+    void pollingIntervalOfOneMilliSecondGrows () {
+        ConditionWait conditionWait = new ConditionWait(null, Duration.ofSeconds(10), Duration.ofMillis(1), Duration.ofMillis(10), 1.5, waitStatistics, clock);
+        AtomicInteger attempts = new AtomicInteger();
+
+        conditionWait.until("home", driver -> (attempts.incrementAndGet() < 8) ? null : "found");
+
+        assertThat(clock.sleeps).containsExactly(1L, 2L, 3L, 5L, 8L, 10L, 10L);
+    }
+
+    @Test
+    void falseIsNotMetAndIgnoredExceptionsAreRetried () {
+        ConditionWait conditionWait = conditionWait(Duration.ofSeconds(10));
+        AtomicInteger attempts = new AtomicInteger();
+
+        Boolean value = conditionWait.until("home", driver -> {
+            switch (attempts.incrementAndGet()) {
+                case 1:
+                    throw new NoSuchElementException("not yet");
+                case 2:
+                    throw new StaleElementReferenceException("stale");
+                case 3:
+                    return false;
+                default:
+                    return true;
+            }
+        });
+
+        assertThat(value).isTrue();
+        assertThat(attempts.get()).isEqualTo(4);
+    }
+
+    @Test
+    void timeoutIsReportedWithTheLastIgnoredExceptionAndTheLastSleepIsCappedAtTheDeadline () {
+        ConditionWait conditionWait = conditionWait(Duration.ofMillis(1000));
+
+        assertThatThrownBy(() -> conditionWait.until("login", driver -> {
+            throw new NoSuchElementException("missing");
+        }))
+                .isInstanceOf(TimeoutException.class)
+                .hasMessageContaining("Screen: 'login': Condition not met within '1000' ms")
+                .hasCauseInstanceOf(NoSuchElementException.class);
+        assertThat(clock.sleeps).containsExactly(100L, 200L, 400L, 300L);
+        assertThat(waitStatistics.getWaitTimeFor("login")).isEqualTo(Duration.ofMillis(1000));
+    }
+
+    @Test
+    void otherExceptionsAreNotIgnored () {
+        ConditionWait conditionWait = conditionWait(Duration.ofSeconds(10));
+
+        assertThatThrownBy(() -> conditionWait.until("home", driver -> {
+            throw new WebDriverException("session deleted");
+        })).isInstanceOf(WebDriverException.class).isNotInstanceOf(TimeoutException.class);
+        assertThat(clock.sleeps).isEmpty();
+    }
+
+    @Test
+    void backoffMultiplierBelowOneIsRejected () {
+        assertThatThrownBy(() -> new ConditionWait(null, Duration.ofSeconds(1), Duration.ofMillis(100), Duration.ofMillis(500), 0.5, null))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private ConditionWait conditionWait (Duration timeout) {
+        return new ConditionWait(null, timeout, Duration.ofMillis(100), Duration.ofMillis(500), 2, waitStatistics, clock);
+    }
+
+    private static class FakeClock implements ConditionWait.WaitClock {
+        private final List<Long> sleeps = new ArrayList<>();
+        private long nanoTime = 0;
+
+        @Override
+        public long nanoTime () {
+            return nanoTime;
+        }
+
+        @Override
+        public void sleep (long millis) {
+            sleeps.add(millis);
+            nanoTime += Duration.ofMillis(millis).toNanos();
+        }
+    }
+}